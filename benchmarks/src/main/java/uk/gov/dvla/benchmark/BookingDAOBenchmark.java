@@ -0,0 +1,87 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.persistence.BookingDAO;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every BookingDAO query over each booking store and dataset size.
+ * Range queries cover one week.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BookingDAOBenchmark {
+
+    private BookingDataGenerator.Dataset dataset;
+    private BookingDAO bookingDAO;
+
+    @Setup(Level.Trial)
+    public void setUp(LoadedStores stores) {
+        dataset = stores.dataset;
+        bookingDAO = stores.bookingDAO;
+    }
+
+    @Benchmark
+    public Optional<Booking> findById() {
+        return bookingDAO.findById(dataset.randomBooking(random()).getId());
+    }
+
+    @Benchmark
+    public List<Booking> findAll() {
+        return bookingDAO.findAll();
+    }
+
+    @Benchmark
+    public int count() {
+        return bookingDAO.count();
+    }
+
+    @Benchmark
+    public List<Booking> findByDate() {
+        return bookingDAO.findByDate(dataset.randomDate(random()));
+    }
+
+    @Benchmark
+    public List<Booking> findByCustomerId() {
+        return bookingDAO.findByCustomerId(dataset.randomCustomer(random()).getId());
+    }
+
+    @Benchmark
+    public List<Booking> findByDateRange() {
+        LocalDate start = dataset.randomDate(random());
+        return bookingDAO.findByDateRange(start, start.plusDays(6));
+    }
+
+    @Benchmark
+    public int countByDateRange() {
+        LocalDate start = dataset.randomDate(random());
+        return bookingDAO.countByDateRange(start, start.plusDays(6));
+    }
+
+    @Benchmark
+    public int[] findCustomerIdsByDateRange() {
+        LocalDate start = dataset.randomDate(random());
+        return bookingDAO.findCustomerIdsByDateRange(start, start.plusDays(6));
+    }
+
+    @Benchmark
+    public void updateBookingDate() {
+        Random random = random();
+        bookingDAO.updateBookingDate(dataset.randomBooking(random).getId(), dataset.randomDate(random));
+    }
+
+    private static Random random() {
+        return ThreadLocalRandom.current();
+    }
+}
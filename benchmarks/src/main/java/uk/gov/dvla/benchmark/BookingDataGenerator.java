@@ -0,0 +1,154 @@
+package uk.gov.dvla.benchmark;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seedable generator of synthetic customers and bookings.
+ * Customers are on 4-week (most) or 8-week cycles starting at a random point, each visit
+ * drifts by up to two days either side, and visits never fall on a Sunday. Window counts
+ * cluster around typical house sizes. The same seed always produces the same data.
+ */
+public final class BookingDataGenerator {
+
+    private static final String[] FIRST_NAMES = {
+            "Olivia", "Amelia", "Isla", "Ava", "Mia", "Ivy", "Lily", "Isabella", "Rosie", "Sophia",
+            "Noah", "Oliver", "George", "Arthur", "Muhammad", "Leo", "Harry", "Oscar", "Archie", "Henry"
+    };
+    private static final String[] LAST_NAMES = {
+            "Smith", "Jones", "Williams", "Taylor", "Davies", "Evans", "Thomas", "Johnson", "Roberts", "Walker",
+            "Wright", "Robinson", "Thompson", "White", "Hughes", "Edwards", "Green", "Hall", "Wood", "Harris"
+    };
+    private static final int[] WINDOW_COUNTS = {4, 6, 8, 8, 10, 10, 10, 12, 12, 14, 16, 20, 30};
+
+    /**
+     * Average number of visits a customer has over the generated period.
+     */
+    private static final int AVERAGE_VISITS_PER_CUSTOMER = 20;
+
+    private final long seed;
+
+    /**
+     * Constructor for BookingDataGenerator class.
+     *
+     * @param seed the random seed
+     */
+    public BookingDataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Generates a dataset.
+     *
+     * @param bookingCount the number of bookings to generate
+     * @param firstDate    the earliest booking date
+     * @param days         the number of days the bookings are spread over
+     * @return customers and their bookings, bookings in id order
+     */
+    public Dataset generate(int bookingCount, LocalDate firstDate, int days) {
+        Random random = new Random(seed);
+        int customerCount = Math.max(1, bookingCount / AVERAGE_VISITS_PER_CUSTOMER);
+
+        List<Customer> customers = new ArrayList<>(customerCount);
+        int[] intervals = new int[customerCount];
+        int[] nextVisit = new int[customerCount];
+        for (int i = 0; i < customerCount; i++) {
+            int id = i + 1;
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + id;
+            customers.add(new Customer(id, name, WINDOW_COUNTS[random.nextInt(WINDOW_COUNTS.length)]));
+            intervals[i] = random.nextInt(10) < 8 ? 28 : 56;
+            nextVisit[i] = random.nextInt(intervals[i]);
+        }
+
+        List<Booking> bookings = new ArrayList<>(bookingCount);
+        int customer = 0;
+        while (bookings.size() < bookingCount) {
+            int day = nextVisit[customer] + random.nextInt(5) - 2;
+            nextVisit[customer] += intervals[customer];
+            // customers whose cycle has run past the period start again from a random point
+            if (nextVisit[customer] >= days) {
+                nextVisit[customer] = random.nextInt(intervals[customer]);
+            }
+
+            LocalDate date = firstDate.plusDays(Math.floorMod(day, days));
+            if (date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                date = date.plusDays(1);
+            }
+            bookings.add(new Booking(bookings.size() + 1, customer + 1, date));
+            customer = (customer + 1) % customerCount;
+        }
+
+        return new Dataset(customers, bookings, firstDate, days);
+    }
+
+    /**
+     * Generated customers and bookings.
+     */
+    public static final class Dataset {
+
+        private final List<Customer> customers;
+        private final List<Booking> bookings;
+        private final LocalDate firstDate;
+        private final int days;
+
+        private Dataset(List<Customer> customers, List<Booking> bookings, LocalDate firstDate, int days) {
+            this.customers = customers;
+            this.bookings = bookings;
+            this.firstDate = firstDate;
+            this.days = days;
+        }
+
+        public List<Customer> getCustomers() {
+            return customers;
+        }
+
+        public List<Booking> getBookings() {
+            return bookings;
+        }
+
+        public LocalDate getFirstDate() {
+            return firstDate;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        /**
+         * Returns a uniformly random date within the generated period.
+         *
+         * @param random the source of randomness
+         * @return a date
+         */
+        public LocalDate randomDate(Random random) {
+            return firstDate.plusDays(random.nextInt(days));
+        }
+
+        /**
+         * Returns a uniformly random customer.
+         *
+         * @param random the source of randomness
+         * @return a customer
+         */
+        public Customer randomCustomer(Random random) {
+            return customers.get(random.nextInt(customers.size()));
+        }
+
+        /**
+         * Returns a uniformly random booking.
+         *
+         * @param random the source of randomness
+         * @return a booking
+         */
+        public Booking randomBooking(Random random) {
+            return bookings.get(random.nextInt(bookings.size()));
+        }
+    }
+}
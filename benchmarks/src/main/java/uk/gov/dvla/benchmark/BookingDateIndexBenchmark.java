@@ -0,0 +1,90 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.persistence.BookingDAOImpl;
+import uk.gov.dvla.persistence.PartitionedBookingDAOImpl;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the date index in BookingDAOImpl against the full map scan it replaced,
+ * and against the monthly partitions of PartitionedBookingDAOImpl.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class BookingDateIndexBenchmark {
+
+    /**
+     * Number of days the generated bookings are spread over.
+     */
+    private static final int DAYS = 3 * 365;
+
+    @Param({"10000", "1000000", "10000000"})
+    private int bookingCount;
+
+    private final Map<Integer, Booking> scanBookings = new HashMap<>();
+    private final BookingDAOImpl indexedBookings = new BookingDAOImpl();
+    private final PartitionedBookingDAOImpl partitionedBookings = new PartitionedBookingDAOImpl();
+    private LocalDate firstDate;
+    private LocalDate queryDate;
+    private LocalDate rangeEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        firstDate = LocalDate.of(2026, 1, 1);
+        queryDate = firstDate.plusDays(DAYS / 2);
+        rangeEnd = queryDate.plusDays(30);
+
+        for (int id = 1; id <= bookingCount; id++) {
+            Booking booking = new Booking(id, 1 + random.nextInt(1000), firstDate.plusDays(random.nextInt(DAYS)));
+            scanBookings.put(id, booking);
+            indexedBookings.save(booking);
+            partitionedBookings.save(new Booking(booking.getId(), booking.getCustomerId(), booking.getBookingDate()));
+        }
+    }
+
+    @Benchmark
+    public List<Booking> findByDateScan() {
+        return scanBookings.values().stream()
+                .filter(booking -> booking.getBookingDate().equals(queryDate))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Booking> findByDateIndexed() {
+        return indexedBookings.findByDate(queryDate);
+    }
+
+    @Benchmark
+    public List<Booking> findByDateRangeScan() {
+        return scanBookings.values().stream()
+                .filter(booking -> !booking.getBookingDate().isBefore(queryDate) && !booking.getBookingDate().isAfter(rangeEnd))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Booking> findByDateRangeIndexed() {
+        return indexedBookings.findByDateRange(queryDate, rangeEnd);
+    }
+
+    @Benchmark
+    public List<Booking> findByDatePartitioned() {
+        return partitionedBookings.findByDate(queryDate);
+    }
+
+    @Benchmark
+    public List<Booking> findByDateRangePartitioned() {
+        return partitionedBookings.findByDateRange(queryDate, rangeEnd);
+    }
+}
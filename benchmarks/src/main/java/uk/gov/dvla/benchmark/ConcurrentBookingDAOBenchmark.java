@@ -0,0 +1,125 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.BookingDAOImpl;
+import uk.gov.dvla.persistence.ConcurrentBookingDAOImpl;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mixed read/write throughput of ConcurrentBookingDAOImpl against a BookingDAOImpl
+ * shared behind a single lock, the only safe way to share the plain implementation.
+ * Run with -t 1, -t 2, -t 4 ... to see how each scales with threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ConcurrentBookingDAOBenchmark {
+
+    private static final int DAYS = 365;
+    private static final int PRELOADED_BOOKINGS = 100_000;
+
+    @Param({"concurrent", "synchronized"})
+    private String implementation;
+
+    private BookingDAO bookingDAO;
+    private final AtomicInteger nextId = new AtomicInteger(PRELOADED_BOOKINGS);
+    private final LocalDate firstDate = LocalDate.of(2026, 1, 1);
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        bookingDAO = "concurrent".equals(implementation)
+                ? new ConcurrentBookingDAOImpl()
+                : new SynchronizedBookingDAO(new BookingDAOImpl());
+        nextId.set(PRELOADED_BOOKINGS);
+
+        Random random = new Random(42);
+        for (int id = 1; id <= PRELOADED_BOOKINGS; id++) {
+            bookingDAO.save(new Booking(id, 1 + random.nextInt(1000), firstDate.plusDays(random.nextInt(DAYS))));
+        }
+    }
+
+    @Benchmark
+    public void save() {
+        int id = nextId.incrementAndGet();
+        bookingDAO.save(new Booking(id, 1 + id % 1000, firstDate.plusDays(id % DAYS)));
+    }
+
+    @Benchmark
+    public List<Booking> findByDate() {
+        return bookingDAO.findByDate(firstDate.plusDays(ThreadLocalRandom.current().nextInt(DAYS)));
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(3)
+    public List<Booking> readMostlyFindByCustomerId() {
+        return bookingDAO.findByCustomerId(1 + ThreadLocalRandom.current().nextInt(1000));
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(1)
+    public void readMostlySave() {
+        save();
+    }
+
+    /**
+     * BookingDAO wrapper that serialises every call on one lock.
+     */
+    private static final class SynchronizedBookingDAO implements BookingDAO {
+
+        private final BookingDAO delegate;
+
+        private SynchronizedBookingDAO(BookingDAO delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void save(Booking booking) {
+            delegate.save(booking);
+        }
+
+        @Override
+        public synchronized void updateBookingDate(int bookingId, LocalDate date) {
+            delegate.updateBookingDate(bookingId, date);
+        }
+
+        @Override
+        public synchronized Optional<Booking> findById(int bookingId) {
+            return delegate.findById(bookingId);
+        }
+
+        @Override
+        public synchronized List<Booking> findAll() {
+            return delegate.findAll();
+        }
+
+        @Override
+        public synchronized List<Booking> findByDate(LocalDate date) {
+            return delegate.findByDate(date);
+        }
+
+        @Override
+        public synchronized List<Booking> findByCustomerId(int customerId) {
+            return delegate.findByCustomerId(customerId);
+        }
+
+        @Override
+        public synchronized List<Booking> findByDateRange(LocalDate startDate, LocalDate endDate) {
+            return delegate.findByDateRange(startDate, endDate);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.persistence.CustomerDAO;
+import uk.gov.dvla.util.IntObjectHashMap;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every CustomerDAO query over each customer store and dataset size.
+ * The customer store follows the booking store parameter, so hashmap and columnar both use CustomerDAOImpl.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CustomerDAOBenchmark {
+
+    /**
+     * Number of ids passed to each findAllByIds call, about one busy day of bookings.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    private BookingDataGenerator.Dataset dataset;
+    private CustomerDAO customerDAO;
+
+    @Setup(Level.Trial)
+    public void setUp(LoadedStores stores) {
+        dataset = stores.dataset;
+        customerDAO = stores.customerDAO;
+    }
+
+    @Benchmark
+    public Optional<Customer> findById() {
+        return customerDAO.findById(dataset.randomCustomer(random()).getId());
+    }
+
+    @Benchmark
+    public List<Customer> findAll() {
+        return customerDAO.findAll();
+    }
+
+    @Benchmark
+    public List<Customer> findByName() {
+        return customerDAO.findByName(dataset.randomCustomer(random()).getName());
+    }
+
+    @Benchmark
+    public int resolveIdByName() {
+        return customerDAO.resolveIdByName(dataset.randomCustomer(random()).getName());
+    }
+
+    @Benchmark
+    public IntObjectHashMap<Customer> findAllByIds() {
+        Random random = random();
+        int[] ids = new int[BATCH_SIZE];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = dataset.randomCustomer(random).getId();
+        }
+        return customerDAO.findAllByIds(ids);
+    }
+
+    @Benchmark
+    public void updateWindows() {
+        Random random = random();
+        customerDAO.updateWindows(dataset.randomCustomer(random).getId(), 4 + random.nextInt(20));
+    }
+
+    private static Random random() {
+        return ThreadLocalRandom.current();
+    }
+}
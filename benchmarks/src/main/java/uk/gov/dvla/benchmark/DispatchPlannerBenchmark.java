@@ -0,0 +1,71 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.DispatchPlan;
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.CustomerDAO;
+import uk.gov.dvla.service.DispatchPlanner;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures planning crew assignments for one day and for a whole week planned in parallel,
+ * with thousands of bookings on each day.
+ * The crews have room for about 90% of each day's windows, so the packing also fills crews
+ * up and leaves bookings over.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class DispatchPlannerBenchmark {
+
+    @Param({"1000", "5000"})
+    private int bookingsPerDay;
+
+    @Param({"20"})
+    private int crews;
+
+    private DispatchPlanner planner;
+    private LocalDate firstDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // the generator books no one on Sundays, so start on a Monday
+        firstDate = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        BookingDataGenerator.Dataset dataset = new BookingDataGenerator(LoadedStores.SEED)
+                .generate(bookingsPerDay * DispatchPlanner.DAYS_PER_WEEK, firstDate, DispatchPlanner.DAYS_PER_WEEK);
+
+        BookingDAO bookingDAO = Stores.bookingDAO(Stores.CONCURRENT);
+        CustomerDAO customerDAO = Stores.customerDAO(Stores.CONCURRENT);
+        for (Customer customer : dataset.getCustomers()) {
+            customerDAO.save(customer);
+        }
+        long windows = 0;
+        for (Booking booking : dataset.getBookings()) {
+            bookingDAO.save(booking);
+            windows += customerDAO.findById(booking.getCustomerId()).orElseThrow().getWindows();
+        }
+
+        int crewCapacity = (int) (windows * 9 / 10 / DispatchPlanner.DAYS_PER_WEEK / crews);
+        planner = new DispatchPlanner(bookingDAO, customerDAO, crews, crewCapacity);
+    }
+
+    @Benchmark
+    public DispatchPlan planDay() {
+        return planner.planDay(firstDate);
+    }
+
+    @Benchmark
+    public List<DispatchPlan> planWeek() {
+        return planner.planWeek(firstDate);
+    }
+}
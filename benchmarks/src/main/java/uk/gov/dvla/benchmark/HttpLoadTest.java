@@ -0,0 +1,135 @@
+package uk.gov.dvla.benchmark;
+
+import uk.gov.dvla.http.BookingHttpServer;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.persistence.ConcurrentBookingDAOImpl;
+import uk.gov.dvla.persistence.ConcurrentCustomerDAOImpl;
+import uk.gov.dvla.service.WindowCleaningServiceImpl;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load test of BookingHttpServer, showing how throughput and tail latency scale
+ * with the number of concurrent clients. Each client sends a mix of booking lookups, day
+ * listings and day costs back to back over keep-alive connections.
+ * Not a JMH benchmark: run it directly against a server in the same JVM.
+ * Usage: java -cp benchmarks/target/benchmarks.jar uk.gov.dvla.benchmark.HttpLoadTest [bookingCount] [seconds]
+ */
+public final class HttpLoadTest {
+
+    private static final int[] CONCURRENCY = {1, 8, 64, 256};
+
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // BookingHttpServer leaves TCP_NODELAY to the launcher; set before the server is created
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        int bookingCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        BookingDataGenerator.Dataset dataset = new BookingDataGenerator(LoadedStores.SEED)
+                .generate(bookingCount, LocalDate.now().plusDays(1), LoadedStores.DAYS);
+        WindowCleaningServiceImpl service = new WindowCleaningServiceImpl(new ConcurrentBookingDAOImpl(), new ConcurrentCustomerDAOImpl());
+        for (Customer customer : dataset.getCustomers()) {
+            service.addCustomer(customer);
+        }
+        for (Booking booking : dataset.getBookings()) {
+            service.addBooking(booking);
+        }
+
+        try (BookingHttpServer server = BookingHttpServer.start(service, new InetSocketAddress("localhost", 0))) {
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            String base = "http://localhost:" + server.getPort();
+
+            run(client, base, dataset, 8, Math.max(1, seconds / 2));
+            System.out.printf("%12s %14s %12s %12s%n", "concurrency", "requests/s", "p50 (ms)", "p99 (ms)");
+            for (int concurrency : CONCURRENCY) {
+                long[] latencies = run(client, base, dataset, concurrency, seconds);
+                System.out.printf("%12d %14.0f %12.3f %12.3f%n", concurrency, (double) latencies.length / seconds,
+                        percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6);
+            }
+        }
+    }
+
+    /**
+     * Runs clients for a fixed time.
+     *
+     * @return the sorted latency of every completed request in nanoseconds
+     */
+    private static long[] run(HttpClient client, String base, BookingDataGenerator.Dataset dataset,
+                              int concurrency, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int c = 0; c < concurrency; c++) {
+            Random random = new Random(LoadedStores.SEED + c);
+            results.add(clients.submit(() -> client(client, base, dataset, random, deadline)));
+        }
+
+        List<long[]> perClient = new ArrayList<>();
+        int total = 0;
+        for (Future<long[]> result : results) {
+            long[] latencies = result.get();
+            perClient.add(latencies);
+            total += latencies.length;
+        }
+        clients.shutdown();
+
+        long[] latencies = new long[total];
+        int position = 0;
+        for (long[] clientLatencies : perClient) {
+            System.arraycopy(clientLatencies, 0, latencies, position, clientLatencies.length);
+            position += clientLatencies.length;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static long[] client(HttpClient client, String base, BookingDataGenerator.Dataset dataset,
+                                 Random random, long deadline) throws Exception {
+        long[] latencies = new long[1024];
+        int count = 0;
+        while (System.nanoTime() < deadline) {
+            int pick = random.nextInt(10);
+            String path = pick < 6 ? "/bookings/" + dataset.randomBooking(random).getId()
+                    : pick < 9 ? "/bookings?date=" + dataset.randomDate(random)
+                    : "/totals/cost?date=" + dataset.randomDate(random);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + path)).build();
+
+            long start = System.nanoTime();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            long latency = System.nanoTime() - start;
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Unexpected status " + response.statusCode() + " for " + path);
+            }
+
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static long percentile(long[] sortedLatencies, double fraction) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        return sortedLatencies[(int) Math.min(sortedLatencies.length - 1, (long) (sortedLatencies.length * fraction))];
+    }
+}
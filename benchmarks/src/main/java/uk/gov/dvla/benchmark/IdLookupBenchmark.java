@@ -0,0 +1,49 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.util.IntObjectHashMap;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares id lookups in a boxed HashMap against IntObjectHashMap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class IdLookupBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int bookingCount;
+
+    private final Map<Integer, Booking> boxedBookings = new HashMap<>();
+    private final IntObjectHashMap<Booking> primitiveBookings = new IntObjectHashMap<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDate date = LocalDate.of(2026, 1, 1);
+        for (int id = 1; id <= bookingCount; id++) {
+            Booking booking = new Booking(id, id % 1000 + 1, date);
+            boxedBookings.put(id, booking);
+            primitiveBookings.put(id, booking);
+        }
+    }
+
+    @Benchmark
+    public Booking findByIdBoxed() {
+        return boxedBookings.get(1 + ThreadLocalRandom.current().nextInt(bookingCount));
+    }
+
+    @Benchmark
+    public Booking findByIdPrimitive() {
+        return primitiveBookings.get(1 + ThreadLocalRandom.current().nextInt(bookingCount));
+    }
+}
@@ -0,0 +1,80 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.metrics.InstrumentedBookingDAO;
+import uk.gov.dvla.metrics.InstrumentedCustomerDAO;
+import uk.gov.dvla.metrics.InstrumentedWindowCleaningService;
+import uk.gov.dvla.metrics.MetricsRegistry;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.service.WindowCleaningService;
+import uk.gov.dvla.service.WindowCleaningServiceImpl;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost the metrics decorators add to cheap service calls, with the service and
+ * both DAOs instrumented against the same calls uninstrumented.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class InstrumentationOverheadBenchmark {
+
+    @Param({"false", "true"})
+    private boolean instrumented;
+
+    private LoadedStores stores;
+    private WindowCleaningService service;
+    private MetricsRegistry registry;
+    private final Random random = new Random(LoadedStores.SEED);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stores = new LoadedStores();
+        stores.bookingCount = 100_000;
+        stores.store = Stores.CONCURRENT;
+        stores.setUp();
+
+        if (instrumented) {
+            registry = new MetricsRegistry("benchmark");
+            service = new InstrumentedWindowCleaningService(new WindowCleaningServiceImpl(
+                    new InstrumentedBookingDAO(stores.bookingDAO, registry),
+                    new InstrumentedCustomerDAO(stores.customerDAO, registry)), registry);
+        } else {
+            service = new WindowCleaningServiceImpl(stores.bookingDAO, stores.customerDAO);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (registry != null) {
+            registry.close();
+        }
+    }
+
+    @Benchmark
+    public Booking getBookingByBookingId() {
+        return service.getBookingByBookingId(stores.dataset.randomBooking(random).getId());
+    }
+
+    @Benchmark
+    public int getTotalCostForBooking() {
+        return service.getTotalCostForBooking(stores.dataset.randomBooking(random).getId());
+    }
+
+    @Benchmark
+    public List<Booking> getAllBookingsForDate() {
+        return service.getAllBookingsForDate(stores.dataset.randomDate(random));
+    }
+
+    @Benchmark
+    public int getTotalCostForDate() {
+        return service.getTotalCostForDate(stores.dataset.randomDate(random));
+    }
+}
@@ -0,0 +1,60 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.persistence.ConcurrentBookingDAOImpl;
+import uk.gov.dvla.persistence.ConcurrentCustomerDAOImpl;
+import uk.gov.dvla.persistence.journal.JournalOptions;
+import uk.gov.dvla.persistence.journal.JournaledStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures journaled save throughput with eight writers, with and without fsync and for
+ * different group commit delays, to show how batching keeps throughput up under load.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(8)
+public class JournaledSaveBenchmark {
+
+    @Param({"true", "false"})
+    private boolean fsync;
+
+    @Param({"0", "500"})
+    private long maxBatchDelayMicros;
+
+    private final AtomicInteger nextId = new AtomicInteger();
+    private Path directory;
+    private JournaledStore store;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        store = JournaledStore.open(directory.resolve("bookings.journal"),
+                new ConcurrentBookingDAOImpl(), new ConcurrentCustomerDAOImpl(),
+                JournalOptions.builder().fsync(fsync).maxBatchDelayMicros(maxBatchDelayMicros).build());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        store.close();
+        Files.deleteIfExists(directory.resolve("bookings.journal"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void save() {
+        int id = nextId.incrementAndGet();
+        store.getBookingDAO().save(new Booking(id, id % 1000 + 1, LocalDate.of(2026, 1, 1).plusDays(id % 365)));
+    }
+}
@@ -0,0 +1,56 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.CustomerDAO;
+
+import java.time.LocalDate;
+
+/**
+ * DAOs loaded with a generated dataset, shared by the benchmarks in this package.
+ * The dataset starts tomorrow so that generated bookings also pass service validation.
+ */
+@State(Scope.Benchmark)
+public class LoadedStores {
+
+    /**
+     * Seed for the generated data, fixed so every run and fork sees the same dataset.
+     */
+    static final long SEED = 20240601L;
+    /**
+     * Number of days the generated bookings are spread over.
+     */
+    static final int DAYS = 365;
+
+    @Param({"10000", "100000", "1000000"})
+    public int bookingCount;
+
+    @Param({Stores.HASH_MAP, Stores.CONCURRENT, Stores.COLUMNAR, Stores.PARTITIONED})
+    public String store;
+
+    public BookingDataGenerator.Dataset dataset;
+    public BookingDAO bookingDAO;
+    public CustomerDAO customerDAO;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataset = new BookingDataGenerator(SEED).generate(bookingCount, LocalDate.now().plusDays(1), DAYS);
+        load();
+    }
+
+    /**
+     * Replaces the DAOs with new ones holding the generated dataset.
+     */
+    public void load() {
+        bookingDAO = Stores.bookingDAO(store);
+        customerDAO = Stores.customerDAO(store);
+        for (Customer customer : dataset.getCustomers()) {
+            customerDAO.save(new Customer(customer.getId(), customer.getName(), customer.getWindows()));
+        }
+        for (Booking booking : dataset.getBookings()) {
+            bookingDAO.save(new Booking(booking.getId(), booking.getCustomerId(), booking.getBookingDate()));
+        }
+    }
+}
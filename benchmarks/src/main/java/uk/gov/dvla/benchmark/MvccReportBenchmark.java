@@ -0,0 +1,81 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.persistence.*;
+import uk.gov.dvla.service.WindowCleaningServiceImpl;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Year-long cost reports run while another thread keeps saving bookings. The mvcc store reports on a
+ * snapshot taken for each report; the concurrent DAOs report on whatever they hold as the report reads
+ * them, which is faster to start but can mix bookings saved part way through.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Group)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MvccReportBenchmark {
+
+    private static final int DAYS = 365;
+    private static final int CUSTOMERS = 1000;
+
+    @Param({"100000"})
+    private int bookingCount;
+
+    @Param({"mvcc", "concurrent"})
+    private String implementation;
+
+    private MvccStore store;
+    private BookingDAO bookingDAO;
+    private CustomerDAO customerDAO;
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final LocalDate firstDate = LocalDate.of(2026, 1, 1);
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        if ("mvcc".equals(implementation)) {
+            store = new MvccStore();
+            bookingDAO = store.getBookingDAO();
+            customerDAO = store.getCustomerDAO();
+        } else {
+            bookingDAO = new ConcurrentBookingDAOImpl();
+            customerDAO = new ConcurrentCustomerDAOImpl();
+        }
+        for (int id = 1; id <= CUSTOMERS; id++) {
+            customerDAO.save(new Customer(id, "Customer" + id, 1 + id % 20));
+        }
+        for (int id = 1; id <= bookingCount; id++) {
+            bookingDAO.save(new Booking(id, 1 + id % CUSTOMERS, firstDate.plusDays(id % DAYS)));
+        }
+        nextId.set(bookingCount);
+    }
+
+    @Benchmark
+    @Group("reportWhileWriting")
+    @GroupThreads(1)
+    public int report() {
+        WindowCleaningServiceImpl service;
+        if (store != null) {
+            StoreSnapshot snapshot = store.snapshot();
+            service = new WindowCleaningServiceImpl(snapshot.getBookingDAO(), snapshot.getCustomerDAO());
+        } else {
+            service = new WindowCleaningServiceImpl(bookingDAO, customerDAO);
+        }
+        return service.getTotalCostForDateRange(firstDate, firstDate.plusDays(DAYS - 1));
+    }
+
+    @Benchmark
+    @Group("reportWhileWriting")
+    @GroupThreads(1)
+    public void save() {
+        int id = nextId.incrementAndGet();
+        bookingDAO.save(new Booking(id, 1 + id % CUSTOMERS, firstDate.plusDays(id % DAYS)));
+    }
+}
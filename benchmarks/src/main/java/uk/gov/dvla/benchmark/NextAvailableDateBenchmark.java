@@ -0,0 +1,53 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.util.DayIndexedCapacityTree;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding the first day with room for a booking in a calendar where only the last
+ * day has room, by the segment tree search against checking the days one by one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NextAvailableDateBenchmark {
+
+    private static final int CAPACITY = 500;
+
+    @Param({"365", "3650"})
+    private int days;
+
+    private DayIndexedCapacityTree tree;
+    private long firstDay;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        firstDay = LocalDate.now().toEpochDay();
+        tree = new DayIndexedCapacityTree(CAPACITY);
+        // every day is nearly full except the last, which is empty
+        for (int day = 0; day < days; day++) {
+            tree.use(firstDay + day, day == days - 1 ? 0 : CAPACITY - 5);
+        }
+    }
+
+    @Benchmark
+    public long segmentTreeSearch() {
+        return tree.firstDayWithRoom(firstDay + ThreadLocalRandom.current().nextInt(days), 20);
+    }
+
+    @Benchmark
+    public long dayByDayScan() {
+        long day = firstDay + ThreadLocalRandom.current().nextInt(days);
+        while (tree.remaining(day) < 20) {
+            day++;
+        }
+        return day;
+    }
+}
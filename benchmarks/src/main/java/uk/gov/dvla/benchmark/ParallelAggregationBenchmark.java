@@ -0,0 +1,85 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.CustomerDAO;
+import uk.gov.dvla.service.ServiceOptions;
+import uk.gov.dvla.service.WindowCleaningService;
+import uk.gov.dvla.service.WindowCleaningServiceImpl;
+
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures multi-year window and cost totals summed on the calling thread against the same
+ * totals summed per month on ForkJoinPools of increasing parallelism.
+ * A parallelism of 0 is the sequential path. Speed-up is bounded by the cores of the machine,
+ * so compare runs across parallelism levels up to Runtime.availableProcessors().
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ParallelAggregationBenchmark {
+
+    /**
+     * Number of days the generated bookings are spread over.
+     */
+    private static final int DAYS = 5 * 365;
+
+    @Param({"1000000"})
+    private int bookingCount;
+
+    @Param({Stores.CONCURRENT, Stores.COLUMNAR})
+    private String store;
+
+    @Param({"0", "1", "2", "4", "8"})
+    private int parallelism;
+
+    private ForkJoinPool pool;
+    private WindowCleaningService service;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        startDate = LocalDate.now().plusDays(1);
+        endDate = startDate.plusDays(DAYS - 1);
+        BookingDataGenerator.Dataset dataset = new BookingDataGenerator(LoadedStores.SEED).generate(bookingCount, startDate, DAYS);
+
+        BookingDAO bookingDAO = Stores.bookingDAO(store);
+        CustomerDAO customerDAO = Stores.customerDAO(store);
+        for (Customer customer : dataset.getCustomers()) {
+            customerDAO.save(customer);
+        }
+        for (Booking booking : dataset.getBookings()) {
+            bookingDAO.save(booking);
+        }
+
+        pool = parallelism == 0 ? null : new ForkJoinPool(parallelism);
+        service = new WindowCleaningServiceImpl(bookingDAO, customerDAO,
+                ServiceOptions.builder().aggregationPool(pool).build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public int getTotalCostForDateRange() {
+        return service.getTotalCostForDateRange(startDate, endDate);
+    }
+
+    @Benchmark
+    public int getTotalWindowsForDateRange() {
+        return service.getTotalWindowsForDateRange(startDate, endDate);
+    }
+}
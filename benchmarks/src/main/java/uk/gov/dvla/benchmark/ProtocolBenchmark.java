@@ -0,0 +1,114 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.http.BookingHttpServer;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.persistence.ConcurrentBookingDAOImpl;
+import uk.gov.dvla.persistence.ConcurrentCustomerDAOImpl;
+import uk.gov.dvla.protocol.BookingProtocolClient;
+import uk.gov.dvla.protocol.BookingProtocolServer;
+import uk.gov.dvla.service.WindowCleaningServiceImpl;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures requests against localhost servers over the binary protocol, one at a time and
+ * pipelined, next to the same requests over the HTTP/JSON API.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class ProtocolBenchmark {
+
+    /**
+     * Requests kept in flight by the pipelined benchmarks.
+     */
+    private static final int PIPELINE_DEPTH = 64;
+
+    private BookingDataGenerator.Dataset dataset;
+    private BookingProtocolServer protocolServer;
+    private BookingProtocolClient protocolClient;
+    private BookingHttpServer httpServer;
+    private HttpClient httpClient;
+    private String httpBase;
+    private final Random random = new Random(LoadedStores.SEED);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataset = new BookingDataGenerator(LoadedStores.SEED).generate(100_000, LocalDate.now().plusDays(1), LoadedStores.DAYS);
+        WindowCleaningServiceImpl service = new WindowCleaningServiceImpl(new ConcurrentBookingDAOImpl(), new ConcurrentCustomerDAOImpl());
+        for (Customer customer : dataset.getCustomers()) {
+            service.addCustomer(customer);
+        }
+        service.addBookings(dataset.getBookings());
+
+        protocolServer = BookingProtocolServer.start(service, new InetSocketAddress("localhost", 0));
+        protocolClient = BookingProtocolClient.connect(new InetSocketAddress("localhost", protocolServer.getPort()));
+        httpServer = BookingHttpServer.start(service, new InetSocketAddress("localhost", 0));
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        httpBase = "http://localhost:" + httpServer.getPort();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        protocolClient.close();
+        protocolServer.close();
+        httpServer.close();
+    }
+
+    @Benchmark
+    public Booking protocolGetBooking() {
+        return BookingProtocolClient.await(protocolClient.getBookingByBookingId(dataset.randomBooking(random).getId()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINE_DEPTH)
+    public int protocolGetBookingPipelined() {
+        List<CompletableFuture<Booking>> replies = new ArrayList<>(PIPELINE_DEPTH);
+        for (int i = 0; i < PIPELINE_DEPTH; i++) {
+            replies.add(protocolClient.getBookingByBookingId(dataset.randomBooking(random).getId()));
+        }
+        int sum = 0;
+        for (CompletableFuture<Booking> reply : replies) {
+            sum += BookingProtocolClient.await(reply).getCustomerId();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public List<Booking> protocolBookingsForWeek() {
+        LocalDate start = dataset.randomDate(random);
+        return BookingProtocolClient.await(protocolClient.getAllBookingsForDateRange(start, start.plusDays(6)));
+    }
+
+    @Benchmark
+    public String httpGetBooking() throws IOException, InterruptedException {
+        return httpGet("/bookings/" + dataset.randomBooking(random).getId());
+    }
+
+    @Benchmark
+    public String httpBookingsForWeek() throws IOException, InterruptedException {
+        LocalDate start = dataset.randomDate(random);
+        return httpGet("/bookings?from=" + start + "&to=" + start.plusDays(6));
+    }
+
+    private String httpGet(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(httpBase + path)).build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+}
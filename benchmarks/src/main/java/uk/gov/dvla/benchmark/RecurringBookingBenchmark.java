@@ -0,0 +1,69 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.RecurringBooking;
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.BookingDAOImpl;
+import uk.gov.dvla.persistence.RecurringBookingDAOImpl;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures date and month queries over customers on four and eight week cycles, stored as one
+ * rule each against a year of visits materialised as bookings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecurringBookingBenchmark {
+
+    private static final int DAYS = 365;
+
+    @Param({"1000", "10000"})
+    private int customers;
+
+    @Param({"rules", "materialised"})
+    private String storage;
+
+    private BookingDAO bookingDAO;
+    private LocalDate firstDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        firstDate = LocalDate.now();
+        RecurringBookingDAOImpl rules = new RecurringBookingDAOImpl(new BookingDAOImpl());
+        BookingDAOImpl materialised = new BookingDAOImpl();
+        int nextVisitId = customers + 1;
+
+        for (int customer = 1; customer <= customers; customer++) {
+            int interval = customer % 2 == 0 ? 28 : 56;
+            LocalDate start = firstDate.plusDays(customer % interval);
+            if ("rules".equals(storage)) {
+                rules.saveRule(new RecurringBooking(customer, customer, start, interval, null));
+                continue;
+            }
+            for (LocalDate visit = start; visit.isBefore(firstDate.plusDays(DAYS)); visit = visit.plusDays(interval)) {
+                materialised.save(new Booking(nextVisitId++, customer, visit));
+            }
+        }
+        bookingDAO = "rules".equals(storage) ? rules : materialised;
+    }
+
+    @Benchmark
+    public List<Booking> findByDate() {
+        return bookingDAO.findByDate(firstDate.plusDays(ThreadLocalRandom.current().nextInt(DAYS)));
+    }
+
+    @Benchmark
+    public int[] findCustomerIdsForMonth() {
+        LocalDate start = firstDate.plusDays(ThreadLocalRandom.current().nextInt(DAYS - 31));
+        return bookingDAO.findCustomerIdsByDateRange(start, start.plusDays(30));
+    }
+}
@@ -0,0 +1,71 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Result;
+import uk.gov.dvla.model.exception.BookingDateInThePastException;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.service.WindowCleaningService;
+import uk.gov.dvla.service.WindowCleaningServiceImpl;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares rejected bookings and missed lookups reported by a thrown exception against the
+ * same rejections reported by the try methods' Result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class RejectionPathBenchmark {
+
+    private LoadedStores stores;
+    private WindowCleaningService service;
+    private Booking pastBooking;
+    private int missingBookingId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stores = new LoadedStores();
+        stores.bookingCount = 10_000;
+        stores.store = Stores.HASH_MAP;
+        stores.setUp();
+
+        service = new WindowCleaningServiceImpl(stores.bookingDAO, stores.customerDAO);
+        pastBooking = new Booking(Integer.MAX_VALUE, 1, LocalDate.of(2000, 1, 1));
+        missingBookingId = Integer.MAX_VALUE;
+    }
+
+    @Benchmark
+    public Object addBooking_DateInPast_Throwing() {
+        try {
+            service.addBooking(pastBooking);
+            return null;
+        } catch (BookingDateInThePastException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Result<Void> addBooking_DateInPast_Result() {
+        return service.tryAddBooking(pastBooking);
+    }
+
+    @Benchmark
+    public Object getBookingByBookingId_Missing_Throwing() {
+        try {
+            return service.getBookingByBookingId(missingBookingId);
+        } catch (BookingNotFoundException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Result<Booking> getBookingByBookingId_Missing_Result() {
+        return service.tryGetBookingByBookingId(missingBookingId);
+    }
+}
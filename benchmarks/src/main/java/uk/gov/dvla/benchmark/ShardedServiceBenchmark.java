@@ -0,0 +1,76 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.CustomerDAO;
+import uk.gov.dvla.service.ShardedWindowCleaningService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of a ShardedWindowCleaningService under concurrent callers as the shard count grows.
+ * Customer lookups and reschedules go to one shard, while date totals fan out to every shard.
+ * One shard is the unsharded baseline. Gains are bounded by the cores of the machine,
+ * so compare runs with -t up to Runtime.availableProcessors().
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ShardedServiceBenchmark {
+
+    @Param({"100000"})
+    private int bookingCount;
+
+    @Param({Stores.CONCURRENT, Stores.COLUMNAR})
+    private String store;
+
+    @Param({"1", "2", "4", "8"})
+    private int shards;
+
+    private BookingDataGenerator.Dataset dataset;
+    private ShardedWindowCleaningService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataset = new BookingDataGenerator(LoadedStores.SEED).generate(bookingCount, LocalDate.now().plusDays(1), LoadedStores.DAYS);
+
+        List<BookingDAO> bookingDAOs = new ArrayList<>();
+        List<CustomerDAO> customerDAOs = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            bookingDAOs.add(Stores.bookingDAO(store));
+            customerDAOs.add(Stores.customerDAO(store));
+        }
+        service = new ShardedWindowCleaningService(bookingDAOs, customerDAOs);
+        for (Customer customer : dataset.getCustomers()) {
+            service.addCustomer(customer);
+        }
+        for (Booking booking : dataset.getBookings()) {
+            service.addBooking(booking);
+        }
+    }
+
+    @Benchmark
+    public List<Booking> getAllBookingsForCustomerId() {
+        return service.getAllBookingsForCustomerId(dataset.randomCustomer(ThreadLocalRandom.current()).getId());
+    }
+
+    @Benchmark
+    public int getTotalCostForDate() {
+        return service.getTotalCostForDate(dataset.randomDate(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public void rescheduleBooking() {
+        service.rescheduleBooking(dataset.randomBooking(ThreadLocalRandom.current()).getId(), dataset.randomDate(ThreadLocalRandom.current()));
+    }
+}
@@ -0,0 +1,67 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.BookingDAOImpl;
+import uk.gov.dvla.persistence.CustomerDAOImpl;
+import uk.gov.dvla.persistence.snapshot.MappedBookingDAO;
+import uk.gov.dvla.persistence.snapshot.Snapshot;
+import uk.gov.dvla.persistence.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time to start serving bookings from a mapped snapshot against rebuilding
+ * BookingDAOImpl from the same records, as a restart from a log or CSV would.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SnapshotStartupBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int bookingCount;
+
+    private BookingDataGenerator.Dataset dataset;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataset = new BookingDataGenerator(LoadedStores.SEED).generate(bookingCount, LocalDate.now(), LoadedStores.DAYS);
+        file = Files.createTempFile("bookings", ".snapshot");
+        SnapshotWriter.write(file, dataset.getCustomers(), dataset.getBookings());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int openSnapshot() throws IOException {
+        BookingDAO bookingDAO = new MappedBookingDAO(Snapshot.open(file));
+        return bookingDAO.countByDateRange(dataset.getFirstDate(), dataset.getFirstDate().plusDays(6));
+    }
+
+    @Benchmark
+    public int rebuildInHeap() {
+        CustomerDAOImpl customerDAO = new CustomerDAOImpl();
+        for (Customer customer : dataset.getCustomers()) {
+            customerDAO.save(new Customer(customer.getId(), customer.getName(), customer.getWindows()));
+        }
+        BookingDAO bookingDAO = new BookingDAOImpl();
+        for (Booking booking : dataset.getBookings()) {
+            bookingDAO.save(new Booking(booking.getId(), booking.getCustomerId(), booking.getBookingDate()));
+        }
+        return bookingDAO.countByDateRange(dataset.getFirstDate(), dataset.getFirstDate().plusDays(6));
+    }
+}
@@ -0,0 +1,46 @@
+package uk.gov.dvla.benchmark;
+
+import uk.gov.dvla.persistence.*;
+
+/**
+ * Creates the DAO implementations benchmarks are parameterised over.
+ */
+final class Stores {
+
+    /**
+     * Booking store names accepted by bookingDAO.
+     */
+    static final String HASH_MAP = "hashmap";
+    static final String CONCURRENT = "concurrent";
+    static final String COLUMNAR = "columnar";
+    static final String PARTITIONED = "partitioned";
+
+    private Stores() {
+    }
+
+    /**
+     * Creates an empty BookingDAO.
+     *
+     * @param store the store name
+     * @return a new BookingDAO
+     */
+    static BookingDAO bookingDAO(String store) {
+        return switch (store) {
+            case HASH_MAP -> new BookingDAOImpl();
+            case CONCURRENT -> new ConcurrentBookingDAOImpl();
+            case COLUMNAR -> new ColumnarBookingDAOImpl();
+            case PARTITIONED -> new PartitionedBookingDAOImpl();
+            default -> throw new IllegalArgumentException("Unknown booking store: " + store);
+        };
+    }
+
+    /**
+     * Creates an empty CustomerDAO to go with a booking store.
+     *
+     * @param store the booking store name
+     * @return a new CustomerDAO
+     */
+    static CustomerDAO customerDAO(String store) {
+        return CONCURRENT.equals(store) || PARTITIONED.equals(store) ? new ConcurrentCustomerDAOImpl() : new CustomerDAOImpl();
+    }
+}
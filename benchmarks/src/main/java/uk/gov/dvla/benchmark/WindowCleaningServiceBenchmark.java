@@ -0,0 +1,125 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.service.ServiceOptions;
+import uk.gov.dvla.service.WindowCleaningService;
+import uk.gov.dvla.service.WindowCleaningServiceImpl;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every WindowCleaningService query over each booking store and dataset size.
+ * Queries pick a random customer, booking or date on each call. Range queries cover one week.
+ * The update benchmarks change values in place, so the size of the dataset does not change between calls.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class WindowCleaningServiceBenchmark {
+
+    @Param({"false", "true"})
+    private boolean dailyTotals;
+
+    private BookingDataGenerator.Dataset dataset;
+    private WindowCleaningService service;
+
+    @Setup(Level.Trial)
+    public void setUp(LoadedStores stores) {
+        dataset = stores.dataset;
+        service = new WindowCleaningServiceImpl(stores.bookingDAO, stores.customerDAO,
+                ServiceOptions.builder().maintainDailyTotals(dailyTotals).build());
+    }
+
+    @Benchmark
+    public Customer getCustomer() {
+        return service.getCustomer(dataset.randomCustomer(random()).getId());
+    }
+
+    @Benchmark
+    public int getCustomerIdByName() {
+        return service.getCustomerIdByName(dataset.randomCustomer(random()).getName());
+    }
+
+    @Benchmark
+    public void updateCustomerWindows() {
+        Random random = random();
+        service.updateCustomerWindows(dataset.randomCustomer(random).getId(), 4 + random.nextInt(20));
+    }
+
+    @Benchmark
+    public void rescheduleBooking() {
+        Random random = random();
+        service.rescheduleBooking(dataset.randomBooking(random).getId(), dataset.randomDate(random));
+    }
+
+    @Benchmark
+    public Booking getBookingByBookingId() {
+        return service.getBookingByBookingId(dataset.randomBooking(random()).getId());
+    }
+
+    @Benchmark
+    public List<Booking> getAllBookings() {
+        return service.getAllBookings();
+    }
+
+    @Benchmark
+    public List<Booking> getAllBookingsForDate() {
+        return service.getAllBookingsForDate(dataset.randomDate(random()));
+    }
+
+    @Benchmark
+    public List<Booking> getAllBookingsForCustomerId() {
+        return service.getAllBookingsForCustomerId(dataset.randomCustomer(random()).getId());
+    }
+
+    @Benchmark
+    public List<Booking> getBookingsWithCustomerName() {
+        return service.getBookingsWithCustomerName(dataset.randomCustomer(random()).getName());
+    }
+
+    @Benchmark
+    public List<Booking> getAllBookingsForDateRange() {
+        LocalDate start = dataset.randomDate(random());
+        return service.getAllBookingsForDateRange(start, start.plusDays(6));
+    }
+
+    @Benchmark
+    public int getTotalWindowsForDate() {
+        return service.getTotalWindowsForDate(dataset.randomDate(random()));
+    }
+
+    @Benchmark
+    public int getTotalWindowsForDateRange() {
+        LocalDate start = dataset.randomDate(random());
+        return service.getTotalWindowsForDateRange(start, start.plusDays(6));
+    }
+
+    @Benchmark
+    public int getTotalCostForBooking() {
+        return service.getTotalCostForBooking(dataset.randomBooking(random()).getId());
+    }
+
+    @Benchmark
+    public int getTotalCostForDate() {
+        return service.getTotalCostForDate(dataset.randomDate(random()));
+    }
+
+    @Benchmark
+    public int getTotalCostForDateRange() {
+        LocalDate start = dataset.randomDate(random());
+        return service.getTotalCostForDateRange(start, start.plusDays(6));
+    }
+
+    private static Random random() {
+        return ThreadLocalRandom.current();
+    }
+}
@@ -0,0 +1,56 @@
+package uk.gov.dvla.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.service.ServiceOptions;
+import uk.gov.dvla.service.WindowCleaningService;
+import uk.gov.dvla.service.WindowCleaningServiceImpl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures WindowCleaningService.addCustomer and addBooking on top of each booking store and dataset size.
+ * Every call adds a new record, so the DAOs are reloaded before each iteration to stop the
+ * dataset growing across the run.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class WindowCleaningServiceInsertBenchmark {
+
+    @Param({"false", "true"})
+    private boolean dailyTotals;
+
+    private LoadedStores stores;
+    private WindowCleaningService service;
+    private int nextCustomerId;
+    private int nextBookingId;
+
+    @Setup(Level.Iteration)
+    public void setUp(LoadedStores stores) {
+        this.stores = stores;
+        stores.load();
+        service = new WindowCleaningServiceImpl(stores.bookingDAO, stores.customerDAO,
+                ServiceOptions.builder().maintainDailyTotals(dailyTotals).build());
+        nextCustomerId = stores.dataset.getCustomers().size() + 1;
+        nextBookingId = stores.dataset.getBookings().size() + 1;
+    }
+
+    @Benchmark
+    public void addCustomer() {
+        int id = nextCustomerId++;
+        service.addCustomer(new Customer(id, "New Customer " + id, 10));
+    }
+
+    @Benchmark
+    public void addBooking() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BookingDataGenerator.Dataset dataset = stores.dataset;
+        service.addBooking(new Booking(nextBookingId++, dataset.randomCustomer(random).getId(), dataset.randomDate(random)));
+    }
+}
@@ -0,0 +1,319 @@
+package uk.gov.dvla.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.*;
+import uk.gov.dvla.service.WindowCleaningService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP/JSON front end for WindowCleaningService on the JDK's built-in HttpServer.
+ * Each request runs on its own virtual thread when the runtime supports them (Java 21 and later),
+ * so a slow client never holds a platform thread; on older runtimes requests share a fixed pool.
+ * Requests may run concurrently, so the service should be backed by thread-safe DAOs.
+ * <pre>
+ * POST /customers                      {"id":1,"name":"John","windows":10}
+ * GET  /customers/{id}
+ * GET  /customers?name={name}          the id of the single customer with the name
+ * PUT  /customers/{id}/windows         {"windows":12}
+ * GET  /customers/{id}/bookings
+ * POST /bookings                       {"id":1,"customerId":1,"date":"2026-01-10"}
+ * GET  /bookings/{id}
+ * PUT  /bookings/{id}/date             {"date":"2026-02-01"}
+ * GET  /bookings/{id}/cost
+ * GET  /bookings?date={date}
+ * GET  /bookings?from={date}&amp;to={date}
+ * GET  /bookings?customerName={name}
+ * GET  /bookings?limit={n}&amp;afterDate={date}&amp;afterId={id}   one page of all bookings
+ * GET  /totals/windows?date={date}  or  ?from={date}&amp;to={date}
+ * GET  /totals/cost?date={date}     or  ?from={date}&amp;to={date}
+ * </pre>
+ * Failures are returned as {"error":"message"} with a status chosen by statusFor.
+ * <p>
+ * Start the JVM with {@code -Dsun.net.httpserver.nodelay=true}. The built-in server writes the headers
+ * and body of a response separately, and without TCP_NODELAY the body waits for the client's delayed ACK,
+ * adding around 40ms to every keep-alive request. The JDK reads the property once, when the first
+ * HttpServer is created, and it applies to every HttpServer in the JVM, so it is left to the launcher.
+ */
+public final class BookingHttpServer implements Closeable {
+
+    /**
+     * Number of request threads used when virtual threads are not available.
+     */
+    private static final int FALLBACK_THREADS = 200;
+    /**
+     * Number of bookings on a page when the request gives no limit.
+     */
+    private static final int DEFAULT_PAGE_LIMIT = 100;
+    /**
+     * Largest request body accepted.
+     */
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    /**
+     * A status code and JSON body to send back.
+     */
+    private record Response(int status, String body) {
+    }
+
+    private final WindowCleaningService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor for BookingHttpServer class.
+     *
+     * @param service the service requests are passed to
+     * @param server  the unstarted server
+     */
+    private BookingHttpServer(WindowCleaningService service, HttpServer server) {
+        this.service = service;
+        this.server = server;
+        this.executor = newRequestExecutor();
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Starts a server.
+     *
+     * @param service the service requests are passed to
+     * @param address the address to listen on, port 0 for any free port
+     * @return the running server
+     * @throws IOException if the server cannot listen on the address
+     */
+    public static BookingHttpServer start(WindowCleaningService service, InetSocketAddress address) throws IOException {
+        BookingHttpServer httpServer = new BookingHttpServer(service, HttpServer.create(address, 1024));
+        httpServer.server.start();
+        return httpServer;
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, closes open exchanges and releases the request threads.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the HTTP status for a failure.
+     *
+     * @param failure the exception thrown while handling a request
+     * @return 404 for unknown customers and bookings, 409 for duplicates, ambiguous names and full days,
+     * 400 for invalid requests and 500 for anything else, including a NullPointerException that is not a
+     * rejected null argument
+     */
+    static int statusFor(RuntimeException failure) {
+        if (failure instanceof CustomerNotFoundException || failure instanceof BookingNotFoundException) {
+            return 404;
+        }
+        if (failure instanceof DuplicateEntityException || failure instanceof MultipleCustomerFoundException
+                || failure instanceof CapacityExceededException) {
+            return 409;
+        }
+        if (failure instanceof InvalidCustomerException || failure instanceof InvalidBookingException
+                || failure instanceof InvalidDateRangeException || failure instanceof BookingDateInThePastException
+                || failure instanceof NullArgumentException || failure instanceof IllegalArgumentException
+                || failure instanceof DateTimeParseException) {
+            return 400;
+        }
+        return 500;
+    }
+
+    /**
+     * Creates the executor that runs each request, preferring a virtual thread per request.
+     * Looked up reflectively so the project still builds and runs on Java 17.
+     *
+     * @return the request executor
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method virtualThreadPerTask = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtualThreadPerTask.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newFixedThreadPool(FALLBACK_THREADS);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Response response;
+        try {
+            response = route(exchange);
+        } catch (RuntimeException e) {
+            int status = statusFor(e);
+            response = new Response(status, Json.error(status == 500 ? "Internal server error" : e.getMessage()));
+        }
+
+        try {
+            byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Response route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/+");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        switch (path[0]) {
+            case "customers" -> {
+                if (path.length == 1 && method.equals("POST")) {
+                    Map<String, String> body = readBody(exchange);
+                    Customer customer = new Customer(intMember(body, "id"), body.get("name"), intMember(body, "windows"));
+                    service.addCustomer(customer);
+                    return new Response(201, Json.customer(customer));
+                }
+                if (path.length == 1 && method.equals("GET")) {
+                    return new Response(200, Json.number("id", service.getCustomerIdByName(required(query, "name"))));
+                }
+                if (path.length == 2 && method.equals("GET")) {
+                    return new Response(200, Json.customer(service.getCustomer(Integer.parseInt(path[1]))));
+                }
+                if (path.length == 3 && path[2].equals("windows") && method.equals("PUT")) {
+                    int customerId = Integer.parseInt(path[1]);
+                    service.updateCustomerWindows(customerId, intMember(readBody(exchange), "windows"));
+                    return new Response(200, Json.customer(service.getCustomer(customerId)));
+                }
+                if (path.length == 3 && path[2].equals("bookings") && method.equals("GET")) {
+                    return new Response(200, Json.bookings(service.getAllBookingsForCustomerId(Integer.parseInt(path[1]))));
+                }
+                if (path.length == 3 && path[2].equals("next-available-date") && method.equals("GET")) {
+                    return new Response(200, Json.date("date",
+                            service.findNextAvailableDate(Integer.parseInt(path[1]), date(query, "from"))));
+                }
+            }
+            case "bookings" -> {
+                if (path.length == 1 && method.equals("POST")) {
+                    Map<String, String> body = readBody(exchange);
+                    Booking booking = new Booking(intMember(body, "id"), intMember(body, "customerId"),
+                            LocalDate.parse(required(body, "date")));
+                    service.addBooking(booking);
+                    return new Response(201, Json.booking(booking));
+                }
+                if (path.length == 1 && method.equals("GET")) {
+                    return new Response(200, findBookings(query));
+                }
+                if (path.length == 2 && method.equals("GET")) {
+                    return new Response(200, Json.booking(service.getBookingByBookingId(Integer.parseInt(path[1]))));
+                }
+                if (path.length == 3 && path[2].equals("date") && method.equals("PUT")) {
+                    int bookingId = Integer.parseInt(path[1]);
+                    service.rescheduleBooking(bookingId, LocalDate.parse(required(readBody(exchange), "date")));
+                    return new Response(200, Json.booking(service.getBookingByBookingId(bookingId)));
+                }
+                if (path.length == 3 && path[2].equals("cost") && method.equals("GET")) {
+                    return new Response(200, Json.number("cost", service.getTotalCostForBooking(Integer.parseInt(path[1]))));
+                }
+            }
+            case "totals" -> {
+                if (path.length == 2 && path[1].equals("windows") && method.equals("GET")) {
+                    return new Response(200, Json.number("windows", query.containsKey("date")
+                            ? service.getTotalWindowsForDate(LocalDate.parse(query.get("date")))
+                            : service.getTotalWindowsForDateRange(date(query, "from"), date(query, "to"))));
+                }
+                if (path.length == 2 && path[1].equals("cost") && method.equals("GET")) {
+                    return new Response(200, Json.number("cost", query.containsKey("date")
+                            ? service.getTotalCostForDate(LocalDate.parse(query.get("date")))
+                            : service.getTotalCostForDateRange(date(query, "from"), date(query, "to"))));
+                }
+            }
+            default -> {
+                return new Response(404, Json.error("Not found"));
+            }
+        }
+        return new Response(404, Json.error("Not found"));
+    }
+
+    private String findBookings(Map<String, String> query) {
+        if (query.containsKey("date")) {
+            return Json.bookings(service.getAllBookingsForDate(LocalDate.parse(query.get("date"))));
+        }
+        if (query.containsKey("from") || query.containsKey("to")) {
+            return Json.bookings(service.getAllBookingsForDateRange(date(query, "from"), date(query, "to")));
+        }
+        if (query.containsKey("customerName")) {
+            return Json.bookings(service.getBookingsWithCustomerName(query.get("customerName")));
+        }
+
+        BookingCursor after = query.containsKey("afterDate")
+                ? new BookingCursor(LocalDate.parse(query.get("afterDate")), Integer.parseInt(required(query, "afterId")))
+                : null;
+        int limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : DEFAULT_PAGE_LIMIT;
+        return Json.bookingPage(service.getBookingsPage(after, limit));
+    }
+
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body too large");
+            }
+            return Json.parseObject(new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = equals < 0 ? parameter : parameter.substring(0, equals);
+            String value = equals < 0 ? "" : parameter.substring(equals + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static String required(Map<String, String> values, String name) {
+        String value = values.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + name);
+        }
+        return value;
+    }
+
+    private static int intMember(Map<String, String> body, String name) {
+        return Integer.parseInt(required(body, name));
+    }
+
+    private static LocalDate date(Map<String, String> query, String name) {
+        return LocalDate.parse(required(query, name));
+    }
+}
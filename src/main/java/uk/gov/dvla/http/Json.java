@@ -0,0 +1,253 @@
+package uk.gov.dvla.http;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.BookingPage;
+import uk.gov.dvla.model.Customer;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written JSON encoding of the API's resources and parsing of its request bodies.
+ * Request bodies are flat objects whose values are strings, numbers or null, which is all
+ * the API accepts, so there is no need for a general JSON library.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    static String customer(Customer customer) {
+        StringBuilder json = new StringBuilder(64);
+        json.append("{\"id\":").append(customer.getId()).append(",\"name\":");
+        string(json, customer.getName());
+        return json.append(",\"windows\":").append(customer.getWindows()).append('}').toString();
+    }
+
+    static String bookings(List<Booking> bookings) {
+        StringBuilder json = new StringBuilder(16 + bookings.size() * 56);
+        bookingArray(json, bookings);
+        return json.toString();
+    }
+
+    static String bookingPage(BookingPage page) {
+        StringBuilder json = new StringBuilder(32 + page.getBookings().size() * 56);
+        json.append("{\"bookings\":");
+        bookingArray(json, page.getBookings());
+        json.append(",\"next\":");
+        BookingCursor next = page.getNext();
+        if (next == null) {
+            json.append("null");
+        } else {
+            json.append("{\"date\":\"").append(next.getBookingDate()).append("\",\"id\":").append(next.getId()).append('}');
+        }
+        return json.append('}').toString();
+    }
+
+    static String booking(Booking booking) {
+        StringBuilder json = new StringBuilder(56);
+        booking(json, booking);
+        return json.toString();
+    }
+
+    static String number(String name, long value) {
+        return "{\"" + name + "\":" + value + "}";
+    }
+
+    static String date(String name, LocalDate value) {
+        return "{\"" + name + "\":\"" + value + "\"}";
+    }
+
+    static String error(String message) {
+        StringBuilder json = new StringBuilder(32);
+        json.append("{\"error\":");
+        string(json, message);
+        return json.append('}').toString();
+    }
+
+    private static void bookingArray(StringBuilder json, List<Booking> bookings) {
+        json.append('[');
+        for (int i = 0; i < bookings.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            booking(json, bookings.get(i));
+        }
+        json.append(']');
+    }
+
+    private static void booking(StringBuilder json, Booking booking) {
+        json.append("{\"id\":").append(booking.getId())
+                .append(",\"customerId\":").append(booking.getCustomerId())
+                .append(",\"date\":\"").append(booking.getBookingDate()).append("\"}");
+    }
+
+    private static void string(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Parses a flat JSON object.
+     *
+     * @param text the JSON text
+     * @return the members, with strings and numbers as their text and null as null
+     * @throws IllegalArgumentException if the text is not a flat JSON object
+     */
+    static Map<String, String> parseObject(String text) {
+        Parser parser = new Parser(text);
+        Map<String, String> members = parser.object();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw new IllegalArgumentException("Invalid JSON");
+        }
+        return members;
+    }
+
+    /**
+     * Recursive descent parser over a flat JSON object.
+     */
+    private static final class Parser {
+
+        private final String text;
+        private int position;
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        private Map<String, String> object() {
+            Map<String, String> members = new HashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return members;
+            }
+
+            while (true) {
+                skipWhitespace();
+                String name = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                members.put(name, value());
+                skipWhitespace();
+                if (peek() == ',') {
+                    position++;
+                } else {
+                    expect('}');
+                    return members;
+                }
+            }
+        }
+
+        private String value() {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            if (text.startsWith("null", position)) {
+                position += 4;
+                return null;
+            }
+
+            int start = position;
+            while (!atEnd() && (Character.isDigit(peek()) || "+-.eE".indexOf(peek()) >= 0)) {
+                position++;
+            }
+            if (start == position) {
+                throw new IllegalArgumentException("Invalid JSON");
+            }
+            return text.substring(start, position);
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+
+                char escaped = next();
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) {
+                            throw new IllegalArgumentException("Invalid JSON");
+                        }
+                        value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        position += 4;
+                    }
+                    default -> throw new IllegalArgumentException("Invalid JSON");
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (!atEnd() && Character.isWhitespace(peek())) {
+                position++;
+            }
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw new IllegalArgumentException("Invalid JSON");
+            }
+        }
+
+        private char next() {
+            if (atEnd()) {
+                throw new IllegalArgumentException("Invalid JSON");
+            }
+            return text.charAt(position++);
+        }
+
+        private char peek() {
+            if (atEnd()) {
+                throw new IllegalArgumentException("Invalid JSON");
+            }
+            return text.charAt(position);
+        }
+
+        private boolean atEnd() {
+            return position >= text.length();
+        }
+    }
+}
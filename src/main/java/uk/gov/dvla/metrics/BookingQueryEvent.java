@@ -0,0 +1,71 @@
+package uk.gov.dvla.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import uk.gov.dvla.persistence.ScanCounter;
+
+import java.time.LocalDate;
+
+/**
+ * Flight Recorder event for a BookingDAO call, committed by InstrumentedBookingDAO.
+ * Rows examined above the result size show a query passing over rows it did not need.
+ * Only DAOs that report to ScanCounter, ColumnarBookingDAOImpl and MappedBookingDAO, count
+ * such rows; for any other DAO rows examined equal the result size.
+ */
+@Name("uk.gov.dvla.BookingQuery")
+@Label("Booking Query")
+@Category({"Window Cleaning", "DAO"})
+@Description("A call to BookingDAO")
+@StackTrace(false)
+final class BookingQueryEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Start Date")
+    @Description("First date of the range asked for, or the single date")
+    String startDate;
+
+    @Label("End Date")
+    @Description("Last date of the range asked for")
+    String endDate;
+
+    @Label("Result Size")
+    @Description("Rows returned, or -1 when the operation does not return rows")
+    int resultSize;
+
+    @Label("Rows Examined")
+    @Description("Rows the query looked at, or -1 when the operation does not return rows")
+    long rowsExamined;
+
+    @Label("Failure")
+    @Description("Simple name of the exception thrown, if the call failed")
+    String failure;
+
+    /**
+     * Commits the event if it is enabled and passes its threshold.
+     *
+     * @param operation  the method name
+     * @param startDate  the first date asked for, or null
+     * @param endDate    the last date asked for, or null
+     * @param resultSize the number of rows returned, or -1
+     * @param scanMark   the ScanCounter count when the call started
+     * @param failure    the exception thrown, or null
+     */
+    void record(String operation, LocalDate startDate, LocalDate endDate, int resultSize, long scanMark, RuntimeException failure) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.startDate = startDate == null ? null : startDate.toString();
+            this.endDate = endDate == null ? null : endDate.toString();
+            this.resultSize = resultSize;
+            this.rowsExamined = resultSize < 0 ? -1 : resultSize + ScanCounter.discardedSoFar() - scanMark;
+            this.failure = failure == null ? null : failure.getClass().getSimpleName();
+            commit();
+        }
+    }
+}
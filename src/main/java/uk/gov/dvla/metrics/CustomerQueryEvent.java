@@ -0,0 +1,56 @@
+package uk.gov.dvla.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import uk.gov.dvla.persistence.ScanCounter;
+
+/**
+ * Flight Recorder event for a CustomerDAO call, committed by InstrumentedCustomerDAO.
+ * Only MappedCustomerDAO reports the rows it passes over to ScanCounter; for any other DAO
+ * rows examined equal the result size.
+ */
+@Name("uk.gov.dvla.CustomerQuery")
+@Label("Customer Query")
+@Category({"Window Cleaning", "DAO"})
+@Description("A call to CustomerDAO")
+@StackTrace(false)
+final class CustomerQueryEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Result Size")
+    @Description("Rows returned, or -1 when the operation does not return rows")
+    int resultSize;
+
+    @Label("Rows Examined")
+    @Description("Rows the query looked at, or -1 when the operation does not return rows")
+    long rowsExamined;
+
+    @Label("Failure")
+    @Description("Simple name of the exception thrown, if the call failed")
+    String failure;
+
+    /**
+     * Commits the event if it is enabled and passes its threshold.
+     *
+     * @param operation  the method name
+     * @param resultSize the number of rows returned, or -1
+     * @param scanMark   the ScanCounter count when the call started
+     * @param failure    the exception thrown, or null
+     */
+    void record(String operation, int resultSize, long scanMark, RuntimeException failure) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.resultSize = resultSize;
+            this.rowsExamined = resultSize < 0 ? -1 : resultSize + ScanCounter.discardedSoFar() - scanMark;
+            this.failure = failure == null ? null : failure.getClass().getSimpleName();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package uk.gov.dvla.metrics;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.persistence.BookingDAO;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * BookingDAO decorator that records the calls, errors, latency and rows of every method
+ * in a MetricsRegistry under the BookingDAO component, and commits a BookingQueryEvent
+ * for each call while Flight Recorder is recording it.
+ * A stream method is recorded when its stream is exhausted or closed, so that its latency and
+ * result size cover consuming the stream; a stream that is never exhausted or closed is not recorded.
+ */
+public class InstrumentedBookingDAO implements BookingDAO {
+
+    private static final String COMPONENT = "BookingDAO";
+
+    private final BookingDAO delegate;
+    private final OperationStats save;
+    private final OperationStats saveAll;
+    private final OperationStats updateBookingDate;
+    private final OperationStats findById;
+    private final OperationStats findAll;
+    private final OperationStats count;
+    private final OperationStats findByDate;
+    private final OperationStats findByCustomerId;
+    private final OperationStats findByDateRange;
+    private final OperationStats countByDateRange;
+    private final OperationStats findCustomerIdsByDateRange;
+    private final OperationStats streamAll;
+    private final OperationStats streamByDateRange;
+    private final OperationStats streamByCustomerId;
+    private final OperationStats findPageByDateRange;
+    private final OperationStats findPageByCustomerId;
+
+    /**
+     * Constructor for InstrumentedBookingDAO class.
+     *
+     * @param delegate the DAO to instrument
+     * @param registry the registry to record in
+     */
+    public InstrumentedBookingDAO(BookingDAO delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.save = registry.register(COMPONENT, "save");
+        this.saveAll = registry.register(COMPONENT, "saveAll");
+        this.updateBookingDate = registry.register(COMPONENT, "updateBookingDate");
+        this.findById = registry.register(COMPONENT, "findById");
+        this.findAll = registry.register(COMPONENT, "findAll");
+        this.count = registry.register(COMPONENT, "count");
+        this.findByDate = registry.register(COMPONENT, "findByDate");
+        this.findByCustomerId = registry.register(COMPONENT, "findByCustomerId");
+        this.findByDateRange = registry.register(COMPONENT, "findByDateRange");
+        this.countByDateRange = registry.register(COMPONENT, "countByDateRange");
+        this.findCustomerIdsByDateRange = registry.register(COMPONENT, "findCustomerIdsByDateRange");
+        this.streamAll = registry.register(COMPONENT, "streamAll");
+        this.streamByDateRange = registry.register(COMPONENT, "streamByDateRange");
+        this.streamByCustomerId = registry.register(COMPONENT, "streamByCustomerId");
+        this.findPageByDateRange = registry.register(COMPONENT, "findPageByDateRange");
+        this.findPageByCustomerId = registry.register(COMPONENT, "findPageByCustomerId");
+    }
+
+    @Override
+    public void save(Booking booking) {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = save.start();
+        long scanMark = 0;
+        try {
+            delegate.save(booking);
+            event.record("save", null, null, -1, scanMark, null);
+        } catch (RuntimeException e) {
+            save.failed(e);
+            event.record("save", null, null, -1, scanMark, e);
+            throw e;
+        } finally {
+            save.finished(start);
+        }
+    }
+
+    @Override
+    public int[] saveAll(List<Booking> bookings) {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = saveAll.start();
+        long scanMark = 0;
+        try {
+            int[] skipped = delegate.saveAll(bookings);
+            event.record("saveAll", null, null, -1, scanMark, null);
+            return skipped;
+        } catch (RuntimeException e) {
+            saveAll.failed(e);
+            event.record("saveAll", null, null, -1, scanMark, e);
+            throw e;
+        } finally {
+            saveAll.finished(start);
+        }
+    }
+
+    @Override
+    public void updateBookingDate(int bookingId, LocalDate date) {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = updateBookingDate.start();
+        long scanMark = 0;
+        try {
+            delegate.updateBookingDate(bookingId, date);
+            event.record("updateBookingDate", date, date, -1, scanMark, null);
+        } catch (RuntimeException e) {
+            updateBookingDate.failed(e);
+            event.record("updateBookingDate", date, date, -1, scanMark, e);
+            throw e;
+        } finally {
+            updateBookingDate.finished(start);
+        }
+    }
+
+    @Override
+    public Optional<Booking> findById(int bookingId) {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = findById.start();
+        long scanMark = findById.scanMark(start, event);
+        try {
+            Optional<Booking> booking = delegate.findById(bookingId);
+            findById.returned(start, scanMark, booking.isPresent() ? 1 : 0);
+            event.record("findById", null, null, booking.isPresent() ? 1 : 0, scanMark, null);
+            return booking;
+        } catch (RuntimeException e) {
+            findById.failed(e);
+            event.record("findById", null, null, -1, scanMark, e);
+            throw e;
+        } finally {
+            findById.finished(start);
+        }
+    }
+
+    @Override
+    public List<Booking> findAll() {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = findAll.start();
+        long scanMark = findAll.scanMark(start, event);
+        try {
+            List<Booking> bookings = delegate.findAll();
+            findAll.returned(start, scanMark, bookings.size());
+            event.record("findAll", null, null, bookings.size(), scanMark, null);
+            return bookings;
+        } catch (RuntimeException e) {
+            findAll.failed(e);
+            event.record("findAll", null, null, -1, scanMark, e);
+            throw e;
+        } finally {
+            findAll.finished(start);
+        }
+    }
+
+    @Override
+    public int count() {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = count.start();
+        long scanMark = 0;
+        try {
+            int count = delegate.count();
+            event.record("count", null, null, -1, scanMark, null);
+            return count;
+        } catch (RuntimeException e) {
+            count.failed(e);
+            event.record("count", null, null, -1, scanMark, e);
+            throw e;
+        } finally {
+            count.finished(start);
+        }
+    }
+
+    @Override
+    public List<Booking> findByDate(LocalDate date) {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = findByDate.start();
+        long scanMark = findByDate.scanMark(start, event);
+        try {
+            List<Booking> bookings = delegate.findByDate(date);
+            findByDate.returned(start, scanMark, bookings.size());
+            event.record("findByDate", date, date, bookings.size(), scanMark, null);
+            return bookings;
+        } catch (RuntimeException e) {
+            findByDate.failed(e);
+            event.record("findByDate", date, date, -1, scanMark, e);
+            throw e;
+        } finally {
+            findByDate.finished(start);
+        }
+    }
+
+    @Override
+    public List<Booking> findByCustomerId(int customerId) {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = findByCustomerId.start();
+        long scanMark = findByCustomerId.scanMark(start, event);
+        try {
+            List<Booking> bookings = delegate.findByCustomerId(customerId);
+            findByCustomerId.returned(start, scanMark, bookings.size());
+            event.record("findByCustomerId", null, null, bookings.size(), scanMark, null);
+            return bookings;
+        } catch (RuntimeException e) {
+            findByCustomerId.failed(e);
+            event.record("findByCustomerId", null, null, -1, scanMark, e);
+            throw e;
+        } finally {
+            findByCustomerId.finished(start);
+        }
+    }
+
+    @Override
+    public List<Booking> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = findByDateRange.start();
+        long scanMark = findByDateRange.scanMark(start, event);
+        try {
+            List<Booking> bookings = delegate.findByDateRange(startDate, endDate);
+            findByDateRange.returned(start, scanMark, bookings.size());
+            event.record("findByDateRange", startDate, endDate, bookings.size(), scanMark, null);
+            return bookings;
+        } catch (RuntimeException e) {
+            findByDateRange.failed(e);
+            event.record("findByDateRange", startDate, endDate, -1, scanMark, e);
+            throw e;
+        } finally {
+            findByDateRange.finished(start);
+        }
+    }
+
+    @Override
+    public int countByDateRange(LocalDate startDate, LocalDate endDate) {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = countByDateRange.start();
+        long scanMark = 0;
+        try {
+            int count = delegate.countByDateRange(startDate, endDate);
+            event.record("countByDateRange", startDate, endDate, -1, scanMark, null);
+            return count;
+        } catch (RuntimeException e) {
+            countByDateRange.failed(e);
+            event.record("countByDateRange", startDate, endDate, -1, scanMark, e);
+            throw e;
+        } finally {
+            countByDateRange.finished(start);
+        }
+    }
+
+    @Override
+    public int[] findCustomerIdsByDateRange(LocalDate startDate, LocalDate endDate) {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = findCustomerIdsByDateRange.start();
+        long scanMark = findCustomerIdsByDateRange.scanMark(start, event);
+        try {
+            int[] customerIds = delegate.findCustomerIdsByDateRange(startDate, endDate);
+            findCustomerIdsByDateRange.returned(start, scanMark, customerIds.length);
+            event.record("findCustomerIdsByDateRange", startDate, endDate, customerIds.length, scanMark, null);
+            return customerIds;
+        } catch (RuntimeException e) {
+            findCustomerIdsByDateRange.failed(e);
+            event.record("findCustomerIdsByDateRange", startDate, endDate, -1, scanMark, e);
+            throw e;
+        } finally {
+            findCustomerIdsByDateRange.finished(start);
+        }
+    }
+
+    @Override
+    public Stream<Booking> streamAll() {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = streamAll.start();
+        long scanMark = streamAll.scanMark(start, event);
+        try {
+            return MeasuredStream.of(delegate.streamAll(), size -> {
+                streamAll.returned(start, scanMark, size);
+                event.record("streamAll", null, null, size, scanMark, null);
+                streamAll.finished(start);
+            });
+        } catch (RuntimeException e) {
+            streamAll.failed(e);
+            event.record("streamAll", null, null, -1, scanMark, e);
+            streamAll.finished(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<Booking> streamByDateRange(LocalDate startDate, LocalDate endDate) {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = streamByDateRange.start();
+        long scanMark = streamByDateRange.scanMark(start, event);
+        try {
+            return MeasuredStream.of(delegate.streamByDateRange(startDate, endDate), size -> {
+                streamByDateRange.returned(start, scanMark, size);
+                event.record("streamByDateRange", startDate, endDate, size, scanMark, null);
+                streamByDateRange.finished(start);
+            });
+        } catch (RuntimeException e) {
+            streamByDateRange.failed(e);
+            event.record("streamByDateRange", startDate, endDate, -1, scanMark, e);
+            streamByDateRange.finished(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<Booking> streamByCustomerId(int customerId) {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = streamByCustomerId.start();
+        long scanMark = streamByCustomerId.scanMark(start, event);
+        try {
+            return MeasuredStream.of(delegate.streamByCustomerId(customerId), size -> {
+                streamByCustomerId.returned(start, scanMark, size);
+                event.record("streamByCustomerId", null, null, size, scanMark, null);
+                streamByCustomerId.finished(start);
+            });
+        } catch (RuntimeException e) {
+            streamByCustomerId.failed(e);
+            event.record("streamByCustomerId", null, null, -1, scanMark, e);
+            streamByCustomerId.finished(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Booking> findPageByDateRange(LocalDate startDate, LocalDate endDate, BookingCursor after, int limit) {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = findPageByDateRange.start();
+        long scanMark = findPageByDateRange.scanMark(start, event);
+        try {
+            List<Booking> bookings = delegate.findPageByDateRange(startDate, endDate, after, limit);
+            findPageByDateRange.returned(start, scanMark, bookings.size());
+            event.record("findPageByDateRange", startDate, endDate, bookings.size(), scanMark, null);
+            return bookings;
+        } catch (RuntimeException e) {
+            findPageByDateRange.failed(e);
+            event.record("findPageByDateRange", startDate, endDate, -1, scanMark, e);
+            throw e;
+        } finally {
+            findPageByDateRange.finished(start);
+        }
+    }
+
+    @Override
+    public List<Booking> findPageByCustomerId(int customerId, BookingCursor after, int limit) {
+        BookingQueryEvent event = new BookingQueryEvent();
+        event.begin();
+        long start = findPageByCustomerId.start();
+        long scanMark = findPageByCustomerId.scanMark(start, event);
+        try {
+            List<Booking> bookings = delegate.findPageByCustomerId(customerId, after, limit);
+            findPageByCustomerId.returned(start, scanMark, bookings.size());
+            event.record("findPageByCustomerId", null, null, bookings.size(), scanMark, null);
+            return bookings;
+        } catch (RuntimeException e) {
+            findPageByCustomerId.failed(e);
+            event.record("findPageByCustomerId", null, null, -1, scanMark, e);
+            throw e;
+        } finally {
+            findPageByCustomerId.finished(start);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package uk.gov.dvla.metrics;
+
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.persistence.CustomerDAO;
+import uk.gov.dvla.util.IntObjectHashMap;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * CustomerDAO decorator that records the calls, errors, latency and rows of every method
+ * in a MetricsRegistry under the CustomerDAO component, and commits a CustomerQueryEvent
+ * for each call while Flight Recorder is recording it.
+ */
+public class InstrumentedCustomerDAO implements CustomerDAO {
+
+    private static final String COMPONENT = "CustomerDAO";
+
+    private final CustomerDAO delegate;
+    private final OperationStats save;
+    private final OperationStats saveAll;
+    private final OperationStats findById;
+    private final OperationStats findAllByIds;
+    private final OperationStats findAll;
+    private final OperationStats findByName;
+    private final OperationStats resolveIdByName;
+    private final OperationStats updateName;
+    private final OperationStats updateWindows;
+
+    /**
+     * Constructor for InstrumentedCustomerDAO class.
+     *
+     * @param delegate the DAO to instrument
+     * @param registry the registry to record in
+     */
+    public InstrumentedCustomerDAO(CustomerDAO delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.save = registry.register(COMPONENT, "save");
+        this.saveAll = registry.register(COMPONENT, "saveAll");
+        this.findById = registry.register(COMPONENT, "findById");
+        this.findAllByIds = registry.register(COMPONENT, "findAllByIds");
+        this.findAll = registry.register(COMPONENT, "findAll");
+        this.findByName = registry.register(COMPONENT, "findByName");
+        this.resolveIdByName = registry.register(COMPONENT, "resolveIdByName");
+        this.updateName = registry.register(COMPONENT, "updateName");
+        this.updateWindows = registry.register(COMPONENT, "updateWindows");
+    }
+
+    @Override
+    public void save(Customer customer) {
+        CustomerQueryEvent event = new CustomerQueryEvent();
+        event.begin();
+        long start = save.start();
+        long scanMark = 0;
+        try {
+            delegate.save(customer);
+            event.record("save", -1, scanMark, null);
+        } catch (RuntimeException e) {
+            save.failed(e);
+            event.record("save", -1, scanMark, e);
+            throw e;
+        } finally {
+            save.finished(start);
+        }
+    }
+
+    @Override
+    public int[] saveAll(List<Customer> customers) {
+        CustomerQueryEvent event = new CustomerQueryEvent();
+        event.begin();
+        long start = saveAll.start();
+        long scanMark = 0;
+        try {
+            int[] skipped = delegate.saveAll(customers);
+            event.record("saveAll", -1, scanMark, null);
+            return skipped;
+        } catch (RuntimeException e) {
+            saveAll.failed(e);
+            event.record("saveAll", -1, scanMark, e);
+            throw e;
+        } finally {
+            saveAll.finished(start);
+        }
+    }
+
+    @Override
+    public Optional<Customer> findById(int customerId) {
+        CustomerQueryEvent event = new CustomerQueryEvent();
+        event.begin();
+        long start = findById.start();
+        long scanMark = findById.scanMark(start, event);
+        try {
+            Optional<Customer> customer = delegate.findById(customerId);
+            findById.returned(start, scanMark, customer.isPresent() ? 1 : 0);
+            event.record("findById", customer.isPresent() ? 1 : 0, scanMark, null);
+            return customer;
+        } catch (RuntimeException e) {
+            findById.failed(e);
+            event.record("findById", -1, scanMark, e);
+            throw e;
+        } finally {
+            findById.finished(start);
+        }
+    }
+
+    @Override
+    public IntObjectHashMap<Customer> findAllByIds(int[] customerIds) {
+        CustomerQueryEvent event = new CustomerQueryEvent();
+        event.begin();
+        long start = findAllByIds.start();
+        long scanMark = findAllByIds.scanMark(start, event);
+        try {
+            IntObjectHashMap<Customer> customers = delegate.findAllByIds(customerIds);
+            findAllByIds.returned(start, scanMark, customers.size());
+            event.record("findAllByIds", customers.size(), scanMark, null);
+            return customers;
+        } catch (RuntimeException e) {
+            findAllByIds.failed(e);
+            event.record("findAllByIds", -1, scanMark, e);
+            throw e;
+        } finally {
+            findAllByIds.finished(start);
+        }
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        CustomerQueryEvent event = new CustomerQueryEvent();
+        event.begin();
+        long start = findAll.start();
+        long scanMark = findAll.scanMark(start, event);
+        try {
+            List<Customer> customers = delegate.findAll();
+            findAll.returned(start, scanMark, customers.size());
+            event.record("findAll", customers.size(), scanMark, null);
+            return customers;
+        } catch (RuntimeException e) {
+            findAll.failed(e);
+            event.record("findAll", -1, scanMark, e);
+            throw e;
+        } finally {
+            findAll.finished(start);
+        }
+    }
+
+    @Override
+    public List<Customer> findByName(String name) {
+        CustomerQueryEvent event = new CustomerQueryEvent();
+        event.begin();
+        long start = findByName.start();
+        long scanMark = findByName.scanMark(start, event);
+        try {
+            List<Customer> customers = delegate.findByName(name);
+            findByName.returned(start, scanMark, customers.size());
+            event.record("findByName", customers.size(), scanMark, null);
+            return customers;
+        } catch (RuntimeException e) {
+            findByName.failed(e);
+            event.record("findByName", -1, scanMark, e);
+            throw e;
+        } finally {
+            findByName.finished(start);
+        }
+    }
+
+    @Override
+    public int resolveIdByName(String name) {
+        CustomerQueryEvent event = new CustomerQueryEvent();
+        event.begin();
+        long start = resolveIdByName.start();
+        long scanMark = 0;
+        try {
+            int customerId = delegate.resolveIdByName(name);
+            event.record("resolveIdByName", -1, scanMark, null);
+            return customerId;
+        } catch (RuntimeException e) {
+            resolveIdByName.failed(e);
+            event.record("resolveIdByName", -1, scanMark, e);
+            throw e;
+        } finally {
+            resolveIdByName.finished(start);
+        }
+    }
+
+    @Override
+    public void updateName(int customerId, String name) {
+        CustomerQueryEvent event = new CustomerQueryEvent();
+        event.begin();
+        long start = updateName.start();
+        long scanMark = 0;
+        try {
+            delegate.updateName(customerId, name);
+            event.record("updateName", -1, scanMark, null);
+        } catch (RuntimeException e) {
+            updateName.failed(e);
+            event.record("updateName", -1, scanMark, e);
+            throw e;
+        } finally {
+            updateName.finished(start);
+        }
+    }
+
+    @Override
+    public void updateWindows(int customerId, int windows) {
+        CustomerQueryEvent event = new CustomerQueryEvent();
+        event.begin();
+        long start = updateWindows.start();
+        long scanMark = 0;
+        try {
+            delegate.updateWindows(customerId, windows);
+            event.record("updateWindows", -1, scanMark, null);
+        } catch (RuntimeException e) {
+            updateWindows.failed(e);
+            event.record("updateWindows", -1, scanMark, e);
+            throw e;
+        } finally {
+            updateWindows.finished(start);
+        }
+    }
+}
@@ -0,0 +1,695 @@
+package uk.gov.dvla.metrics;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.BookingPage;
+import uk.gov.dvla.model.BulkLoadReport;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.Result;
+import uk.gov.dvla.service.WindowCleaningService;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * WindowCleaningService decorator that records the calls, errors and latency of every method
+ * in a MetricsRegistry under the WindowCleaningService component, and commits a ServiceCallEvent
+ * for each call while Flight Recorder is recording it.
+ * A failed Result from a try method counts as an error under the name of its ErrorCode.
+ * Wrap the DAOs in InstrumentedBookingDAO and InstrumentedCustomerDAO as well to see which
+ * DAO calls each service call makes and the rows they scan.
+ * A stream method is recorded when its stream is exhausted or closed, so that its latency and
+ * result size cover consuming the stream; a stream that is never exhausted or closed is not recorded.
+ */
+public class InstrumentedWindowCleaningService implements WindowCleaningService {
+
+    private static final String COMPONENT = "WindowCleaningService";
+
+    private final WindowCleaningService delegate;
+    private final OperationStats addCustomer;
+    private final OperationStats addCustomers;
+    private final OperationStats getCustomer;
+    private final OperationStats getCustomerIdByName;
+    private final OperationStats updateCustomerWindows;
+    private final OperationStats addBooking;
+    private final OperationStats addBookings;
+    private final OperationStats rescheduleBooking;
+    private final OperationStats getBookingByBookingId;
+    private final OperationStats getAllBookings;
+    private final OperationStats getAllBookingsForDate;
+    private final OperationStats getAllBookingsForCustomerId;
+    private final OperationStats getBookingsWithCustomerName;
+    private final OperationStats getAllBookingsForDateRange;
+    private final OperationStats getTotalWindowsForDate;
+    private final OperationStats getTotalWindowsForDateRange;
+    private final OperationStats getTotalCostForBooking;
+    private final OperationStats getTotalCostForDate;
+    private final OperationStats getTotalCostForDateRange;
+    private final OperationStats streamAllBookings;
+    private final OperationStats streamBookingsForDateRange;
+    private final OperationStats streamBookingsForCustomerId;
+    private final OperationStats getBookingsPage;
+    private final OperationStats getBookingsPageForDateRange;
+    private final OperationStats getBookingsPageForCustomerId;
+    private final OperationStats tryAddCustomer;
+    private final OperationStats tryGetCustomer;
+    private final OperationStats tryAddBooking;
+    private final OperationStats tryRescheduleBooking;
+    private final OperationStats tryGetBookingByBookingId;
+    private final OperationStats tryGetCustomerIdByName;
+    private final OperationStats findNextAvailableDate;
+
+    /**
+     * Constructor for InstrumentedWindowCleaningService class.
+     *
+     * @param delegate the service to instrument
+     * @param registry the registry to record in
+     */
+    public InstrumentedWindowCleaningService(WindowCleaningService delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.addCustomer = registry.register(COMPONENT, "addCustomer");
+        this.addCustomers = registry.register(COMPONENT, "addCustomers");
+        this.getCustomer = registry.register(COMPONENT, "getCustomer");
+        this.getCustomerIdByName = registry.register(COMPONENT, "getCustomerIdByName");
+        this.updateCustomerWindows = registry.register(COMPONENT, "updateCustomerWindows");
+        this.addBooking = registry.register(COMPONENT, "addBooking");
+        this.addBookings = registry.register(COMPONENT, "addBookings");
+        this.rescheduleBooking = registry.register(COMPONENT, "rescheduleBooking");
+        this.getBookingByBookingId = registry.register(COMPONENT, "getBookingByBookingId");
+        this.getAllBookings = registry.register(COMPONENT, "getAllBookings");
+        this.getAllBookingsForDate = registry.register(COMPONENT, "getAllBookingsForDate");
+        this.getAllBookingsForCustomerId = registry.register(COMPONENT, "getAllBookingsForCustomerId");
+        this.getBookingsWithCustomerName = registry.register(COMPONENT, "getBookingsWithCustomerName");
+        this.getAllBookingsForDateRange = registry.register(COMPONENT, "getAllBookingsForDateRange");
+        this.getTotalWindowsForDate = registry.register(COMPONENT, "getTotalWindowsForDate");
+        this.getTotalWindowsForDateRange = registry.register(COMPONENT, "getTotalWindowsForDateRange");
+        this.getTotalCostForBooking = registry.register(COMPONENT, "getTotalCostForBooking");
+        this.getTotalCostForDate = registry.register(COMPONENT, "getTotalCostForDate");
+        this.getTotalCostForDateRange = registry.register(COMPONENT, "getTotalCostForDateRange");
+        this.streamAllBookings = registry.register(COMPONENT, "streamAllBookings");
+        this.streamBookingsForDateRange = registry.register(COMPONENT, "streamBookingsForDateRange");
+        this.streamBookingsForCustomerId = registry.register(COMPONENT, "streamBookingsForCustomerId");
+        this.getBookingsPage = registry.register(COMPONENT, "getBookingsPage");
+        this.getBookingsPageForDateRange = registry.register(COMPONENT, "getBookingsPageForDateRange");
+        this.getBookingsPageForCustomerId = registry.register(COMPONENT, "getBookingsPageForCustomerId");
+        this.tryAddCustomer = registry.register(COMPONENT, "tryAddCustomer");
+        this.tryGetCustomer = registry.register(COMPONENT, "tryGetCustomer");
+        this.tryAddBooking = registry.register(COMPONENT, "tryAddBooking");
+        this.tryRescheduleBooking = registry.register(COMPONENT, "tryRescheduleBooking");
+        this.tryGetBookingByBookingId = registry.register(COMPONENT, "tryGetBookingByBookingId");
+        this.tryGetCustomerIdByName = registry.register(COMPONENT, "tryGetCustomerIdByName");
+        this.findNextAvailableDate = registry.register(COMPONENT, "findNextAvailableDate");
+    }
+
+    @Override
+    public void addCustomer(Customer customer) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = addCustomer.start();
+        try {
+            delegate.addCustomer(customer);
+            event.record("addCustomer", null, null, -1, null);
+        } catch (RuntimeException e) {
+            addCustomer.failed(e);
+            event.record("addCustomer", null, null, -1, e);
+            throw e;
+        } finally {
+            addCustomer.finished(start);
+        }
+    }
+
+    @Override
+    public BulkLoadReport addCustomers(Collection<Customer> customers) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = addCustomers.start();
+        try {
+            BulkLoadReport report = delegate.addCustomers(customers);
+            event.record("addCustomers", null, null, -1, null);
+            return report;
+        } catch (RuntimeException e) {
+            addCustomers.failed(e);
+            event.record("addCustomers", null, null, -1, e);
+            throw e;
+        } finally {
+            addCustomers.finished(start);
+        }
+    }
+
+    @Override
+    public Customer getCustomer(int customerId) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getCustomer.start();
+        try {
+            Customer customer = delegate.getCustomer(customerId);
+            event.record("getCustomer", null, null, -1, null);
+            return customer;
+        } catch (RuntimeException e) {
+            getCustomer.failed(e);
+            event.record("getCustomer", null, null, -1, e);
+            throw e;
+        } finally {
+            getCustomer.finished(start);
+        }
+    }
+
+    @Override
+    public int getCustomerIdByName(String name) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getCustomerIdByName.start();
+        try {
+            int customerId = delegate.getCustomerIdByName(name);
+            event.record("getCustomerIdByName", null, null, -1, null);
+            return customerId;
+        } catch (RuntimeException e) {
+            getCustomerIdByName.failed(e);
+            event.record("getCustomerIdByName", null, null, -1, e);
+            throw e;
+        } finally {
+            getCustomerIdByName.finished(start);
+        }
+    }
+
+    @Override
+    public void updateCustomerWindows(int customerId, int windows) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = updateCustomerWindows.start();
+        try {
+            delegate.updateCustomerWindows(customerId, windows);
+            event.record("updateCustomerWindows", null, null, -1, null);
+        } catch (RuntimeException e) {
+            updateCustomerWindows.failed(e);
+            event.record("updateCustomerWindows", null, null, -1, e);
+            throw e;
+        } finally {
+            updateCustomerWindows.finished(start);
+        }
+    }
+
+    @Override
+    public void addBooking(Booking booking) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = addBooking.start();
+        try {
+            delegate.addBooking(booking);
+            event.record("addBooking", null, null, -1, null);
+        } catch (RuntimeException e) {
+            addBooking.failed(e);
+            event.record("addBooking", null, null, -1, e);
+            throw e;
+        } finally {
+            addBooking.finished(start);
+        }
+    }
+
+    @Override
+    public BulkLoadReport addBookings(Collection<Booking> bookings) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = addBookings.start();
+        try {
+            BulkLoadReport report = delegate.addBookings(bookings);
+            event.record("addBookings", null, null, report.getLoadedCount(), null);
+            return report;
+        } catch (RuntimeException e) {
+            addBookings.failed(e);
+            event.record("addBookings", null, null, -1, e);
+            throw e;
+        } finally {
+            addBookings.finished(start);
+        }
+    }
+
+    @Override
+    public void rescheduleBooking(int bookingNumber, LocalDate date) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = rescheduleBooking.start();
+        try {
+            delegate.rescheduleBooking(bookingNumber, date);
+            event.record("rescheduleBooking", date, date, -1, null);
+        } catch (RuntimeException e) {
+            rescheduleBooking.failed(e);
+            event.record("rescheduleBooking", date, date, -1, e);
+            throw e;
+        } finally {
+            rescheduleBooking.finished(start);
+        }
+    }
+
+    @Override
+    public Booking getBookingByBookingId(int bookingNumber) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getBookingByBookingId.start();
+        try {
+            Booking booking = delegate.getBookingByBookingId(bookingNumber);
+            event.record("getBookingByBookingId", null, null, 1, null);
+            return booking;
+        } catch (RuntimeException e) {
+            getBookingByBookingId.failed(e);
+            event.record("getBookingByBookingId", null, null, -1, e);
+            throw e;
+        } finally {
+            getBookingByBookingId.finished(start);
+        }
+    }
+
+    @Override
+    public List<Booking> getAllBookings() {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getAllBookings.start();
+        try {
+            List<Booking> bookings = delegate.getAllBookings();
+            event.record("getAllBookings", null, null, bookings.size(), null);
+            return bookings;
+        } catch (RuntimeException e) {
+            getAllBookings.failed(e);
+            event.record("getAllBookings", null, null, -1, e);
+            throw e;
+        } finally {
+            getAllBookings.finished(start);
+        }
+    }
+
+    @Override
+    public List<Booking> getAllBookingsForDate(LocalDate date) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getAllBookingsForDate.start();
+        try {
+            List<Booking> bookings = delegate.getAllBookingsForDate(date);
+            event.record("getAllBookingsForDate", date, date, bookings.size(), null);
+            return bookings;
+        } catch (RuntimeException e) {
+            getAllBookingsForDate.failed(e);
+            event.record("getAllBookingsForDate", date, date, -1, e);
+            throw e;
+        } finally {
+            getAllBookingsForDate.finished(start);
+        }
+    }
+
+    @Override
+    public List<Booking> getAllBookingsForCustomerId(int customerId) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getAllBookingsForCustomerId.start();
+        try {
+            List<Booking> bookings = delegate.getAllBookingsForCustomerId(customerId);
+            event.record("getAllBookingsForCustomerId", null, null, bookings.size(), null);
+            return bookings;
+        } catch (RuntimeException e) {
+            getAllBookingsForCustomerId.failed(e);
+            event.record("getAllBookingsForCustomerId", null, null, -1, e);
+            throw e;
+        } finally {
+            getAllBookingsForCustomerId.finished(start);
+        }
+    }
+
+    @Override
+    public List<Booking> getBookingsWithCustomerName(String name) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getBookingsWithCustomerName.start();
+        try {
+            List<Booking> bookings = delegate.getBookingsWithCustomerName(name);
+            event.record("getBookingsWithCustomerName", null, null, bookings.size(), null);
+            return bookings;
+        } catch (RuntimeException e) {
+            getBookingsWithCustomerName.failed(e);
+            event.record("getBookingsWithCustomerName", null, null, -1, e);
+            throw e;
+        } finally {
+            getBookingsWithCustomerName.finished(start);
+        }
+    }
+
+    @Override
+    public List<Booking> getAllBookingsForDateRange(LocalDate startDate, LocalDate endDate) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getAllBookingsForDateRange.start();
+        try {
+            List<Booking> bookings = delegate.getAllBookingsForDateRange(startDate, endDate);
+            event.record("getAllBookingsForDateRange", startDate, endDate, bookings.size(), null);
+            return bookings;
+        } catch (RuntimeException e) {
+            getAllBookingsForDateRange.failed(e);
+            event.record("getAllBookingsForDateRange", startDate, endDate, -1, e);
+            throw e;
+        } finally {
+            getAllBookingsForDateRange.finished(start);
+        }
+    }
+
+    @Override
+    public int getTotalWindowsForDate(LocalDate date) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getTotalWindowsForDate.start();
+        try {
+            int windows = delegate.getTotalWindowsForDate(date);
+            event.record("getTotalWindowsForDate", date, date, -1, null);
+            return windows;
+        } catch (RuntimeException e) {
+            getTotalWindowsForDate.failed(e);
+            event.record("getTotalWindowsForDate", date, date, -1, e);
+            throw e;
+        } finally {
+            getTotalWindowsForDate.finished(start);
+        }
+    }
+
+    @Override
+    public int getTotalWindowsForDateRange(LocalDate startDate, LocalDate endDate) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getTotalWindowsForDateRange.start();
+        try {
+            int windows = delegate.getTotalWindowsForDateRange(startDate, endDate);
+            event.record("getTotalWindowsForDateRange", startDate, endDate, -1, null);
+            return windows;
+        } catch (RuntimeException e) {
+            getTotalWindowsForDateRange.failed(e);
+            event.record("getTotalWindowsForDateRange", startDate, endDate, -1, e);
+            throw e;
+        } finally {
+            getTotalWindowsForDateRange.finished(start);
+        }
+    }
+
+    @Override
+    public int getTotalCostForBooking(int bookingNumber) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getTotalCostForBooking.start();
+        try {
+            int cost = delegate.getTotalCostForBooking(bookingNumber);
+            event.record("getTotalCostForBooking", null, null, -1, null);
+            return cost;
+        } catch (RuntimeException e) {
+            getTotalCostForBooking.failed(e);
+            event.record("getTotalCostForBooking", null, null, -1, e);
+            throw e;
+        } finally {
+            getTotalCostForBooking.finished(start);
+        }
+    }
+
+    @Override
+    public int getTotalCostForDate(LocalDate date) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getTotalCostForDate.start();
+        try {
+            int cost = delegate.getTotalCostForDate(date);
+            event.record("getTotalCostForDate", date, date, -1, null);
+            return cost;
+        } catch (RuntimeException e) {
+            getTotalCostForDate.failed(e);
+            event.record("getTotalCostForDate", date, date, -1, e);
+            throw e;
+        } finally {
+            getTotalCostForDate.finished(start);
+        }
+    }
+
+    @Override
+    public int getTotalCostForDateRange(LocalDate startDate, LocalDate endDate) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getTotalCostForDateRange.start();
+        try {
+            int cost = delegate.getTotalCostForDateRange(startDate, endDate);
+            event.record("getTotalCostForDateRange", startDate, endDate, -1, null);
+            return cost;
+        } catch (RuntimeException e) {
+            getTotalCostForDateRange.failed(e);
+            event.record("getTotalCostForDateRange", startDate, endDate, -1, e);
+            throw e;
+        } finally {
+            getTotalCostForDateRange.finished(start);
+        }
+    }
+
+    @Override
+    public Stream<Booking> streamAllBookings() {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = streamAllBookings.start();
+        try {
+            return MeasuredStream.of(delegate.streamAllBookings(), size -> {
+                event.record("streamAllBookings", null, null, size, null);
+                streamAllBookings.finished(start);
+            });
+        } catch (RuntimeException e) {
+            streamAllBookings.failed(e);
+            event.record("streamAllBookings", null, null, -1, e);
+            streamAllBookings.finished(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<Booking> streamBookingsForDateRange(LocalDate startDate, LocalDate endDate) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = streamBookingsForDateRange.start();
+        try {
+            return MeasuredStream.of(delegate.streamBookingsForDateRange(startDate, endDate), size -> {
+                event.record("streamBookingsForDateRange", startDate, endDate, size, null);
+                streamBookingsForDateRange.finished(start);
+            });
+        } catch (RuntimeException e) {
+            streamBookingsForDateRange.failed(e);
+            event.record("streamBookingsForDateRange", startDate, endDate, -1, e);
+            streamBookingsForDateRange.finished(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<Booking> streamBookingsForCustomerId(int customerId) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = streamBookingsForCustomerId.start();
+        try {
+            return MeasuredStream.of(delegate.streamBookingsForCustomerId(customerId), size -> {
+                event.record("streamBookingsForCustomerId", null, null, size, null);
+                streamBookingsForCustomerId.finished(start);
+            });
+        } catch (RuntimeException e) {
+            streamBookingsForCustomerId.failed(e);
+            event.record("streamBookingsForCustomerId", null, null, -1, e);
+            streamBookingsForCustomerId.finished(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public BookingPage getBookingsPage(BookingCursor after, int limit) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getBookingsPage.start();
+        try {
+            BookingPage page = delegate.getBookingsPage(after, limit);
+            event.record("getBookingsPage", null, null, page.getBookings().size(), null);
+            return page;
+        } catch (RuntimeException e) {
+            getBookingsPage.failed(e);
+            event.record("getBookingsPage", null, null, -1, e);
+            throw e;
+        } finally {
+            getBookingsPage.finished(start);
+        }
+    }
+
+    @Override
+    public BookingPage getBookingsPageForDateRange(LocalDate startDate, LocalDate endDate, BookingCursor after, int limit) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getBookingsPageForDateRange.start();
+        try {
+            BookingPage page = delegate.getBookingsPageForDateRange(startDate, endDate, after, limit);
+            event.record("getBookingsPageForDateRange", startDate, endDate, page.getBookings().size(), null);
+            return page;
+        } catch (RuntimeException e) {
+            getBookingsPageForDateRange.failed(e);
+            event.record("getBookingsPageForDateRange", startDate, endDate, -1, e);
+            throw e;
+        } finally {
+            getBookingsPageForDateRange.finished(start);
+        }
+    }
+
+    @Override
+    public BookingPage getBookingsPageForCustomerId(int customerId, BookingCursor after, int limit) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = getBookingsPageForCustomerId.start();
+        try {
+            BookingPage page = delegate.getBookingsPageForCustomerId(customerId, after, limit);
+            event.record("getBookingsPageForCustomerId", null, null, page.getBookings().size(), null);
+            return page;
+        } catch (RuntimeException e) {
+            getBookingsPageForCustomerId.failed(e);
+            event.record("getBookingsPageForCustomerId", null, null, -1, e);
+            throw e;
+        } finally {
+            getBookingsPageForCustomerId.finished(start);
+        }
+    }
+
+    @Override
+    public Result<Void> tryAddCustomer(Customer customer) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = tryAddCustomer.start();
+        try {
+            Result<Void> result = delegate.tryAddCustomer(customer);
+            if (!result.isOk()) {
+                tryAddCustomer.rejected(result.getErrorCode());
+            }
+            event.record("tryAddCustomer", null, null, result);
+            return result;
+        } catch (RuntimeException e) {
+            tryAddCustomer.failed(e);
+            event.record("tryAddCustomer", null, null, -1, e);
+            throw e;
+        } finally {
+            tryAddCustomer.finished(start);
+        }
+    }
+
+    @Override
+    public Result<Customer> tryGetCustomer(int customerId) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = tryGetCustomer.start();
+        try {
+            Result<Customer> result = delegate.tryGetCustomer(customerId);
+            if (!result.isOk()) {
+                tryGetCustomer.rejected(result.getErrorCode());
+            }
+            event.record("tryGetCustomer", null, null, result);
+            return result;
+        } catch (RuntimeException e) {
+            tryGetCustomer.failed(e);
+            event.record("tryGetCustomer", null, null, -1, e);
+            throw e;
+        } finally {
+            tryGetCustomer.finished(start);
+        }
+    }
+
+    @Override
+    public Result<Void> tryAddBooking(Booking booking) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = tryAddBooking.start();
+        try {
+            Result<Void> result = delegate.tryAddBooking(booking);
+            if (!result.isOk()) {
+                tryAddBooking.rejected(result.getErrorCode());
+            }
+            event.record("tryAddBooking", null, null, result);
+            return result;
+        } catch (RuntimeException e) {
+            tryAddBooking.failed(e);
+            event.record("tryAddBooking", null, null, -1, e);
+            throw e;
+        } finally {
+            tryAddBooking.finished(start);
+        }
+    }
+
+    @Override
+    public Result<Void> tryRescheduleBooking(int bookingNumber, LocalDate date) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = tryRescheduleBooking.start();
+        try {
+            Result<Void> result = delegate.tryRescheduleBooking(bookingNumber, date);
+            if (!result.isOk()) {
+                tryRescheduleBooking.rejected(result.getErrorCode());
+            }
+            event.record("tryRescheduleBooking", date, date, result);
+            return result;
+        } catch (RuntimeException e) {
+            tryRescheduleBooking.failed(e);
+            event.record("tryRescheduleBooking", date, date, -1, e);
+            throw e;
+        } finally {
+            tryRescheduleBooking.finished(start);
+        }
+    }
+
+    @Override
+    public Result<Booking> tryGetBookingByBookingId(int bookingNumber) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = tryGetBookingByBookingId.start();
+        try {
+            Result<Booking> result = delegate.tryGetBookingByBookingId(bookingNumber);
+            if (!result.isOk()) {
+                tryGetBookingByBookingId.rejected(result.getErrorCode());
+            }
+            event.record("tryGetBookingByBookingId", null, null, result);
+            return result;
+        } catch (RuntimeException e) {
+            tryGetBookingByBookingId.failed(e);
+            event.record("tryGetBookingByBookingId", null, null, -1, e);
+            throw e;
+        } finally {
+            tryGetBookingByBookingId.finished(start);
+        }
+    }
+
+    @Override
+    public Result<Integer> tryGetCustomerIdByName(String name) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = tryGetCustomerIdByName.start();
+        try {
+            Result<Integer> result = delegate.tryGetCustomerIdByName(name);
+            if (!result.isOk()) {
+                tryGetCustomerIdByName.rejected(result.getErrorCode());
+            }
+            event.record("tryGetCustomerIdByName", null, null, result);
+            return result;
+        } catch (RuntimeException e) {
+            tryGetCustomerIdByName.failed(e);
+            event.record("tryGetCustomerIdByName", null, null, -1, e);
+            throw e;
+        } finally {
+            tryGetCustomerIdByName.finished(start);
+        }
+    }
+
+    @Override
+    public LocalDate findNextAvailableDate(int customerId, LocalDate from) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        long start = findNextAvailableDate.start();
+        try {
+            LocalDate date = delegate.findNextAvailableDate(customerId, from);
+            event.record("findNextAvailableDate", from, from, -1, null);
+            return date;
+        } catch (RuntimeException e) {
+            findNextAvailableDate.failed(e);
+            event.record("findNextAvailableDate", from, from, -1, e);
+            throw e;
+        } finally {
+            findNextAvailableDate.finished(start);
+        }
+    }
+}
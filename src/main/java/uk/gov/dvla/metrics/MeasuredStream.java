@@ -0,0 +1,123 @@
+package uk.gov.dvla.metrics;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Spliterator that passes a stream's elements through and counts them, so that the instrumented
+ * decorators can record a stream call once it has been consumed rather than when it was created.
+ * The count is reported once, when the stream is exhausted or closed, whichever comes first.
+ * A stream that is neither exhausted nor closed, such as one cut short by findFirst and then
+ * dropped, is never reported.
+ * The stream is sequential, so it is consumed on a single thread and the ScanCounter of that
+ * thread sees the rows its source passes over.
+ *
+ * @param <T> the type of the stream's elements
+ */
+final class MeasuredStream<T> implements Spliterator<T> {
+
+    /**
+     * The wrapped stream's spliterator.
+     */
+    private final Spliterator<T> source;
+    /**
+     * Told the number of elements passed through when the stream completes.
+     */
+    private final IntConsumer completion;
+    /**
+     * Elements passed through so far.
+     */
+    private int count;
+    /**
+     * Whether the completion has been told.
+     */
+    private boolean completed;
+
+    /**
+     * Constructor for MeasuredStream class.
+     *
+     * @param source     the wrapped stream's spliterator
+     * @param completion told the number of elements passed through when the stream completes
+     */
+    private MeasuredStream(Spliterator<T> source, IntConsumer completion) {
+        this.source = source;
+        this.completion = completion;
+    }
+
+    /**
+     * Returns a sequential stream of the given stream's elements that reports how many it passed
+     * through when it is exhausted or closed. Closing it closes the given stream.
+     *
+     * @param stream     the stream to measure
+     * @param completion told the number of elements passed through, once
+     * @param <T>        the type of the stream's elements
+     * @return the measured stream
+     */
+    static <T> Stream<T> of(Stream<T> stream, IntConsumer completion) {
+        MeasuredStream<T> measured = new MeasuredStream<>(stream.spliterator(), completion);
+        return StreamSupport.stream(measured, false)
+                .onClose(stream::close)
+                .onClose(measured::complete);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        boolean advanced = source.tryAdvance(element -> {
+            count++;
+            action.accept(element);
+        });
+        if (!advanced) {
+            complete();
+        }
+        return advanced;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        source.forEachRemaining(element -> {
+            count++;
+            action.accept(element);
+        });
+        complete();
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return source.estimateSize();
+    }
+
+    /**
+     * Returns the source's characteristics without SIZED, which would let count() answer
+     * without passing the elements through.
+     *
+     * @return the characteristics
+     */
+    @Override
+    public int characteristics() {
+        return source.characteristics() & ~(SIZED | SUBSIZED);
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        return source.getComparator();
+    }
+
+    /**
+     * Tells the completion the count, the first time the stream is exhausted or closed.
+     */
+    private void complete() {
+        if (!completed) {
+            completed = true;
+            completion.accept(count);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package uk.gov.dvla.metrics;
+
+import uk.gov.dvla.persistence.ScanCounter;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds the statistics of the instrumented service and DAOs and publishes each operation as an
+ * MXBean named uk.gov.dvla:type={component},name={registry name},operation={operation}.
+ * Operations are registered when an instrumented decorator is created, so the decorators look up
+ * nothing per call.
+ */
+public final class MetricsRegistry implements Closeable {
+
+    /**
+     * JMX domain of every published operation.
+     */
+    public static final String DOMAIN = "uk.gov.dvla";
+    /**
+     * One call in this many is measured unless the registry is given another interval.
+     */
+    public static final int DEFAULT_LATENCY_SAMPLE_INTERVAL = 8;
+
+    private final String name;
+    private final int latencySampleInterval;
+    private final MBeanServer server;
+    private final Map<String, OperationStats> operations = new LinkedHashMap<>();
+    private final Map<String, ObjectName> objectNames = new LinkedHashMap<>();
+
+    /**
+     * Constructor for MetricsRegistry class that measures one call in DEFAULT_LATENCY_SAMPLE_INTERVAL
+     * and publishes to the platform MBean server.
+     *
+     * @param name the name that tells this registry's MXBeans apart from other registries'
+     */
+    public MetricsRegistry(String name) {
+        this(name, DEFAULT_LATENCY_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Constructor for MetricsRegistry class that publishes to the platform MBean server.
+     *
+     * @param name                  the name that tells this registry's MXBeans apart from other registries'
+     * @param latencySampleInterval a power of two, one call in which has its latency and rows measured; 1 measures every call
+     */
+    public MetricsRegistry(String name, int latencySampleInterval) {
+        this(name, latencySampleInterval, ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Constructor for MetricsRegistry class.
+     *
+     * @param name                  the name that tells this registry's MXBeans apart from other registries'
+     * @param latencySampleInterval a power of two, one call in which has its latency and rows measured; 1 measures every call
+     * @param server                the MBean server to publish to
+     * @throws IllegalArgumentException if latencySampleInterval is not a power of two
+     */
+    public MetricsRegistry(String name, int latencySampleInterval, MBeanServer server) {
+        if (latencySampleInterval < 1 || Integer.bitCount(latencySampleInterval) != 1) {
+            throw new IllegalArgumentException("Latency sample interval must be a power of two");
+        }
+        this.name = name;
+        this.latencySampleInterval = latencySampleInterval;
+        this.server = server;
+        ScanCounter.enable();
+    }
+
+    /**
+     * Returns the statistics of an operation.
+     *
+     * @param component the instrumented component, such as BookingDAO
+     * @param operation the method name
+     * @return the statistics, or null if the operation has not been registered
+     */
+    public synchronized OperationStats getOperation(String component, String operation) {
+        return operations.get(component + "." + operation);
+    }
+
+    /**
+     * Returns the statistics of every registered operation.
+     *
+     * @return the statistics keyed by component and method name, such as BookingDAO.findByDate
+     */
+    public synchronized Map<String, OperationStats> getOperations() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(operations));
+    }
+
+    /**
+     * Unpublishes every operation's MXBean.
+     */
+    @Override
+    public synchronized void close() {
+        for (ObjectName objectName : objectNames.values()) {
+            try {
+                server.unregisterMBean(objectName);
+            } catch (InstanceNotFoundException e) {
+                // already unregistered through JMX
+            } catch (JMException e) {
+                throw new IllegalStateException("Cannot unregister " + objectName, e);
+            }
+        }
+        objectNames.clear();
+    }
+
+    /**
+     * Registers and publishes an operation.
+     *
+     * @param component the instrumented component
+     * @param operation the method name
+     * @return the operation's statistics
+     * @throws IllegalStateException if the operation is already registered, here or by another
+     *                               registry with the same name
+     */
+    synchronized OperationStats register(String component, String operation) {
+        String key = component + "." + operation;
+        if (operations.containsKey(key)) {
+            throw new IllegalStateException("Already registered: " + key);
+        }
+
+        OperationStats stats = new OperationStats(key, latencySampleInterval);
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + component
+                    + ",name=" + ObjectName.quote(name) + ",operation=" + operation);
+            server.registerMBean(stats, objectName);
+            objectNames.put(key, objectName);
+        } catch (InstanceAlreadyExistsException e) {
+            throw new IllegalStateException("Already registered: " + key + " in " + name, e);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + key, e);
+        }
+        operations.put(key, stats);
+        return stats;
+    }
+}
@@ -0,0 +1,226 @@
+package uk.gov.dvla.metrics;
+
+import jdk.jfr.Event;
+import uk.gov.dvla.model.ErrorCode;
+import uk.gov.dvla.persistence.ScanCounter;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of one instrumented operation: calls, errors by exception type, a latency histogram
+ * and, for DAO queries, rows scanned against rows returned.
+ * Every call is counted exactly, but reading the clock and the scan counter costs more than the
+ * rest of the recording put together, so latency and rows are measured on a random sample of calls,
+ * whose size getMeasuredCalls reports.
+ * Recording uses only striped counters and the histogram's atomic increments, so it is safe from
+ * any number of threads.
+ */
+public final class OperationStats implements OperationStatsMXBean {
+
+    /**
+     * Start time of a call that is not being measured.
+     */
+    static final long NOT_MEASURED = Long.MIN_VALUE;
+
+    /**
+     * The operation's name, unique within its component.
+     */
+    private final String name;
+    /**
+     * One less than the power of two of calls per measured call.
+     */
+    private final int sampleMask;
+    /**
+     * Calls made, successful or not.
+     */
+    private final LongAdder calls = new LongAdder();
+    /**
+     * Calls that threw or returned a failed Result.
+     */
+    private final LongAdder errors = new LongAdder();
+    /**
+     * Failed calls keyed by exception simple name or ErrorCode name.
+     */
+    private final Map<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+    /**
+     * Latencies of the measured calls.
+     */
+    private final LatencyHistogram latency = new LatencyHistogram();
+    /**
+     * Measured calls that returned rows, the divisor of the per-call row averages.
+     */
+    private final LongAdder measuredQueries = new LongAdder();
+    /**
+     * Rows returned by the measured queries.
+     */
+    private final LongAdder rowsReturned = new LongAdder();
+    /**
+     * Rows examined by the measured queries, returned or passed over.
+     */
+    private final LongAdder rowsScanned = new LongAdder();
+
+    /**
+     * Constructor for OperationStats class.
+     *
+     * @param name                  the operation's name
+     * @param latencySampleInterval a power of two, one call in which is measured
+     */
+    OperationStats(String name, int latencySampleInterval) {
+        this.name = name;
+        this.sampleMask = latencySampleInterval - 1;
+    }
+
+    /**
+     * Returns the operation's name.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public Map<String, Long> getErrorsByType() {
+        Map<String, Long> counts = new TreeMap<>();
+        errorsByType.forEach((type, count) -> counts.put(type, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Returns the latency histogram of the operation's measured calls.
+     *
+     * @return the histogram
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public long getMeasuredCalls() {
+        return latency.getCount();
+    }
+
+    @Override
+    public double getLatencyP50Micros() {
+        return latency.getPercentile(0.50) / 1000.0;
+    }
+
+    @Override
+    public double getLatencyP99Micros() {
+        return latency.getPercentile(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getLatencyP999Micros() {
+        return latency.getPercentile(0.999) / 1000.0;
+    }
+
+    @Override
+    public double getLatencyMaxMicros() {
+        return latency.getMax() / 1000.0;
+    }
+
+    @Override
+    public double getRowsReturnedPerCall() {
+        long queries = measuredQueries.sum();
+        return queries == 0 ? 0 : (double) rowsReturned.sum() / queries;
+    }
+
+    @Override
+    public double getRowsScannedPerCall() {
+        long queries = measuredQueries.sum();
+        return queries == 0 ? 0 : (double) rowsScanned.sum() / queries;
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        errorsByType.clear();
+        latency.reset();
+        measuredQueries.reset();
+        rowsReturned.reset();
+        rowsScanned.reset();
+    }
+
+    /**
+     * Starts a call, deciding whether it is measured.
+     *
+     * @return the start time of a measured call, or NOT_MEASURED
+     */
+    long start() {
+        return (ThreadLocalRandom.current().nextInt() & sampleMask) == 0 ? System.nanoTime() : NOT_MEASURED;
+    }
+
+    /**
+     * Marks the start of a query's scan.
+     *
+     * @param start the value returned by start
+     * @param event the query's Flight Recorder event, which also needs the mark while it is enabled
+     * @return the calling thread's ScanCounter count for a measured call or enabled event, otherwise 0
+     */
+    long scanMark(long start, Event event) {
+        return start != NOT_MEASURED || event.isEnabled() ? ScanCounter.discardedSoFar() : 0;
+    }
+
+    /**
+     * Records the rows a query returned, and scanned since its scan mark.
+     *
+     * @param start    the value returned by start
+     * @param scanMark the value returned by scanMark
+     * @param returned the number of rows returned
+     */
+    void returned(long start, long scanMark, int returned) {
+        if (start != NOT_MEASURED) {
+            measuredQueries.increment();
+            rowsReturned.add(returned);
+            rowsScanned.add(returned + ScanCounter.discardedSoFar() - scanMark);
+        }
+    }
+
+    /**
+     * Records a call that threw.
+     *
+     * @param failure the exception thrown
+     */
+    void failed(RuntimeException failure) {
+        errors.increment();
+        errorsByType.computeIfAbsent(failure.getClass().getSimpleName(), type -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records a call that returned a failed Result.
+     *
+     * @param errorCode the reason the result failed
+     */
+    void rejected(ErrorCode errorCode) {
+        errors.increment();
+        errorsByType.computeIfAbsent(errorCode.name(), type -> new LongAdder()).increment();
+    }
+
+    /**
+     * Ends a call.
+     *
+     * @param start the value returned by start
+     */
+    void finished(long start) {
+        calls.increment();
+        if (start != NOT_MEASURED) {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package uk.gov.dvla.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the statistics of one instrumented operation.
+ */
+public interface OperationStatsMXBean {
+
+    /**
+     * Returns the number of calls, successful or not.
+     *
+     * @return the number of calls
+     */
+    long getCalls();
+
+    /**
+     * Returns the number of calls that threw or returned a failed Result.
+     *
+     * @return the number of failed calls
+     */
+    long getErrors();
+
+    /**
+     * Returns the number of calls that threw or returned a failed Result, by exception class or error code.
+     *
+     * @return the number of failed calls keyed by the simple name of the exception class, or the ErrorCode name
+     */
+    Map<String, Long> getErrorsByType();
+
+    /**
+     * Returns the number of calls whose latency was measured, which the percentiles rest on.
+     * Only one call in the registry's sample interval is measured, so at low call rates a p99
+     * or p999 may rest on a handful of calls.
+     *
+     * @return the number of measured calls
+     */
+    long getMeasuredCalls();
+
+    /**
+     * Returns the median latency.
+     *
+     * @return the latency in microseconds
+     */
+    double getLatencyP50Micros();
+
+    /**
+     * Returns the 99th percentile latency.
+     *
+     * @return the latency in microseconds
+     */
+    double getLatencyP99Micros();
+
+    /**
+     * Returns the 99.9th percentile latency.
+     *
+     * @return the latency in microseconds
+     */
+    double getLatencyP999Micros();
+
+    /**
+     * Returns the largest latency.
+     *
+     * @return the latency in microseconds
+     */
+    double getLatencyMaxMicros();
+
+    /**
+     * Returns the average number of rows a measured DAO query returned.
+     *
+     * @return the rows returned per call
+     */
+    double getRowsReturnedPerCall();
+
+    /**
+     * Returns the average number of rows a measured DAO query examined.
+     * More rows scanned than returned means the query passed over rows it did not need.
+     * Only DAOs that report to ScanCounter count the rows they pass over: ColumnarBookingDAOImpl,
+     * MappedBookingDAO and MappedCustomerDAO. For any other DAO rows scanned equal rows returned.
+     *
+     * @return the rows scanned per call
+     */
+    double getRowsScannedPerCall();
+
+    /**
+     * Clears every statistic.
+     */
+    void reset();
+}
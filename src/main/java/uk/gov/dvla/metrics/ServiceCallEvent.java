@@ -0,0 +1,82 @@
+package uk.gov.dvla.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import uk.gov.dvla.model.Result;
+
+import java.time.LocalDate;
+
+/**
+ * Flight Recorder event for a WindowCleaningService call, committed by InstrumentedWindowCleaningService.
+ */
+@Name("uk.gov.dvla.ServiceCall")
+@Label("Service Call")
+@Category({"Window Cleaning", "Service"})
+@Description("A call to WindowCleaningService")
+@StackTrace(false)
+final class ServiceCallEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Start Date")
+    @Description("First date of the range asked for, or the single date")
+    String startDate;
+
+    @Label("End Date")
+    @Description("Last date of the range asked for")
+    String endDate;
+
+    @Label("Result Size")
+    @Description("Bookings returned, or -1 when the operation does not return bookings")
+    int resultSize;
+
+    @Label("Failure")
+    @Description("Simple name of the exception thrown, or the ErrorCode of a failed Result, if the call failed")
+    String failure;
+
+    /**
+     * Commits the event if it is enabled and passes its threshold.
+     *
+     * @param operation  the method name
+     * @param startDate  the first date asked for, or null
+     * @param endDate    the last date asked for, or null
+     * @param resultSize the number of bookings returned, or -1
+     * @param failure    the exception thrown, or null
+     */
+    void record(String operation, LocalDate startDate, LocalDate endDate, int resultSize, RuntimeException failure) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.startDate = startDate == null ? null : startDate.toString();
+            this.endDate = endDate == null ? null : endDate.toString();
+            this.resultSize = resultSize;
+            this.failure = failure == null ? null : failure.getClass().getSimpleName();
+            commit();
+        }
+    }
+
+    /**
+     * Commits the event for a call that returned a Result, if it is enabled and passes its threshold.
+     *
+     * @param operation the method name
+     * @param startDate the first date asked for, or null
+     * @param endDate   the last date asked for, or null
+     * @param result    the result returned
+     */
+    void record(String operation, LocalDate startDate, LocalDate endDate, Result<?> result) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.startDate = startDate == null ? null : startDate.toString();
+            this.endDate = endDate == null ? null : endDate.toString();
+            this.resultSize = -1;
+            this.failure = result.isOk() ? null : result.getErrorCode().name();
+            commit();
+        }
+    }
+}
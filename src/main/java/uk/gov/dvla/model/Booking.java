@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 
 /**
  * Booking model class.
@@ -14,6 +15,13 @@ import java.time.LocalDate;
 @EqualsAndHashCode
 public class Booking {
 
+    /**
+     * Orders bookings by booking date, then by booking id.
+     */
+    public static final Comparator<Booking> DATE_ORDER = Comparator
+            .comparing(Booking::getBookingDate)
+            .thenComparingInt(Booking::getId);
+
     /**
      * Constructor for Booking class.
      *
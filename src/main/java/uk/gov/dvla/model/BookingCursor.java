@@ -0,0 +1,66 @@
+package uk.gov.dvla.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * BookingCursor model class.
+ * Marks a position in booking date then id order, so the next page of bookings can be
+ * found from the last booking of the previous page rather than by skipping rows.
+ */
+@Getter
+@EqualsAndHashCode
+public class BookingCursor {
+
+    /**
+     * Constructor for BookingCursor class.
+     *
+     * @param bookingDate the booking date of the last booking seen
+     * @param id          the id of the last booking seen
+     */
+    public BookingCursor(LocalDate bookingDate, int id) {
+        this.bookingDate = bookingDate;
+        this.id = id;
+    }
+
+    /**
+     * Booking date of the last booking seen.
+     */
+    private final LocalDate bookingDate;
+    /**
+     * Id of the last booking seen.
+     */
+    private final int id;
+
+    /**
+     * Creates the cursor positioned at a booking.
+     *
+     * @param booking the last booking seen
+     * @return a cursor for the bookings after it
+     */
+    public static BookingCursor after(Booking booking) {
+        return new BookingCursor(booking.getBookingDate(), booking.getId());
+    }
+
+    /**
+     * Checks if a booking comes after this cursor in booking date then id order.
+     *
+     * @param booking the booking to check
+     * @return true if the booking is after the cursor
+     */
+    public boolean isBefore(Booking booking) {
+        int byDate = booking.getBookingDate().compareTo(bookingDate);
+        return byDate > 0 || (byDate == 0 && booking.getId() > id);
+    }
+
+    /**
+     * Returns a booking placed at this cursor, for binary searching lists in Booking.DATE_ORDER.
+     *
+     * @return a booking with the cursor's date and id
+     */
+    public Booking toSearchKey() {
+        return new Booking(id, 0, bookingDate);
+    }
+}
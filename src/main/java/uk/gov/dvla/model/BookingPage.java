@@ -0,0 +1,43 @@
+package uk.gov.dvla.model;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * BookingPage model class.
+ * Holds one page of bookings in booking date then id order and the cursor for the next page.
+ */
+@Getter
+public class BookingPage {
+
+    /**
+     * Constructor for BookingPage class.
+     *
+     * @param bookings the bookings on the page
+     * @param next     the cursor for the next page, or null if this is the last page
+     */
+    public BookingPage(List<Booking> bookings, BookingCursor next) {
+        this.bookings = Collections.unmodifiableList(bookings);
+        this.next = next;
+    }
+
+    /**
+     * Bookings on the page, in booking date then id order.
+     */
+    private final List<Booking> bookings;
+    /**
+     * Cursor for the next page, or null if this is the last page.
+     */
+    private final BookingCursor next;
+
+    /**
+     * Checks if there are more bookings after this page.
+     *
+     * @return true if there is a next page
+     */
+    public boolean hasNext() {
+        return next != null;
+    }
+}
@@ -0,0 +1,105 @@
+package uk.gov.dvla.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * BulkLoadReport model class.
+ * Holds the outcome of each record passed to a bulk add, in the order the records were given.
+ * Rejected records carry the ErrorCode and message of the failure rather than an exception,
+ * so a batch with many rejections creates no exceptions.
+ */
+@Getter
+public class BulkLoadReport {
+
+    /**
+     * Constructor for BulkLoadReport class.
+     *
+     * @param results the outcome of each record, in input order
+     */
+    public BulkLoadReport(List<RecordResult> results) {
+        this.results = Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Outcome of each record, in input order.
+     */
+    private final List<RecordResult> results;
+
+    /**
+     * Counts the records that were added.
+     *
+     * @return number of records added
+     */
+    public int getLoadedCount() {
+        int loaded = 0;
+        for (RecordResult result : results) {
+            if (result.isLoaded()) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Counts the records that were not added.
+     *
+     * @return number of records rejected
+     */
+    public int getFailedCount() {
+        return results.size() - getLoadedCount();
+    }
+
+    /**
+     * Returns the outcomes of the records that were not added.
+     *
+     * @return rejected records, in input order
+     */
+    public List<RecordResult> getFailures() {
+        List<RecordResult> failures = new ArrayList<>();
+        for (RecordResult result : results) {
+            if (!result.isLoaded()) {
+                failures.add(result);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Outcome of a single record.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class RecordResult {
+
+        /**
+         * Position of the record in the input.
+         */
+        private final int index;
+        /**
+         * Id of the record, or 0 if the record was null.
+         */
+        private final int id;
+        /**
+         * Reason the record was not added, or null if it was added.
+         */
+        private final ErrorCode errorCode;
+        /**
+         * Message explaining why the record was not added, or null if it was added.
+         */
+        private final String message;
+
+        /**
+         * Checks if the record was added.
+         *
+         * @return true if the record was added
+         */
+        public boolean isLoaded() {
+            return errorCode == null;
+        }
+    }
+}
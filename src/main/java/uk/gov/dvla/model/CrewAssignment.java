@@ -0,0 +1,40 @@
+package uk.gov.dvla.model;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CrewAssignment model class.
+ * Holds the bookings one crew is sent to on a day and the windows they add up to.
+ */
+@Getter
+public class CrewAssignment {
+
+    /**
+     * Constructor for CrewAssignment class.
+     *
+     * @param crew     the crew number, from 0
+     * @param bookings the bookings assigned to the crew, in id order
+     * @param windows  the windows of the assigned bookings
+     */
+    public CrewAssignment(int crew, List<Booking> bookings, int windows) {
+        this.crew = crew;
+        this.bookings = Collections.unmodifiableList(bookings);
+        this.windows = windows;
+    }
+
+    /**
+     * Crew number, from 0.
+     */
+    private final int crew;
+    /**
+     * Bookings assigned to the crew, in id order.
+     */
+    private final List<Booking> bookings;
+    /**
+     * Windows of the assigned bookings.
+     */
+    private final int windows;
+}
@@ -0,0 +1,50 @@
+package uk.gov.dvla.model;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DispatchPlan model class.
+ * Holds the bookings of a day split across crews, and the bookings no crew had room for.
+ */
+@Getter
+public class DispatchPlan {
+
+    /**
+     * Constructor for DispatchPlan class.
+     *
+     * @param date       the day planned
+     * @param crews      the assignment of each crew, in crew order
+     * @param unassigned the bookings no crew had room for, in id order
+     */
+    public DispatchPlan(LocalDate date, List<CrewAssignment> crews, List<Booking> unassigned) {
+        this.date = date;
+        this.crews = Collections.unmodifiableList(crews);
+        this.unassigned = Collections.unmodifiableList(unassigned);
+    }
+
+    /**
+     * Day planned.
+     */
+    private final LocalDate date;
+    /**
+     * Assignment of each crew, in crew order.
+     */
+    private final List<CrewAssignment> crews;
+    /**
+     * Bookings no crew had room for, in id order.
+     */
+    private final List<Booking> unassigned;
+
+    /**
+     * Checks if every booking of the day was assigned to a crew.
+     *
+     * @return true if no booking was left unassigned
+     */
+    public boolean isComplete() {
+        return unassigned.isEmpty();
+    }
+}
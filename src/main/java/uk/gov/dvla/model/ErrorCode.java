@@ -0,0 +1,102 @@
+package uk.gov.dvla.model;
+
+import uk.gov.dvla.model.exception.*;
+
+/**
+ * Reasons a validation or lookup can fail, each with the message and exception the throwing API uses for it.
+ */
+public enum ErrorCode {
+    /**
+     * A required argument was null.
+     */
+    NULL_ARGUMENT("Argument cannot be null"),
+    /**
+     * An argument was out of range, such as a page limit below 1.
+     */
+    INVALID_ARGUMENT("Invalid argument"),
+    /**
+     * A customer had an invalid id, name or number of windows.
+     */
+    INVALID_CUSTOMER("Invalid customer data"),
+    /**
+     * A booking had an invalid id, customer id or date.
+     */
+    INVALID_BOOKING("Invalid customer data"),
+    /**
+     * A booking date was before today.
+     */
+    BOOKING_DATE_IN_THE_PAST("Booking date cannot be in the past"),
+    /**
+     * A date range started after it ended.
+     */
+    INVALID_DATE_RANGE("Start date cannot be after end date"),
+    /**
+     * No customer has the given id or name.
+     */
+    CUSTOMER_NOT_FOUND("No customer found"),
+    /**
+     * More than one customer has the given name.
+     */
+    MULTIPLE_CUSTOMERS_FOUND("Multiple customers found"),
+    /**
+     * No booking has the given id.
+     */
+    BOOKING_NOT_FOUND("No booking found"),
+    /**
+     * A customer with the same id is already stored.
+     */
+    DUPLICATE_CUSTOMER("Duplicate Customer not allowed"),
+    /**
+     * A booking with the same id is already stored.
+     */
+    DUPLICATE_BOOKING("Duplicate Booking not allowed"),
+    /**
+     * The booking's day has no room left for the customer's windows.
+     */
+    CAPACITY_EXCEEDED("Daily window capacity exceeded");
+
+    /**
+     * Message used when a failure gives no more specific one.
+     */
+    private final String defaultMessage;
+
+    /**
+     * Constructor for ErrorCode enum.
+     *
+     * @param defaultMessage the message used when a failure gives no more specific one
+     */
+    ErrorCode(String defaultMessage) {
+        this.defaultMessage = defaultMessage;
+    }
+
+    /**
+     * Returns the message used when a failure gives no more specific one.
+     *
+     * @return the default message
+     */
+    public String getDefaultMessage() {
+        return defaultMessage;
+    }
+
+    /**
+     * Creates the exception the throwing API reports this failure with.
+     *
+     * @param message the exception message
+     * @return the exception, not yet thrown
+     */
+    public RuntimeException toException(String message) {
+        return switch (this) {
+            case NULL_ARGUMENT -> new NullArgumentException(message);
+            case INVALID_ARGUMENT -> new IllegalArgumentException(message);
+            case INVALID_CUSTOMER -> new InvalidCustomerException(message);
+            case INVALID_BOOKING -> new InvalidBookingException(message);
+            case BOOKING_DATE_IN_THE_PAST -> new BookingDateInThePastException(message);
+            case INVALID_DATE_RANGE -> new InvalidDateRangeException(message);
+            case CUSTOMER_NOT_FOUND -> new CustomerNotFoundException(message);
+            case MULTIPLE_CUSTOMERS_FOUND -> new MultipleCustomerFoundException(message);
+            case BOOKING_NOT_FOUND -> new BookingNotFoundException(message);
+            case DUPLICATE_CUSTOMER, DUPLICATE_BOOKING -> new DuplicateEntityException(message);
+            case CAPACITY_EXCEEDED -> new CapacityExceededException(message);
+        };
+    }
+}
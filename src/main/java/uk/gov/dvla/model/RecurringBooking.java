@@ -0,0 +1,81 @@
+package uk.gov.dvla.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * RecurringBooking model class.
+ * A rule for a customer visited every intervalDays days from a start date, optionally up to an end date,
+ * stored as one rule instead of a booking per visit.
+ * Each visit is seen as a Booking with the rule's id, so rule ids share the booking id space.
+ */
+@Getter
+@EqualsAndHashCode
+public class RecurringBooking {
+
+    /**
+     * Constructor for RecurringBooking class.
+     *
+     * @param id           the rule id, also the id of each visit
+     * @param customerId   the customer id for the visits
+     * @param startDate    the date of the first visit
+     * @param intervalDays the number of days between visits
+     * @param endDate      the last date a visit can fall on, or null if the visits never end
+     */
+    public RecurringBooking(int id, int customerId, LocalDate startDate, int intervalDays, LocalDate endDate) {
+        this.id = id;
+        this.customerId = customerId;
+        this.startDate = startDate;
+        this.intervalDays = intervalDays;
+        this.endDate = endDate;
+    }
+
+    /**
+     * Rule id, also the id of each visit.
+     */
+    private final int id;
+    /**
+     * Customer number.
+     */
+    private final int customerId;
+    /**
+     * Date of the first visit.
+     */
+    private final LocalDate startDate;
+    /**
+     * Number of days between visits.
+     */
+    private final int intervalDays;
+    /**
+     * Last date a visit can fall on, or null if the visits never end.
+     */
+    private final LocalDate endDate;
+
+    /**
+     * Checks if a visit is scheduled on a date, before any visit is skipped or moved.
+     *
+     * @param date the date
+     * @return true if the date is one of the rule's visit dates
+     */
+    public boolean isVisitDate(LocalDate date) {
+        long days = date.toEpochDay() - startDate.toEpochDay();
+
+        return days >= 0 && days % intervalDays == 0 && (endDate == null || !date.isAfter(endDate));
+    }
+
+    /**
+     * Finds the first visit date on or after a date, before any visit is skipped or moved.
+     *
+     * @param date the date
+     * @return the visit date, or null if the visits end before it
+     */
+    public LocalDate firstVisitOnOrAfter(LocalDate date) {
+        long days = date.toEpochDay() - startDate.toEpochDay();
+        long visits = days <= 0 ? 0 : (days + intervalDays - 1) / intervalDays;
+        LocalDate visit = startDate.plusDays(visits * intervalDays);
+
+        return endDate != null && visit.isAfter(endDate) ? null : visit;
+    }
+}
@@ -0,0 +1,174 @@
+package uk.gov.dvla.model;
+
+/**
+ * Result model class.
+ * Holds either the value of a successful validation or lookup, or the ErrorCode and message of a failed one,
+ * so that expected failures are reported without creating and throwing an exception.
+ * Results without a value, and failures with the default message, are shared instances.
+ *
+ * @param <T> the type of the value
+ */
+public final class Result<T> {
+
+    /**
+     * Shared successful result without a value.
+     */
+    private static final Result<?> OK = new Result<>(null, null, null);
+
+    /**
+     * Shared failed result with the default message of each error code, indexed by ordinal.
+     */
+    private static final Result<?>[] ERRORS = new Result<?>[ErrorCode.values().length];
+
+    static {
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            ERRORS[errorCode.ordinal()] = new Result<>(null, errorCode, errorCode.getDefaultMessage());
+        }
+    }
+
+    /**
+     * Value of a successful result, or null.
+     */
+    private final T value;
+    /**
+     * Reason for a failed result, or null if it succeeded.
+     */
+    private final ErrorCode errorCode;
+    /**
+     * Message of a failed result, or null if it succeeded.
+     */
+    private final String message;
+
+    /**
+     * Constructor for Result class.
+     *
+     * @param value     the value, or null
+     * @param errorCode the reason for failure, or null
+     * @param message   the failure message, or null
+     */
+    private Result(T value, ErrorCode errorCode, String message) {
+        this.value = value;
+        this.errorCode = errorCode;
+        this.message = message;
+    }
+
+    /**
+     * Returns a successful result without a value.
+     *
+     * @param <T> the type of the value
+     * @return the shared successful result
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Result<T> ok() {
+        return (Result<T>) OK;
+    }
+
+    /**
+     * Returns a successful result.
+     *
+     * @param <T>   the type of the value
+     * @param value the value
+     * @return the result
+     */
+    public static <T> Result<T> ok(T value) {
+        return new Result<>(value, null, null);
+    }
+
+    /**
+     * Returns a failed result with the error code's default message.
+     *
+     * @param <T>       the type of the value
+     * @param errorCode the reason for failure
+     * @return the shared failed result for the error code
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Result<T> error(ErrorCode errorCode) {
+        return (Result<T>) ERRORS[errorCode.ordinal()];
+    }
+
+    /**
+     * Returns a failed result.
+     * Keep results with fixed messages in constants so that failing allocates nothing.
+     *
+     * @param <T>       the type of the value
+     * @param errorCode the reason for failure
+     * @param message   the failure message
+     * @return the result
+     */
+    public static <T> Result<T> error(ErrorCode errorCode, String message) {
+        return new Result<>(null, errorCode, message);
+    }
+
+    /**
+     * Checks if the result succeeded.
+     *
+     * @return true if there is no error code
+     */
+    public boolean isOk() {
+        return errorCode == null;
+    }
+
+    /**
+     * Returns the value of a successful result.
+     *
+     * @return the value, or null for a result without one
+     * @throws IllegalStateException if the result failed
+     */
+    public T getValue() {
+        if (errorCode != null) {
+            throw new IllegalStateException("Result failed with " + errorCode);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the reason for a failed result.
+     *
+     * @return the error code, or null if the result succeeded
+     */
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * Returns the message of a failed result.
+     *
+     * @return the message, or null if the result succeeded
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the value, or throws the exception the throwing API reports the failure with.
+     *
+     * @return the value, or null for a result without one
+     * @throws RuntimeException the exception for the error code, if the result failed
+     */
+    public T orElseThrow() {
+        if (errorCode != null) {
+            throw errorCode.toException(message);
+        }
+        return value;
+    }
+
+    /**
+     * Returns a failed result as a result of another type, to pass a failure on.
+     *
+     * @param <U> the type of the value
+     * @return this result
+     * @throws IllegalStateException if the result succeeded
+     */
+    @SuppressWarnings("unchecked")
+    public <U> Result<U> asFailure() {
+        if (errorCode == null) {
+            throw new IllegalStateException("Result succeeded");
+        }
+        return (Result<U>) this;
+    }
+
+    @Override
+    public String toString() {
+        return errorCode == null ? "Result.ok(" + value + ")" : "Result.error(" + errorCode + ", " + message + ")";
+    }
+}
@@ -0,0 +1,7 @@
+package uk.gov.dvla.model.exception;
+
+public class CapacityExceededException extends RuntimeException {
+    public CapacityExceededException(String message) {
+        super(message);
+    }
+}
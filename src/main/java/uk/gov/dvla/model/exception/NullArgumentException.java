@@ -0,0 +1,7 @@
+package uk.gov.dvla.model.exception;
+
+public class NullArgumentException extends NullPointerException {
+    public NullArgumentException(String message) {
+        super(message);
+    }
+}
@@ -1,11 +1,15 @@
 package uk.gov.dvla.persistence;
 
 import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
 import uk.gov.dvla.model.exception.DuplicateEntityException;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object interface for Booking entities.
@@ -21,6 +25,37 @@ public interface BookingDAO {
      */
     void save(Booking booking);
 
+    /**
+     * Saves a batch of bookings in one call.
+     * A booking whose ID is already stored, or appears earlier in the batch, is skipped rather than
+     * stopping the batch.
+     *
+     * @param bookings the bookings to save
+     * @return the positions in bookings of the bookings that were skipped, in ascending order
+     */
+    default int[] saveAll(List<Booking> bookings) {
+        int[] skipped = new int[bookings.size()];
+        int skippedCount = 0;
+        for (int i = 0; i < bookings.size(); i++) {
+            try {
+                save(bookings.get(i));
+            } catch (DuplicateEntityException e) {
+                skipped[skippedCount++] = i;
+            }
+        }
+        return Arrays.copyOf(skipped, skippedCount);
+    }
+
+    /**
+     * Moves a booking to a new date, keeping any date lookups in step.
+     * Dates of stored bookings should be changed through this method rather than Booking.setBookingDate.
+     *
+     * @param bookingId the booking ID
+     * @param date      the new booking date
+     * @throws BookingNotFoundException if booking not found
+     */
+    void updateBookingDate(int bookingId, LocalDate date);
+
     /**
      * Finds a booking by its ID.
      *
@@ -36,11 +71,20 @@ public interface BookingDAO {
      */
     List<Booking> findAll();
 
+    /**
+     * Counts all bookings.
+     *
+     * @return number of bookings
+     */
+    default int count() {
+        return findAll().size();
+    }
+
     /**
      * Finds all bookings for a specific date.
      *
      * @param date the date to search for
-     * @return list of bookings for the date
+     * @return list of bookings for the date, in id order
      */
     List<Booking> findByDate(LocalDate date);
 
@@ -48,7 +92,7 @@ public interface BookingDAO {
      * Finds all bookings for a specific customer ID.
      *
      * @param customerId the customer ID to search for
-     * @return list of bookings for the customer
+     * @return list of bookings for the customer, in date then id order
      */
     List<Booking> findByCustomerId(int customerId);
 
@@ -57,7 +101,94 @@ public interface BookingDAO {
      *
      * @param startDate the start date of the range
      * @param endDate   the end date of the range
-     * @return list of bookings within the date range
+     * @return list of bookings within the date range, in date then id order
      */
     List<Booking> findByDateRange(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Counts the bookings within a date range.
+     *
+     * @param startDate the start date of the range
+     * @param endDate   the end date of the range
+     * @return number of bookings within the date range
+     */
+    default int countByDateRange(LocalDate startDate, LocalDate endDate) {
+        return findByDateRange(startDate, endDate).size();
+    }
+
+    /**
+     * Finds the customer ID of every booking within a date range.
+     *
+     * @param startDate the start date of the range
+     * @param endDate   the end date of the range
+     * @return customer IDs of the bookings within the date range, in booking date then id order
+     */
+    default int[] findCustomerIdsByDateRange(LocalDate startDate, LocalDate endDate) {
+        return findByDateRange(startDate, endDate).stream()
+                .mapToInt(Booking::getCustomerId)
+                .toArray();
+    }
+
+    /**
+     * Streams all bookings without first copying them into a list.
+     * The stream reads the store as it goes, so it should be consumed before the store is changed
+     * unless the implementation says otherwise.
+     *
+     * @return stream of all bookings
+     */
+    default Stream<Booking> streamAll() {
+        return findAll().stream();
+    }
+
+    /**
+     * Streams the bookings within a date range without first copying them into a list.
+     *
+     * @param startDate the start date of the range
+     * @param endDate   the end date of the range
+     * @return stream of bookings within the date range, in date then id order
+     */
+    default Stream<Booking> streamByDateRange(LocalDate startDate, LocalDate endDate) {
+        return findByDateRange(startDate, endDate).stream();
+    }
+
+    /**
+     * Streams the bookings for a specific customer ID without first copying them into a list.
+     *
+     * @param customerId the customer ID to search for
+     * @return stream of bookings for the customer, in date then id order
+     */
+    default Stream<Booking> streamByCustomerId(int customerId) {
+        return findByCustomerId(customerId).stream();
+    }
+
+    /**
+     * Finds a page of the bookings within a date range.
+     *
+     * @param startDate the start date of the range
+     * @param endDate   the end date of the range
+     * @param after     the cursor to start after, or null to start at the beginning of the range
+     * @param limit     the most bookings to return
+     * @return up to limit bookings after the cursor within the date range, in date then id order
+     */
+    default List<Booking> findPageByDateRange(LocalDate startDate, LocalDate endDate, BookingCursor after, int limit) {
+        return streamByDateRange(startDate, endDate)
+                .filter(booking -> after == null || after.isBefore(booking))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Finds a page of the bookings for a specific customer ID.
+     *
+     * @param customerId the customer ID to search for
+     * @param after      the cursor to start after, or null to start at the customer's first booking
+     * @param limit      the most bookings to return
+     * @return up to limit of the customer's bookings after the cursor, in date then id order
+     */
+    default List<Booking> findPageByCustomerId(int customerId, BookingCursor after, int limit) {
+        return streamByCustomerId(customerId)
+                .filter(booking -> after == null || after.isBefore(booking))
+                .limit(limit)
+                .toList();
+    }
 }
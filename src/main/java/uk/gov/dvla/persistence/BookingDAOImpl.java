@@ -2,10 +2,14 @@ package uk.gov.dvla.persistence;
 
 import lombok.NoArgsConstructor;
 import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.util.IntObjectHashMap;
 import uk.gov.dvla.util.ValidationUtil;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * Implementation of BookingDAO interface.
@@ -17,13 +21,85 @@ public class BookingDAOImpl implements BookingDAO {
      * Map of Bookings representing bookings in memory database.
      * The key is the booking id and the value is the Booking object.
      */
-    private final Map<Integer, Booking> bookings = new HashMap<>();
+    private final IntObjectHashMap<Booking> bookings = new IntObjectHashMap<>();
+
+    /**
+     * Date index over the bookings in memory database.
+     * The key is the booking date and the value is the bookings on that date in id order.
+     */
+    private final NavigableMap<LocalDate, List<Booking>> bookingsByDate = new TreeMap<>();
+
+    /**
+     * Customer index over the bookings in memory database.
+     * The key is the customer id and the value is the customer's bookings in date then id order.
+     */
+    private final IntObjectHashMap<List<Booking>> bookingsByCustomer = new IntObjectHashMap<>();
 
     @Override
     public void save(Booking booking) {
-        ValidationUtil.checkDuplicateKeyInMap(bookings, booking.getId(), "Booking");
+        ValidationUtil.putIfAbsentInMap(bookings, booking.getId(), booking, "Booking");
+
+        insertInDateOrder(bookingsByDate.computeIfAbsent(booking.getBookingDate(), date -> new ArrayList<>()), booking);
+        List<Booking> customerBookings = bookingsByCustomer.get(booking.getCustomerId());
+        if (customerBookings == null) {
+            customerBookings = new ArrayList<>(1);
+            bookingsByCustomer.put(booking.getCustomerId(), customerBookings);
+        }
+        insertInDateOrder(customerBookings, booking);
+    }
+
+    @Override
+    public int[] saveAll(List<Booking> newBookings) {
+        int[] skipped = new int[newBookings.size()];
+        int skippedCount = 0;
+        // append to each index list, then sort every touched list once rather than inserting one at a time
+        Set<List<Booking>> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (int i = 0; i < newBookings.size(); i++) {
+            Booking booking = newBookings.get(i);
+            if (bookings.putIfAbsent(booking.getId(), booking) != null) {
+                skipped[skippedCount++] = i;
+                continue;
+            }
+
+            List<Booking> bookingsOnDate = bookingsByDate.computeIfAbsent(booking.getBookingDate(), date -> new ArrayList<>());
+            bookingsOnDate.add(booking);
+            touched.add(bookingsOnDate);
+
+            List<Booking> customerBookings = bookingsByCustomer.get(booking.getCustomerId());
+            if (customerBookings == null) {
+                customerBookings = new ArrayList<>(1);
+                bookingsByCustomer.put(booking.getCustomerId(), customerBookings);
+            }
+            customerBookings.add(booking);
+            touched.add(customerBookings);
+        }
+
+        for (List<Booking> orderedBookings : touched) {
+            orderedBookings.sort(Booking.DATE_ORDER);
+        }
 
-        bookings.put(booking.getId(), booking);
+        return Arrays.copyOf(skipped, skippedCount);
+    }
+
+    @Override
+    public void updateBookingDate(int bookingId, LocalDate date) {
+        Booking booking = bookings.get(bookingId);
+        if (booking == null) {
+            throw new BookingNotFoundException("No booking found");
+        }
+
+        List<Booking> bookingsOnOldDate = bookingsByDate.get(booking.getBookingDate());
+        removeInDateOrder(bookingsOnOldDate, booking);
+        if (bookingsOnOldDate.isEmpty()) {
+            bookingsByDate.remove(booking.getBookingDate());
+        }
+        List<Booking> customerBookings = bookingsByCustomer.get(booking.getCustomerId());
+        removeInDateOrder(customerBookings, booking);
+
+        booking.setBookingDate(date);
+        insertInDateOrder(bookingsByDate.computeIfAbsent(date, newDate -> new ArrayList<>()), booking);
+        insertInDateOrder(customerBookings, booking);
     }
 
     @Override
@@ -36,26 +112,110 @@ public class BookingDAOImpl implements BookingDAO {
         return new ArrayList<>(bookings.values());
     }
 
+    @Override
+    public int count() {
+        return bookings.size();
+    }
+
     @Override
     public List<Booking> findByDate(LocalDate date) {
-        return bookings.values().stream()
-                .filter(booking -> booking.getBookingDate().equals(date))
-                .toList();
+        List<Booking> bookingsOnDate = bookingsByDate.get(date);
+
+        return bookingsOnDate == null ? List.of() : List.copyOf(bookingsOnDate);
     }
 
     @Override
     public List<Booking> findByCustomerId(int customerId) {
-        return bookings.values()
-                .stream()
-                .filter(booking -> booking.getCustomerId() == customerId)
-                .toList();
+        List<Booking> customerBookings = bookingsByCustomer.get(customerId);
+
+        return customerBookings == null ? List.of() : List.copyOf(customerBookings);
     }
 
     @Override
     public List<Booking> findByDateRange(LocalDate startDate, LocalDate endDate) {
-        return bookings.values()
-                .stream()
-                .filter(booking -> !booking.getBookingDate().isBefore(startDate) && !booking.getBookingDate().isAfter(endDate))
-                .toList();
+        if (startDate.isAfter(endDate)) {
+            return List.of();
+        }
+
+        List<Booking> bookingsInRange = new ArrayList<>();
+        for (List<Booking> bookingsOnDate : bookingsByDate.subMap(startDate, true, endDate, true).values()) {
+            bookingsInRange.addAll(bookingsOnDate);
+        }
+
+        return Collections.unmodifiableList(bookingsInRange);
+    }
+
+    @Override
+    public Stream<Booking> streamAll() {
+        return bookings.values().stream();
+    }
+
+    @Override
+    public Stream<Booking> streamByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return Stream.empty();
+        }
+
+        return bookingsByDate.subMap(startDate, true, endDate, true).values().stream()
+                .flatMap(List::stream);
+    }
+
+    @Override
+    public Stream<Booking> streamByCustomerId(int customerId) {
+        List<Booking> customerBookings = bookingsByCustomer.get(customerId);
+
+        return customerBookings == null ? Stream.empty() : customerBookings.stream();
+    }
+
+    @Override
+    public List<Booking> findPageByDateRange(LocalDate startDate, LocalDate endDate, BookingCursor after, int limit) {
+        LocalDate from = after != null && after.getBookingDate().isAfter(startDate) ? after.getBookingDate() : startDate;
+        if (from.isAfter(endDate)) {
+            return List.of();
+        }
+
+        List<Booking> page = new ArrayList<>();
+        for (List<Booking> bookingsOnDate : bookingsByDate.subMap(from, true, endDate, true).values()) {
+            for (int i = OrderedBookings.firstAfter(bookingsOnDate, after); i < bookingsOnDate.size() && page.size() < limit; i++) {
+                page.add(bookingsOnDate.get(i));
+            }
+            if (page.size() >= limit) {
+                break;
+            }
+        }
+
+        return Collections.unmodifiableList(page);
+    }
+
+    @Override
+    public List<Booking> findPageByCustomerId(int customerId, BookingCursor after, int limit) {
+        List<Booking> customerBookings = bookingsByCustomer.get(customerId);
+        if (customerBookings == null) {
+            return List.of();
+        }
+
+        int from = OrderedBookings.firstAfter(customerBookings, after);
+        return List.copyOf(customerBookings.subList(from, (int) Math.min(customerBookings.size(), (long) from + limit)));
+    }
+
+    /**
+     * Inserts a booking into a list kept in date then id order.
+     *
+     * @param orderedBookings the list to insert into
+     * @param booking         the booking to insert
+     */
+    private static void insertInDateOrder(List<Booking> orderedBookings, Booking booking) {
+        int index = Collections.binarySearch(orderedBookings, booking, Booking.DATE_ORDER);
+        orderedBookings.add(index < 0 ? -index - 1 : index, booking);
+    }
+
+    /**
+     * Removes a booking from a list kept in date then id order.
+     *
+     * @param orderedBookings the list to remove from
+     * @param booking         the booking to remove
+     */
+    private static void removeInDateOrder(List<Booking> orderedBookings, Booking booking) {
+        orderedBookings.remove(Collections.binarySearch(orderedBookings, booking, Booking.DATE_ORDER));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,423 @@
+package uk.gov.dvla.persistence;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.util.IntObjectHashMap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Column-oriented implementation of BookingDAO interface.
+ * Bookings are held as parallel primitive arrays sorted by booking date then id, so range
+ * queries are two binary searches and range aggregates read contiguous int arrays.
+ * Bookings are rebuilt from the columns on every read, so changing a returned Booking does not
+ * change the stored booking. Saves shift the columns to keep them sorted, which suits read-mostly
+ * analytic workloads; saveAll merges a whole batch in a single pass. This class is not thread-safe.
+ */
+public class ColumnarBookingDAOImpl implements BookingDAO {
+
+    /**
+     * Number of rows the columns start with.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Number of stored bookings.
+     */
+    private int size;
+
+    /**
+     * Booking id column, in booking date then id order.
+     */
+    private int[] ids = new int[INITIAL_CAPACITY];
+    /**
+     * Customer id column, parallel to ids.
+     */
+    private int[] customerIds = new int[INITIAL_CAPACITY];
+    /**
+     * Booking date column as epoch days, parallel to ids.
+     */
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+
+    /**
+     * Booking ids in ascending order, used to find a booking by id.
+     */
+    private int[] sortedIds = new int[INITIAL_CAPACITY];
+    /**
+     * Booking date of each id in sortedIds as epoch days.
+     */
+    private int[] epochDaysBySortedId = new int[INITIAL_CAPACITY];
+
+    @Override
+    public void save(Booking booking) {
+        int idPosition = Arrays.binarySearch(sortedIds, 0, size, booking.getId());
+        if (idPosition >= 0) {
+            throw new DuplicateEntityException("Duplicate Booking not allowed");
+        }
+
+        ensureCapacity(size + 1);
+
+        int epochDay = Math.toIntExact(booking.getBookingDate().toEpochDay());
+        int position = positionOf(epochDay, booking.getId());
+        shiftUp(position);
+        ids[position] = booking.getId();
+        customerIds[position] = booking.getCustomerId();
+        epochDays[position] = epochDay;
+
+        int insertAt = -idPosition - 1;
+        System.arraycopy(sortedIds, insertAt, sortedIds, insertAt + 1, size - insertAt);
+        System.arraycopy(epochDaysBySortedId, insertAt, epochDaysBySortedId, insertAt + 1, size - insertAt);
+        sortedIds[insertAt] = booking.getId();
+        epochDaysBySortedId[insertAt] = epochDay;
+
+        size++;
+    }
+
+    @Override
+    public int[] saveAll(List<Booking> newBookings) {
+        int[] skipped = new int[newBookings.size()];
+        int skippedCount = 0;
+        IntObjectHashMap<Booking> batchIds = new IntObjectHashMap<>(newBookings.size());
+        List<Booking> accepted = new ArrayList<>(newBookings.size());
+        for (int i = 0; i < newBookings.size(); i++) {
+            Booking booking = newBookings.get(i);
+            if (Arrays.binarySearch(sortedIds, 0, size, booking.getId()) >= 0
+                    || batchIds.putIfAbsent(booking.getId(), booking) != null) {
+                skipped[skippedCount++] = i;
+                continue;
+            }
+            accepted.add(booking);
+        }
+
+        int added = accepted.size();
+        accepted.sort(Booking.DATE_ORDER);
+        int[] newIds = new int[added];
+        int[] newCustomerIds = new int[added];
+        int[] newEpochDays = new int[added];
+        // id in the high half so sorting orders by id, epoch day in the low half
+        long[] newDaysById = new long[added];
+        for (int j = 0; j < added; j++) {
+            Booking booking = accepted.get(j);
+            newIds[j] = booking.getId();
+            newCustomerIds[j] = booking.getCustomerId();
+            newEpochDays[j] = Math.toIntExact(booking.getBookingDate().toEpochDay());
+            newDaysById[j] = ((long) newIds[j] << 32) | (newEpochDays[j] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(newDaysById);
+
+        ensureCapacity(size + added);
+
+        // merge from the back so every existing row moves at most once
+        int i = size - 1;
+        int j = added - 1;
+        for (int k = size + added - 1; j >= 0; k--) {
+            if (i >= 0 && (epochDays[i] > newEpochDays[j] || (epochDays[i] == newEpochDays[j] && ids[i] > newIds[j]))) {
+                ids[k] = ids[i];
+                customerIds[k] = customerIds[i];
+                epochDays[k] = epochDays[i];
+                i--;
+            } else {
+                ids[k] = newIds[j];
+                customerIds[k] = newCustomerIds[j];
+                epochDays[k] = newEpochDays[j];
+                j--;
+            }
+        }
+
+        i = size - 1;
+        j = added - 1;
+        for (int k = size + added - 1; j >= 0; k--) {
+            int newId = (int) (newDaysById[j] >> 32);
+            if (i >= 0 && sortedIds[i] > newId) {
+                sortedIds[k] = sortedIds[i];
+                epochDaysBySortedId[k] = epochDaysBySortedId[i];
+                i--;
+            } else {
+                sortedIds[k] = newId;
+                epochDaysBySortedId[k] = (int) newDaysById[j];
+                j--;
+            }
+        }
+
+        size += added;
+        return Arrays.copyOf(skipped, skippedCount);
+    }
+
+    @Override
+    public void updateBookingDate(int bookingId, LocalDate date) {
+        int idPosition = Arrays.binarySearch(sortedIds, 0, size, bookingId);
+        if (idPosition < 0) {
+            throw new BookingNotFoundException("No booking found");
+        }
+
+        int epochDay = Math.toIntExact(date.toEpochDay());
+        int oldPosition = positionOf(epochDaysBySortedId[idPosition], bookingId);
+        int customerId = customerIds[oldPosition];
+        shiftDown(oldPosition);
+        size--;
+
+        int position = positionOf(epochDay, bookingId);
+        shiftUp(position);
+        ids[position] = bookingId;
+        customerIds[position] = customerId;
+        epochDays[position] = epochDay;
+        epochDaysBySortedId[idPosition] = epochDay;
+        size++;
+    }
+
+    @Override
+    public Optional<Booking> findById(int bookingId) {
+        int idPosition = Arrays.binarySearch(sortedIds, 0, size, bookingId);
+        if (idPosition < 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(toBooking(positionOf(epochDaysBySortedId[idPosition], bookingId)));
+    }
+
+    @Override
+    public List<Booking> findAll() {
+        return toBookings(0, size);
+    }
+
+    @Override
+    public int count() {
+        return size;
+    }
+
+    @Override
+    public List<Booking> findByDate(LocalDate date) {
+        return findByDateRange(date, date);
+    }
+
+    @Override
+    public List<Booking> findByCustomerId(int customerId) {
+        int[] customerIds = this.customerIds;
+        int matches = 0;
+        for (int i = 0; i < size; i++) {
+            if (customerIds[i] == customerId) {
+                matches++;
+            }
+        }
+
+        List<Booking> customerBookings = new ArrayList<>(matches);
+        for (int i = 0; i < size && customerBookings.size() < matches; i++) {
+            if (customerIds[i] == customerId) {
+                customerBookings.add(toBooking(i));
+            }
+        }
+
+        ScanCounter.discarded(size - matches);
+        return customerBookings;
+    }
+
+    @Override
+    public List<Booking> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return List.of();
+        }
+
+        return toBookings(firstPositionOnOrAfter(startDate.toEpochDay()), firstPositionOnOrAfter(endDate.toEpochDay() + 1));
+    }
+
+    @Override
+    public int countByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return 0;
+        }
+
+        return firstPositionOnOrAfter(endDate.toEpochDay() + 1) - firstPositionOnOrAfter(startDate.toEpochDay());
+    }
+
+    @Override
+    public int[] findCustomerIdsByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return new int[0];
+        }
+
+        return Arrays.copyOfRange(customerIds, firstPositionOnOrAfter(startDate.toEpochDay()),
+                firstPositionOnOrAfter(endDate.toEpochDay() + 1));
+    }
+
+    @Override
+    public Stream<Booking> streamAll() {
+        return IntStream.range(0, size).mapToObj(this::toBooking);
+    }
+
+    @Override
+    public Stream<Booking> streamByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return Stream.empty();
+        }
+
+        return IntStream.range(firstPositionOnOrAfter(startDate.toEpochDay()), firstPositionOnOrAfter(endDate.toEpochDay() + 1))
+                .mapToObj(this::toBooking);
+    }
+
+    @Override
+    public Stream<Booking> streamByCustomerId(int customerId) {
+        return IntStream.range(0, size)
+                .filter(position -> customerIds[position] == customerId)
+                .mapToObj(this::toBooking);
+    }
+
+    @Override
+    public List<Booking> findPageByDateRange(LocalDate startDate, LocalDate endDate, BookingCursor after, int limit) {
+        if (startDate.isAfter(endDate)) {
+            return List.of();
+        }
+
+        int from = Math.max(firstPositionOnOrAfter(startDate.toEpochDay()), firstPositionAfter(after));
+        int to = firstPositionOnOrAfter(endDate.toEpochDay() + 1);
+        if (from >= to) {
+            return List.of();
+        }
+
+        return toBookings(from, (int) Math.min(to, (long) from + limit));
+    }
+
+    @Override
+    public List<Booking> findPageByCustomerId(int customerId, BookingCursor after, int limit) {
+        List<Booking> page = new ArrayList<>();
+        int from = firstPositionAfter(after);
+        int i = from;
+        for (; i < size && page.size() < limit; i++) {
+            if (customerIds[i] == customerId) {
+                page.add(toBooking(i));
+            }
+        }
+
+        ScanCounter.discarded(i - from - page.size());
+        return page;
+    }
+
+    /**
+     * Returns the first row ordered after a cursor.
+     *
+     * @param after the cursor, or null for the first row
+     * @return the row index, or size if every booking is at or before the cursor
+     */
+    private int firstPositionAfter(BookingCursor after) {
+        if (after == null) {
+            return 0;
+        }
+
+        long epochDay = after.getBookingDate().toEpochDay();
+        if (after.getId() == Integer.MAX_VALUE || epochDay < Integer.MIN_VALUE || epochDay > Integer.MAX_VALUE) {
+            return firstPositionOnOrAfter(epochDay + 1);
+        }
+        return positionOf((int) epochDay, after.getId() + 1);
+    }
+
+    /**
+     * Returns the first row whose booking date is on or after an epoch day.
+     *
+     * @param epochDay the epoch day
+     * @return the row index, or size if every booking is before the day
+     */
+    private int firstPositionOnOrAfter(long epochDay) {
+        if (epochDay > Integer.MAX_VALUE) {
+            return size;
+        }
+        if (epochDay < Integer.MIN_VALUE) {
+            return 0;
+        }
+        return positionOf((int) epochDay, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Returns the first row ordered at or after a booking date and id.
+     *
+     * @param epochDay the booking date as an epoch day
+     * @param id       the booking id
+     * @return the row index
+     */
+    private int positionOf(int epochDay, int id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay || (epochDays[mid] == epochDay && ids[mid] < id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Moves the rows from a position onwards up by one, leaving the position free.
+     *
+     * @param position the row to free
+     */
+    private void shiftUp(int position) {
+        int moved = size - position;
+        System.arraycopy(ids, position, ids, position + 1, moved);
+        System.arraycopy(customerIds, position, customerIds, position + 1, moved);
+        System.arraycopy(epochDays, position, epochDays, position + 1, moved);
+    }
+
+    /**
+     * Moves the rows after a position down by one, overwriting the position.
+     *
+     * @param position the row to overwrite
+     */
+    private void shiftDown(int position) {
+        int moved = size - position - 1;
+        System.arraycopy(ids, position + 1, ids, position, moved);
+        System.arraycopy(customerIds, position + 1, customerIds, position, moved);
+        System.arraycopy(epochDays, position + 1, epochDays, position, moved);
+    }
+
+    /**
+     * Grows the columns to hold at least a number of rows.
+     *
+     * @param capacity the number of rows needed
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, newCapacity);
+        customerIds = Arrays.copyOf(customerIds, newCapacity);
+        epochDays = Arrays.copyOf(epochDays, newCapacity);
+        sortedIds = Arrays.copyOf(sortedIds, newCapacity);
+        epochDaysBySortedId = Arrays.copyOf(epochDaysBySortedId, newCapacity);
+    }
+
+    /**
+     * Builds the bookings for a range of rows.
+     *
+     * @param from the first row, inclusive
+     * @param to   the last row, exclusive
+     * @return the bookings in row order
+     */
+    private List<Booking> toBookings(int from, int to) {
+        List<Booking> bookings = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            bookings.add(toBooking(i));
+        }
+        return bookings;
+    }
+
+    /**
+     * Builds the booking for a row.
+     *
+     * @param position the row
+     * @return a new Booking holding the row's values
+     */
+    private Booking toBooking(int position) {
+        return new Booking(ids[position], customerIds[position], LocalDate.ofEpochDay(epochDays[position]));
+    }
+}
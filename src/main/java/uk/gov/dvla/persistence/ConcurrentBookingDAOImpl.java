@@ -0,0 +1,251 @@
+package uk.gov.dvla.persistence;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.util.ValidationUtil;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Thread-safe implementation of BookingDAO interface.
+ * Reads never lock and may run alongside saves. Saves claim the booking id with an atomic
+ * put-if-absent and then add the booking to the indexes, so a booking can briefly be visible
+ * through findById before it is visible through the date and customer queries.
+ * Saving a booking and moving it both change the indexes from its date, so they hold the private
+ * lock for that booking id while they do; a move of a booking still being saved waits for the save.
+ * Each index entry is an immutable list that a save replaces atomically, so saves only
+ * contend when they touch the same date or customer and readers can return entries without copying.
+ */
+public class ConcurrentBookingDAOImpl implements BookingDAO {
+
+    /**
+     * Number of booking locks, a power of two.
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * Map of Bookings representing bookings in memory database.
+     * The key is the booking id and the value is the Booking object.
+     */
+    private final ConcurrentMap<Integer, Booking> bookings = new ConcurrentHashMap<>();
+
+    /**
+     * Date index over the bookings in memory database.
+     * The key is the booking date and the value is the bookings on that date in id order.
+     */
+    private final ConcurrentNavigableMap<LocalDate, List<Booking>> bookingsByDate = new ConcurrentSkipListMap<>();
+
+    /**
+     * Customer index over the bookings in memory database.
+     * The key is the customer id and the value is the customer's bookings in date then id order.
+     */
+    private final ConcurrentMap<Integer, List<Booking>> bookingsByCustomer = new ConcurrentHashMap<>();
+
+    /**
+     * Locks striped by booking id, held while a booking is added to or moved within the indexes.
+     * These are explicit locks rather than monitors so that saveAll can hold every stripe its batch touches.
+     */
+    private final ReentrantLock[] bookingLocks = new ReentrantLock[LOCK_STRIPES];
+
+    /**
+     * Constructor for ConcurrentBookingDAOImpl class.
+     */
+    public ConcurrentBookingDAOImpl() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            bookingLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void save(Booking booking) {
+        // a move can only start once the booking is in the indexes under the date it was saved with
+        ReentrantLock lock = lockFor(booking.getId());
+        lock.lock();
+        try {
+            ValidationUtil.putIfAbsentInMap(bookings, booking.getId(), booking, "Booking");
+
+            bookingsByDate.compute(booking.getBookingDate(), (date, bookingsOnDate) -> OrderedBookings.withBooking(bookingsOnDate, booking));
+            bookingsByCustomer.compute(booking.getCustomerId(), (id, customerBookings) -> OrderedBookings.withBooking(customerBookings, booking));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int[] saveAll(List<Booking> newBookings) {
+        int[] skipped = new int[newBookings.size()];
+        int skippedCount = 0;
+        // group the batch so each index entry is replaced once rather than once per booking
+        Map<LocalDate, List<Booking>> batchByDate = new HashMap<>();
+        Map<Integer, List<Booking>> batchByCustomer = new HashMap<>();
+        boolean[] stripes = new boolean[LOCK_STRIPES];
+        for (Booking booking : newBookings) {
+            stripes[booking.getId() & (LOCK_STRIPES - 1)] = true;
+        }
+
+        // take the stripes in order so that concurrent batches cannot deadlock
+        for (int stripe = 0; stripe < LOCK_STRIPES; stripe++) {
+            if (stripes[stripe]) {
+                bookingLocks[stripe].lock();
+            }
+        }
+        try {
+            for (int i = 0; i < newBookings.size(); i++) {
+                Booking booking = newBookings.get(i);
+                if (bookings.putIfAbsent(booking.getId(), booking) != null) {
+                    skipped[skippedCount++] = i;
+                    continue;
+                }
+
+                batchByDate.computeIfAbsent(booking.getBookingDate(), date -> new ArrayList<>()).add(booking);
+                batchByCustomer.computeIfAbsent(booking.getCustomerId(), id -> new ArrayList<>()).add(booking);
+            }
+
+            batchByDate.forEach((date, batch) ->
+                    bookingsByDate.compute(date, (key, bookingsOnDate) -> OrderedBookings.withBookings(bookingsOnDate, batch)));
+            batchByCustomer.forEach((customerId, batch) ->
+                    bookingsByCustomer.compute(customerId, (key, customerBookings) -> OrderedBookings.withBookings(customerBookings, batch)));
+        } finally {
+            for (int stripe = 0; stripe < LOCK_STRIPES; stripe++) {
+                if (stripes[stripe]) {
+                    bookingLocks[stripe].unlock();
+                }
+            }
+        }
+
+        return Arrays.copyOf(skipped, skippedCount);
+    }
+
+    @Override
+    public void updateBookingDate(int bookingId, LocalDate date) {
+        Booking booking = bookings.get(bookingId);
+        if (booking == null) {
+            throw new BookingNotFoundException("No booking found");
+        }
+
+        // moves of the same booking must not interleave with each other or with its save
+        ReentrantLock lock = lockFor(bookingId);
+        lock.lock();
+        try {
+            bookingsByDate.computeIfPresent(booking.getBookingDate(), (oldDate, bookingsOnDate) -> OrderedBookings.withoutBooking(bookingsOnDate, booking));
+            bookingsByCustomer.computeIfPresent(booking.getCustomerId(), (id, customerBookings) -> OrderedBookings.withoutBooking(customerBookings, booking));
+
+            booking.setBookingDate(date);
+            bookingsByDate.compute(date, (newDate, bookingsOnDate) -> OrderedBookings.withBooking(bookingsOnDate, booking));
+            bookingsByCustomer.compute(booking.getCustomerId(), (id, customerBookings) -> OrderedBookings.withBooking(customerBookings, booking));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Booking> findById(int bookingId) {
+        return Optional.ofNullable(bookings.get(bookingId));
+    }
+
+    @Override
+    public List<Booking> findAll() {
+        return new ArrayList<>(bookings.values());
+    }
+
+    @Override
+    public int count() {
+        return bookings.size();
+    }
+
+    @Override
+    public List<Booking> findByDate(LocalDate date) {
+        List<Booking> bookingsOnDate = bookingsByDate.get(date);
+
+        return bookingsOnDate == null ? List.of() : bookingsOnDate;
+    }
+
+    @Override
+    public List<Booking> findByCustomerId(int customerId) {
+        List<Booking> customerBookings = bookingsByCustomer.get(customerId);
+
+        return customerBookings == null ? List.of() : customerBookings;
+    }
+
+    @Override
+    public List<Booking> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return List.of();
+        }
+
+        List<Booking> bookingsInRange = new ArrayList<>();
+        for (List<Booking> bookingsOnDate : bookingsByDate.subMap(startDate, true, endDate, true).values()) {
+            bookingsInRange.addAll(bookingsOnDate);
+        }
+
+        return Collections.unmodifiableList(bookingsInRange);
+    }
+
+    @Override
+    public Stream<Booking> streamAll() {
+        return bookings.values().stream();
+    }
+
+    @Override
+    public Stream<Booking> streamByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return Stream.empty();
+        }
+
+        return bookingsByDate.subMap(startDate, true, endDate, true).values().stream()
+                .flatMap(List::stream);
+    }
+
+    @Override
+    public Stream<Booking> streamByCustomerId(int customerId) {
+        List<Booking> customerBookings = bookingsByCustomer.get(customerId);
+
+        return customerBookings == null ? Stream.empty() : customerBookings.stream();
+    }
+
+    @Override
+    public List<Booking> findPageByDateRange(LocalDate startDate, LocalDate endDate, BookingCursor after, int limit) {
+        LocalDate from = after != null && after.getBookingDate().isAfter(startDate) ? after.getBookingDate() : startDate;
+        if (from.isAfter(endDate)) {
+            return List.of();
+        }
+
+        List<Booking> page = new ArrayList<>();
+        for (List<Booking> bookingsOnDate : bookingsByDate.subMap(from, true, endDate, true).values()) {
+            for (int i = OrderedBookings.firstAfter(bookingsOnDate, after); i < bookingsOnDate.size() && page.size() < limit; i++) {
+                page.add(bookingsOnDate.get(i));
+            }
+            if (page.size() >= limit) {
+                break;
+            }
+        }
+
+        return Collections.unmodifiableList(page);
+    }
+
+    @Override
+    public List<Booking> findPageByCustomerId(int customerId, BookingCursor after, int limit) {
+        List<Booking> customerBookings = bookingsByCustomer.get(customerId);
+        if (customerBookings == null) {
+            return List.of();
+        }
+
+        int from = OrderedBookings.firstAfter(customerBookings, after);
+        return List.copyOf(customerBookings.subList(from, (int) Math.min(customerBookings.size(), (long) from + limit)));
+    }
+
+    /**
+     * Returns the lock guarding the index entries of a booking.
+     *
+     * @param bookingId the booking id
+     * @return the lock for the booking id
+     */
+    private ReentrantLock lockFor(int bookingId) {
+        return bookingLocks[bookingId & (LOCK_STRIPES - 1)];
+    }
+}
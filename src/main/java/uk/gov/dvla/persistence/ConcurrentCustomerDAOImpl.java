@@ -0,0 +1,186 @@
+package uk.gov.dvla.persistence;
+
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.CustomerNotFoundException;
+import uk.gov.dvla.util.IntObjectHashMap;
+import uk.gov.dvla.util.ValidationUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe implementation of CustomerDAO interface.
+ * Reads never lock. Each name in the name index holds an immutable list that is replaced
+ * atomically, so writes only contend when they touch the same name.
+ * Saving a customer and renaming it both change the customer map and the name index together,
+ * so they hold the private lock for that customer id while they do.
+ */
+public class ConcurrentCustomerDAOImpl implements CustomerDAO {
+
+    /**
+     * Number of customer locks, a power of two.
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * Map of Customer representing customer in memory database.
+     * The key is the customer id and the value is the Customer object.
+     */
+    private final ConcurrentMap<Integer, Customer> customers = new ConcurrentHashMap<>();
+
+    /**
+     * Name index over the customers in memory database.
+     * The key is the name key given by nameMatching and the value is the customers with that name.
+     */
+    private final ConcurrentMap<String, List<Customer>> customersByName = new ConcurrentHashMap<>();
+
+    /**
+     * How names are matched in the name index.
+     */
+    private final NameMatching nameMatching;
+
+    /**
+     * Locks striped by customer id, held while a customer is added to or moved within the name index.
+     */
+    private final Object[] customerLocks = new Object[LOCK_STRIPES];
+
+    /**
+     * Constructor for ConcurrentCustomerDAOImpl class that matches names exactly.
+     */
+    public ConcurrentCustomerDAOImpl() {
+        this(NameMatching.EXACT);
+    }
+
+    /**
+     * Constructor for ConcurrentCustomerDAOImpl class.
+     *
+     * @param nameMatching how names are matched by findByName and resolveIdByName
+     */
+    public ConcurrentCustomerDAOImpl(NameMatching nameMatching) {
+        this.nameMatching = nameMatching;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            customerLocks[i] = new Object();
+        }
+    }
+
+    @Override
+    public void save(Customer customer) {
+        ValidationUtil.checkStorableCustomerId(customer.getId());
+
+        // a rename can only start once the customer is in the name index under the name it was saved with
+        synchronized (lockFor(customer.getId())) {
+            ValidationUtil.putIfAbsentInMap(customers, customer.getId(), customer, "Customer");
+            addToNameIndex(customer.getName(), customer);
+        }
+    }
+
+    @Override
+    public Optional<Customer> findById(int customerId) {
+        return Optional.ofNullable(customers.get(customerId));
+    }
+
+    @Override
+    public IntObjectHashMap<Customer> findAllByIds(int[] customerIds) {
+        IntObjectHashMap<Customer> found = new IntObjectHashMap<>(customerIds.length);
+        for (int customerId : customerIds) {
+            Customer customer = customers.get(customerId);
+            if (customer != null) {
+                found.put(customerId, customer);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return new ArrayList<>(customers.values());
+    }
+
+    @Override
+    public List<Customer> findByName(String name) {
+        List<Customer> customersWithName = customersByName.get(nameMatching.key(name));
+
+        return customersWithName == null ? List.of() : customersWithName;
+    }
+
+    @Override
+    public int resolveIdByName(String name) {
+        List<Customer> customersWithName = customersByName.get(nameMatching.key(name));
+
+        if (customersWithName == null) {
+            return NO_CUSTOMER;
+        }
+
+        return customersWithName.size() == 1 ? customersWithName.get(0).getId() : MULTIPLE_CUSTOMERS;
+    }
+
+    @Override
+    public void updateName(int customerId, String name) {
+        Customer customer = customers.get(customerId);
+        if (customer == null) {
+            throw new CustomerNotFoundException("No customer found");
+        }
+
+        synchronized (lockFor(customerId)) {
+            removeFromNameIndex(customer.getName(), customer);
+            customer.setName(name);
+            addToNameIndex(name, customer);
+        }
+    }
+
+    @Override
+    public void updateWindows(int customerId, int windows) {
+        Customer customer = customers.get(customerId);
+        if (customer == null) {
+            throw new CustomerNotFoundException("No customer found");
+        }
+
+        customer.setWindows(windows);
+    }
+
+    /**
+     * Returns the lock guarding the name index entries of a customer.
+     *
+     * @param customerId the customer id
+     * @return the lock for the customer id
+     */
+    private Object lockFor(int customerId) {
+        return customerLocks[customerId & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * Adds a customer to the name index.
+     *
+     * @param name     the name to index the customer under
+     * @param customer the customer
+     */
+    private void addToNameIndex(String name, Customer customer) {
+        customersByName.compute(nameMatching.key(name), (key, customersWithName) -> {
+            if (customersWithName == null) {
+                return List.of(customer);
+            }
+
+            List<Customer> updated = new ArrayList<>(customersWithName.size() + 1);
+            updated.addAll(customersWithName);
+            updated.add(customer);
+            return List.copyOf(updated);
+        });
+    }
+
+    /**
+     * Removes a customer from the name index.
+     *
+     * @param name     the name the customer is indexed under
+     * @param customer the customer
+     */
+    private void removeFromNameIndex(String name, Customer customer) {
+        customersByName.computeIfPresent(nameMatching.key(name), (key, customersWithName) -> {
+            List<Customer> updated = new ArrayList<>(customersWithName);
+            updated.remove(customer);
+            return updated.isEmpty() ? null : List.copyOf(updated);
+        });
+    }
+}
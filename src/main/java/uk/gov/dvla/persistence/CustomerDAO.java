@@ -1,8 +1,13 @@
 package uk.gov.dvla.persistence;
 
 import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.CustomerNotFoundException;
 import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.model.exception.InvalidCustomerException;
+import uk.gov.dvla.util.IntObjectHashMap;
+import uk.gov.dvla.util.ValidationUtil;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,15 +16,52 @@ import java.util.Optional;
  * Provides CRUD operations and query methods for customers.
  */
 public interface CustomerDAO {
-    
+
+    /**
+     * Returned by resolveIdByName when no customer has the name.
+     * Customer ids below 1 are rejected by save, so no stored customer has this id.
+     */
+    int NO_CUSTOMER = 0;
+
+    /**
+     * Returned by resolveIdByName when more than one customer has the name.
+     */
+    int MULTIPLE_CUSTOMERS = -1;
+
     /**
      * Saves a customer to the data store.
      *
      * @param customer the customer to save
      * @throws DuplicateEntityException if customer already exists
+     * @throws InvalidCustomerException if the customer's id is less than 1
      */
     void save(Customer customer);
 
+    /**
+     * Saves a batch of customers in one call.
+     * A customer whose ID is already stored, or appears earlier in the batch, is skipped rather than
+     * stopping the batch.
+     *
+     * @param customers the customers to save
+     * @return the positions in customers of the customers that were skipped, in ascending order
+     * @throws InvalidCustomerException if any customer's id is less than 1, before any customer is saved
+     */
+    default int[] saveAll(List<Customer> customers) {
+        for (Customer customer : customers) {
+            ValidationUtil.checkStorableCustomerId(customer.getId());
+        }
+        int[] skipped = new int[customers.size()];
+        int skippedCount = 0;
+        for (int i = 0; i < customers.size(); i++) {
+            try {
+                save(customers.get(i));
+            } catch (DuplicateEntityException e) {
+                skipped[skippedCount++] = i;
+            }
+        }
+        return Arrays.copyOf(skipped, skippedCount);
+    }
+
     /**
      * Finds a customer by their ID.
      *
@@ -28,6 +70,20 @@ public interface CustomerDAO {
      */
     Optional<Customer> findById(int customerId);
 
+    /**
+     * Finds the customers with any of a set of IDs in one call.
+     *
+     * @param customerIds the customer IDs, which should not repeat
+     * @return map from customer ID to customer, with no entry for IDs that were not found
+     */
+    default IntObjectHashMap<Customer> findAllByIds(int[] customerIds) {
+        IntObjectHashMap<Customer> customers = new IntObjectHashMap<>(customerIds.length);
+        for (int customerId : customerIds) {
+            findById(customerId).ifPresent(customer -> customers.put(customerId, customer));
+        }
+        return customers;
+    }
+
     /**
      * Retrieves all customers.
      *
@@ -42,4 +98,40 @@ public interface CustomerDAO {
      * @return list of customers with the given name
      */
     List<Customer> findByName(String name);
+
+    /**
+     * Resolves a name to the id of the single customer with that name.
+     *
+     * @param name the name to search for
+     * @return the customer ID, NO_CUSTOMER if no customer has the name
+     * or MULTIPLE_CUSTOMERS if more than one customer has the name
+     */
+    default int resolveIdByName(String name) {
+        List<Customer> customers = findByName(name);
+
+        if (customers.isEmpty()) {
+            return NO_CUSTOMER;
+        }
+
+        return customers.size() == 1 ? customers.get(0).getId() : MULTIPLE_CUSTOMERS;
+    }
+
+    /**
+     * Changes a customer's name, keeping any name lookups in step.
+     * Names of stored customers should be changed through this method rather than Customer.setName.
+     *
+     * @param customerId the customer ID
+     * @param name       the new name
+     * @throws CustomerNotFoundException if customer not found
+     */
+    void updateName(int customerId, String name);
+
+    /**
+     * Changes a customer's number of windows.
+     *
+     * @param customerId the customer ID
+     * @param windows    the new number of windows
+     * @throws CustomerNotFoundException if customer not found
+     */
+    void updateWindows(int customerId, int windows);
 }
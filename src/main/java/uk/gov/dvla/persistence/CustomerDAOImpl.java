@@ -2,6 +2,8 @@ package uk.gov.dvla.persistence;
 
 import lombok.NoArgsConstructor;
 import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.CustomerNotFoundException;
+import uk.gov.dvla.util.IntObjectHashMap;
 import uk.gov.dvla.util.ValidationUtil;
 
 import java.util.*;
@@ -16,13 +18,41 @@ public class CustomerDAOImpl implements CustomerDAO {
      * Map of Customer representing customer in memory database.
      * The key is the customer id and the value is the Customer object.
      */
-    private final Map<Integer, Customer> customers = new HashMap<>();
+    private final IntObjectHashMap<Customer> customers = new IntObjectHashMap<>();
+
+    /**
+     * Name index over the customers in memory database.
+     * The key is the name key given by nameMatching and the value is the customers with that name.
+     */
+    private final Map<String, List<Customer>> customersByName = new HashMap<>();
+
+    /**
+     * How names are matched in the name index.
+     */
+    private final NameMatching nameMatching;
+
+    /**
+     * Constructor for CustomerDAOImpl class that matches names exactly.
+     */
+    public CustomerDAOImpl() {
+        this(NameMatching.EXACT);
+    }
+
+    /**
+     * Constructor for CustomerDAOImpl class.
+     *
+     * @param nameMatching how names are matched by findByName and resolveIdByName
+     */
+    public CustomerDAOImpl(NameMatching nameMatching) {
+        this.nameMatching = nameMatching;
+    }
 
     @Override
     public void save(Customer customer) {
-        ValidationUtil.checkDuplicateKeyInMap(customers, customer.getId(), "Customer");
+        ValidationUtil.checkStorableCustomerId(customer.getId());
+        ValidationUtil.putIfAbsentInMap(customers, customer.getId(), customer, "Customer");
 
-        customers.put(customer.getId(), customer);
+        customersByName.computeIfAbsent(nameMatching.key(customer.getName()), key -> new ArrayList<>(1)).add(customer);
     }
 
     @Override
@@ -30,6 +60,18 @@ public class CustomerDAOImpl implements CustomerDAO {
         return Optional.ofNullable(customers.get(customerId));
     }
 
+    @Override
+    public IntObjectHashMap<Customer> findAllByIds(int[] customerIds) {
+        IntObjectHashMap<Customer> found = new IntObjectHashMap<>(customerIds.length);
+        for (int customerId : customerIds) {
+            Customer customer = customers.get(customerId);
+            if (customer != null) {
+                found.put(customerId, customer);
+            }
+        }
+        return found;
+    }
+
     @Override
     public List<Customer> findAll() {
         return new ArrayList<>(customers.values());
@@ -37,6 +79,47 @@ public class CustomerDAOImpl implements CustomerDAO {
 
     @Override
     public List<Customer> findByName(String name) {
-        return customers.values().stream().filter(c -> c.getName().equals(name)).toList();
+        List<Customer> customersWithName = customersByName.get(nameMatching.key(name));
+
+        return customersWithName == null ? List.of() : List.copyOf(customersWithName);
+    }
+
+    @Override
+    public int resolveIdByName(String name) {
+        List<Customer> customersWithName = customersByName.get(nameMatching.key(name));
+
+        if (customersWithName == null) {
+            return NO_CUSTOMER;
+        }
+
+        return customersWithName.size() == 1 ? customersWithName.get(0).getId() : MULTIPLE_CUSTOMERS;
+    }
+
+    @Override
+    public void updateName(int customerId, String name) {
+        Customer customer = customers.get(customerId);
+        if (customer == null) {
+            throw new CustomerNotFoundException("No customer found");
+        }
+
+        String oldKey = nameMatching.key(customer.getName());
+        List<Customer> customersWithOldName = customersByName.get(oldKey);
+        customersWithOldName.remove(customer);
+        if (customersWithOldName.isEmpty()) {
+            customersByName.remove(oldKey);
+        }
+
+        customer.setName(name);
+        customersByName.computeIfAbsent(nameMatching.key(name), key -> new ArrayList<>(1)).add(customer);
+    }
+
+    @Override
+    public void updateWindows(int customerId, int windows) {
+        Customer customer = customers.get(customerId);
+        if (customer == null) {
+            throw new CustomerNotFoundException("No customer found");
+        }
+
+        customer.setWindows(windows);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,308 @@
+package uk.gov.dvla.persistence;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.util.PersistentTreeMap;
+import uk.gov.dvla.util.ValidationUtil;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * BookingDAO over the bookings of an MvccStore, either the latest ones or those of one pinned version.
+ * Each read works on the version current when it starts, so a stream goes on seeing that version
+ * however long it is read for. The date range queries walk the date index from the start of the range,
+ * and countByDateRange takes O(log n) from the subtree sizes.
+ */
+final class MvccBookingDAO implements BookingDAO {
+
+    /**
+     * The store whose versions are read and published.
+     */
+    private final MvccStore store;
+    /**
+     * Version read by a snapshot, or null to read the latest version and allow writes.
+     */
+    private final StoreVersion pinned;
+
+    /**
+     * Constructor for MvccBookingDAO class.
+     *
+     * @param store  the store
+     * @param pinned the version to read, or null to read and write the latest version
+     */
+    MvccBookingDAO(MvccStore store, StoreVersion pinned) {
+        this.store = store;
+        this.pinned = pinned;
+    }
+
+    @Override
+    public void save(Booking booking) {
+        checkWritable();
+        Booking copy = copyOf(booking);
+
+        StoreVersion version;
+        do {
+            version = store.current();
+            if (version.bookingsById.get(copy.getId()) != null) {
+                throw new DuplicateEntityException("Duplicate Booking not allowed");
+            }
+        } while (!store.publish(version, version.next().withBooking(copy)));
+    }
+
+    @Override
+    public int[] saveAll(List<Booking> bookings) {
+        checkWritable();
+        List<Booking> copies = bookings.stream().map(MvccBookingDAO::copyOf).toList();
+
+        while (true) {
+            StoreVersion version = store.current();
+            StoreVersion next = version.next();
+            int[] skipped = new int[copies.size()];
+            int skippedCount = 0;
+            for (int i = 0; i < copies.size(); i++) {
+                Booking booking = copies.get(i);
+                if (next.bookingsById.get(booking.getId()) != null) {
+                    skipped[skippedCount++] = i;
+                } else {
+                    next = next.withBooking(booking);
+                }
+            }
+            // the whole batch becomes visible at once
+            if (store.publish(version, next)) {
+                return Arrays.copyOf(skipped, skippedCount);
+            }
+        }
+    }
+
+    @Override
+    public void updateBookingDate(int bookingId, LocalDate date) {
+        checkWritable();
+
+        StoreVersion version;
+        StoreVersion next;
+        do {
+            version = store.current();
+            Booking booking = version.bookingsById.get(bookingId);
+            if (booking == null) {
+                throw new BookingNotFoundException("No booking found");
+            }
+            next = version.next().withBookingDate(booking, date);
+        } while (!store.publish(version, next));
+    }
+
+    @Override
+    public Optional<Booking> findById(int bookingId) {
+        return Optional.ofNullable(version().bookingsById.get(bookingId));
+    }
+
+    @Override
+    public List<Booking> findAll() {
+        PersistentTreeMap<Integer, Booking> bookings = version().bookingsById;
+        return toList(bookings.valueIterator(), bookings.size());
+    }
+
+    @Override
+    public int count() {
+        return version().bookingsById.size();
+    }
+
+    @Override
+    public List<Booking> findByDate(LocalDate date) {
+        return findByDateRange(date, date);
+    }
+
+    @Override
+    public List<Booking> findByCustomerId(int customerId) {
+        return toList(customerIterator(version(), customerId, null), 0);
+    }
+
+    @Override
+    public List<Booking> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        StoreVersion version = version();
+        return toList(dateIterator(version, startDate, endDate, null), countByDateRange(version, startDate, endDate));
+    }
+
+    @Override
+    public int countByDateRange(LocalDate startDate, LocalDate endDate) {
+        return countByDateRange(version(), startDate, endDate);
+    }
+
+    @Override
+    public int[] findCustomerIdsByDateRange(LocalDate startDate, LocalDate endDate) {
+        StoreVersion version = version();
+        int[] customerIds = new int[countByDateRange(version, startDate, endDate)];
+        Iterator<Booking> bookings = dateIterator(version, startDate, endDate, null);
+        for (int i = 0; i < customerIds.length; i++) {
+            customerIds[i] = bookings.next().getCustomerId();
+        }
+        return customerIds;
+    }
+
+    @Override
+    public Stream<Booking> streamAll() {
+        return stream(version().bookingsById.valueIterator());
+    }
+
+    @Override
+    public Stream<Booking> streamByDateRange(LocalDate startDate, LocalDate endDate) {
+        return stream(dateIterator(version(), startDate, endDate, null));
+    }
+
+    @Override
+    public Stream<Booking> streamByCustomerId(int customerId) {
+        return stream(customerIterator(version(), customerId, null));
+    }
+
+    @Override
+    public List<Booking> findPageByDateRange(LocalDate startDate, LocalDate endDate, BookingCursor after, int limit) {
+        return toPage(dateIterator(version(), startDate, endDate, after), limit);
+    }
+
+    @Override
+    public List<Booking> findPageByCustomerId(int customerId, BookingCursor after, int limit) {
+        return toPage(customerIterator(version(), customerId, after), limit);
+    }
+
+    /**
+     * Returns the version to read.
+     *
+     * @return the pinned version, or the latest one
+     */
+    private StoreVersion version() {
+        return pinned != null ? pinned : store.current();
+    }
+
+    /**
+     * Checks that this DAO writes the latest version rather than reading a snapshot.
+     *
+     * @throws UnsupportedOperationException if this DAO reads a pinned version
+     */
+    private void checkWritable() {
+        if (pinned != null) {
+            throw new UnsupportedOperationException("Snapshots are read-only");
+        }
+    }
+
+    /**
+     * Counts the bookings of a version within a date range from the date index's subtree sizes.
+     *
+     * @param version   the version to read
+     * @param startDate the start date of the range
+     * @param endDate   the end date of the range
+     * @return the number of bookings
+     */
+    private static int countByDateRange(StoreVersion version, LocalDate startDate, LocalDate endDate) {
+        return version.bookingsByDate.countBetween(lowest(0, startDate), true, highest(0, endDate), true);
+    }
+
+    /**
+     * Returns an iterator over the bookings within a date range in date then id order.
+     *
+     * @param version   the version to read
+     * @param startDate the start date of the range
+     * @param endDate   the end date of the range
+     * @param after     the cursor to start after, or null to start at the beginning of the range
+     * @return the iterator
+     */
+    private static Iterator<Booking> dateIterator(StoreVersion version, LocalDate startDate, LocalDate endDate, BookingCursor after) {
+        Booking from = lowest(0, startDate);
+        if (after != null && Booking.DATE_ORDER.compare(after.toSearchKey(), from) >= 0) {
+            return version.bookingsByDate.valueIterator(after.toSearchKey(), false, highest(0, endDate), true);
+        }
+        return version.bookingsByDate.valueIterator(from, true, highest(0, endDate), true);
+    }
+
+    /**
+     * Returns an iterator over a customer's bookings in date then id order.
+     *
+     * @param version    the version to read
+     * @param customerId the customer ID
+     * @param after      the cursor to start after, or null to start at the customer's first booking
+     * @return the iterator
+     */
+    private static Iterator<Booking> customerIterator(StoreVersion version, int customerId, BookingCursor after) {
+        Booking to = highest(customerId, LocalDate.MAX);
+        if (after != null) {
+            Booking cursor = after.toSearchKey();
+            return version.bookingsByCustomer.valueIterator(new Booking(cursor.getId(), customerId, cursor.getBookingDate()), false, to, true);
+        }
+        return version.bookingsByCustomer.valueIterator(lowest(customerId, LocalDate.MIN), true, to, true);
+    }
+
+    /**
+     * Returns a search key ordered before every booking of a customer on a date.
+     *
+     * @param customerId the customer ID, or 0 for a key into the date index
+     * @param date       the date
+     * @return the search key
+     */
+    private static Booking lowest(int customerId, LocalDate date) {
+        return new Booking(Integer.MIN_VALUE, customerId, date);
+    }
+
+    /**
+     * Returns a search key ordered after every booking of a customer on a date.
+     *
+     * @param customerId the customer ID, or 0 for a key into the date index
+     * @param date       the date
+     * @return the search key
+     */
+    private static Booking highest(int customerId, LocalDate date) {
+        return new Booking(Integer.MAX_VALUE, customerId, date);
+    }
+
+    /**
+     * Checks a booking to store is not null and copies it, so that the caller changing it cannot change any version.
+     *
+     * @param booking the booking to store
+     * @return the copy
+     */
+    private static Booking copyOf(Booking booking) {
+        ValidationUtil.checkObjectIsNotNull(booking, "Booking");
+        return new Booking(booking.getId(), booking.getCustomerId(), booking.getBookingDate());
+    }
+
+    /**
+     * Collects the rest of an iterator's bookings.
+     *
+     * @param bookings     the bookings
+     * @param expectedSize the number of bookings expected, to size the list
+     * @return the bookings in iteration order
+     */
+    private static List<Booking> toList(Iterator<Booking> bookings, int expectedSize) {
+        List<Booking> list = new ArrayList<>(expectedSize);
+        bookings.forEachRemaining(list::add);
+        return list;
+    }
+
+    /**
+     * Collects up to a page of an iterator's bookings.
+     *
+     * @param bookings the bookings
+     * @param limit    the most bookings to collect
+     * @return the bookings in iteration order
+     */
+    private static List<Booking> toPage(Iterator<Booking> bookings, int limit) {
+        List<Booking> page = new ArrayList<>(Math.min(limit, 64));
+        while (page.size() < limit && bookings.hasNext()) {
+            page.add(bookings.next());
+        }
+        return page;
+    }
+
+    /**
+     * Streams an iterator's bookings. The stream is IMMUTABLE because the version it reads never changes.
+     *
+     * @param bookings the bookings
+     * @return the sequential stream
+     */
+    private static Stream<Booking> stream(Iterator<Booking> bookings) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(bookings,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+}
@@ -0,0 +1,212 @@
+package uk.gov.dvla.persistence;
+
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.CustomerNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.util.IntObjectHashMap;
+import uk.gov.dvla.util.ValidationUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * CustomerDAO over the customers of an MvccStore, either the latest ones or those of one pinned version.
+ * Each read works on the version current when it starts. Renames and window changes replace the stored
+ * customer with a copy, so earlier versions keep the old name and number of windows.
+ */
+final class MvccCustomerDAO implements CustomerDAO {
+
+    /**
+     * The store whose versions are read and published.
+     */
+    private final MvccStore store;
+    /**
+     * Version read by a snapshot, or null to read the latest version and allow writes.
+     */
+    private final StoreVersion pinned;
+
+    /**
+     * Constructor for MvccCustomerDAO class.
+     *
+     * @param store  the store
+     * @param pinned the version to read, or null to read and write the latest version
+     */
+    MvccCustomerDAO(MvccStore store, StoreVersion pinned) {
+        this.store = store;
+        this.pinned = pinned;
+    }
+
+    @Override
+    public void save(Customer customer) {
+        checkWritable();
+        ValidationUtil.checkObjectIsNotNull(customer, "Customer");
+        ValidationUtil.checkStorableCustomerId(customer.getId());
+        Customer copy = copyOf(customer);
+        String nameKey = store.nameKey(copy.getName());
+
+        StoreVersion version;
+        do {
+            version = store.current();
+            if (version.customersById.get(copy.getId()) != null) {
+                throw new DuplicateEntityException("Duplicate Customer not allowed");
+            }
+        } while (!store.publish(version, version.next().withCustomer(copy, nameKey)));
+    }
+
+    @Override
+    public int[] saveAll(List<Customer> customers) {
+        checkWritable();
+        for (Customer customer : customers) {
+            ValidationUtil.checkObjectIsNotNull(customer, "Customer");
+            ValidationUtil.checkStorableCustomerId(customer.getId());
+        }
+        List<Customer> copies = customers.stream().map(MvccCustomerDAO::copyOf).toList();
+
+        while (true) {
+            StoreVersion version = store.current();
+            StoreVersion next = version.next();
+            int[] skipped = new int[copies.size()];
+            int skippedCount = 0;
+            for (int i = 0; i < copies.size(); i++) {
+                Customer customer = copies.get(i);
+                if (next.customersById.get(customer.getId()) != null) {
+                    skipped[skippedCount++] = i;
+                } else {
+                    next = next.withCustomer(customer, store.nameKey(customer.getName()));
+                }
+            }
+            if (store.publish(version, next)) {
+                return Arrays.copyOf(skipped, skippedCount);
+            }
+        }
+    }
+
+    @Override
+    public Optional<Customer> findById(int customerId) {
+        return Optional.ofNullable(version().customersById.get(customerId));
+    }
+
+    @Override
+    public IntObjectHashMap<Customer> findAllByIds(int[] customerIds) {
+        StoreVersion version = version();
+        IntObjectHashMap<Customer> found = new IntObjectHashMap<>(customerIds.length);
+        for (int customerId : customerIds) {
+            Customer customer = version.customersById.get(customerId);
+            if (customer != null) {
+                found.put(customerId, customer);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        StoreVersion version = version();
+        List<Customer> customers = new ArrayList<>(version.customersById.size());
+        version.customersById.valueIterator().forEachRemaining(customers::add);
+        return customers;
+    }
+
+    @Override
+    public List<Customer> findByName(String name) {
+        StoreVersion version = version();
+        List<Integer> customerIds = version.customerIdsByName.get(store.nameKey(name));
+        if (customerIds == null) {
+            return List.of();
+        }
+
+        List<Customer> customers = new ArrayList<>(customerIds.size());
+        for (int customerId : customerIds) {
+            customers.add(version.customersById.get(customerId));
+        }
+        return customers;
+    }
+
+    @Override
+    public int resolveIdByName(String name) {
+        List<Integer> customerIds = version().customerIdsByName.get(store.nameKey(name));
+
+        if (customerIds == null) {
+            return NO_CUSTOMER;
+        }
+
+        return customerIds.size() == 1 ? customerIds.get(0) : MULTIPLE_CUSTOMERS;
+    }
+
+    @Override
+    public void updateName(int customerId, String name) {
+        checkWritable();
+        String nameKey = store.nameKey(name);
+
+        StoreVersion version;
+        StoreVersion next;
+        do {
+            version = store.current();
+            Customer customer = findStored(version, customerId);
+            next = version.next().withCustomerReplaced(new Customer(customerId, name, customer.getWindows()),
+                    store.nameKey(customer.getName()), nameKey);
+        } while (!store.publish(version, next));
+    }
+
+    @Override
+    public void updateWindows(int customerId, int windows) {
+        checkWritable();
+
+        StoreVersion version;
+        StoreVersion next;
+        do {
+            version = store.current();
+            Customer customer = findStored(version, customerId);
+            String nameKey = store.nameKey(customer.getName());
+            next = version.next().withCustomerReplaced(new Customer(customerId, customer.getName(), windows), nameKey, nameKey);
+        } while (!store.publish(version, next));
+    }
+
+    /**
+     * Returns the version to read.
+     *
+     * @return the pinned version, or the latest one
+     */
+    private StoreVersion version() {
+        return pinned != null ? pinned : store.current();
+    }
+
+    /**
+     * Checks that this DAO writes the latest version rather than reading a snapshot.
+     *
+     * @throws UnsupportedOperationException if this DAO reads a pinned version
+     */
+    private void checkWritable() {
+        if (pinned != null) {
+            throw new UnsupportedOperationException("Snapshots are read-only");
+        }
+    }
+
+    /**
+     * Returns a customer as stored in a version.
+     *
+     * @param version    the version to read
+     * @param customerId the customer ID
+     * @return the stored customer
+     * @throws CustomerNotFoundException if the version has no such customer
+     */
+    private static Customer findStored(StoreVersion version, int customerId) {
+        Customer customer = version.customersById.get(customerId);
+        if (customer == null) {
+            throw new CustomerNotFoundException("No customer found");
+        }
+        return customer;
+    }
+
+    /**
+     * Copies a customer to store, so that the caller changing it cannot change any version.
+     *
+     * @param customer the customer to store
+     * @return the copy
+     */
+    private static Customer copyOf(Customer customer) {
+        return new Customer(customer.getId(), customer.getName(), customer.getWindows());
+    }
+}
@@ -0,0 +1,120 @@
+package uk.gov.dvla.persistence;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory store of bookings and customers with multi-version concurrency control.
+ * The bookings and customers and their indexes are held in persistent trees, which are never changed.
+ * A write builds the next version from the current one, sharing every tree node it did not change, and
+ * publishes it with a single compare-and-set, retrying on a newer version if another write got there first.
+ * Nothing locks: reads use whichever version is current when they start, and a snapshot pins one version
+ * of both DAOs for as long as it is held, so a long report sees every booking and customer as they were
+ * at one point in time while writes carry on.
+ * The store keeps only the current version. An older version's nodes are garbage collected once no
+ * snapshot, stream or iterator refers to them, apart from the nodes later versions still share.
+ * Stored bookings and customers are copies that are replaced rather than changed, so objects returned
+ * by the DAOs must not be changed by callers.
+ */
+public class MvccStore {
+
+    /**
+     * The latest published version.
+     */
+    private final AtomicReference<StoreVersion> current = new AtomicReference<>(StoreVersion.EMPTY);
+
+    private final BookingDAO bookingDAO;
+
+    private final CustomerDAO customerDAO;
+
+    /**
+     * How names are matched in the name index.
+     */
+    private final NameMatching nameMatching;
+
+    /**
+     * Constructor for MvccStore class that matches names exactly.
+     */
+    public MvccStore() {
+        this(NameMatching.EXACT);
+    }
+
+    /**
+     * Constructor for MvccStore class.
+     *
+     * @param nameMatching how names are matched by findByName and resolveIdByName
+     */
+    public MvccStore(NameMatching nameMatching) {
+        this.nameMatching = nameMatching;
+        this.bookingDAO = new MvccBookingDAO(this, null);
+        this.customerDAO = new MvccCustomerDAO(this, null);
+    }
+
+    /**
+     * Returns the DAO that reads and writes the store's latest bookings.
+     * Each read sees the version current when it starts; a stream keeps reading that version to its end.
+     *
+     * @return the booking DAO
+     */
+    public BookingDAO getBookingDAO() {
+        return bookingDAO;
+    }
+
+    /**
+     * Returns the DAO that reads and writes the store's latest customers.
+     *
+     * @return the customer DAO
+     */
+    public CustomerDAO getCustomerDAO() {
+        return customerDAO;
+    }
+
+    /**
+     * Returns the number of writes published so far.
+     *
+     * @return the current version number
+     */
+    public long getVersion() {
+        return current.get().number;
+    }
+
+    /**
+     * Pins the current version of the bookings and customers.
+     * Taking a snapshot does not copy anything and does not hold up writes.
+     *
+     * @return a read-only view of the store as it is now
+     */
+    public StoreSnapshot snapshot() {
+        StoreVersion version = current.get();
+        return new StoreSnapshot(version.number, new MvccBookingDAO(this, version), new MvccCustomerDAO(this, version));
+    }
+
+    /**
+     * Returns the latest published version.
+     *
+     * @return the current version
+     */
+    StoreVersion current() {
+        return current.get();
+    }
+
+    /**
+     * Publishes a version built from another, unless a different version was published in the meantime.
+     *
+     * @param base the version the new one was built from
+     * @param next the new version
+     * @return true if it was published, false if the caller must rebuild it from the current version
+     */
+    boolean publish(StoreVersion base, StoreVersion next) {
+        return current.compareAndSet(base, next);
+    }
+
+    /**
+     * Returns the key a name is indexed under.
+     *
+     * @param name the customer name
+     * @return the name key
+     */
+    String nameKey(String name) {
+        return nameMatching.key(name);
+    }
+}
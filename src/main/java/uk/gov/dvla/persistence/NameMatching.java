@@ -0,0 +1,47 @@
+package uk.gov.dvla.persistence;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Strategies for matching customer names in the name index.
+ */
+public enum NameMatching {
+
+    /**
+     * Names match only when they are exactly equal.
+     */
+    EXACT {
+        @Override
+        public String key(String name) {
+            return name;
+        }
+    },
+
+    /**
+     * Names match ignoring case, leading and trailing whitespace
+     * and the length of whitespace runs between words.
+     */
+    NORMALISED {
+        @Override
+        public String key(String name) {
+            if (name == null) {
+                return null;
+            }
+            return WHITESPACE.matcher(name.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+        }
+    };
+
+    /**
+     * Pattern matching a run of whitespace.
+     */
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * Returns the index key for a name.
+     *
+     * @param name the customer name
+     * @return the key the name is indexed under
+     */
+    public abstract String key(String name);
+}
@@ -0,0 +1,111 @@
+package uk.gov.dvla.persistence;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Operations on booking lists kept in date then id order.
+ * The with and without methods never change the list they are given; they return a new immutable list,
+ * so a thread-safe index can swap it in atomically and readers can return it without copying.
+ */
+final class OrderedBookings {
+
+    private OrderedBookings() {
+    }
+
+    /**
+     * Returns the position of the first booking after a cursor in a list kept in date then id order.
+     *
+     * @param orderedBookings the list to search
+     * @param after           the cursor, or null for the start of the list
+     * @return the position of the first booking after the cursor
+     */
+    static int firstAfter(List<Booking> orderedBookings, BookingCursor after) {
+        if (after == null) {
+            return 0;
+        }
+
+        int index = Collections.binarySearch(orderedBookings, after.toSearchKey(), Booking.DATE_ORDER);
+        return index < 0 ? -index - 1 : index + 1;
+    }
+
+    /**
+     * Returns a copy of a list kept in date then id order with a booking inserted.
+     * A booking already in the list with the same date and id is replaced rather than kept twice.
+     *
+     * @param orderedBookings the list to insert into, or null for an empty list
+     * @param booking         the booking to insert
+     * @return an immutable list in date then id order
+     */
+    static List<Booking> withBooking(List<Booking> orderedBookings, Booking booking) {
+        if (orderedBookings == null) {
+            return List.of(booking);
+        }
+
+        int index = Collections.binarySearch(orderedBookings, booking, Booking.DATE_ORDER);
+        if (index >= 0) {
+            if (orderedBookings.get(index) == booking) {
+                return orderedBookings;
+            }
+            Booking[] replaced = orderedBookings.toArray(new Booking[0]);
+            replaced[index] = booking;
+            return Collections.unmodifiableList(Arrays.asList(replaced));
+        }
+        int insertAt = -index - 1;
+
+        Booking[] updated = orderedBookings.toArray(new Booking[orderedBookings.size() + 1]);
+        System.arraycopy(updated, insertAt, updated, insertAt + 1, orderedBookings.size() - insertAt);
+        updated[insertAt] = booking;
+        return Collections.unmodifiableList(Arrays.asList(updated));
+    }
+
+    /**
+     * Returns a copy of a list kept in date then id order with several bookings inserted.
+     *
+     * @param orderedBookings the list to insert into, or null for an empty list
+     * @param batch           the bookings to insert, in any order
+     * @return an immutable list in date then id order
+     */
+    static List<Booking> withBookings(List<Booking> orderedBookings, List<Booking> batch) {
+        int existing = orderedBookings == null ? 0 : orderedBookings.size();
+
+        Booking[] updated = new Booking[existing + batch.size()];
+        for (int i = 0; i < existing; i++) {
+            updated[i] = orderedBookings.get(i);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            updated[existing + i] = batch.get(i);
+        }
+        Arrays.sort(updated, Booking.DATE_ORDER);
+        return Collections.unmodifiableList(Arrays.asList(updated));
+    }
+
+    /**
+     * Returns a copy of a list kept in date then id order with a booking removed.
+     *
+     * @param orderedBookings the list to remove from
+     * @param booking         the booking to remove
+     * @return an immutable list in date then id order, or null if no bookings are left
+     */
+    static List<Booking> withoutBooking(List<Booking> orderedBookings, Booking booking) {
+        int index = Collections.binarySearch(orderedBookings, booking, Booking.DATE_ORDER);
+        if (index < 0) {
+            return orderedBookings;
+        }
+        if (orderedBookings.size() == 1) {
+            return null;
+        }
+
+        Booking[] updated = new Booking[orderedBookings.size() - 1];
+        for (int i = 0, j = 0; i < orderedBookings.size(); i++) {
+            if (i != index) {
+                updated[j++] = orderedBookings.get(i);
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(updated));
+    }
+}
@@ -0,0 +1,578 @@
+package uk.gov.dvla.persistence;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.util.ValidationUtil;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Thread-safe implementation of BookingDAO interface that keeps bookings in one partition per calendar month.
+ * Date and date range queries only visit the partitions of the months they cover, so they cost
+ * in proportion to those months however much history is stored. Each partition has its own
+ * read-write lock; a write locks only the partition it touches, and a partition can be
+ * snapshotted or dropped without touching the others.
+ * The booking id and customer indexes cover every partition and follow the ConcurrentBookingDAOImpl
+ * model, so a booking can briefly be visible through findById before it is visible through the other queries.
+ * Saving, moving and dropping a booking hold the private lock for its booking id, so a booking is only ever
+ * in the partition of its current month; a booking lock is always taken before a partition lock.
+ * A partition is removed once its last booking is moved out, so months only have a partition while they hold bookings.
+ */
+public class PartitionedBookingDAOImpl implements BookingDAO {
+
+    /**
+     * Number of booking locks, a power of two.
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * Map of Bookings representing bookings in memory database.
+     * The key is the booking id and the value is the Booking object.
+     */
+    private final ConcurrentMap<Integer, Booking> bookings = new ConcurrentHashMap<>();
+
+    /**
+     * Partitions of the bookings in memory database.
+     * The key is the month and the value is the bookings in that month.
+     */
+    private final ConcurrentNavigableMap<YearMonth, Partition> partitions = new ConcurrentSkipListMap<>();
+
+    /**
+     * Customer index over the bookings in memory database.
+     * The key is the customer id and the value is the customer's bookings in date then id order.
+     */
+    private final ConcurrentMap<Integer, List<Booking>> bookingsByCustomer = new ConcurrentHashMap<>();
+
+    /**
+     * Locks striped by booking id, held while a booking is added to, moved between or dropped from the partitions.
+     * These are explicit locks rather than monitors so that saveAll can hold every stripe its batch touches.
+     */
+    private final ReentrantLock[] bookingLocks = new ReentrantLock[LOCK_STRIPES];
+
+    /**
+     * Constructor for PartitionedBookingDAOImpl class.
+     */
+    public PartitionedBookingDAOImpl() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            bookingLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void save(Booking booking) {
+        // a move can only start once the booking is in the partition of the date it was saved with
+        ReentrantLock lock = lockFor(booking.getId());
+        lock.lock();
+        try {
+            ValidationUtil.putIfAbsentInMap(bookings, booking.getId(), booking, "Booking");
+
+            addToPartition(booking);
+            bookingsByCustomer.compute(booking.getCustomerId(), (id, customerBookings) -> OrderedBookings.withBooking(customerBookings, booking));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int[] saveAll(List<Booking> newBookings) {
+        int[] skipped = new int[newBookings.size()];
+        int skippedCount = 0;
+        // group the batch so each partition is locked and each customer entry replaced once
+        Map<YearMonth, List<Booking>> batchByMonth = new HashMap<>();
+        Map<Integer, List<Booking>> batchByCustomer = new HashMap<>();
+        boolean[] stripes = new boolean[LOCK_STRIPES];
+        for (Booking booking : newBookings) {
+            stripes[booking.getId() & (LOCK_STRIPES - 1)] = true;
+        }
+
+        // take the stripes in order so that concurrent batches cannot deadlock
+        for (int stripe = 0; stripe < LOCK_STRIPES; stripe++) {
+            if (stripes[stripe]) {
+                bookingLocks[stripe].lock();
+            }
+        }
+        try {
+            for (int i = 0; i < newBookings.size(); i++) {
+                Booking booking = newBookings.get(i);
+                if (bookings.putIfAbsent(booking.getId(), booking) != null) {
+                    skipped[skippedCount++] = i;
+                    continue;
+                }
+
+                batchByMonth.computeIfAbsent(YearMonth.from(booking.getBookingDate()), month -> new ArrayList<>()).add(booking);
+                batchByCustomer.computeIfAbsent(booking.getCustomerId(), id -> new ArrayList<>()).add(booking);
+            }
+
+            batchByMonth.forEach((month, batch) -> {
+                while (!partitions.computeIfAbsent(month, Partition::new).addAll(batch)) {
+                    // the partition was dropped after it was looked up, so add to its replacement
+                }
+            });
+            batchByCustomer.forEach((customerId, batch) ->
+                    bookingsByCustomer.compute(customerId, (key, customerBookings) -> OrderedBookings.withBookings(customerBookings, batch)));
+        } finally {
+            for (int stripe = 0; stripe < LOCK_STRIPES; stripe++) {
+                if (stripes[stripe]) {
+                    bookingLocks[stripe].unlock();
+                }
+            }
+        }
+
+        return Arrays.copyOf(skipped, skippedCount);
+    }
+
+    @Override
+    public void updateBookingDate(int bookingId, LocalDate date) {
+        Booking booking = bookings.get(bookingId);
+        if (booking == null) {
+            throw new BookingNotFoundException("No booking found");
+        }
+
+        // moves of the same booking must not interleave with each other, its save or its drop
+        ReentrantLock lock = lockFor(bookingId);
+        lock.lock();
+        try {
+            if (bookings.get(bookingId) != booking) {
+                // dropped with its partition after it was looked up
+                throw new BookingNotFoundException("No booking found");
+            }
+            YearMonth oldMonth = YearMonth.from(booking.getBookingDate());
+            Partition oldPartition = partitions.get(oldMonth);
+            if (oldPartition != null && oldPartition.remove(booking)) {
+                partitions.remove(oldMonth, oldPartition);
+            }
+            bookingsByCustomer.computeIfPresent(booking.getCustomerId(), (id, customerBookings) -> OrderedBookings.withoutBooking(customerBookings, booking));
+
+            booking.setBookingDate(date);
+            addToPartition(booking);
+            bookingsByCustomer.compute(booking.getCustomerId(), (id, customerBookings) -> OrderedBookings.withBooking(customerBookings, booking));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Booking> findById(int bookingId) {
+        return Optional.ofNullable(bookings.get(bookingId));
+    }
+
+    @Override
+    public List<Booking> findAll() {
+        return new ArrayList<>(bookings.values());
+    }
+
+    @Override
+    public int count() {
+        return bookings.size();
+    }
+
+    @Override
+    public List<Booking> findByDate(LocalDate date) {
+        Partition partition = partitions.get(YearMonth.from(date));
+
+        return partition == null ? List.of() : partition.bookingsOn(date.getDayOfMonth());
+    }
+
+    @Override
+    public List<Booking> findByCustomerId(int customerId) {
+        List<Booking> customerBookings = bookingsByCustomer.get(customerId);
+
+        return customerBookings == null ? List.of() : customerBookings;
+    }
+
+    @Override
+    public List<Booking> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return List.of();
+        }
+
+        List<Booking> bookingsInRange = new ArrayList<>();
+        for (Partition partition : partitionsCovering(startDate, endDate)) {
+            partition.collect(partition.firstDay(startDate), partition.lastDay(endDate), bookingsInRange);
+        }
+
+        return Collections.unmodifiableList(bookingsInRange);
+    }
+
+    @Override
+    public int countByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return 0;
+        }
+
+        int count = 0;
+        for (Partition partition : partitionsCovering(startDate, endDate)) {
+            count += partition.count(partition.firstDay(startDate), partition.lastDay(endDate));
+        }
+        return count;
+    }
+
+    @Override
+    public int[] findCustomerIdsByDateRange(LocalDate startDate, LocalDate endDate) {
+        List<Booking> bookingsInRange = findByDateRange(startDate, endDate);
+
+        int[] customerIds = new int[bookingsInRange.size()];
+        for (int i = 0; i < customerIds.length; i++) {
+            customerIds[i] = bookingsInRange.get(i).getCustomerId();
+        }
+        return customerIds;
+    }
+
+    @Override
+    public Stream<Booking> streamAll() {
+        return bookings.values().stream();
+    }
+
+    @Override
+    public Stream<Booking> streamByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return Stream.empty();
+        }
+
+        // each partition is read under its lock when the stream reaches it
+        return partitionsCovering(startDate, endDate).stream()
+                .flatMap(partition -> {
+                    List<Booking> bookingsInPartition = new ArrayList<>();
+                    partition.collect(partition.firstDay(startDate), partition.lastDay(endDate), bookingsInPartition);
+                    return bookingsInPartition.stream();
+                });
+    }
+
+    @Override
+    public Stream<Booking> streamByCustomerId(int customerId) {
+        List<Booking> customerBookings = bookingsByCustomer.get(customerId);
+
+        return customerBookings == null ? Stream.empty() : customerBookings.stream();
+    }
+
+    @Override
+    public List<Booking> findPageByDateRange(LocalDate startDate, LocalDate endDate, BookingCursor after, int limit) {
+        LocalDate from = after != null && after.getBookingDate().isAfter(startDate) ? after.getBookingDate() : startDate;
+        if (from.isAfter(endDate)) {
+            return List.of();
+        }
+
+        List<Booking> page = new ArrayList<>();
+        for (Partition partition : partitionsCovering(from, endDate)) {
+            partition.collectPage(partition.firstDay(from), partition.lastDay(endDate), after, limit, page);
+            if (page.size() >= limit) {
+                break;
+            }
+        }
+
+        return Collections.unmodifiableList(page);
+    }
+
+    @Override
+    public List<Booking> findPageByCustomerId(int customerId, BookingCursor after, int limit) {
+        List<Booking> customerBookings = bookingsByCustomer.get(customerId);
+        if (customerBookings == null) {
+            return List.of();
+        }
+
+        int from = OrderedBookings.firstAfter(customerBookings, after);
+        return List.copyOf(customerBookings.subList(from, (int) Math.min(customerBookings.size(), (long) from + limit)));
+    }
+
+    /**
+     * Returns the months that have a partition.
+     *
+     * @return the months in order, as a copy
+     */
+    public NavigableSet<YearMonth> getPartitions() {
+        return new TreeSet<>(partitions.keySet());
+    }
+
+    /**
+     * Returns the bookings of one month as they stand at a single point in time.
+     * Only that month's partition is locked while it is copied.
+     *
+     * @param month the month to copy
+     * @return the month's bookings in date then id order
+     */
+    public List<Booking> snapshotPartition(YearMonth month) {
+        Partition partition = partitions.get(month);
+
+        return partition == null ? List.of() : partition.snapshot();
+    }
+
+    /**
+     * Removes a month's partition and all of its bookings, for example to archive a month after
+     * taking a snapshot of it. Bookings saved or moved into the month while it is dropped may survive
+     * in a new partition, and a booking moved out of the month while it is dropped keeps its new date.
+     *
+     * @param month the month to drop
+     * @return number of bookings removed
+     */
+    public int dropPartition(YearMonth month) {
+        Partition partition = partitions.remove(month);
+        if (partition == null) {
+            return 0;
+        }
+
+        int removed = 0;
+        Map<Integer, List<Booking>> droppedByCustomer = new HashMap<>();
+        for (Booking booking : partition.drop()) {
+            // a booking being moved is dropped before the move starts or kept once it has left the month
+            ReentrantLock lock = lockFor(booking.getId());
+            lock.lock();
+            try {
+                if (!YearMonth.from(booking.getBookingDate()).equals(month) || !bookings.remove(booking.getId(), booking)) {
+                    continue;
+                }
+            } finally {
+                lock.unlock();
+            }
+            removed++;
+            droppedByCustomer.computeIfAbsent(booking.getCustomerId(), id -> new ArrayList<>()).add(booking);
+        }
+        droppedByCustomer.forEach((customerId, batch) ->
+                bookingsByCustomer.computeIfPresent(customerId, (key, customerBookings) -> {
+                    List<Booking> remaining = customerBookings;
+                    for (Booking booking : batch) {
+                        remaining = remaining == null ? null : OrderedBookings.withoutBooking(remaining, booking);
+                    }
+                    return remaining;
+                }));
+
+        return removed;
+    }
+
+    /**
+     * Returns the lock guarding the partition and customer index entries of a booking.
+     *
+     * @param bookingId the booking id
+     * @return the lock for the booking id
+     */
+    private ReentrantLock lockFor(int bookingId) {
+        return bookingLocks[bookingId & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * Adds a booking to the partition of its month, creating the partition if needed.
+     * Callers hold the booking's lock.
+     *
+     * @param booking the booking to add
+     */
+    private void addToPartition(Booking booking) {
+        YearMonth month = YearMonth.from(booking.getBookingDate());
+        while (!partitions.computeIfAbsent(month, Partition::new).add(booking)) {
+            // the partition was dropped after it was looked up, so add to its replacement
+        }
+    }
+
+    /**
+     * Returns the partitions of the months a date range covers.
+     *
+     * @param startDate the start date (inclusive)
+     * @param endDate   the end date (inclusive), not before the start date
+     * @return the partitions in month order
+     */
+    private Collection<Partition> partitionsCovering(LocalDate startDate, LocalDate endDate) {
+        return partitions.subMap(YearMonth.from(startDate), true, YearMonth.from(endDate), true).values();
+    }
+
+    /**
+     * Bookings of a single month, held per day of the month in id order.
+     * Every method takes the partition's lock.
+     */
+    private static final class Partition {
+
+        private final YearMonth month;
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**
+         * Bookings on each day of the month, indexed by day of month - 1, or null for a day without bookings.
+         */
+        private final List<Booking>[] days;
+
+        private int size;
+
+        /**
+         * Whether the partition has been dropped, after which it accepts no more bookings.
+         */
+        private boolean dropped;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Partition(YearMonth month) {
+            this.month = month;
+            this.days = new List[month.lengthOfMonth()];
+        }
+
+        /**
+         * Returns the first day of the month within a range that starts on a date.
+         *
+         * @param startDate the start date of the range, in or before this month
+         * @return the day of the month
+         */
+        private int firstDay(LocalDate startDate) {
+            return YearMonth.from(startDate).equals(month) ? startDate.getDayOfMonth() : 1;
+        }
+
+        /**
+         * Returns the last day of the month within a range that ends on a date.
+         *
+         * @param endDate the end date of the range, in or after this month
+         * @return the day of the month
+         */
+        private int lastDay(LocalDate endDate) {
+            return YearMonth.from(endDate).equals(month) ? endDate.getDayOfMonth() : days.length;
+        }
+
+        private boolean add(Booking booking) {
+            lock.writeLock().lock();
+            try {
+                if (dropped) {
+                    return false;
+                }
+                insert(booking);
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private boolean addAll(List<Booking> batch) {
+            lock.writeLock().lock();
+            try {
+                if (dropped) {
+                    return false;
+                }
+                for (Booking booking : batch) {
+                    insert(booking);
+                }
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void insert(Booking booking) {
+            int day = booking.getBookingDate().getDayOfMonth() - 1;
+            if (days[day] == null) {
+                days[day] = new ArrayList<>();
+            }
+            int index = Collections.binarySearch(days[day], booking, Booking.DATE_ORDER);
+            days[day].add(index < 0 ? -index - 1 : index, booking);
+            size++;
+        }
+
+        /**
+         * Removes a booking. A partition left empty is marked dropped, so that bookings added
+         * to the month from then on go to a new partition, and the caller removes it from the map.
+         *
+         * @param booking the booking to remove
+         * @return true if the partition is now empty and dropped
+         */
+        private boolean remove(Booking booking) {
+            lock.writeLock().lock();
+            try {
+                int day = booking.getBookingDate().getDayOfMonth() - 1;
+                List<Booking> bookingsOnDay = days[day];
+                int index = bookingsOnDay == null ? -1 : Collections.binarySearch(bookingsOnDay, booking, Booking.DATE_ORDER);
+                if (index >= 0) {
+                    bookingsOnDay.remove(index);
+                    if (bookingsOnDay.isEmpty()) {
+                        days[day] = null;
+                    }
+                    size--;
+                }
+                if (size == 0 && !dropped) {
+                    dropped = true;
+                    return true;
+                }
+                return false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private List<Booking> bookingsOn(int dayOfMonth) {
+            lock.readLock().lock();
+            try {
+                List<Booking> bookingsOnDay = days[dayOfMonth - 1];
+                return bookingsOnDay == null ? List.of() : List.copyOf(bookingsOnDay);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void collect(int fromDay, int toDay, List<Booking> out) {
+            lock.readLock().lock();
+            try {
+                for (int day = fromDay - 1; day < toDay; day++) {
+                    if (days[day] != null) {
+                        out.addAll(days[day]);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private int count(int fromDay, int toDay) {
+            lock.readLock().lock();
+            try {
+                if (fromDay == 1 && toDay == days.length) {
+                    return size;
+                }
+                int count = 0;
+                for (int day = fromDay - 1; day < toDay; day++) {
+                    if (days[day] != null) {
+                        count += days[day].size();
+                    }
+                }
+                return count;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void collectPage(int fromDay, int toDay, BookingCursor after, int limit, List<Booking> page) {
+            lock.readLock().lock();
+            try {
+                for (int day = fromDay - 1; day < toDay && page.size() < limit; day++) {
+                    List<Booking> bookingsOnDay = days[day];
+                    if (bookingsOnDay == null) {
+                        continue;
+                    }
+                    for (int i = OrderedBookings.firstAfter(bookingsOnDay, after); i < bookingsOnDay.size() && page.size() < limit; i++) {
+                        page.add(bookingsOnDay.get(i));
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private List<Booking> snapshot() {
+            List<Booking> bookingsInMonth = new ArrayList<>();
+            collect(1, days.length, bookingsInMonth);
+            return Collections.unmodifiableList(bookingsInMonth);
+        }
+
+        private List<Booking> drop() {
+            lock.writeLock().lock();
+            try {
+                dropped = true;
+                List<Booking> bookingsInMonth = new ArrayList<>(size);
+                for (List<Booking> bookingsOnDay : days) {
+                    if (bookingsOnDay != null) {
+                        bookingsInMonth.addAll(bookingsOnDay);
+                    }
+                }
+                return bookingsInMonth;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
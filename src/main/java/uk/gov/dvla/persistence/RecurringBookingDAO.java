@@ -0,0 +1,67 @@
+package uk.gov.dvla.persistence;
+
+import uk.gov.dvla.model.RecurringBooking;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.model.exception.InvalidBookingException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * BookingDAO that also stores recurring booking rules.
+ * The date and date range queries return each visit of a rule as a Booking with the rule's id,
+ * merged with the one-off bookings in date then id order. Visits are worked out from the rules
+ * as the queries run rather than stored.
+ * A visit is identified by its rule id and date, not by its id alone: every visit of a rule shares
+ * the rule's id, which no one-off booking may use. findById, findAll, count, updateBookingDate and the
+ * customer queries cover one-off bookings only; rules are read with findRuleById and findRulesByCustomerId.
+ */
+public interface RecurringBookingDAO extends BookingDAO {
+
+    /**
+     * Saves a recurring booking rule.
+     *
+     * @param rule the rule to save
+     * @throws InvalidBookingException  if the rule has an id or customer id less than 1, no start date,
+     *                                  an interval less than 1 day or an end date before its start date
+     * @throws DuplicateEntityException if a rule or a booking with the same id already exists
+     */
+    void saveRule(RecurringBooking rule);
+
+    /**
+     * Finds a recurring booking rule by its ID.
+     *
+     * @param ruleId the rule ID
+     * @return the rule, or empty if not found
+     */
+    Optional<RecurringBooking> findRuleById(int ruleId);
+
+    /**
+     * Finds the recurring booking rules of a customer.
+     *
+     * @param customerId the customer ID
+     * @return the customer's rules, in id order
+     */
+    List<RecurringBooking> findRulesByCustomerId(int customerId);
+
+    /**
+     * Skips one visit of a rule. Skipping a visit that was moved cancels the move as well.
+     *
+     * @param ruleId the rule ID
+     * @param date   the date the visit is scheduled on by the rule
+     * @throws BookingNotFoundException if the rule is not found or has no visit on the date
+     */
+    void skipVisit(int ruleId, LocalDate date);
+
+    /**
+     * Moves one visit of a rule to another date. Moving a visit again replaces its earlier move.
+     *
+     * @param ruleId  the rule ID
+     * @param date    the date the visit is scheduled on by the rule
+     * @param newDate the date to visit on instead
+     * @throws BookingNotFoundException if the rule is not found or has no visit on the date
+     */
+    void moveVisit(int ruleId, LocalDate date, LocalDate newDate);
+}
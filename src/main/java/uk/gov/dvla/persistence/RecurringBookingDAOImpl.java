@@ -0,0 +1,716 @@
+package uk.gov.dvla.persistence;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.RecurringBooking;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.model.exception.InvalidBookingException;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Implementation of RecurringBookingDAO that keeps rules in memory and one-off bookings in another BookingDAO.
+ * A rule takes the same room however many visits it has, so a customer on a four week cycle is one entry
+ * rather than thirteen bookings a year.
+ * Rules are grouped by interval and by the day of the interval they fall on, so findByDate only looks at
+ * the rules that can visit that day. Range queries keep each of those groups in a priority queue keyed on
+ * the next day it can visit, so they work out only the days with visits, each as the previous day's are read,
+ * merging them with the one-off bookings in date then id order. Only the paged and stream queries should be
+ * given an unbounded range while a rule has no end date.
+ * Skipped and moved visits are kept with their rule, and moved visits are also indexed by their new date.
+ * Every visit of a rule has the rule's id, so the date queries can return several bookings with the same id.
+ * findById, findAll, count, updateBookingDate, the customer queries and streamAll cover one-off bookings only,
+ * as an open-ended rule has no last visit. WindowCleaningServiceImpl builds its daily totals and daily capacity
+ * from findAll, so it rejects those options over this DAO.
+ * Rules are guarded by a read-write lock. Rules and the lists of each phase are replaced rather than changed,
+ * so a stream sees the rules as they were when it was opened. This class is thread-safe when the wrapped BookingDAO is.
+ */
+public class RecurringBookingDAOImpl implements RecurringBookingDAO {
+
+    /**
+     * Orders visits and bookings on the same date by id.
+     */
+    private static final Comparator<Booking> ID_ORDER = Comparator.comparingInt(Booking::getId);
+
+    /**
+     * DAO holding the one-off bookings.
+     */
+    private final BookingDAO bookings;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Rules by id.
+     */
+    private final Map<Integer, Rule> rules = new HashMap<>();
+
+    /**
+     * Rules by interval and the epoch day of their start date modulo the interval, keyed by phaseKey.
+     * A rule can only visit on days with the same remainder. Each list is unmodifiable and replaced on change.
+     */
+    private final Map<Long, List<Rule>> rulesByPhase = new HashMap<>();
+
+    /**
+     * Every interval used by a rule, in ascending order.
+     */
+    private int[] intervals = new int[0];
+
+    /**
+     * Earliest start of any rule as an epoch day, Long.MAX_VALUE if there are no rules.
+     */
+    private long firstRuleDay = Long.MAX_VALUE;
+
+    /**
+     * Latest end of any rule as an epoch day, Long.MAX_VALUE if a rule never ends.
+     */
+    private long lastRuleDay = Long.MIN_VALUE;
+
+    /**
+     * Moved visits by the epoch day they were moved to, each day's in id order.
+     */
+    private final NavigableMap<Long, List<Booking>> movedVisits = new TreeMap<>();
+
+    /**
+     * Constructor for RecurringBookingDAOImpl class.
+     *
+     * @param bookings the DAO to keep one-off bookings in
+     */
+    public RecurringBookingDAOImpl(BookingDAO bookings) {
+        this.bookings = bookings;
+    }
+
+    @Override
+    public void saveRule(RecurringBooking rule) {
+        checkRule(rule);
+
+        lock.writeLock().lock();
+        try {
+            if (rules.containsKey(rule.getId()) || bookings.findById(rule.getId()).isPresent()) {
+                throw new DuplicateEntityException("Duplicate Booking not allowed");
+            }
+            Rule saved = new Rule(rule, Set.of(), Map.of());
+            rules.put(rule.getId(), saved);
+            List<Rule> phase = new ArrayList<>(rulesByPhase.getOrDefault(saved.phaseKey(), List.of()));
+            phase.add(saved);
+            rulesByPhase.put(saved.phaseKey(), Collections.unmodifiableList(phase));
+            if (Arrays.binarySearch(intervals, rule.getIntervalDays()) < 0) {
+                intervals = Arrays.copyOf(intervals, intervals.length + 1);
+                intervals[intervals.length - 1] = rule.getIntervalDays();
+                Arrays.sort(intervals);
+            }
+            firstRuleDay = Math.min(firstRuleDay, saved.startDay);
+            lastRuleDay = Math.max(lastRuleDay, saved.endDay);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<RecurringBooking> findRuleById(int ruleId) {
+        lock.readLock().lock();
+        try {
+            Rule rule = rules.get(ruleId);
+            return rule == null ? Optional.empty() : Optional.of(rule.rule);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<RecurringBooking> findRulesByCustomerId(int customerId) {
+        List<RecurringBooking> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Rule rule : rules.values()) {
+                if (rule.rule.getCustomerId() == customerId) {
+                    found.add(rule.rule);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        found.sort(Comparator.comparingInt(RecurringBooking::getId));
+        return found;
+    }
+
+    @Override
+    public void skipVisit(int ruleId, LocalDate date) {
+        lock.writeLock().lock();
+        try {
+            Rule rule = findScheduledVisit(ruleId, date);
+            long day = date.toEpochDay();
+            removeMovedVisit(rule, day);
+            replace(rule, rule.withException(day, null));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void moveVisit(int ruleId, LocalDate date, LocalDate newDate) {
+        Objects.requireNonNull(newDate, "LocalDate cannot be null");
+
+        lock.writeLock().lock();
+        try {
+            Rule rule = findScheduledVisit(ruleId, date);
+            long day = date.toEpochDay();
+            long newDay = newDate.toEpochDay();
+            removeMovedVisit(rule, day);
+            replace(rule, rule.withException(day, newDay));
+
+            List<Booking> moved = movedVisits.computeIfAbsent(newDay, key -> new ArrayList<>());
+            Booking visit = rule.visit(newDay);
+            int index = Collections.binarySearch(moved, visit, ID_ORDER);
+            moved.add(index < 0 ? -index - 1 : index, visit);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void save(Booking booking) {
+        lock.readLock().lock();
+        try {
+            if (rules.containsKey(booking.getId())) {
+                throw new DuplicateEntityException("Duplicate Booking not allowed");
+            }
+            bookings.save(booking);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int[] saveAll(List<Booking> newBookings) {
+        lock.readLock().lock();
+        try {
+            if (rules.isEmpty()) {
+                return bookings.saveAll(newBookings);
+            }
+
+            // bookings whose id belongs to a rule are skipped here, the rest by the wrapped DAO
+            List<Booking> others = new ArrayList<>(newBookings.size());
+            int[] otherPositions = new int[newBookings.size()];
+            int[] skipped = new int[newBookings.size()];
+            int skippedCount = 0;
+            for (int i = 0; i < newBookings.size(); i++) {
+                if (rules.containsKey(newBookings.get(i).getId())) {
+                    skipped[skippedCount++] = i;
+                } else {
+                    otherPositions[others.size()] = i;
+                    others.add(newBookings.get(i));
+                }
+            }
+            for (int skippedOther : bookings.saveAll(others)) {
+                skipped[skippedCount++] = otherPositions[skippedOther];
+            }
+
+            int[] result = Arrays.copyOf(skipped, skippedCount);
+            Arrays.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateBookingDate(int bookingId, LocalDate date) {
+        bookings.updateBookingDate(bookingId, date);
+    }
+
+    @Override
+    public Optional<Booking> findById(int bookingId) {
+        return bookings.findById(bookingId);
+    }
+
+    @Override
+    public List<Booking> findAll() {
+        return bookings.findAll();
+    }
+
+    @Override
+    public int count() {
+        return bookings.count();
+    }
+
+    @Override
+    public List<Booking> findByDate(LocalDate date) {
+        List<Booking> oneOff = bookings.findByDate(date);
+        long day = date.toEpochDay();
+
+        List<Booking> visits;
+        lock.readLock().lock();
+        try {
+            visits = visitsOn(day, rulesByPhase, intervals, movedVisits);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (visits.isEmpty()) {
+            return oneOff;
+        }
+
+        List<Booking> merged = new ArrayList<>(oneOff.size() + visits.size());
+        new MergedIterator(oneOff.iterator(), visits.iterator()).forEachRemaining(merged::add);
+        return merged;
+    }
+
+    @Override
+    public List<Booking> findByCustomerId(int customerId) {
+        return bookings.findByCustomerId(customerId);
+    }
+
+    @Override
+    public List<Booking> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (!hasRules()) {
+            return bookings.findByDateRange(startDate, endDate);
+        }
+
+        List<Booking> merged = new ArrayList<>();
+        new MergedIterator(bookings.findByDateRange(startDate, endDate).iterator(), visits(startDate, endDate))
+                .forEachRemaining(merged::add);
+        return merged;
+    }
+
+    @Override
+    public int countByDateRange(LocalDate startDate, LocalDate endDate) {
+        int count = bookings.countByDateRange(startDate, endDate);
+        for (Iterator<Booking> visits = visits(startDate, endDate); visits.hasNext(); visits.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public int[] findCustomerIdsByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (!hasRules()) {
+            return bookings.findCustomerIdsByDateRange(startDate, endDate);
+        }
+
+        return streamByDateRange(startDate, endDate).mapToInt(Booking::getCustomerId).toArray();
+    }
+
+    @Override
+    public Stream<Booking> streamAll() {
+        return bookings.streamAll();
+    }
+
+    @Override
+    public Stream<Booking> streamByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (!hasRules()) {
+            return bookings.streamByDateRange(startDate, endDate);
+        }
+
+        return stream(new MergedIterator(bookings.streamByDateRange(startDate, endDate).iterator(), visits(startDate, endDate)));
+    }
+
+    @Override
+    public Stream<Booking> streamByCustomerId(int customerId) {
+        return bookings.streamByCustomerId(customerId);
+    }
+
+    @Override
+    public List<Booking> findPageByDateRange(LocalDate startDate, LocalDate endDate, BookingCursor after, int limit) {
+        List<Booking> oneOff = bookings.findPageByDateRange(startDate, endDate, after, limit);
+        LocalDate from = after == null || after.getBookingDate().isBefore(startDate) ? startDate : after.getBookingDate();
+        if (!hasRules() || from.isAfter(endDate)) {
+            return oneOff;
+        }
+
+        Iterator<Booking> visits = stream(visits(from, endDate))
+                .filter(visit -> after == null || after.isBefore(visit))
+                .limit(limit)
+                .iterator();
+        List<Booking> page = new ArrayList<>(limit);
+        MergedIterator merged = new MergedIterator(oneOff.iterator(), visits);
+        while (page.size() < limit && merged.hasNext()) {
+            page.add(merged.next());
+        }
+        return page;
+    }
+
+    @Override
+    public List<Booking> findPageByCustomerId(int customerId, BookingCursor after, int limit) {
+        return bookings.findPageByCustomerId(customerId, after, limit);
+    }
+
+    /**
+     * Checks if any rule is stored.
+     *
+     * @return true if there is at least one rule
+     */
+    private boolean hasRules() {
+        lock.readLock().lock();
+        try {
+            return !rules.isEmpty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the visits within a date range in date then id order, from the rules as they are now.
+     * Scheduled visits are worked out as they are read; visits moved into the range are copied.
+     *
+     * @param startDate the start date of the range
+     * @param endDate   the end date of the range
+     * @return iterator over the visits
+     */
+    private Iterator<Booking> visits(LocalDate startDate, LocalDate endDate) {
+        long fromDay = startDate.toEpochDay();
+        long toDay = endDate.toEpochDay();
+        if (fromDay > toDay) {
+            return Collections.emptyIterator();
+        }
+
+        List<Booking> moved = new ArrayList<>();
+        ScheduledVisitIterator scheduled;
+        lock.readLock().lock();
+        try {
+            movedVisits.subMap(fromDay, true, toDay, true).values().forEach(moved::addAll);
+            // each phase's list is replaced rather than changed, so the iterator can read them after the lock is released
+            scheduled = fromDay <= lastRuleDay && toDay >= firstRuleDay
+                    ? new ScheduledVisitIterator(rulesByPhase, Math.max(fromDay, firstRuleDay), Math.min(toDay, lastRuleDay))
+                    : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (scheduled == null) {
+            return moved.iterator();
+        }
+        return moved.isEmpty() ? scheduled : new MergedIterator(scheduled, moved.iterator());
+    }
+
+    /**
+     * Works out the visits on a day from the rules that can visit it and the visits moved to it.
+     *
+     * @param day          the epoch day
+     * @param rulesByPhase the rules by phaseKey
+     * @param intervals    every interval used by a rule
+     * @param movedVisits  moved visits by epoch day, each day's in id order
+     * @return the visits in id order
+     */
+    private static List<Booking> visitsOn(long day, Map<Long, List<Rule>> rulesByPhase, int[] intervals,
+                                          NavigableMap<Long, List<Booking>> movedVisits) {
+        List<Booking> visits = new ArrayList<>();
+        for (int interval : intervals) {
+            List<Rule> candidates = rulesByPhase.get(phaseKey(interval, (int) Math.floorMod(day, (long) interval)));
+            if (candidates == null) {
+                continue;
+            }
+            for (Rule rule : candidates) {
+                if (rule.visitsOn(day)) {
+                    visits.add(rule.visit(day));
+                }
+            }
+        }
+        visits.addAll(movedVisits.getOrDefault(day, List.of()));
+        if (visits.size() > 1) {
+            visits.sort(ID_ORDER);
+        }
+        return visits;
+    }
+
+    /**
+     * Finds a rule that schedules a visit on a date.
+     * Callers hold the write lock.
+     *
+     * @param ruleId the rule ID
+     * @param date   the date
+     * @return the rule
+     */
+    private Rule findScheduledVisit(int ruleId, LocalDate date) {
+        Objects.requireNonNull(date, "LocalDate cannot be null");
+
+        Rule rule = rules.get(ruleId);
+        if (rule == null || !rule.rule.isVisitDate(date)) {
+            throw new BookingNotFoundException("No booking found");
+        }
+        return rule;
+    }
+
+    /**
+     * Removes the moved visit of a rule's scheduled visit, if it was moved.
+     * Callers hold the write lock.
+     *
+     * @param rule the rule
+     * @param day  the epoch day the visit is scheduled on
+     */
+    private void removeMovedVisit(Rule rule, long day) {
+        Long movedTo = rule.moves.get(day);
+        if (movedTo == null) {
+            return;
+        }
+
+        List<Booking> moved = movedVisits.get(movedTo);
+        // a rule can have two visits moved to the same day, so remove only one of them
+        moved.remove(rule.visit(movedTo));
+        if (moved.isEmpty()) {
+            movedVisits.remove(movedTo);
+        }
+    }
+
+    /**
+     * Replaces a rule with a changed copy.
+     * Callers hold the write lock.
+     *
+     * @param rule    the rule as stored
+     * @param changed the changed copy
+     */
+    private void replace(Rule rule, Rule changed) {
+        rules.put(rule.rule.getId(), changed);
+        List<Rule> phase = new ArrayList<>(rulesByPhase.get(rule.phaseKey()));
+        phase.set(phase.indexOf(rule), changed);
+        rulesByPhase.put(rule.phaseKey(), Collections.unmodifiableList(phase));
+    }
+
+    /**
+     * Checks that a rule can be saved.
+     *
+     * @param rule the rule
+     */
+    private static void checkRule(RecurringBooking rule) {
+        Objects.requireNonNull(rule, "RecurringBooking cannot be null");
+        if (rule.getId() < 1 || rule.getCustomerId() < 1 || rule.getStartDate() == null || rule.getIntervalDays() < 1
+                || (rule.getEndDate() != null && rule.getEndDate().isBefore(rule.getStartDate()))) {
+            throw new InvalidBookingException("Invalid recurring booking data");
+        }
+    }
+
+    /**
+     * Returns the key of the rules with an interval whose start falls on a day of the interval.
+     *
+     * @param interval the interval in days
+     * @param phase    the epoch day of the start modulo the interval
+     * @return the key
+     */
+    private static long phaseKey(int interval, int phase) {
+        return ((long) interval << 32) | phase;
+    }
+
+    /**
+     * Wraps an iterator over bookings in date then id order as a sequential stream.
+     *
+     * @param iterator the iterator
+     * @return the stream
+     */
+    private static Stream<Booking> stream(Iterator<Booking> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * A stored rule with its skipped and moved visits. Never changed once created.
+     */
+    private static final class Rule {
+
+        private final RecurringBooking rule;
+        private final long startDay;
+        /**
+         * Last epoch day a visit can fall on, Long.MAX_VALUE if the visits never end.
+         */
+        private final long endDay;
+        /**
+         * Epoch days of scheduled visits that were skipped or moved.
+         */
+        private final Set<Long> exceptions;
+        /**
+         * Epoch day each moved visit was moved to, by the epoch day it was scheduled on.
+         */
+        private final Map<Long, Long> moves;
+
+        private Rule(RecurringBooking rule, Set<Long> exceptions, Map<Long, Long> moves) {
+            this.rule = rule;
+            this.startDay = rule.getStartDate().toEpochDay();
+            this.endDay = rule.getEndDate() == null ? Long.MAX_VALUE : rule.getEndDate().toEpochDay();
+            this.exceptions = exceptions;
+            this.moves = moves;
+        }
+
+        private long phaseKey() {
+            return RecurringBookingDAOImpl.phaseKey(rule.getIntervalDays(), (int) Math.floorMod(startDay, (long) rule.getIntervalDays()));
+        }
+
+        private boolean visitsOn(long day) {
+            return day >= startDay && day <= endDay && (day - startDay) % rule.getIntervalDays() == 0
+                    && !exceptions.contains(day);
+        }
+
+        private Booking visit(long day) {
+            return visit(LocalDate.ofEpochDay(day));
+        }
+
+        private Booking visit(LocalDate date) {
+            return new Booking(rule.getId(), rule.getCustomerId(), date);
+        }
+
+        /**
+         * Returns a copy with a scheduled visit skipped, or moved to another day.
+         *
+         * @param day    the epoch day the visit is scheduled on
+         * @param moveTo the epoch day to move it to, or null to skip it
+         * @return the changed copy
+         */
+        private Rule withException(long day, Long moveTo) {
+            Set<Long> changedExceptions = new HashSet<>(exceptions);
+            changedExceptions.add(day);
+            Map<Long, Long> changedMoves = new HashMap<>(moves);
+            if (moveTo == null) {
+                changedMoves.remove(day);
+            } else {
+                changedMoves.put(day, moveTo);
+            }
+            return new Rule(rule, Set.copyOf(changedExceptions), Map.copyOf(changedMoves));
+        }
+    }
+
+    /**
+     * Steps through the scheduled visits within a range of days. The rules of each interval and phase
+     * are kept in a priority queue keyed on the next day they can visit, so only days with visits are
+     * worked out, each when the previous day's visits have been read.
+     */
+    private static final class ScheduledVisitIterator implements Iterator<Booking> {
+
+        /**
+         * Rules of each phase with a day left in the range, by the next day they can visit.
+         */
+        private final PriorityQueue<PhaseVisit> queue = new PriorityQueue<>();
+        private final long toDay;
+        private List<Booking> visits = List.of();
+        private int position;
+
+        /**
+         * Constructor for ScheduledVisitIterator class. Reads the phases straight away.
+         *
+         * @param rulesByPhase the rules by phaseKey, each list not changed once stored
+         * @param fromDay      the first epoch day, inclusive
+         * @param toDay        the last epoch day, inclusive
+         */
+        private ScheduledVisitIterator(Map<Long, List<Rule>> rulesByPhase, long fromDay, long toDay) {
+            this.toDay = toDay;
+            rulesByPhase.forEach((key, rules) -> {
+                int interval = (int) (key >>> 32);
+                long day = fromDay + Math.floorMod(key.intValue() - fromDay, (long) interval);
+                if (day <= toDay) {
+                    queue.add(new PhaseVisit(rules, interval, day));
+                }
+            });
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (position == visits.size()) {
+                if (queue.isEmpty()) {
+                    return false;
+                }
+                visits = visitsOn(queue.peek().day);
+                position = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public Booking next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return visits.get(position++);
+        }
+
+        /**
+         * Takes the phases that can visit a day off the queue, putting each back with its next day.
+         *
+         * @param day the epoch day at the head of the queue
+         * @return the visits in id order
+         */
+        private List<Booking> visitsOn(long day) {
+            List<Booking> dayVisits = new ArrayList<>(queue.peek().rules.size());
+            LocalDate date = LocalDate.ofEpochDay(day);
+            while (!queue.isEmpty() && queue.peek().day == day) {
+                PhaseVisit phase = queue.poll();
+                for (Rule rule : phase.rules) {
+                    // every rule of the phase falls on the day, so only its dates and exceptions need checking
+                    if (day >= rule.startDay && day <= rule.endDay
+                            && (rule.exceptions.isEmpty() || !rule.exceptions.contains(day))) {
+                        dayVisits.add(rule.visit(date));
+                    }
+                }
+                phase.day += phase.interval;
+                if (phase.day <= toDay) {
+                    queue.add(phase);
+                }
+            }
+            if (dayVisits.size() > 1) {
+                dayVisits.sort(ID_ORDER);
+            }
+            return dayVisits;
+        }
+    }
+
+    /**
+     * The rules of one interval and phase with the next day they can visit, ordered by that day.
+     */
+    private static final class PhaseVisit implements Comparable<PhaseVisit> {
+
+        private final List<Rule> rules;
+        private final int interval;
+        /**
+         * Next epoch day the rules can visit.
+         */
+        private long day;
+
+        private PhaseVisit(List<Rule> rules, int interval, long day) {
+            this.rules = rules;
+            this.interval = interval;
+            this.day = day;
+        }
+
+        @Override
+        public int compareTo(PhaseVisit other) {
+            return Long.compare(day, other.day);
+        }
+    }
+
+    /**
+     * Merges two iterators over bookings in date then id order.
+     */
+    private static final class MergedIterator implements Iterator<Booking> {
+
+        private final Iterator<Booking> first;
+        private final Iterator<Booking> second;
+        private Booking nextFirst;
+        private Booking nextSecond;
+
+        private MergedIterator(Iterator<Booking> first, Iterator<Booking> second) {
+            this.first = first;
+            this.second = second;
+            this.nextFirst = first.hasNext() ? first.next() : null;
+            this.nextSecond = second.hasNext() ? second.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextFirst != null || nextSecond != null;
+        }
+
+        @Override
+        public Booking next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (nextSecond == null || (nextFirst != null && Booking.DATE_ORDER.compare(nextFirst, nextSecond) <= 0)) {
+                Booking booking = nextFirst;
+                nextFirst = first.hasNext() ? first.next() : null;
+                return booking;
+            }
+            Booking booking = nextSecond;
+            nextSecond = second.hasNext() ? second.next() : null;
+            return booking;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package uk.gov.dvla.persistence;
+
+/**
+ * Per-thread count of rows a DAO examined without returning them, such as rows passed over by
+ * a column scan or rows hidden by a later change. Read before and after a query by the
+ * instrumented DAOs to report rows scanned against rows returned.
+ * ColumnarBookingDAOImpl, MappedBookingDAO and MappedCustomerDAO report to it; the other DAOs
+ * return every row they examine, or do not report the rows they pass over.
+ * Counting is off until the first instrumented DAO is created, so until then a scan pays
+ * only a volatile read.
+ */
+public final class ScanCounter {
+
+    private static final ThreadLocal<long[]> DISCARDED = ThreadLocal.withInitial(() -> new long[1]);
+    private static volatile boolean enabled;
+
+    private ScanCounter() {
+    }
+
+    /**
+     * Turns counting on for every thread.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Adds to the calling thread's count of rows examined but not returned.
+     *
+     * @param rows the number of rows
+     */
+    public static void discarded(long rows) {
+        if (enabled && rows > 0) {
+            DISCARDED.get()[0] += rows;
+        }
+    }
+
+    /**
+     * Returns the calling thread's running count of rows examined but not returned.
+     *
+     * @return the count, or 0 while counting is off
+     */
+    public static long discardedSoFar() {
+        return enabled ? DISCARDED.get()[0] : 0;
+    }
+}
@@ -0,0 +1,54 @@
+package uk.gov.dvla.persistence;
+
+/**
+ * Read-only view of the bookings and customers of an MvccStore at one version.
+ * Its DAOs always give the same answers, whatever is written to the store afterwards, and throw
+ * UnsupportedOperationException on writes. The version is kept in memory only while the snapshot,
+ * or a stream read from it, is referenced.
+ */
+public final class StoreSnapshot {
+
+    private final long version;
+    private final BookingDAO bookingDAO;
+    private final CustomerDAO customerDAO;
+
+    /**
+     * Constructor for StoreSnapshot class.
+     *
+     * @param version     the number of writes published before the snapshot was taken
+     * @param bookingDAO  the bookings at that version
+     * @param customerDAO the customers at that version
+     */
+    StoreSnapshot(long version, BookingDAO bookingDAO, CustomerDAO customerDAO) {
+        this.version = version;
+        this.bookingDAO = bookingDAO;
+        this.customerDAO = customerDAO;
+    }
+
+    /**
+     * Returns the number of writes published before the snapshot was taken.
+     *
+     * @return the version number
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the bookings as they were when the snapshot was taken.
+     *
+     * @return a read-only booking DAO
+     */
+    public BookingDAO getBookingDAO() {
+        return bookingDAO;
+    }
+
+    /**
+     * Returns the customers as they were when the snapshot was taken.
+     *
+     * @return a read-only customer DAO
+     */
+    public CustomerDAO getCustomerDAO() {
+        return customerDAO;
+    }
+}
@@ -0,0 +1,194 @@
+package uk.gov.dvla.persistence;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.util.PersistentTreeMap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One version of the bookings and customers of an MvccStore, with their indexes.
+ * Never changed once created: every with method returns a new version sharing all unchanged tree nodes
+ * with this one. Stored bookings and customers are never changed either, a change replaces them with a copy.
+ */
+final class StoreVersion {
+
+    /**
+     * Orders bookings by customer id, then booking date, then booking id.
+     */
+    static final Comparator<Booking> CUSTOMER_ORDER = Comparator
+            .comparingInt(Booking::getCustomerId)
+            .thenComparing(Booking.DATE_ORDER);
+
+    /**
+     * Orders name keys, which are null for a customer without a name.
+     */
+    private static final Comparator<String> NAME_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    /**
+     * Version of an empty store.
+     */
+    static final StoreVersion EMPTY = new StoreVersion(0,
+            PersistentTreeMap.empty(), PersistentTreeMap.empty(Booking.DATE_ORDER), PersistentTreeMap.empty(CUSTOMER_ORDER),
+            PersistentTreeMap.empty(), PersistentTreeMap.empty(NAME_ORDER));
+
+    /**
+     * Number of writes published before this version.
+     */
+    final long number;
+    /**
+     * Bookings keyed by booking id.
+     */
+    final PersistentTreeMap<Integer, Booking> bookingsById;
+    /**
+     * Bookings keyed by themselves in date then id order.
+     */
+    final PersistentTreeMap<Booking, Booking> bookingsByDate;
+    /**
+     * Bookings keyed by themselves in CUSTOMER_ORDER.
+     */
+    final PersistentTreeMap<Booking, Booking> bookingsByCustomer;
+    /**
+     * Customers keyed by customer id.
+     */
+    final PersistentTreeMap<Integer, Customer> customersById;
+    /**
+     * Ids of the customers with each name key, in the order they were given the name.
+     */
+    final PersistentTreeMap<String, List<Integer>> customerIdsByName;
+
+    /**
+     * Constructor for StoreVersion class.
+     *
+     * @param number             the number of writes published before this version
+     * @param bookingsById       bookings keyed by booking id
+     * @param bookingsByDate     bookings in date then id order
+     * @param bookingsByCustomer bookings in CUSTOMER_ORDER
+     * @param customersById      customers keyed by customer id
+     * @param customerIdsByName  ids of the customers with each name key
+     */
+    private StoreVersion(long number,
+                         PersistentTreeMap<Integer, Booking> bookingsById,
+                         PersistentTreeMap<Booking, Booking> bookingsByDate,
+                         PersistentTreeMap<Booking, Booking> bookingsByCustomer,
+                         PersistentTreeMap<Integer, Customer> customersById,
+                         PersistentTreeMap<String, List<Integer>> customerIdsByName) {
+        this.number = number;
+        this.bookingsById = bookingsById;
+        this.bookingsByDate = bookingsByDate;
+        this.bookingsByCustomer = bookingsByCustomer;
+        this.customersById = customersById;
+        this.customerIdsByName = customerIdsByName;
+    }
+
+    /**
+     * Returns the version after a write that leaves it unchanged apart from the version number,
+     * so a batch of changes can be applied one at a time and published once.
+     *
+     * @return the next version
+     */
+    StoreVersion next() {
+        return new StoreVersion(number + 1, bookingsById, bookingsByDate, bookingsByCustomer, customersById, customerIdsByName);
+    }
+
+    /**
+     * Returns a copy with a booking added. The caller checks its id is not already stored.
+     *
+     * @param booking the booking
+     * @return the new version, with the same number
+     */
+    StoreVersion withBooking(Booking booking) {
+        return new StoreVersion(number,
+                bookingsById.put(booking.getId(), booking),
+                bookingsByDate.put(booking, booking),
+                bookingsByCustomer.put(booking, booking),
+                customersById, customerIdsByName);
+    }
+
+    /**
+     * Returns a copy with a stored booking replaced by a copy on another date.
+     *
+     * @param booking the booking as stored
+     * @param date    the new booking date
+     * @return the new version, with the same number
+     */
+    StoreVersion withBookingDate(Booking booking, LocalDate date) {
+        Booking moved = new Booking(booking.getId(), booking.getCustomerId(), date);
+        return new StoreVersion(number,
+                bookingsById.put(moved.getId(), moved),
+                bookingsByDate.remove(booking).put(moved, moved),
+                bookingsByCustomer.remove(booking).put(moved, moved),
+                customersById, customerIdsByName);
+    }
+
+    /**
+     * Returns a copy with a customer added under a name key. The caller checks its id is not already stored.
+     *
+     * @param customer the customer
+     * @param nameKey  the key of the customer's name
+     * @return the new version, with the same number
+     */
+    StoreVersion withCustomer(Customer customer, String nameKey) {
+        return new StoreVersion(number, bookingsById, bookingsByDate, bookingsByCustomer,
+                customersById.put(customer.getId(), customer),
+                withName(customerIdsByName, nameKey, customer.getId()));
+    }
+
+    /**
+     * Returns a copy with a stored customer replaced, moving it between name keys if they differ.
+     *
+     * @param customer   the replacement, with the same id as the stored customer
+     * @param oldNameKey the key of the stored customer's name
+     * @param newNameKey the key of the replacement's name
+     * @return the new version, with the same number
+     */
+    StoreVersion withCustomerReplaced(Customer customer, String oldNameKey, String newNameKey) {
+        PersistentTreeMap<String, List<Integer>> names = customerIdsByName;
+        if (NAME_ORDER.compare(oldNameKey, newNameKey) != 0) {
+            names = withName(withoutName(names, oldNameKey, customer.getId()), newNameKey, customer.getId());
+        }
+        return new StoreVersion(number, bookingsById, bookingsByDate, bookingsByCustomer,
+                customersById.put(customer.getId(), customer), names);
+    }
+
+    /**
+     * Returns a name index with a customer id added last under a name key.
+     *
+     * @param names      the name index
+     * @param nameKey    the name key
+     * @param customerId the customer ID
+     * @return the new name index
+     */
+    private static PersistentTreeMap<String, List<Integer>> withName(PersistentTreeMap<String, List<Integer>> names,
+                                                                    String nameKey, int customerId) {
+        List<Integer> ids = names.get(nameKey);
+        List<Integer> updated = new ArrayList<>(ids == null ? 1 : ids.size() + 1);
+        if (ids != null) {
+            updated.addAll(ids);
+        }
+        updated.add(customerId);
+        return names.put(nameKey, List.copyOf(updated));
+    }
+
+    /**
+     * Returns a name index with a customer id removed from a name key, dropping the key once it has no ids.
+     *
+     * @param names      the name index
+     * @param nameKey    the name key
+     * @param customerId the customer ID
+     * @return the new name index, or the same one if the key is not in it
+     */
+    private static PersistentTreeMap<String, List<Integer>> withoutName(PersistentTreeMap<String, List<Integer>> names,
+                                                                       String nameKey, int customerId) {
+        List<Integer> ids = names.get(nameKey);
+        if (ids == null) {
+            return names;
+        }
+        List<Integer> updated = new ArrayList<>(ids);
+        updated.remove(Integer.valueOf(customerId));
+        return updated.isEmpty() ? names.remove(nameKey) : names.put(nameKey, List.copyOf(updated));
+    }
+}
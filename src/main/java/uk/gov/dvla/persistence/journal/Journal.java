@@ -0,0 +1,379 @@
+package uk.gov.dvla.persistence.journal;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal with group commit.
+ * The file starts with a magic number and a format version. Each record follows as
+ * <pre>
+ *     int length of payload | int CRC32 of type and payload | byte type | payload
+ * </pre>
+ * Appends are queued and written by a single writer thread, which writes every queued record
+ * (up to JournalOptions.maxBatchSize) with one gathering write and one fsync. An append completes
+ * when the batch holding it is durable, so concurrent writers share the cost of each fsync.
+ * On open, records are replayed in order until the end of the file or the first record that is
+ * incomplete or fails its checksum. That record and anything after it is treated as a write torn
+ * by a crash and truncated away.
+ */
+public final class Journal implements Closeable {
+
+    /**
+     * First four bytes of every journal file.
+     */
+    private static final int MAGIC = 0x57434A4C;
+    /**
+     * Record format version written after the magic number.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Bytes taken by the magic number and version.
+     */
+    private static final int FILE_HEADER_SIZE = 8;
+    /**
+     * Bytes taken by the length, checksum and type before each payload.
+     */
+    private static final int RECORD_HEADER_SIZE = 9;
+    /**
+     * Largest payload accepted, so a torn length cannot ask replay for gigabytes.
+     */
+    static final int MAX_PAYLOAD_SIZE = 1 << 20;
+
+    /**
+     * Receives each record read back when a journal is opened.
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+
+        /**
+         * Applies one replayed record.
+         *
+         * @param type    the record type
+         * @param payload the record payload, positioned at its start
+         */
+        void handle(byte type, ByteBuffer payload);
+    }
+
+    /**
+     * A queued record and the append waiting for it.
+     */
+    private record PendingRecord(ByteBuffer bytes, CompletableFuture<Void> written) {
+    }
+
+    /**
+     * The journal file.
+     */
+    private final FileChannel channel;
+    /**
+     * Group commit settings.
+     */
+    private final JournalOptions options;
+    /**
+     * Guards pending, closed and failure.
+     */
+    private final Object lock = new Object();
+    /**
+     * Records waiting for the writer thread, in append order.
+     */
+    private List<PendingRecord> pending = new ArrayList<>();
+    /**
+     * Whether close has been called.
+     */
+    private boolean closed;
+    /**
+     * The write failure that stopped the journal, or null while it is healthy.
+     */
+    private IOException failure;
+    /**
+     * Thread writing and syncing batches.
+     */
+    private final Thread writer;
+
+    /**
+     * Constructor for Journal class.
+     *
+     * @param channel the journal file, positioned at its end
+     * @param options the group commit settings
+     */
+    private Journal(FileChannel channel, JournalOptions options) {
+        this.channel = channel;
+        this.options = options;
+        this.writer = new Thread(this::writeBatches, "journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Opens a journal, creating the file if needed and replaying every complete record.
+     *
+     * @param file    the journal file
+     * @param options the group commit settings
+     * @param handler receives each replayed record in the order it was appended
+     * @return the open journal, ready for appends
+     * @throws IOException if the file cannot be read or is not a journal
+     */
+    public static Journal open(Path file, JournalOptions options, RecordHandler handler) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long end = replay(channel, handler);
+            channel.truncate(end);
+            channel.position(end);
+            return new Journal(channel, options);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Queues a record for the next batch.
+     *
+     * @param type    the record type
+     * @param payload the record payload
+     * @return completes once the record is written, and synced if JournalOptions.fsync is set
+     */
+    public CompletableFuture<Void> append(byte type, byte[] payload) {
+        checkPayloadSize(payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        ByteBuffer bytes = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(type)
+                .put(payload)
+                .flip();
+
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        synchronized (lock) {
+            if (failure != null) {
+                return CompletableFuture.failedFuture(failure);
+            }
+            if (closed) {
+                return CompletableFuture.failedFuture(new IOException("Journal is closed"));
+            }
+
+            pending.add(new PendingRecord(bytes, written));
+            if (pending.size() == 1 || pending.size() >= options.getMaxBatchSize()) {
+                lock.notifyAll();
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Checks that a payload is small enough to append.
+     *
+     * @param payload the record payload
+     * @throws IllegalArgumentException if the payload is larger than MAX_PAYLOAD_SIZE
+     */
+    static void checkPayloadSize(byte[] payload) {
+        if (payload.length > MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("Journal record too large: " + payload.length + " bytes");
+        }
+    }
+
+    /**
+     * Waits for an append to become durable.
+     *
+     * @param written the future returned by append
+     * @throws UncheckedIOException if the record could not be written
+     */
+    public static void await(CompletableFuture<Void> written) {
+        try {
+            written.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw new UncheckedIOException("Journal write failed", cause);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Writes every queued record, then stops the writer and closes the file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads records from the start of the file, checking the header first.
+     *
+     * @param channel the journal file
+     * @param handler receives each complete record
+     * @return the file position after the last complete record
+     * @throws IOException if the file cannot be read or is not a journal
+     */
+    private static long replay(FileChannel channel, RecordHandler handler) throws IOException {
+        long size = channel.size();
+        if (size < FILE_HEADER_SIZE) {
+            // new file, or a crash before the header was written
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+            channel.truncate(0);
+            while (header.hasRemaining()) {
+                channel.write(header, FILE_HEADER_SIZE - header.remaining());
+            }
+            channel.force(true);
+            return FILE_HEADER_SIZE;
+        }
+
+        channel.position(0);
+        // not closed, as that would close the channel
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a booking journal");
+        }
+
+        long position = FILE_HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER_SIZE <= size) {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            byte type = in.readByte();
+            if (length < 0 || length > MAX_PAYLOAD_SIZE || position + RECORD_HEADER_SIZE + length > size) {
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            crc.reset();
+            crc.update(type);
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            handler.handle(type, ByteBuffer.wrap(payload));
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    /**
+     * Writer thread loop: takes the queued records as a batch, writes and syncs them, then
+     * completes their appends. Runs until the journal is closed and the queue is empty.
+     */
+    private void writeBatches() {
+        while (true) {
+            List<PendingRecord> batch;
+            synchronized (lock) {
+                try {
+                    while (pending.isEmpty() && !closed) {
+                        lock.wait();
+                    }
+                    if (pending.isEmpty()) {
+                        return;
+                    }
+                    waitForBatchToFill();
+                } catch (InterruptedException e) {
+                    fail(new InterruptedIOException("Journal writer interrupted"));
+                    return;
+                }
+
+                if (pending.size() <= options.getMaxBatchSize()) {
+                    batch = pending;
+                    pending = new ArrayList<>();
+                } else {
+                    List<PendingRecord> taken = pending.subList(0, options.getMaxBatchSize());
+                    batch = new ArrayList<>(taken);
+                    taken.clear();
+                }
+            }
+
+            try {
+                write(batch);
+            } catch (IOException e) {
+                for (PendingRecord record : batch) {
+                    record.written().completeExceptionally(e);
+                }
+                synchronized (lock) {
+                    // later records would follow a partial batch that replay stops at
+                    fail(e);
+                }
+                return;
+            }
+            for (PendingRecord record : batch) {
+                record.written().complete(null);
+            }
+        }
+    }
+
+    /**
+     * Waits up to JournalOptions.maxBatchDelayMicros for more records to join the batch.
+     * Callers hold lock.
+     *
+     * @throws InterruptedException if the writer is interrupted
+     */
+    private void waitForBatchToFill() throws InterruptedException {
+        long delayNanos = TimeUnit.MICROSECONDS.toNanos(options.getMaxBatchDelayMicros());
+        long deadline = System.nanoTime() + delayNanos;
+        long remaining = delayNanos;
+        while (remaining > 0 && !closed && pending.size() < options.getMaxBatchSize()) {
+            TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    /**
+     * Writes a batch with one gathering write and syncs it if configured.
+     *
+     * @param batch the records to write
+     * @throws IOException if the write or sync fails
+     */
+    private void write(List<PendingRecord> batch) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        long remaining = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = batch.get(i).bytes();
+            remaining += buffers[i].remaining();
+        }
+
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+        if (options.isFsync()) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Stops the journal after a write failure, failing every queued append.
+     * Callers hold lock.
+     *
+     * @param cause the failure
+     */
+    private void fail(IOException cause) {
+        failure = cause;
+        for (PendingRecord record : pending) {
+            record.written().completeExceptionally(cause);
+        }
+        pending = new ArrayList<>();
+    }
+}
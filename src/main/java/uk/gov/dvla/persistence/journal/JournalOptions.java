@@ -0,0 +1,43 @@
+package uk.gov.dvla.persistence.journal;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Group commit settings of a Journal.
+ * Records appended while a batch is being written wait for the next batch, so under load
+ * many appends share one write and one fsync.
+ */
+@Getter
+@Builder
+public class JournalOptions {
+
+    /**
+     * Most records written and synced together.
+     */
+    @Builder.Default
+    private final int maxBatchSize = 512;
+
+    /**
+     * How long the first record of a batch waits for others to join it, in microseconds.
+     * Zero writes each batch as soon as there is a record, which keeps latency lowest when idle.
+     */
+    @Builder.Default
+    private final long maxBatchDelayMicros = 0;
+
+    /**
+     * Whether each batch is forced to the storage device before its appends complete.
+     * Without it a crash of the machine, though not of the process, can lose acknowledged records.
+     */
+    @Builder.Default
+    private final boolean fsync = true;
+
+    /**
+     * Returns the default options.
+     *
+     * @return options that sync every batch and batch up to 512 records without waiting
+     */
+    public static JournalOptions defaults() {
+        return builder().build();
+    }
+}
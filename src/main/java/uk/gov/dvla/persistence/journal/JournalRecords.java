@@ -0,0 +1,176 @@
+package uk.gov.dvla.persistence.journal;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.CustomerDAO;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Record types and payload encodings of the booking journal.
+ * Every change made through the journaled DAOs is written as one of these records, framed by Journal.
+ * Payloads are big-endian. A name is written as its UTF-8 length followed by its bytes, with a
+ * length of -1 and no bytes for a null name; a date is written as its long epoch day.
+ * <pre>
+ * SAVE_CUSTOMER            int id | int windows | name
+ * UPDATE_CUSTOMER_NAME     int customerId | name
+ * UPDATE_CUSTOMER_WINDOWS  int customerId | int windows
+ * SAVE_BOOKING             int id | int customerId | long bookingDate
+ * UPDATE_BOOKING_DATE      int bookingId | long bookingDate
+ * </pre>
+ * Type values are stored in the journal file, so they must never be renumbered.
+ */
+final class JournalRecords {
+
+    /**
+     * A new customer: int id, int windows, name.
+     */
+    static final byte SAVE_CUSTOMER = 1;
+    /**
+     * A customer renamed: int customerId, name.
+     */
+    static final byte UPDATE_CUSTOMER_NAME = 2;
+    /**
+     * A customer's number of windows changed: int customerId, int windows.
+     */
+    static final byte UPDATE_CUSTOMER_WINDOWS = 3;
+    /**
+     * A new booking: int id, int customerId, long epoch day of the booking date.
+     */
+    static final byte SAVE_BOOKING = 4;
+    /**
+     * A booking moved: int bookingId, long epoch day of the new date.
+     */
+    static final byte UPDATE_BOOKING_DATE = 5;
+
+    /**
+     * Length written in place of a null name.
+     */
+    private static final int NULL_NAME = -1;
+
+    private JournalRecords() {
+    }
+
+    /**
+     * Encodes a SAVE_CUSTOMER payload of 12 bytes plus the name's UTF-8 bytes.
+     *
+     * @param customer the customer saved
+     * @return the payload
+     */
+    static byte[] saveCustomer(Customer customer) {
+        byte[] name = encodeName(customer.getName());
+        return ByteBuffer.allocate(12 + name.length)
+                .putInt(customer.getId())
+                .putInt(customer.getWindows())
+                .putInt(customer.getName() == null ? NULL_NAME : name.length)
+                .put(name)
+                .array();
+    }
+
+    /**
+     * Encodes an UPDATE_CUSTOMER_NAME payload of 8 bytes plus the name's UTF-8 bytes.
+     *
+     * @param customerId the customer ID
+     * @param name       the new name, or null
+     * @return the payload
+     */
+    static byte[] updateCustomerName(int customerId, String name) {
+        byte[] encoded = encodeName(name);
+        return ByteBuffer.allocate(8 + encoded.length)
+                .putInt(customerId)
+                .putInt(name == null ? NULL_NAME : encoded.length)
+                .put(encoded)
+                .array();
+    }
+
+    /**
+     * Encodes an UPDATE_CUSTOMER_WINDOWS payload of 8 bytes.
+     *
+     * @param customerId the customer ID
+     * @param windows    the new number of windows
+     * @return the payload
+     */
+    static byte[] updateCustomerWindows(int customerId, int windows) {
+        return ByteBuffer.allocate(8).putInt(customerId).putInt(windows).array();
+    }
+
+    /**
+     * Encodes a SAVE_BOOKING payload of 16 bytes.
+     *
+     * @param booking the booking saved
+     * @return the payload
+     */
+    static byte[] saveBooking(Booking booking) {
+        return ByteBuffer.allocate(16)
+                .putInt(booking.getId())
+                .putInt(booking.getCustomerId())
+                .putLong(booking.getBookingDate().toEpochDay())
+                .array();
+    }
+
+    /**
+     * Encodes an UPDATE_BOOKING_DATE payload of 12 bytes.
+     *
+     * @param bookingId the booking ID
+     * @param date      the new booking date
+     * @return the payload
+     */
+    static byte[] updateBookingDate(int bookingId, LocalDate date) {
+        return ByteBuffer.allocate(12).putInt(bookingId).putLong(date.toEpochDay()).array();
+    }
+
+    /**
+     * Applies a replayed record to the DAOs being restored.
+     *
+     * @param type        the record type
+     * @param payload     the record payload
+     * @param bookingDAO  the booking store being restored
+     * @param customerDAO the customer store being restored
+     * @throws IllegalStateException if the record type is unknown
+     */
+    static void apply(byte type, ByteBuffer payload, BookingDAO bookingDAO, CustomerDAO customerDAO) {
+        switch (type) {
+            case SAVE_CUSTOMER -> {
+                int id = payload.getInt();
+                int windows = payload.getInt();
+                customerDAO.save(new Customer(id, decodeName(payload), windows));
+            }
+            case UPDATE_CUSTOMER_NAME -> customerDAO.updateName(payload.getInt(), decodeName(payload));
+            case UPDATE_CUSTOMER_WINDOWS -> customerDAO.updateWindows(payload.getInt(), payload.getInt());
+            case SAVE_BOOKING -> bookingDAO.save(
+                    new Booking(payload.getInt(), payload.getInt(), LocalDate.ofEpochDay(payload.getLong())));
+            case UPDATE_BOOKING_DATE -> bookingDAO.updateBookingDate(payload.getInt(), LocalDate.ofEpochDay(payload.getLong()));
+            default -> throw new IllegalStateException("Unknown journal record type: " + type);
+        }
+    }
+
+    /**
+     * Returns a name's UTF-8 bytes. The caller writes the length, NULL_NAME for a null name.
+     *
+     * @param name the name, or null
+     * @return the bytes, empty for a null name
+     */
+    private static byte[] encodeName(String name) {
+        return name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a length-prefixed name from a payload.
+     *
+     * @param payload the payload, positioned at the name's length
+     * @return the name, or null if its length is NULL_NAME
+     */
+    private static String decodeName(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length == NULL_NAME) {
+            return null;
+        }
+
+        byte[] name = new byte[length];
+        payload.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+}
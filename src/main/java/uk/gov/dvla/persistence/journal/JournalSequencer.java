@@ -0,0 +1,156 @@
+package uk.gov.dvla.persistence.journal;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Orders the changes made through the journaling DAOs of one JournaledStore, so each change is
+ * applied to the in-memory DAOs only once it is durable, and in the order it was journaled.
+ * A change is checked and appended while holding the sequencer's monitor, which takes no I/O.
+ * It then waits for its batch without holding anything, so concurrent writers share each fsync,
+ * and finally waits for its turn to be applied. Writes are therefore serialised only while they
+ * are checked, appended and applied in memory, never while they wait for the disk.
+ * Ids saved by changes that are journaled but not yet applied are reserved, so later changes are
+ * checked against them as well as against the in-memory DAOs.
+ */
+final class JournalSequencer {
+
+    /**
+     * A change appended to the journal and waiting to be applied.
+     *
+     * @param number  the position of the change in journal order
+     * @param written completes once every record of the change is durable
+     */
+    record Ticket(long number, CompletableFuture<Void> written) {
+    }
+
+    /**
+     * Booking ids saved by changes that are journaled but not yet applied.
+     */
+    private final Set<Integer> reservedBookingIds = new HashSet<>();
+    /**
+     * Customer ids saved by changes that are journaled but not yet applied.
+     */
+    private final Set<Integer> reservedCustomerIds = new HashSet<>();
+    /**
+     * Number of tickets handed out.
+     */
+    private long issued;
+    /**
+     * Number of tickets applied or abandoned, which is also the number of the next ticket to apply.
+     */
+    private long applied;
+
+    /**
+     * Hands out the next ticket for a change just appended to the journal.
+     * Callers hold the sequencer's monitor from checking the change until this returns.
+     *
+     * @param written completes once every record of the change is durable
+     * @return the change's ticket
+     */
+    Ticket issue(CompletableFuture<Void> written) {
+        return new Ticket(issued++, written);
+    }
+
+    /**
+     * Waits for a change to become durable, then for every earlier change to be applied, then applies it.
+     *
+     * @param ticket  the ticket issued for the change
+     * @param change  applies the change to the in-memory DAOs
+     * @param release releases the ids the change reserved, run whether or not the change is applied
+     * @throws java.io.UncheckedIOException if the change could not be journaled, in which case it is not applied
+     */
+    void apply(Ticket ticket, Runnable change, Runnable release) {
+        RuntimeException failure = null;
+        try {
+            Journal.await(ticket.written());
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        boolean interrupted = false;
+        synchronized (this) {
+            // later changes wait for this one, so it cannot give up its turn
+            while (applied != ticket.number()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            try {
+                if (failure == null) {
+                    change.run();
+                }
+            } finally {
+                release.run();
+                applied++;
+                notifyAll();
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Checks if a booking id is saved by a change waiting to be applied.
+     *
+     * @param bookingId the booking id
+     * @return true if the id is reserved
+     */
+    boolean isBookingReserved(int bookingId) {
+        return reservedBookingIds.contains(bookingId);
+    }
+
+    /**
+     * Reserves a booking id for a change waiting to be applied.
+     *
+     * @param bookingId the booking id
+     */
+    void reserveBooking(int bookingId) {
+        reservedBookingIds.add(bookingId);
+    }
+
+    /**
+     * Releases a reserved booking id.
+     *
+     * @param bookingId the booking id
+     */
+    void releaseBooking(int bookingId) {
+        reservedBookingIds.remove(bookingId);
+    }
+
+    /**
+     * Checks if a customer id is saved by a change waiting to be applied.
+     *
+     * @param customerId the customer id
+     * @return true if the id is reserved
+     */
+    boolean isCustomerReserved(int customerId) {
+        return reservedCustomerIds.contains(customerId);
+    }
+
+    /**
+     * Reserves a customer id for a change waiting to be applied.
+     *
+     * @param customerId the customer id
+     */
+    void reserveCustomer(int customerId) {
+        reservedCustomerIds.add(customerId);
+    }
+
+    /**
+     * Releases a reserved customer id.
+     *
+     * @param customerId the customer id
+     */
+    void releaseCustomer(int customerId) {
+        reservedCustomerIds.remove(customerId);
+    }
+}
@@ -0,0 +1,191 @@
+package uk.gov.dvla.persistence.journal;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.persistence.BookingDAO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * BookingDAO that writes every change to a Journal before applying it.
+ * Each change is checked against the wrapped DAO, journaled, and applied once it is durable,
+ * so a rejected change is never journaled and a change the journal failed to write is never applied.
+ * Reads go straight to the wrapped DAO and see a change only once it is durable.
+ */
+final class JournaledBookingDAO implements BookingDAO {
+
+    /**
+     * The in-memory store holding the bookings.
+     */
+    private final BookingDAO delegate;
+    /**
+     * The journal changes are written to.
+     */
+    private final Journal journal;
+    /**
+     * Orders changes across every DAO writing to the journal. Its monitor is held while a change
+     * is checked, appended and applied, and not while waiting for the journal write.
+     */
+    private final JournalSequencer sequencer;
+
+    /**
+     * Constructor for JournaledBookingDAO class.
+     *
+     * @param delegate  the in-memory store holding the bookings
+     * @param journal   the journal changes are written to
+     * @param sequencer the sequencer shared by every DAO writing to the journal
+     */
+    JournaledBookingDAO(BookingDAO delegate, Journal journal, JournalSequencer sequencer) {
+        this.delegate = delegate;
+        this.journal = journal;
+        this.sequencer = sequencer;
+    }
+
+    @Override
+    public void save(Booking booking) {
+        byte[] payload = JournalRecords.saveBooking(booking);
+        JournalSequencer.Ticket ticket;
+        synchronized (sequencer) {
+            if (isSaved(booking.getId())) {
+                throw new DuplicateEntityException("Duplicate Booking not allowed");
+            }
+            ticket = sequencer.issue(journal.append(JournalRecords.SAVE_BOOKING, payload));
+            sequencer.reserveBooking(booking.getId());
+        }
+        sequencer.apply(ticket, () -> delegate.save(booking), () -> sequencer.releaseBooking(booking.getId()));
+    }
+
+    @Override
+    public int[] saveAll(List<Booking> bookings) {
+        List<byte[]> payloads = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            payloads.add(JournalRecords.saveBooking(booking));
+        }
+
+        int[] skipped = new int[bookings.size()];
+        int skippedCount = 0;
+        List<Booking> accepted = new ArrayList<>(bookings.size());
+        List<CompletableFuture<Void>> written = new ArrayList<>(bookings.size());
+        JournalSequencer.Ticket ticket;
+        synchronized (sequencer) {
+            for (int i = 0; i < bookings.size(); i++) {
+                Booking booking = bookings.get(i);
+                if (isSaved(booking.getId())) {
+                    skipped[skippedCount++] = i;
+                    continue;
+                }
+                written.add(journal.append(JournalRecords.SAVE_BOOKING, payloads.get(i)));
+                sequencer.reserveBooking(booking.getId());
+                accepted.add(booking);
+            }
+            if (accepted.isEmpty()) {
+                return Arrays.copyOf(skipped, skippedCount);
+            }
+            ticket = sequencer.issue(CompletableFuture.allOf(written.toArray(new CompletableFuture<?>[0])));
+        }
+
+        sequencer.apply(ticket, () -> delegate.saveAll(accepted), () -> {
+            for (Booking booking : accepted) {
+                sequencer.releaseBooking(booking.getId());
+            }
+        });
+        return Arrays.copyOf(skipped, skippedCount);
+    }
+
+    @Override
+    public void updateBookingDate(int bookingId, LocalDate date) {
+        byte[] payload = JournalRecords.updateBookingDate(bookingId, date);
+        JournalSequencer.Ticket ticket;
+        synchronized (sequencer) {
+            if (!isSaved(bookingId)) {
+                throw new BookingNotFoundException("No booking found");
+            }
+            ticket = sequencer.issue(journal.append(JournalRecords.UPDATE_BOOKING_DATE, payload));
+        }
+        sequencer.apply(ticket, () -> delegate.updateBookingDate(bookingId, date), () -> { });
+    }
+
+    @Override
+    public Optional<Booking> findById(int bookingId) {
+        return delegate.findById(bookingId);
+    }
+
+    @Override
+    public List<Booking> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public int count() {
+        return delegate.count();
+    }
+
+    @Override
+    public List<Booking> findByDate(LocalDate date) {
+        return delegate.findByDate(date);
+    }
+
+    @Override
+    public List<Booking> findByCustomerId(int customerId) {
+        return delegate.findByCustomerId(customerId);
+    }
+
+    @Override
+    public List<Booking> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        return delegate.findByDateRange(startDate, endDate);
+    }
+
+    @Override
+    public int countByDateRange(LocalDate startDate, LocalDate endDate) {
+        return delegate.countByDateRange(startDate, endDate);
+    }
+
+    @Override
+    public int[] findCustomerIdsByDateRange(LocalDate startDate, LocalDate endDate) {
+        return delegate.findCustomerIdsByDateRange(startDate, endDate);
+    }
+
+    @Override
+    public Stream<Booking> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Stream<Booking> streamByDateRange(LocalDate startDate, LocalDate endDate) {
+        return delegate.streamByDateRange(startDate, endDate);
+    }
+
+    @Override
+    public Stream<Booking> streamByCustomerId(int customerId) {
+        return delegate.streamByCustomerId(customerId);
+    }
+
+    @Override
+    public List<Booking> findPageByDateRange(LocalDate startDate, LocalDate endDate, BookingCursor after, int limit) {
+        return delegate.findPageByDateRange(startDate, endDate, after, limit);
+    }
+
+    @Override
+    public List<Booking> findPageByCustomerId(int customerId, BookingCursor after, int limit) {
+        return delegate.findPageByCustomerId(customerId, after, limit);
+    }
+
+    /**
+     * Checks if a booking is in the wrapped DAO or saved by a change waiting to be applied.
+     * Callers hold the sequencer's monitor.
+     *
+     * @param bookingId the booking id
+     * @return true if the booking exists or will once earlier changes are applied
+     */
+    private boolean isSaved(int bookingId) {
+        return sequencer.isBookingReserved(bookingId) || delegate.findById(bookingId).isPresent();
+    }
+}
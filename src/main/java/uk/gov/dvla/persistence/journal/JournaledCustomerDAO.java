@@ -0,0 +1,177 @@
+package uk.gov.dvla.persistence.journal;
+
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.CustomerNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.persistence.CustomerDAO;
+import uk.gov.dvla.util.IntObjectHashMap;
+import uk.gov.dvla.util.ValidationUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * CustomerDAO that writes every change to a Journal before applying it.
+ * Each change is checked against the wrapped DAO, journaled, and applied once it is durable,
+ * so a rejected change is never journaled and a change the journal failed to write is never applied.
+ * Reads go straight to the wrapped DAO and see a change only once it is durable.
+ */
+final class JournaledCustomerDAO implements CustomerDAO {
+
+    /**
+     * The in-memory store holding the customers.
+     */
+    private final CustomerDAO delegate;
+    /**
+     * The journal changes are written to.
+     */
+    private final Journal journal;
+    /**
+     * Orders changes across every DAO writing to the journal. Its monitor is held while a change
+     * is checked, appended and applied, and not while waiting for the journal write.
+     */
+    private final JournalSequencer sequencer;
+
+    /**
+     * Constructor for JournaledCustomerDAO class.
+     *
+     * @param delegate  the in-memory store holding the customers
+     * @param journal   the journal changes are written to
+     * @param sequencer the sequencer shared by every DAO writing to the journal
+     */
+    JournaledCustomerDAO(CustomerDAO delegate, Journal journal, JournalSequencer sequencer) {
+        this.delegate = delegate;
+        this.journal = journal;
+        this.sequencer = sequencer;
+    }
+
+    @Override
+    public void save(Customer customer) {
+        ValidationUtil.checkStorableCustomerId(customer.getId());
+        byte[] payload = JournalRecords.saveCustomer(customer);
+        JournalSequencer.Ticket ticket;
+        synchronized (sequencer) {
+            if (isSaved(customer.getId())) {
+                throw new DuplicateEntityException("Duplicate Customer not allowed");
+            }
+            ticket = sequencer.issue(journal.append(JournalRecords.SAVE_CUSTOMER, payload));
+            sequencer.reserveCustomer(customer.getId());
+        }
+        sequencer.apply(ticket, () -> delegate.save(customer), () -> sequencer.releaseCustomer(customer.getId()));
+    }
+
+    @Override
+    public int[] saveAll(List<Customer> customers) {
+        // rejects the whole batch before any of it is journaled
+        List<byte[]> payloads = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            ValidationUtil.checkStorableCustomerId(customer.getId());
+            byte[] payload = JournalRecords.saveCustomer(customer);
+            Journal.checkPayloadSize(payload);
+            payloads.add(payload);
+        }
+
+        int[] skipped = new int[customers.size()];
+        int skippedCount = 0;
+        List<Customer> accepted = new ArrayList<>(customers.size());
+        List<CompletableFuture<Void>> written = new ArrayList<>(customers.size());
+        JournalSequencer.Ticket ticket;
+        synchronized (sequencer) {
+            for (int i = 0; i < customers.size(); i++) {
+                Customer customer = customers.get(i);
+                if (isSaved(customer.getId())) {
+                    skipped[skippedCount++] = i;
+                    continue;
+                }
+                written.add(journal.append(JournalRecords.SAVE_CUSTOMER, payloads.get(i)));
+                sequencer.reserveCustomer(customer.getId());
+                accepted.add(customer);
+            }
+            if (accepted.isEmpty()) {
+                return Arrays.copyOf(skipped, skippedCount);
+            }
+            ticket = sequencer.issue(CompletableFuture.allOf(written.toArray(new CompletableFuture<?>[0])));
+        }
+
+        sequencer.apply(ticket, () -> delegate.saveAll(accepted), () -> {
+            for (Customer customer : accepted) {
+                sequencer.releaseCustomer(customer.getId());
+            }
+        });
+        return Arrays.copyOf(skipped, skippedCount);
+    }
+
+    @Override
+    public void updateName(int customerId, String name) {
+        byte[] payload = JournalRecords.updateCustomerName(customerId, name);
+        JournalSequencer.Ticket ticket;
+        synchronized (sequencer) {
+            checkSaved(customerId);
+            ticket = sequencer.issue(journal.append(JournalRecords.UPDATE_CUSTOMER_NAME, payload));
+        }
+        sequencer.apply(ticket, () -> delegate.updateName(customerId, name), () -> { });
+    }
+
+    @Override
+    public void updateWindows(int customerId, int windows) {
+        byte[] payload = JournalRecords.updateCustomerWindows(customerId, windows);
+        JournalSequencer.Ticket ticket;
+        synchronized (sequencer) {
+            checkSaved(customerId);
+            ticket = sequencer.issue(journal.append(JournalRecords.UPDATE_CUSTOMER_WINDOWS, payload));
+        }
+        sequencer.apply(ticket, () -> delegate.updateWindows(customerId, windows), () -> { });
+    }
+
+    @Override
+    public Optional<Customer> findById(int customerId) {
+        return delegate.findById(customerId);
+    }
+
+    @Override
+    public IntObjectHashMap<Customer> findAllByIds(int[] customerIds) {
+        return delegate.findAllByIds(customerIds);
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Customer> findByName(String name) {
+        return delegate.findByName(name);
+    }
+
+    @Override
+    public int resolveIdByName(String name) {
+        return delegate.resolveIdByName(name);
+    }
+
+    /**
+     * Checks if a customer is in the wrapped DAO or saved by a change waiting to be applied.
+     * Callers hold the sequencer's monitor.
+     *
+     * @param customerId the customer id
+     * @return true if the customer exists or will once earlier changes are applied
+     */
+    private boolean isSaved(int customerId) {
+        return sequencer.isCustomerReserved(customerId) || delegate.findById(customerId).isPresent();
+    }
+
+    /**
+     * Checks that a customer exists before a change to it is journaled.
+     * Callers hold the sequencer's monitor.
+     *
+     * @param customerId the customer id
+     * @throws CustomerNotFoundException if the customer does not exist
+     */
+    private void checkSaved(int customerId) {
+        if (!isSaved(customerId)) {
+            throw new CustomerNotFoundException("No customer found");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package uk.gov.dvla.persistence.journal;
+
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.CustomerDAO;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Durable mode for the in-memory DAOs.
+ * Opening a store replays its journal into empty in-memory DAOs and returns DAOs that journal
+ * every later change, so the in-memory DAOs can be used as the system of record.
+ * Changes must go through getBookingDAO and getCustomerDAO; changes made to the wrapped DAOs
+ * directly, or to returned Booking and Customer objects, are not journaled.
+ * A change is applied to the in-memory DAOs only after it is durable, so reads never see a change
+ * that a crash could lose. Changes from every thread are checked, journaled and applied one at a
+ * time in journal order, but wait for the disk together, so concurrent writers share each fsync.
+ */
+public final class JournaledStore implements Closeable {
+
+    /**
+     * The journal both DAOs write to.
+     */
+    private final Journal journal;
+    /**
+     * Journaling view of the booking store.
+     */
+    private final BookingDAO bookingDAO;
+    /**
+     * Journaling view of the customer store.
+     */
+    private final CustomerDAO customerDAO;
+
+    /**
+     * Constructor for JournaledStore class.
+     *
+     * @param journal     the journal both DAOs write to
+     * @param bookingDAO  the in-memory booking store
+     * @param customerDAO the in-memory customer store
+     */
+    private JournaledStore(Journal journal, BookingDAO bookingDAO, CustomerDAO customerDAO) {
+        JournalSequencer sequencer = new JournalSequencer();
+        this.journal = journal;
+        this.bookingDAO = new JournaledBookingDAO(bookingDAO, journal, sequencer);
+        this.customerDAO = new JournaledCustomerDAO(customerDAO, journal, sequencer);
+    }
+
+    /**
+     * Opens a journal file, replaying it into the given DAOs.
+     *
+     * @param file        the journal file, created if it does not exist
+     * @param bookingDAO  an empty in-memory booking store to restore into
+     * @param customerDAO an empty in-memory customer store to restore into
+     * @param options     the group commit settings
+     * @return the open store
+     * @throws IOException if the journal cannot be read
+     */
+    public static JournaledStore open(Path file, BookingDAO bookingDAO, CustomerDAO customerDAO,
+                                      JournalOptions options) throws IOException {
+        Journal journal = Journal.open(file, options,
+                (type, payload) -> JournalRecords.apply(type, payload, bookingDAO, customerDAO));
+
+        return new JournaledStore(journal, bookingDAO, customerDAO);
+    }
+
+    /**
+     * Returns the booking store that journals its changes.
+     *
+     * @return journaling BookingDAO
+     */
+    public BookingDAO getBookingDAO() {
+        return bookingDAO;
+    }
+
+    /**
+     * Returns the customer store that journals its changes.
+     *
+     * @return journaling CustomerDAO
+     */
+    public CustomerDAO getCustomerDAO() {
+        return customerDAO;
+    }
+
+    /**
+     * Waits for every queued change to be written, then closes the journal.
+     *
+     * @throws IOException if the journal cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+}
@@ -0,0 +1,496 @@
+package uk.gov.dvla.persistence.snapshot;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.BookingDAOImpl;
+import uk.gov.dvla.persistence.ScanCounter;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * BookingDAO serving bookings straight from a mapped Snapshot.
+ * Bookings saved after the snapshot was taken are held in an in-heap overlay. A snapshot booking
+ * whose date is changed is hidden in the snapshot and moved to the overlay, so the mapped file
+ * is never written to. Reads combine the snapshot and the overlay.
+ * Bookings are built from the snapshot on every read, so changing a returned Booking does not
+ * change the stored booking. This class is not thread-safe.
+ */
+public class MappedBookingDAO implements BookingDAO {
+
+    /**
+     * The mapped bookings.
+     */
+    private final Snapshot snapshot;
+    /**
+     * Snapshot rows of bookings that have moved to the overlay.
+     */
+    private final BitSet hiddenRows = new BitSet();
+    /**
+     * Number of hidden rows, kept so that count need not count the bits of hiddenRows.
+     */
+    private int hiddenRowCount;
+    /**
+     * Bookings saved or moved since the snapshot was taken.
+     */
+    private final BookingDAOImpl overlay = new BookingDAOImpl();
+
+    /**
+     * Constructor for MappedBookingDAO class.
+     *
+     * @param snapshot the mapped snapshot to serve
+     */
+    public MappedBookingDAO(Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public void save(Booking booking) {
+        if (visibleRow(booking.getId()) >= 0) {
+            throw new DuplicateEntityException("Duplicate Booking not allowed");
+        }
+
+        overlay.save(booking);
+    }
+
+    @Override
+    public int[] saveAll(List<Booking> bookings) {
+        int[] skipped = new int[bookings.size()];
+        int skippedCount = 0;
+        // duplicates of snapshot bookings are found here, duplicates of saved bookings by the overlay
+        List<Booking> notInSnapshot = new ArrayList<>(bookings.size());
+        int[] positions = new int[bookings.size()];
+        for (int i = 0; i < bookings.size(); i++) {
+            if (visibleRow(bookings.get(i).getId()) >= 0) {
+                skipped[skippedCount++] = i;
+            } else {
+                positions[notInSnapshot.size()] = i;
+                notInSnapshot.add(bookings.get(i));
+            }
+        }
+
+        int[] skippedByOverlay = overlay.saveAll(notInSnapshot);
+        for (int position : skippedByOverlay) {
+            skipped[skippedCount++] = positions[position];
+        }
+        int[] result = Arrays.copyOf(skipped, skippedCount);
+        if (skippedByOverlay.length > 0) {
+            Arrays.sort(result);
+        }
+        return result;
+    }
+
+    @Override
+    public void updateBookingDate(int bookingId, LocalDate date) {
+        if (overlay.findById(bookingId).isPresent()) {
+            overlay.updateBookingDate(bookingId, date);
+            return;
+        }
+
+        int row = visibleRow(bookingId);
+        if (row < 0) {
+            throw new BookingNotFoundException("No booking found");
+        }
+
+        hiddenRows.set(row);
+        hiddenRowCount++;
+        overlay.save(new Booking(bookingId, snapshot.bookingCustomerId(row), date));
+    }
+
+    @Override
+    public Optional<Booking> findById(int bookingId) {
+        Optional<Booking> saved = overlay.findById(bookingId);
+        if (saved.isPresent()) {
+            return saved;
+        }
+
+        int row = visibleRow(bookingId);
+        return row < 0 ? Optional.empty() : Optional.of(toBooking(row, snapshot.runDay(snapshot.runOf(row))));
+    }
+
+    @Override
+    public List<Booking> findAll() {
+        List<Booking> bookings = snapshotBookings(0, snapshot.bookingCount());
+        bookings.addAll(overlay.findAll());
+        return bookings;
+    }
+
+    @Override
+    public int count() {
+        return snapshot.bookingCount() - hiddenRowCount + overlay.count();
+    }
+
+    @Override
+    public List<Booking> findByDate(LocalDate date) {
+        return findByDateRange(date, date);
+    }
+
+    @Override
+    public List<Booking> findByCustomerId(int customerId) {
+        int[] rows = snapshot.findBookingRowsByCustomer(customerId);
+        List<Booking> fromSnapshot = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            if (!hiddenRows.get(row)) {
+                fromSnapshot.add(toBooking(row, snapshot.runDay(snapshot.runOf(row))));
+            }
+        }
+        ScanCounter.discarded(rows.length - fromSnapshot.size());
+
+        return merge(fromSnapshot, overlay.findByCustomerId(customerId));
+    }
+
+    @Override
+    public List<Booking> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return List.of();
+        }
+
+        List<Booking> fromSnapshot = snapshotBookings(
+                snapshot.firstBookingRowOnOrAfter(startDate.toEpochDay()),
+                snapshot.firstBookingRowOnOrAfter(endDate.toEpochDay() + 1));
+
+        return merge(fromSnapshot, overlay.findByDateRange(startDate, endDate));
+    }
+
+    @Override
+    public int countByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return 0;
+        }
+
+        int from = snapshot.firstBookingRowOnOrAfter(startDate.toEpochDay());
+        int to = snapshot.firstBookingRowOnOrAfter(endDate.toEpochDay() + 1);
+        int hidden = hiddenRowCount == 0 ? 0 : hiddenRows.get(from, to).cardinality();
+        return to - from - hidden + overlay.countByDateRange(startDate, endDate);
+    }
+
+    @Override
+    public int[] findCustomerIdsByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return new int[0];
+        }
+
+        int from = snapshot.firstBookingRowOnOrAfter(startDate.toEpochDay());
+        int to = snapshot.firstBookingRowOnOrAfter(endDate.toEpochDay() + 1);
+        int firstHidden = hiddenRows.nextSetBit(from);
+        if (overlay.count() > 0 || (firstHidden >= 0 && firstHidden < to)) {
+            return BookingDAO.super.findCustomerIdsByDateRange(startDate, endDate);
+        }
+
+        // nothing has changed in the range, so read the customer ids straight from the mapped rows
+        int[] customerIds = new int[to - from];
+        for (int i = 0; i < customerIds.length; i++) {
+            customerIds[i] = snapshot.bookingCustomerId(from + i);
+        }
+        return customerIds;
+    }
+
+    /**
+     * Streams the snapshot bookings row by row, followed by the overlay's bookings.
+     * Like findAll, bookings are not in any particular order.
+     *
+     * @return stream of all bookings
+     */
+    @Override
+    public Stream<Booking> streamAll() {
+        int visible = snapshot.bookingCount() - hiddenRowCount;
+        Stream<Booking> fromSnapshot = StreamSupport.stream(Spliterators.spliterator(
+                new RowIterator(0, snapshot.bookingCount()), visible, Spliterator.ORDERED | Spliterator.NONNULL), false);
+
+        return Stream.concat(fromSnapshot, overlay.streamAll());
+    }
+
+    @Override
+    public Stream<Booking> streamByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return Stream.empty();
+        }
+
+        Iterator<Booking> fromSnapshot = new RowIterator(
+                snapshot.firstBookingRowOnOrAfter(startDate.toEpochDay()),
+                snapshot.firstBookingRowOnOrAfter(endDate.toEpochDay() + 1));
+        Iterator<Booking> bookings = overlay.count() == 0
+                ? fromSnapshot
+                : new MergingIterator(fromSnapshot, overlay.streamByDateRange(startDate, endDate).iterator());
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(bookings, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public List<Booking> findPageByDateRange(LocalDate startDate, LocalDate endDate, BookingCursor after, int limit) {
+        if (startDate.isAfter(endDate)) {
+            return List.of();
+        }
+
+        int from = snapshot.firstBookingRowOnOrAfter(startDate.toEpochDay());
+        if (after != null) {
+            from = Math.max(from, firstRowAfter(after));
+        }
+        int to = snapshot.firstBookingRowOnOrAfter(endDate.toEpochDay() + 1);
+
+        List<Booking> fromSnapshot = new ArrayList<>(Math.max(Math.min(limit, to - from), 0));
+        for (RowIterator rows = new RowIterator(from, to); rows.hasNext() && fromSnapshot.size() < limit; ) {
+            fromSnapshot.add(rows.next());
+        }
+
+        return firstOf(merge(fromSnapshot, overlay.findPageByDateRange(startDate, endDate, after, limit)), limit);
+    }
+
+    @Override
+    public List<Booking> findPageByCustomerId(int customerId, BookingCursor after, int limit) {
+        int from = snapshot.firstBookingByCustomerAtOrAfter(customerId);
+        int to = customerId == Integer.MAX_VALUE ? snapshot.bookingCount() : snapshot.firstBookingByCustomerAtOrAfter(customerId + 1);
+        if (after != null) {
+            // the customer's bookings are in date then id order, so skip those up to the cursor by binary search
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (isAfter(snapshot.bookingRowByCustomer(mid), after)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            from = low;
+        }
+
+        List<Booking> fromSnapshot = new ArrayList<>(Math.max(Math.min(limit, to - from), 0));
+        int hidden = 0;
+        for (int position = from; position < to && fromSnapshot.size() < limit; position++) {
+            int row = snapshot.bookingRowByCustomer(position);
+            if (hiddenRows.get(row)) {
+                hidden++;
+            } else {
+                fromSnapshot.add(toBooking(row, snapshot.runDay(snapshot.runOf(row))));
+            }
+        }
+        ScanCounter.discarded(hidden);
+
+        return firstOf(merge(fromSnapshot, overlay.findPageByCustomerId(customerId, after, limit)), limit);
+    }
+
+    /**
+     * Returns the row of a snapshot booking that has not been hidden.
+     *
+     * @param bookingId the booking ID
+     * @return the row, or -1 if the booking is not visible in the snapshot
+     */
+    private int visibleRow(int bookingId) {
+        int row = snapshot.findBookingRow(bookingId);
+        return row >= 0 && !hiddenRows.get(row) ? row : -1;
+    }
+
+    /**
+     * Builds the visible bookings of a range of snapshot rows.
+     *
+     * @param from the first row, inclusive
+     * @param to   the last row, exclusive
+     * @return the bookings in date then id order
+     */
+    private List<Booking> snapshotBookings(int from, int to) {
+        List<Booking> bookings = new ArrayList<>(Math.max(to - from, 0));
+        if (from >= to) {
+            return bookings;
+        }
+
+        int run = snapshot.runOf(from);
+        for (int row = from; row < to; row++) {
+            while (row >= snapshot.runEnd(run)) {
+                run++;
+            }
+            if (!hiddenRows.get(row)) {
+                bookings.add(toBooking(row, snapshot.runDay(run)));
+            }
+        }
+        ScanCounter.discarded(to - from - bookings.size());
+        return bookings;
+    }
+
+    /**
+     * Returns the first snapshot row after a cursor in date then id order.
+     *
+     * @param after the cursor
+     * @return the row, or bookingCount if every row is at or before the cursor
+     */
+    private int firstRowAfter(BookingCursor after) {
+        long day = after.getBookingDate().toEpochDay();
+        int low = snapshot.firstBookingRowOnOrAfter(day);
+        // rows of the cursor's day are in id order
+        int high = snapshot.firstBookingRowOnOrAfter(day + 1);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (snapshot.bookingId(mid) <= after.getId()) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Checks if a snapshot row comes after a cursor in date then id order.
+     *
+     * @param row   the booking row
+     * @param after the cursor
+     * @return true if the row is after the cursor
+     */
+    private boolean isAfter(int row, BookingCursor after) {
+        long day = snapshot.runDay(snapshot.runOf(row));
+        long cursorDay = after.getBookingDate().toEpochDay();
+        return day > cursorDay || (day == cursorDay && snapshot.bookingId(row) > after.getId());
+    }
+
+    private Booking toBooking(int row, int epochDay) {
+        return new Booking(snapshot.bookingId(row), snapshot.bookingCustomerId(row), LocalDate.ofEpochDay(epochDay));
+    }
+
+    /**
+     * Merges two lists kept in date then id order.
+     *
+     * @param first  the first list, which the result may reuse
+     * @param second the second list
+     * @return the bookings of both lists in date then id order
+     */
+    private static List<Booking> merge(List<Booking> first, List<Booking> second) {
+        if (second.isEmpty()) {
+            return first;
+        }
+
+        List<Booking> merged = new ArrayList<>(first.size() + second.size());
+        int i = 0;
+        int j = 0;
+        while (i < first.size() && j < second.size()) {
+            merged.add(Booking.DATE_ORDER.compare(first.get(i), second.get(j)) <= 0 ? first.get(i++) : second.get(j++));
+        }
+        merged.addAll(first.subList(i, first.size()));
+        merged.addAll(second.subList(j, second.size()));
+        return merged;
+    }
+
+    /**
+     * Returns the first bookings of a list.
+     *
+     * @param bookings the bookings
+     * @param limit    the most bookings to return
+     * @return an unmodifiable view of up to limit bookings
+     */
+    private static List<Booking> firstOf(List<Booking> bookings, int limit) {
+        return Collections.unmodifiableList(bookings.size() > limit ? bookings.subList(0, limit) : bookings);
+    }
+
+    /**
+     * Reads the visible bookings of a range of snapshot rows one at a time, in date then id order.
+     */
+    private final class RowIterator implements Iterator<Booking> {
+
+        /**
+         * The last row, exclusive.
+         */
+        private final int to;
+        /**
+         * The next visible row, or to once the range is used up.
+         */
+        private int row;
+        /**
+         * The run holding row.
+         */
+        private int run;
+
+        /**
+         * Constructor for RowIterator class.
+         *
+         * @param from the first row, inclusive
+         * @param to   the last row, exclusive
+         */
+        RowIterator(int from, int to) {
+            this.to = to;
+            this.row = nextVisibleRow(from);
+            this.run = row < to ? snapshot.runOf(row) : 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return row < to;
+        }
+
+        @Override
+        public Booking next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            while (row >= snapshot.runEnd(run)) {
+                run++;
+            }
+            Booking booking = toBooking(row, snapshot.runDay(run));
+            row = nextVisibleRow(row + 1);
+            return booking;
+        }
+
+        private int nextVisibleRow(int from) {
+            if (from >= to) {
+                return to;
+            }
+
+            int visible = Math.min(hiddenRows.nextClearBit(from), to);
+            ScanCounter.discarded(visible - from);
+            return visible;
+        }
+    }
+
+    /**
+     * Merges two iterators of bookings kept in date then id order.
+     */
+    private static final class MergingIterator implements Iterator<Booking> {
+
+        private final Iterator<Booking> first;
+        private final Iterator<Booking> second;
+        /**
+         * The next booking of each iterator, or null once it is used up.
+         */
+        private Booking nextFirst;
+        private Booking nextSecond;
+
+        /**
+         * Constructor for MergingIterator class.
+         *
+         * @param first  the first iterator
+         * @param second the second iterator
+         */
+        MergingIterator(Iterator<Booking> first, Iterator<Booking> second) {
+            this.first = first;
+            this.second = second;
+            this.nextFirst = first.hasNext() ? first.next() : null;
+            this.nextSecond = second.hasNext() ? second.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextFirst != null || nextSecond != null;
+        }
+
+        @Override
+        public Booking next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Booking booking;
+            if (nextSecond == null || (nextFirst != null && Booking.DATE_ORDER.compare(nextFirst, nextSecond) <= 0)) {
+                booking = nextFirst;
+                nextFirst = first.hasNext() ? first.next() : null;
+            } else {
+                booking = nextSecond;
+                nextSecond = second.hasNext() ? second.next() : null;
+            }
+            return booking;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package uk.gov.dvla.persistence.snapshot;
+
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.CustomerNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.persistence.CustomerDAO;
+import uk.gov.dvla.persistence.CustomerDAOImpl;
+import uk.gov.dvla.persistence.ScanCounter;
+
+import java.util.*;
+
+/**
+ * CustomerDAO serving customers straight from a mapped Snapshot.
+ * Customers saved after the snapshot was taken are held in an in-heap overlay. A snapshot
+ * customer whose name or windows change is hidden in the snapshot and moved to the overlay, so the
+ * mapped file is never written to. Names are matched exactly.
+ * Customers are built from the snapshot on every read, so changing a returned Customer does not
+ * change the stored customer. This class is not thread-safe.
+ */
+public class MappedCustomerDAO implements CustomerDAO {
+
+    /**
+     * The mapped customers.
+     */
+    private final Snapshot snapshot;
+    /**
+     * Snapshot rows of customers that have moved to the overlay.
+     */
+    private final BitSet hiddenRows = new BitSet();
+    /**
+     * Customers saved or changed since the snapshot was taken.
+     */
+    private final CustomerDAOImpl overlay = new CustomerDAOImpl();
+
+    /**
+     * Constructor for MappedCustomerDAO class.
+     *
+     * @param snapshot the mapped snapshot to serve
+     */
+    public MappedCustomerDAO(Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public void save(Customer customer) {
+        if (visibleRow(customer.getId()) >= 0) {
+            throw new DuplicateEntityException("Duplicate Customer not allowed");
+        }
+
+        overlay.save(customer);
+    }
+
+    @Override
+    public Optional<Customer> findById(int customerId) {
+        Optional<Customer> saved = overlay.findById(customerId);
+        if (saved.isPresent()) {
+            return saved;
+        }
+
+        int row = visibleRow(customerId);
+        return row < 0 ? Optional.empty() : Optional.of(toCustomer(row));
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        List<Customer> saved = overlay.findAll();
+        List<Customer> customers = new ArrayList<>(snapshot.customerCount() + saved.size());
+        for (int row = 0; row < snapshot.customerCount(); row++) {
+            if (!hiddenRows.get(row)) {
+                customers.add(toCustomer(row));
+            }
+        }
+        ScanCounter.discarded(hiddenRows.cardinality());
+        customers.addAll(saved);
+        return customers;
+    }
+
+    @Override
+    public List<Customer> findByName(String name) {
+        List<Customer> customers = new ArrayList<>();
+        int[] rows = snapshot.findCustomerRowsByName(name);
+        for (int row : rows) {
+            if (!hiddenRows.get(row)) {
+                customers.add(toCustomer(row));
+            }
+        }
+        ScanCounter.discarded(rows.length - customers.size());
+        customers.addAll(overlay.findByName(name));
+        return customers;
+    }
+
+    @Override
+    public void updateName(int customerId, String name) {
+        Customer customer = moveToOverlay(customerId);
+        overlay.updateName(customer.getId(), name);
+    }
+
+    @Override
+    public void updateWindows(int customerId, int windows) {
+        Customer customer = moveToOverlay(customerId);
+        overlay.updateWindows(customer.getId(), windows);
+    }
+
+    /**
+     * Returns a customer from the overlay, first moving it there from the snapshot if needed.
+     *
+     * @param customerId the customer ID
+     * @return the customer held in the overlay
+     */
+    private Customer moveToOverlay(int customerId) {
+        Optional<Customer> saved = overlay.findById(customerId);
+        if (saved.isPresent()) {
+            return saved.get();
+        }
+
+        int row = visibleRow(customerId);
+        if (row < 0) {
+            throw new CustomerNotFoundException("No customer found");
+        }
+
+        Customer customer = toCustomer(row);
+        hiddenRows.set(row);
+        overlay.save(customer);
+        return customer;
+    }
+
+    /**
+     * Returns the row of a snapshot customer that has not been hidden.
+     *
+     * @param customerId the customer ID
+     * @return the row, or -1 if the customer is not visible in the snapshot
+     */
+    private int visibleRow(int customerId) {
+        int row = snapshot.findCustomerRow(customerId);
+        return row >= 0 && !hiddenRows.get(row) ? row : -1;
+    }
+
+    private Customer toCustomer(int row) {
+        return new Customer(snapshot.customerId(row), snapshot.customerName(row), snapshot.customerWindows(row));
+    }
+}
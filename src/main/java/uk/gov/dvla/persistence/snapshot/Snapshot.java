@@ -0,0 +1,435 @@
+package uk.gov.dvla.persistence.snapshot;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A snapshot file mapped read-only into memory.
+ * Opening a snapshot checks its header and decodes the booking date runs; every other record
+ * is read from the mapped file when it is asked for, so opening costs little more than mapping.
+ * A Snapshot is immutable and safe to share between threads.
+ */
+public final class Snapshot {
+
+    /**
+     * The mapped file.
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * Number of customer records.
+     */
+    private final int customerCount;
+    /**
+     * Number of distinct names in the name dictionary.
+     */
+    private final int nameCount;
+    /**
+     * Number of booking records.
+     */
+    private final int bookingCount;
+    /**
+     * File offset of the customer rows in name then id order.
+     */
+    private final int customerRowsByNameOffset;
+    /**
+     * File offset of each name's start in the name bytes, with their length as a final entry.
+     */
+    private final int nameOffsetsOffset;
+    /**
+     * File offset of the booking records in date then id order.
+     */
+    private final int bookingsOffset;
+    /**
+     * File offset of the booking id and row pairs in id order.
+     */
+    private final int bookingIdsOffset;
+    /**
+     * File offset of the booking rows in customer then date then id order.
+     */
+    private final int bookingRowsByCustomerOffset;
+    /**
+     * File offset of the UTF-8 name bytes.
+     */
+    private final int nameBytesOffset;
+
+    /**
+     * Epoch day of each run of bookings on the same date, ascending.
+     */
+    private final int[] runDays;
+    /**
+     * First booking row of each run, with the booking count as a final entry.
+     */
+    private final int[] runStarts;
+
+    /**
+     * Constructor for Snapshot class.
+     *
+     * @param buffer the mapped file
+     * @throws IOException if the file is not a complete snapshot
+     */
+    private Snapshot(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < SnapshotFormat.HEADER_SIZE
+                || buffer.getInt(0) != SnapshotFormat.MAGIC || buffer.getInt(4) != SnapshotFormat.VERSION) {
+            throw new IOException("Not a booking snapshot");
+        }
+
+        customerCount = buffer.getInt(8);
+        nameCount = buffer.getInt(12);
+        bookingCount = buffer.getInt(16);
+        int dayRunCount = buffer.getInt(20);
+        long nameBytes = buffer.getLong(24);
+        long dayRunBytes = buffer.getLong(32);
+        if (buffer.getLong(40) != buffer.capacity()
+                || nameBytes != SnapshotFormat.nameBytesOffset(customerCount, nameCount, bookingCount)) {
+            throw new IOException("Snapshot is incomplete");
+        }
+
+        customerRowsByNameOffset = (int) SnapshotFormat.customerRowsByNameOffset(customerCount);
+        nameOffsetsOffset = (int) SnapshotFormat.nameOffsetsOffset(customerCount);
+        bookingsOffset = (int) SnapshotFormat.bookingsOffset(customerCount, nameCount);
+        bookingIdsOffset = (int) SnapshotFormat.bookingIdsOffset(customerCount, nameCount, bookingCount);
+        bookingRowsByCustomerOffset = (int) SnapshotFormat.bookingRowsByCustomerOffset(customerCount, nameCount, bookingCount);
+        nameBytesOffset = (int) nameBytes;
+
+        runDays = new int[dayRunCount];
+        runStarts = new int[dayRunCount + 1];
+        int position = (int) dayRunBytes;
+        long day = 0;
+        for (int run = 0; run < dayRunCount; run++) {
+            long zigzag = 0;
+            int shift = 0;
+            byte next;
+            do {
+                next = buffer.get(position++);
+                zigzag |= (long) (next & 0x7F) << shift;
+                shift += 7;
+            } while (next < 0);
+            day += (zigzag >>> 1) ^ -(zigzag & 1);
+            runDays[run] = Math.toIntExact(day);
+
+            int count = 0;
+            shift = 0;
+            do {
+                next = buffer.get(position++);
+                count |= (next & 0x7F) << shift;
+                shift += 7;
+            } while (next < 0);
+            runStarts[run + 1] = runStarts[run] + count;
+        }
+        if (runStarts[dayRunCount] != bookingCount) {
+            throw new IOException("Snapshot is incomplete");
+        }
+    }
+
+    /**
+     * Maps a snapshot file.
+     *
+     * @param file the snapshot file
+     * @return the mapped snapshot
+     * @throws IOException if the file cannot be mapped or is not a complete snapshot
+     */
+    public static Snapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + size + " bytes");
+            }
+            // the mapping stays valid after the channel is closed
+            return new Snapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    // ========== Customers ==========
+
+    int customerCount() {
+        return customerCount;
+    }
+
+    int customerId(int row) {
+        return buffer.getInt(SnapshotFormat.HEADER_SIZE + row * SnapshotFormat.CUSTOMER_RECORD_SIZE);
+    }
+
+    int customerWindows(int row) {
+        return buffer.getInt(SnapshotFormat.HEADER_SIZE + row * SnapshotFormat.CUSTOMER_RECORD_SIZE + 8);
+    }
+
+    String customerName(int row) {
+        int nameIndex = customerNameIndex(row);
+        if (nameIndex == SnapshotFormat.NO_NAME) {
+            return null;
+        }
+
+        int start = nameOffset(nameIndex);
+        byte[] name = new byte[nameOffset(nameIndex + 1) - start];
+        buffer.get(nameBytesOffset + start, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Finds the row of a customer.
+     *
+     * @param customerId the customer ID
+     * @return the customer row, or -1 if the customer is not in the snapshot
+     */
+    int findCustomerRow(int customerId) {
+        int low = 0;
+        int high = customerCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = customerId(mid);
+            if (id < customerId) {
+                low = mid + 1;
+            } else if (id > customerId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the rows of the customers with a name.
+     *
+     * @param name the exact name, or null for customers without a name
+     * @return the customer rows in id order
+     */
+    int[] findCustomerRowsByName(String name) {
+        int nameIndex = name == null ? SnapshotFormat.NO_NAME : findNameIndex(name.getBytes(StandardCharsets.UTF_8));
+        if (name != null && nameIndex < 0) {
+            return new int[0];
+        }
+
+        int from = firstCustomerByNameAtOrAfter(nameIndex);
+        int to = firstCustomerByNameAtOrAfter(nameIndex + 1);
+        int[] rows = new int[to - from];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = customerRowByName(from + i);
+        }
+        return rows;
+    }
+
+    /**
+     * Returns a customer's index in the name dictionary.
+     *
+     * @param row the customer row
+     * @return the name index, or NO_NAME for a customer without a name
+     */
+    private int customerNameIndex(int row) {
+        return buffer.getInt(SnapshotFormat.HEADER_SIZE + row * SnapshotFormat.CUSTOMER_RECORD_SIZE + 4);
+    }
+
+    /**
+     * Returns the customer row at a position in name then id order.
+     *
+     * @param position the position, from 0 to customerCount
+     * @return the customer row
+     */
+    private int customerRowByName(int position) {
+        return buffer.getInt(customerRowsByNameOffset + position * SnapshotFormat.ROW_SIZE);
+    }
+
+    /**
+     * Returns where a dictionary name starts in the name bytes.
+     *
+     * @param nameIndex the name index, or nameCount for the end of the last name
+     * @return the offset from the start of the name bytes
+     */
+    private int nameOffset(int nameIndex) {
+        return buffer.getInt(nameOffsetsOffset + nameIndex * SnapshotFormat.ROW_SIZE);
+    }
+
+    /**
+     * Returns the first position in the customer rows by name whose name index is at least a value.
+     *
+     * @param nameIndex the name index
+     * @return the position, or customerCount if there is none
+     */
+    private int firstCustomerByNameAtOrAfter(int nameIndex) {
+        int low = 0;
+        int high = customerCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (customerNameIndex(customerRowByName(mid)) < nameIndex) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Binary searches the name dictionary.
+     *
+     * @param name the name in UTF-8
+     * @return the name index, or -1 if the name is not in the dictionary
+     */
+    private int findNameIndex(byte[] name) {
+        int low = 0;
+        int high = nameCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compareName(mid, name);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares a dictionary name with a name, by unsigned bytes.
+     *
+     * @param nameIndex the dictionary name
+     * @param name      the name in UTF-8
+     * @return negative, zero or positive as the dictionary name is before, equal to or after the name
+     */
+    private int compareName(int nameIndex, byte[] name) {
+        int start = nameBytesOffset + nameOffset(nameIndex);
+        int length = nameOffset(nameIndex + 1) - nameOffset(nameIndex);
+        for (int i = 0; i < Math.min(length, name.length); i++) {
+            int comparison = Byte.compareUnsigned(buffer.get(start + i), name[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(length, name.length);
+    }
+
+    // ========== Bookings ==========
+
+    int bookingCount() {
+        return bookingCount;
+    }
+
+    int bookingId(int row) {
+        return buffer.getInt(bookingsOffset + row * SnapshotFormat.BOOKING_RECORD_SIZE);
+    }
+
+    int bookingCustomerId(int row) {
+        return buffer.getInt(bookingsOffset + row * SnapshotFormat.BOOKING_RECORD_SIZE + 4);
+    }
+
+    /**
+     * Returns the run holding a booking row.
+     *
+     * @param row the booking row
+     * @return the run index
+     */
+    int runOf(int row) {
+        int index = Arrays.binarySearch(runStarts, row);
+        if (index >= 0) {
+            // runs are never empty, so a matching start is the start of that run
+            return index;
+        }
+        return -index - 2;
+    }
+
+    int runDay(int run) {
+        return runDays[run];
+    }
+
+    int runEnd(int run) {
+        return runStarts[run + 1];
+    }
+
+    /**
+     * Returns the first booking row whose booking date is on or after an epoch day.
+     *
+     * @param epochDay the epoch day
+     * @return the row, or bookingCount if every booking is before the day
+     */
+    int firstBookingRowOnOrAfter(long epochDay) {
+        if (epochDay > Integer.MAX_VALUE) {
+            return bookingCount;
+        }
+        if (epochDay < Integer.MIN_VALUE) {
+            return 0;
+        }
+
+        int index = Arrays.binarySearch(runDays, (int) epochDay);
+        return runStarts[index >= 0 ? index : -index - 1];
+    }
+
+    /**
+     * Finds the row of a booking.
+     *
+     * @param bookingId the booking ID
+     * @return the booking row, or -1 if the booking is not in the snapshot
+     */
+    int findBookingRow(int bookingId) {
+        int low = 0;
+        int high = bookingCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = buffer.getInt(bookingIdsOffset + mid * SnapshotFormat.BOOKING_ID_RECORD_SIZE);
+            if (id < bookingId) {
+                low = mid + 1;
+            } else if (id > bookingId) {
+                high = mid - 1;
+            } else {
+                return buffer.getInt(bookingIdsOffset + mid * SnapshotFormat.BOOKING_ID_RECORD_SIZE + 4);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the booking rows of a customer.
+     *
+     * @param customerId the customer ID
+     * @return the booking rows in date then id order
+     */
+    int[] findBookingRowsByCustomer(int customerId) {
+        int from = firstBookingByCustomerAtOrAfter(customerId);
+        int to = customerId == Integer.MAX_VALUE ? bookingCount : firstBookingByCustomerAtOrAfter(customerId + 1);
+
+        int[] rows = new int[to - from];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = bookingRowByCustomer(from + i);
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the booking row at a position in customer then date then id order.
+     *
+     * @param position the position, from 0 to bookingCount
+     * @return the booking row
+     */
+    int bookingRowByCustomer(int position) {
+        return buffer.getInt(bookingRowsByCustomerOffset + position * SnapshotFormat.ROW_SIZE);
+    }
+
+    /**
+     * Returns the first position in customer then date then id order whose customer id is at least a given id.
+     *
+     * @param customerId the customer ID
+     * @return the position, or bookingCount if every booking has a smaller customer id
+     */
+    int firstBookingByCustomerAtOrAfter(int customerId) {
+        int low = 0;
+        int high = bookingCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bookingCustomerId(bookingRowByCustomer(mid)) < customerId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,65 @@
+package uk.gov.dvla.persistence.snapshot;
+
+/**
+ * Layout of a snapshot file. All numbers are big-endian.
+ * <pre>
+ * header (48 bytes)
+ *     int magic | int version | int customerCount | int nameCount | int bookingCount | int dayRunCount
+ *     long nameBytesOffset | long dayRunBytesOffset | long fileLength
+ * customers              customerCount x (int id, int nameIndex, int windows), by id
+ * customer rows by name  customerCount x int customer row, by name then id
+ * name offsets           (nameCount + 1) x int offset into the name bytes
+ * bookings               bookingCount x (int id, int customerId), by booking date then id
+ * booking ids            bookingCount x (int id, int booking row), by id
+ * booking rows by customer  bookingCount x int booking row, by customer id then row
+ * name bytes             the distinct names in UTF-8, sorted by their bytes
+ * day runs               dayRunCount x (varint day delta, varint bookings on that day)
+ * </pre>
+ * Booking dates are not stored per booking. Bookings are in date order, so each distinct date is
+ * one run: its epoch day as a zigzag varint delta from the previous run's day (from 0 for the
+ * first run), then the number of bookings on it. A customer without a name has name index -1.
+ */
+final class SnapshotFormat {
+
+    static final int MAGIC = 0x57435350;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 48;
+
+    static final int CUSTOMER_RECORD_SIZE = 12;
+    static final int BOOKING_RECORD_SIZE = 8;
+    static final int BOOKING_ID_RECORD_SIZE = 8;
+    static final int ROW_SIZE = 4;
+
+    static final int NO_NAME = -1;
+
+    private SnapshotFormat() {
+    }
+
+    static long customersOffset() {
+        return HEADER_SIZE;
+    }
+
+    static long customerRowsByNameOffset(int customerCount) {
+        return customersOffset() + (long) customerCount * CUSTOMER_RECORD_SIZE;
+    }
+
+    static long nameOffsetsOffset(int customerCount) {
+        return customerRowsByNameOffset(customerCount) + (long) customerCount * ROW_SIZE;
+    }
+
+    static long bookingsOffset(int customerCount, int nameCount) {
+        return nameOffsetsOffset(customerCount) + (long) (nameCount + 1) * ROW_SIZE;
+    }
+
+    static long bookingIdsOffset(int customerCount, int nameCount, int bookingCount) {
+        return bookingsOffset(customerCount, nameCount) + (long) bookingCount * BOOKING_RECORD_SIZE;
+    }
+
+    static long bookingRowsByCustomerOffset(int customerCount, int nameCount, int bookingCount) {
+        return bookingIdsOffset(customerCount, nameCount, bookingCount) + (long) bookingCount * BOOKING_ID_RECORD_SIZE;
+    }
+
+    static long nameBytesOffset(int customerCount, int nameCount, int bookingCount) {
+        return bookingRowsByCustomerOffset(customerCount, nameCount, bookingCount) + (long) bookingCount * ROW_SIZE;
+    }
+}
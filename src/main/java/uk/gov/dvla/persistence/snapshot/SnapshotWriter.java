@@ -0,0 +1,198 @@
+package uk.gov.dvla.persistence.snapshot;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.CustomerDAO;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Writes snapshot files in the layout described by SnapshotFormat.
+ * The snapshot is written to a temporary file next to the target, synced, and then moved over
+ * the target in one atomic step, so readers see either the old snapshot or the complete new one.
+ */
+public final class SnapshotWriter {
+
+    private SnapshotWriter() {
+    }
+
+    /**
+     * Writes a snapshot of every customer and booking held by two DAOs.
+     *
+     * @param file        the snapshot file to create or replace
+     * @param customerDAO the customers to write
+     * @param bookingDAO  the bookings to write
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(Path file, CustomerDAO customerDAO, BookingDAO bookingDAO) throws IOException {
+        write(file, customerDAO.findAll(), bookingDAO.findAll());
+    }
+
+    /**
+     * Writes a snapshot of a set of customers and bookings.
+     *
+     * @param file      the snapshot file to create or replace
+     * @param customers the customers to write, with distinct ids
+     * @param bookings  the bookings to write, with distinct ids
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(Path file, Collection<Customer> customers, Collection<Booking> bookings) throws IOException {
+        Customer[] customersById = customers.toArray(new Customer[0]);
+        Arrays.sort(customersById, Comparator.comparingInt(Customer::getId));
+
+        // dictionary of distinct names, sorted by their UTF-8 bytes so lookups can binary search it
+        Map<String, byte[]> encodedNames = new HashMap<>();
+        for (Customer customer : customersById) {
+            if (customer.getName() != null) {
+                encodedNames.computeIfAbsent(customer.getName(), name -> name.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        List<String> names = new ArrayList<>(encodedNames.keySet());
+        names.sort((first, second) -> Arrays.compareUnsigned(encodedNames.get(first), encodedNames.get(second)));
+        Map<String, Integer> nameIndexes = new HashMap<>(names.size() * 2);
+        for (int i = 0; i < names.size(); i++) {
+            nameIndexes.put(names.get(i), i);
+        }
+
+        int[] customerNameIndexes = new int[customersById.length];
+        long[] customerRowsByName = new long[customersById.length];
+        for (int row = 0; row < customersById.length; row++) {
+            String name = customersById[row].getName();
+            customerNameIndexes[row] = name == null ? SnapshotFormat.NO_NAME : nameIndexes.get(name);
+            customerRowsByName[row] = ((long) customerNameIndexes[row] << 32) | row;
+        }
+        Arrays.sort(customerRowsByName);
+
+        Booking[] bookingsByDate = bookings.toArray(new Booking[0]);
+        Arrays.sort(bookingsByDate, Booking.DATE_ORDER);
+        long[] bookingIds = new long[bookingsByDate.length];
+        long[] bookingRowsByCustomer = new long[bookingsByDate.length];
+        for (int row = 0; row < bookingsByDate.length; row++) {
+            bookingIds[row] = ((long) bookingsByDate[row].getId() << 32) | row;
+            bookingRowsByCustomer[row] = ((long) bookingsByDate[row].getCustomerId() << 32) | row;
+        }
+        Arrays.sort(bookingIds);
+        Arrays.sort(bookingRowsByCustomer);
+
+        ByteArrayOutputStream dayRuns = new ByteArrayOutputStream();
+        int dayRunCount = encodeDayRuns(bookingsByDate, dayRuns);
+
+        int nameBytesLength = 0;
+        for (String name : names) {
+            nameBytesLength += encodedNames.get(name).length;
+        }
+        long nameBytesOffset = SnapshotFormat.nameBytesOffset(customersById.length, names.size(), bookingsByDate.length);
+        long dayRunBytesOffset = nameBytesOffset + nameBytesLength;
+        long fileLength = dayRunBytesOffset + dayRuns.size();
+        if (fileLength > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot too large to map: " + fileLength + " bytes");
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+
+                out.writeInt(SnapshotFormat.MAGIC);
+                out.writeInt(SnapshotFormat.VERSION);
+                out.writeInt(customersById.length);
+                out.writeInt(names.size());
+                out.writeInt(bookingsByDate.length);
+                out.writeInt(dayRunCount);
+                out.writeLong(nameBytesOffset);
+                out.writeLong(dayRunBytesOffset);
+                out.writeLong(fileLength);
+
+                for (int row = 0; row < customersById.length; row++) {
+                    out.writeInt(customersById[row].getId());
+                    out.writeInt(customerNameIndexes[row]);
+                    out.writeInt(customersById[row].getWindows());
+                }
+                for (long nameAndRow : customerRowsByName) {
+                    out.writeInt((int) nameAndRow);
+                }
+                int nameOffset = 0;
+                out.writeInt(nameOffset);
+                for (String name : names) {
+                    nameOffset += encodedNames.get(name).length;
+                    out.writeInt(nameOffset);
+                }
+
+                for (Booking booking : bookingsByDate) {
+                    out.writeInt(booking.getId());
+                    out.writeInt(booking.getCustomerId());
+                }
+                for (long idAndRow : bookingIds) {
+                    out.writeInt((int) (idAndRow >> 32));
+                    out.writeInt((int) idAndRow);
+                }
+                for (long customerAndRow : bookingRowsByCustomer) {
+                    out.writeInt((int) customerAndRow);
+                }
+
+                for (String name : names) {
+                    out.write(encodedNames.get(name));
+                }
+                dayRuns.writeTo(out);
+
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Encodes the booking date of bookings sorted by date as runs of equal dates.
+     *
+     * @param bookingsByDate the bookings in date order
+     * @param out            receives each run as a zigzag varint day delta and a varint count
+     * @return the number of runs
+     */
+    private static int encodeDayRuns(Booking[] bookingsByDate, ByteArrayOutputStream out) {
+        int runs = 0;
+        long previousDay = 0;
+        int row = 0;
+        while (row < bookingsByDate.length) {
+            long day = Math.toIntExact(bookingsByDate[row].getBookingDate().toEpochDay());
+            int runEnd = row + 1;
+            while (runEnd < bookingsByDate.length && bookingsByDate[runEnd].getBookingDate().toEpochDay() == day) {
+                runEnd++;
+            }
+
+            long delta = day - previousDay;
+            writeVarint(out, (delta << 1) ^ (delta >> 63));
+            writeVarint(out, runEnd - row);
+            previousDay = day;
+            row = runEnd;
+            runs++;
+        }
+        return runs;
+    }
+
+    /**
+     * Writes an unsigned value seven bits at a time, low bits first.
+     *
+     * @param out   the stream to write to
+     * @param value the value
+     */
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
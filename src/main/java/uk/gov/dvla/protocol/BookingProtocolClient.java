@@ -0,0 +1,329 @@
+package uk.gov.dvla.protocol;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static uk.gov.dvla.protocol.Protocol.*;
+
+/**
+ * Client for BookingProtocolServer over one connection.
+ * Every call sends its request straight away and returns a future for the reply, so callers can
+ * pipeline many requests before waiting for any of them. Failures reported by the server complete
+ * the future with the same exception type the service threw. The client is safe to share between threads.
+ * Each call mirrors the WindowCleaningService method of the same name.
+ */
+public final class BookingProtocolClient implements Closeable {
+
+    /**
+     * Size of the reply buffer, room for the largest reply frame.
+     */
+    private static final int READ_BUFFER_BYTES = 128 * 1024;
+
+    /**
+     * A request waiting for its reply.
+     */
+    private static class Pending<T> {
+
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        private final Function<ByteBuffer, T> decoder;
+
+        private Pending(Function<ByteBuffer, T> decoder) {
+            this.decoder = decoder;
+        }
+
+        /**
+         * Receives a frame of the reply.
+         *
+         * @param status  the status of the frame, OK or PARTIAL
+         * @param payload the payload of the frame
+         * @return whether the reply is complete
+         */
+        boolean receive(byte status, ByteBuffer payload) {
+            future.complete(decoder.apply(payload));
+            return true;
+        }
+    }
+
+    /**
+     * A request waiting for a booking list, which may arrive over several frames.
+     */
+    private static final class BookingListPending extends Pending<List<Booking>> {
+
+        private final List<Booking> bookings = new ArrayList<>();
+
+        private BookingListPending() {
+            super(null);
+        }
+
+        @Override
+        boolean receive(byte status, ByteBuffer payload) {
+            for (int count = payload.getInt(); count > 0; count--) {
+                bookings.add(getBooking(payload));
+            }
+            if (status == PARTIAL) {
+                return false;
+            }
+            future.complete(Collections.unmodifiableList(bookings));
+            return true;
+        }
+    }
+
+    private final SocketChannel channel;
+    private final ByteBuffer requestBuffer = ByteBuffer.allocateDirect(MAX_REQUEST_BYTES);
+    private final Map<Integer, Pending<?>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger nextRequestId = new AtomicInteger();
+    private final Thread readerThread;
+    private volatile boolean closed;
+
+    /**
+     * Constructor for BookingProtocolClient class.
+     *
+     * @param channel the connected, blocking channel
+     */
+    private BookingProtocolClient(SocketChannel channel) {
+        this.channel = channel;
+        this.readerThread = new Thread(this::readReplies, "booking-protocol-client");
+        this.readerThread.setDaemon(true);
+    }
+
+    /**
+     * Connects to a server.
+     *
+     * @param address the server's address
+     * @return the connected client
+     * @throws IOException if the connection cannot be made
+     */
+    public static BookingProtocolClient connect(InetSocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        BookingProtocolClient client = new BookingProtocolClient(channel);
+        client.readerThread.start();
+        return client;
+    }
+
+    /**
+     * Waits for a reply, rethrowing the exception it failed with.
+     *
+     * @param reply the future returned by a call
+     * @param <T>   the type of the reply
+     * @return the reply
+     */
+    public static <T> T await(CompletableFuture<T> reply) {
+        try {
+            return reply.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Void> addCustomer(Customer customer) {
+        return send(ADD_CUSTOMER, request -> {
+            request.putInt(customer.getId()).putInt(customer.getWindows());
+            putString(request, customer.getName());
+        }, new Pending<>(reply -> null));
+    }
+
+    public CompletableFuture<Customer> getCustomer(int customerId) {
+        return send(GET_CUSTOMER, request -> request.putInt(customerId), new Pending<>(reply -> {
+            int id = reply.getInt();
+            int windows = reply.getInt();
+            return new Customer(id, getString(reply), windows);
+        }));
+    }
+
+    public CompletableFuture<Integer> getCustomerIdByName(String name) {
+        return send(GET_CUSTOMER_ID_BY_NAME, request -> putString(request, name), new Pending<>(ByteBuffer::getInt));
+    }
+
+    public CompletableFuture<Void> updateCustomerWindows(int customerId, int windows) {
+        return send(UPDATE_CUSTOMER_WINDOWS, request -> request.putInt(customerId).putInt(windows), new Pending<>(reply -> null));
+    }
+
+    public CompletableFuture<Void> addBooking(Booking booking) {
+        return send(ADD_BOOKING, request -> putBooking(request, booking), new Pending<>(reply -> null));
+    }
+
+    public CompletableFuture<Void> rescheduleBooking(int bookingNumber, LocalDate date) {
+        return send(RESCHEDULE_BOOKING, request -> {
+            request.putInt(bookingNumber);
+            putDate(request, date);
+        }, new Pending<>(reply -> null));
+    }
+
+    public CompletableFuture<Booking> getBookingByBookingId(int bookingNumber) {
+        return send(GET_BOOKING, request -> request.putInt(bookingNumber), new Pending<>(Protocol::getBooking));
+    }
+
+    public CompletableFuture<List<Booking>> getAllBookingsForDate(LocalDate date) {
+        return send(GET_BOOKINGS_FOR_DATE, request -> putDate(request, date), new BookingListPending());
+    }
+
+    public CompletableFuture<List<Booking>> getAllBookingsForCustomerId(int customerId) {
+        return send(GET_BOOKINGS_FOR_CUSTOMER_ID, request -> request.putInt(customerId), new BookingListPending());
+    }
+
+    public CompletableFuture<List<Booking>> getBookingsWithCustomerName(String name) {
+        return send(GET_BOOKINGS_WITH_CUSTOMER_NAME, request -> putString(request, name), new BookingListPending());
+    }
+
+    public CompletableFuture<List<Booking>> getAllBookingsForDateRange(LocalDate startDate, LocalDate endDate) {
+        return send(GET_BOOKINGS_FOR_DATE_RANGE, request -> putDateRange(request, startDate, endDate), new BookingListPending());
+    }
+
+    public CompletableFuture<Integer> getTotalWindowsForDate(LocalDate date) {
+        return send(GET_TOTAL_WINDOWS_FOR_DATE, request -> putDate(request, date), new Pending<>(ByteBuffer::getInt));
+    }
+
+    public CompletableFuture<Integer> getTotalWindowsForDateRange(LocalDate startDate, LocalDate endDate) {
+        return send(GET_TOTAL_WINDOWS_FOR_DATE_RANGE, request -> putDateRange(request, startDate, endDate), new Pending<>(ByteBuffer::getInt));
+    }
+
+    public CompletableFuture<Integer> getTotalCostForBooking(int bookingNumber) {
+        return send(GET_TOTAL_COST_FOR_BOOKING, request -> request.putInt(bookingNumber), new Pending<>(ByteBuffer::getInt));
+    }
+
+    public CompletableFuture<Integer> getTotalCostForDate(LocalDate date) {
+        return send(GET_TOTAL_COST_FOR_DATE, request -> putDate(request, date), new Pending<>(ByteBuffer::getInt));
+    }
+
+    public CompletableFuture<Integer> getTotalCostForDateRange(LocalDate startDate, LocalDate endDate) {
+        return send(GET_TOTAL_COST_FOR_DATE_RANGE, request -> putDateRange(request, startDate, endDate), new Pending<>(ByteBuffer::getInt));
+    }
+
+    /**
+     * Closes the connection. Requests still waiting for a reply fail.
+     *
+     * @throws IOException if the connection cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        try {
+            readerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void putDateRange(ByteBuffer request, LocalDate startDate, LocalDate endDate) {
+        putDate(request, startDate);
+        putDate(request, endDate);
+    }
+
+    /**
+     * Encodes and sends a request.
+     *
+     * @param opcode        the request's opcode
+     * @param payloadWriter writes the request's payload
+     * @param reply         the request's pending reply
+     * @param <T>           the type of the reply
+     * @return the future completed by the reply
+     */
+    private <T> CompletableFuture<T> send(byte opcode, Consumer<ByteBuffer> payloadWriter, Pending<T> reply) {
+        int requestId = nextRequestId.getAndIncrement();
+        pending.put(requestId, reply);
+        if (closed) {
+            pending.remove(requestId);
+            reply.future.completeExceptionally(new UncheckedIOException(new IOException("Connection closed")));
+            return reply.future;
+        }
+
+        try {
+            synchronized (requestBuffer) {
+                requestBuffer.clear();
+                requestBuffer.putInt(0).putInt(requestId).put(opcode);
+                payloadWriter.accept(requestBuffer);
+                requestBuffer.putInt(0, requestBuffer.position() - 4);
+                requestBuffer.flip();
+                while (requestBuffer.hasRemaining()) {
+                    channel.write(requestBuffer);
+                }
+            }
+        } catch (IOException e) {
+            pending.remove(requestId);
+            reply.future.completeExceptionally(new UncheckedIOException(e));
+        } catch (RuntimeException e) {
+            pending.remove(requestId);
+            throw e;
+        }
+        return reply.future;
+    }
+
+    private void readReplies() {
+        ByteBuffer in = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+        IOException failure = new IOException("Connection closed");
+        try {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                while (in.remaining() >= 4) {
+                    int start = in.position();
+                    int length = in.getInt(start);
+                    if (length < HEADER_BYTES - 4 || length > READ_BUFFER_BYTES - 4) {
+                        throw new IOException("Invalid frame length " + length);
+                    }
+                    if (in.remaining() < 4 + length) {
+                        break;
+                    }
+
+                    int requestId = in.getInt(start + 4);
+                    byte status = in.get(start + 8);
+                    ByteBuffer payload = in.slice(start + HEADER_BYTES, length + 4 - HEADER_BYTES);
+                    in.position(start + 4 + length);
+                    dispatch(requestId, status, payload);
+                }
+                in.compact();
+            }
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            closed = true;
+            for (Integer requestId : pending.keySet()) {
+                Pending<?> reply = pending.remove(requestId);
+                if (reply != null) {
+                    reply.future.completeExceptionally(new UncheckedIOException(failure));
+                }
+            }
+        }
+    }
+
+    private void dispatch(int requestId, byte status, ByteBuffer payload) {
+        Pending<?> reply = pending.get(requestId);
+        if (reply == null) {
+            return;
+        }
+
+        try {
+            if (status == ERROR) {
+                pending.remove(requestId);
+                reply.future.completeExceptionally(exceptionFor(payload.get(), getString(payload)));
+            } else if (reply.receive(status, payload)) {
+                pending.remove(requestId);
+            }
+        } catch (RuntimeException e) {
+            pending.remove(requestId);
+            reply.future.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,630 @@
+package uk.gov.dvla.protocol;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.BookingPage;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.service.WindowCleaningService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static uk.gov.dvla.protocol.Protocol.*;
+
+/**
+ * Binary protocol front end for WindowCleaningService, described in Protocol.
+ * One selector thread accepts connections, reads requests and writes replies without blocking.
+ * Requests run on a pool of worker threads, at most one at a time for each connection, so pipelined
+ * requests on a connection are answered in order while a slow request, such as a report over several
+ * years, holds up only its own connection. Requests from different connections run concurrently, so
+ * the service should be backed by thread-safe DAOs. A worker copies each reply into a direct buffer
+ * per connection and wakes the selector, so the socket write needs no copy out of the heap.
+ * A booking list is read from the service one page per frame, resuming from the last booking sent,
+ * so nothing is held open while its frames wait to be sent. A change made while a list is being sent may or
+ * may not be included in it, as with any keyset pagination, but never fails the reply.
+ */
+public final class BookingProtocolServer implements Closeable {
+
+    /**
+     * Size of each connection's request buffer, room for two of the largest requests.
+     */
+    private static final int READ_BUFFER_BYTES = 2 * MAX_REQUEST_BYTES;
+    /**
+     * Size of each connection's reply buffer.
+     */
+    private static final int WRITE_BUFFER_BYTES = 256 * 1024;
+    /**
+     * Size of the buffer each reply is encoded into, enough for a frame of a booking list or a reply
+     * holding the longest string.
+     */
+    private static final int REPLY_RESERVE_BYTES = HEADER_BYTES + 9 + MAX_STRING_BYTES;
+    /**
+     * Longest error message sent, so an error reply always fits in its string.
+     */
+    private static final int MAX_ERROR_MESSAGE_CHARS = 1024;
+    /**
+     * Bytes of decoded requests a connection may have waiting for a worker before it is no longer read.
+     * A connection always accepts one request however large.
+     */
+    private static final int MAX_QUEUED_REQUEST_BYTES = 4 * MAX_REQUEST_BYTES;
+
+    /**
+     * A decoded request waiting for a worker.
+     *
+     * @param requestId the request id chosen by the client
+     * @param opcode    the opcode
+     * @param payload   a copy of the payload
+     */
+    private record Request(int requestId, byte opcode, ByteBuffer payload) {
+
+        /**
+         * Returns the size of the request frame, counted against MAX_QUEUED_REQUEST_BYTES.
+         *
+         * @return the frame size in bytes
+         */
+        private int frameBytes() {
+            return HEADER_BYTES + payload.capacity();
+        }
+    }
+
+    /**
+     * Reads one page of the booking list being replied to.
+     */
+    @FunctionalInterface
+    private interface PageSource {
+
+        /**
+         * Reads the page after a cursor.
+         *
+         * @param after the last booking sent, or null for the first page
+         * @param limit the most bookings on the page
+         * @return the page
+         */
+        BookingPage page(BookingCursor after, int limit);
+    }
+
+    /**
+     * State of one client connection.
+     * The selector thread owns in, the worker running the connection's requests owns reply and the list
+     * fields, and everything else is guarded by the connection's monitor.
+     */
+    private static final class Connection {
+
+        private final SocketChannel channel;
+        /**
+         * Received bytes not yet decoded, in write mode.
+         */
+        private final ByteBuffer in = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+        /**
+         * Encoded replies not yet sent, in write mode.
+         */
+        private final ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        /**
+         * Reply being encoded by the worker. Holds an encoded reply, in read mode, while replyWaiting is set.
+         */
+        private final ByteBuffer reply = ByteBuffer.allocate(REPLY_RESERVE_BYTES);
+        /**
+         * Decoded requests waiting for a worker, in the order they arrived.
+         */
+        private final Queue<Request> requests = new ArrayDeque<>();
+        /**
+         * Total frameBytes of the waiting requests.
+         */
+        private int queuedRequestBytes;
+        /**
+         * Whether a worker owns the connection's requests, either running them or parked on replyWaiting.
+         */
+        private boolean scheduled;
+        /**
+         * Whether the worker stopped with a reply that did not fit in out, to be resumed once it does.
+         */
+        private boolean replyWaiting;
+        /**
+         * Whether the connection is in readyConnections, waiting for the selector thread.
+         */
+        private boolean queuedForSelector;
+        /**
+         * Source of the booking list being replied to, or null.
+         */
+        private PageSource listReply;
+        /**
+         * Page of the list to send next, or null if it is still to be read from after listCursor.
+         */
+        private BookingPage listPage;
+        private BookingCursor listCursor;
+        private int listRequestId;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private final WindowCleaningService service;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final int port;
+    private final Thread selectorThread;
+    /**
+     * Runs requests. Each connection has at most one task at a time, so the pool grows no larger than
+     * the number of connections with requests in progress.
+     */
+    private final ExecutorService workers;
+    /**
+     * Connections with replies or free request space for the selector thread to act on.
+     */
+    private final Queue<Connection> readyConnections = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    /**
+     * Constructor for BookingProtocolServer class.
+     *
+     * @param service       the service requests are passed to
+     * @param serverChannel the bound, non-blocking server channel
+     * @param selector      the selector the server channel is registered with
+     * @throws IOException if the bound address cannot be read
+     */
+    private BookingProtocolServer(WindowCleaningService service, ServerSocketChannel serverChannel, Selector selector) throws IOException {
+        this.service = service;
+        this.serverChannel = serverChannel;
+        this.selector = selector;
+        this.port = ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+        this.selectorThread = new Thread(this::run, "booking-protocol-server");
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newCachedThreadPool(task -> {
+            Thread worker = new Thread(task, "booking-protocol-worker-" + workerCount.incrementAndGet());
+            worker.setDaemon(true);
+            return worker;
+        });
+    }
+
+    /**
+     * Starts a server.
+     *
+     * @param service the service requests are passed to
+     * @param address the address to listen on, port 0 for any free port
+     * @return the running server
+     * @throws IOException if the server cannot listen on the address
+     */
+    public static BookingProtocolServer start(WindowCleaningService service, InetSocketAddress address) throws IOException {
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        Selector selector = Selector.open();
+        try {
+            serverChannel.bind(address, 1024);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            selector.close();
+            serverChannel.close();
+            throw e;
+        }
+
+        BookingProtocolServer server = new BookingProtocolServer(service, serverChannel, selector);
+        server.selectorThread.start();
+        return server;
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Stops the selector thread, closes every connection and waits briefly for running requests to finish.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+            workers.shutdown();
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                for (Iterator<SelectionKey> keys = selector.selectedKeys().iterator(); keys.hasNext(); ) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        serve(key, true);
+                    }
+                }
+                for (Connection connection; (connection = readyConnections.poll()) != null; ) {
+                    SelectionKey key = connection.channel.keyFor(selector);
+                    if (key != null && key.isValid()) {
+                        serve(key, false);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // the selector or server channel failed; nothing more can be served
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            closeQuietly(selector);
+            closeQuietly(serverChannel);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+    }
+
+    /**
+     * Reads what has arrived, queues every complete request there is room for, sends what replies
+     * the workers have encoded and hands the connection to a worker if it has requests to run.
+     * While replies are waiting to be sent, or too many requests are waiting to run, the connection
+     * is not read, so a client that pipelines requests without reading replies is held back instead
+     * of growing the server's buffers.
+     *
+     * @param key      the connection's key
+     * @param readable whether the selector found the connection ready, rather than a worker queueing it
+     */
+    private void serve(SelectionKey key, boolean readable) {
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (readable && key.isReadable() && connection.channel.read(connection.in) < 0) {
+                key.cancel();
+                closeQuietly(connection.channel);
+                return;
+            }
+
+            synchronized (connection) {
+                connection.queuedForSelector = false;
+                decode(connection);
+                flush(connection);
+                if (connection.replyWaiting && connection.out.remaining() >= connection.reply.remaining()) {
+                    // the parked worker's reply fits now, so resume it
+                    connection.out.put(connection.reply);
+                    connection.replyWaiting = false;
+                    flush(connection);
+                    workers.execute(() -> work(connection));
+                } else if (!connection.scheduled && !connection.requests.isEmpty()) {
+                    connection.scheduled = true;
+                    workers.execute(() -> work(connection));
+                }
+
+                if (connection.out.position() > 0) {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                } else {
+                    key.interestOps(connection.queuedRequestBytes < MAX_QUEUED_REQUEST_BYTES ? SelectionKey.OP_READ : 0);
+                }
+            }
+        } catch (IOException e) {
+            key.cancel();
+            closeQuietly(connection.channel);
+        }
+    }
+
+    /**
+     * Moves the complete requests received into the connection's request queue, while it has room.
+     * Callers hold the connection's monitor.
+     *
+     * @param connection the connection
+     * @throws IOException if the client sent a frame with an impossible length
+     */
+    private static void decode(Connection connection) throws IOException {
+        ByteBuffer in = connection.in.flip();
+        try {
+            while ((connection.requests.isEmpty() || connection.queuedRequestBytes < MAX_QUEUED_REQUEST_BYTES)
+                    && hasCompleteFrame(in)) {
+                int start = in.position();
+                int length = in.getInt(start);
+                int requestId = in.getInt(start + 4);
+                byte opcode = in.get(start + 8);
+                byte[] payload = new byte[length + 4 - HEADER_BYTES];
+                in.get(start + HEADER_BYTES, payload);
+                in.position(start + 4 + length);
+
+                Request request = new Request(requestId, opcode, ByteBuffer.wrap(payload));
+                connection.requests.add(request);
+                connection.queuedRequestBytes += request.frameBytes();
+            }
+        } finally {
+            in.compact();
+        }
+    }
+
+    /**
+     * Runs a connection's requests in order on a worker thread until none are left, copying each reply
+     * into the connection's reply buffer. Stops early, leaving the connection scheduled, if a reply does
+     * not fit; the selector thread resumes it once enough has been sent.
+     * Once the last waiting request is answered the worker writes the replies itself, so the selector
+     * thread is only woken when the socket does not take them all or the request queue has room again.
+     *
+     * @param connection the connection
+     */
+    private void work(Connection connection) {
+        ByteBuffer reply = connection.reply;
+        while (true) {
+            Request request = null;
+            if (connection.listReply == null) {
+                synchronized (connection) {
+                    request = connection.requests.poll();
+                    if (request == null) {
+                        connection.scheduled = false;
+                        return;
+                    }
+                    if (connection.queuedRequestBytes >= MAX_QUEUED_REQUEST_BYTES) {
+                        // the connection stopped being read while the queue was full
+                        readyForSelector(connection);
+                    }
+                    connection.queuedRequestBytes -= request.frameBytes();
+                }
+            }
+
+            reply.clear();
+            if (request == null) {
+                continueList(connection, reply);
+            } else {
+                handle(connection, reply, request.requestId(), request.opcode(), request.payload());
+            }
+            reply.flip();
+            if (!reply.hasRemaining()) {
+                // a list was started; its first frame is encoded on the next pass
+                continue;
+            }
+
+            synchronized (connection) {
+                if (connection.out.remaining() < reply.remaining()) {
+                    connection.replyWaiting = true;
+                    readyForSelector(connection);
+                    return;
+                }
+                connection.out.put(reply);
+                if (connection.listReply == null && connection.requests.isEmpty()) {
+                    try {
+                        flush(connection);
+                    } catch (IOException e) {
+                        // the selector thread finds the failure on its next write
+                    }
+                    if (connection.out.position() > 0) {
+                        readyForSelector(connection);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues a connection for the selector thread and wakes it, unless the connection is already queued.
+     * Callers hold the connection's monitor.
+     *
+     * @param connection the connection
+     */
+    private void readyForSelector(Connection connection) {
+        if (!connection.queuedForSelector) {
+            connection.queuedForSelector = true;
+            readyConnections.add(connection);
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Sends as much of the reply buffer as the socket accepts.
+     * Callers hold the connection's monitor.
+     *
+     * @param connection the connection
+     * @throws IOException if the write fails
+     */
+    private static void flush(Connection connection) throws IOException {
+        ByteBuffer out = connection.out.flip();
+        try {
+            if (out.hasRemaining()) {
+                connection.channel.write(out);
+            }
+        } finally {
+            out.compact();
+        }
+    }
+
+    private static boolean hasCompleteFrame(ByteBuffer in) throws IOException {
+        if (in.remaining() < 4) {
+            return false;
+        }
+        int length = in.getInt(in.position());
+        if (length < HEADER_BYTES - 4 || length > MAX_REQUEST_BYTES - 4) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        return in.remaining() >= 4 + length;
+    }
+
+    private void handle(Connection connection, ByteBuffer out, int requestId, byte opcode, ByteBuffer payload) {
+        int start = out.position();
+        try {
+            switch (opcode) {
+                case ADD_CUSTOMER -> {
+                    int id = payload.getInt();
+                    int windows = payload.getInt();
+                    service.addCustomer(new Customer(id, getString(payload), windows));
+                    end(out, begin(out, requestId, OK));
+                }
+                case GET_CUSTOMER -> {
+                    Customer customer = service.getCustomer(payload.getInt());
+                    int frame = begin(out, requestId, OK);
+                    out.putInt(customer.getId()).putInt(customer.getWindows());
+                    putString(out, customer.getName());
+                    end(out, frame);
+                }
+                case GET_CUSTOMER_ID_BY_NAME -> intReply(out, requestId, service.getCustomerIdByName(getString(payload)));
+                case UPDATE_CUSTOMER_WINDOWS -> {
+                    service.updateCustomerWindows(payload.getInt(), payload.getInt());
+                    end(out, begin(out, requestId, OK));
+                }
+                case ADD_BOOKING -> {
+                    service.addBooking(getBooking(payload));
+                    end(out, begin(out, requestId, OK));
+                }
+                case RESCHEDULE_BOOKING -> {
+                    service.rescheduleBooking(payload.getInt(), getDate(payload));
+                    end(out, begin(out, requestId, OK));
+                }
+                case GET_BOOKING -> {
+                    Booking booking = service.getBookingByBookingId(payload.getInt());
+                    int frame = begin(out, requestId, OK);
+                    putBooking(out, booking);
+                    end(out, frame);
+                }
+                case GET_BOOKINGS_FOR_DATE -> {
+                    LocalDate date = getDate(payload);
+                    startList(connection, requestId, (after, limit) -> service.getBookingsPageForDateRange(date, date, after, limit));
+                }
+                case GET_BOOKINGS_FOR_CUSTOMER_ID -> {
+                    int customerId = payload.getInt();
+                    startList(connection, requestId, (after, limit) -> service.getBookingsPageForCustomerId(customerId, after, limit));
+                }
+                case GET_BOOKINGS_WITH_CUSTOMER_NAME -> {
+                    int customerId = service.getCustomerIdByName(getString(payload));
+                    startList(connection, requestId, (after, limit) -> service.getBookingsPageForCustomerId(customerId, after, limit));
+                }
+                case GET_BOOKINGS_FOR_DATE_RANGE -> {
+                    LocalDate startDate = getDate(payload);
+                    LocalDate endDate = getDate(payload);
+                    startList(connection, requestId, (after, limit) -> service.getBookingsPageForDateRange(startDate, endDate, after, limit));
+                }
+                case GET_TOTAL_WINDOWS_FOR_DATE -> intReply(out, requestId, service.getTotalWindowsForDate(getDate(payload)));
+                case GET_TOTAL_WINDOWS_FOR_DATE_RANGE ->
+                        intReply(out, requestId, service.getTotalWindowsForDateRange(getDate(payload), getDate(payload)));
+                case GET_TOTAL_COST_FOR_BOOKING -> intReply(out, requestId, service.getTotalCostForBooking(payload.getInt()));
+                case GET_TOTAL_COST_FOR_DATE -> intReply(out, requestId, service.getTotalCostForDate(getDate(payload)));
+                case GET_TOTAL_COST_FOR_DATE_RANGE ->
+                        intReply(out, requestId, service.getTotalCostForDateRange(getDate(payload), getDate(payload)));
+                default -> errorReply(out, requestId, MALFORMED_REQUEST, "Unknown opcode " + opcode);
+            }
+        } catch (BufferUnderflowException e) {
+            out.position(start);
+            errorReply(out, requestId, MALFORMED_REQUEST, "Malformed request");
+        } catch (RuntimeException e) {
+            out.position(start);
+            failureReply(out, requestId, e);
+        }
+    }
+
+    /**
+     * Starts replying with a booking list. The first page is read straight away, so a request the
+     * service rejects is answered with its error code before any of the list is sent.
+     *
+     * @param connection the connection
+     * @param requestId  the request being replied to
+     * @param source     reads each page of the list
+     */
+    private static void startList(Connection connection, int requestId, PageSource source) {
+        connection.listPage = source.page(null, MAX_BOOKINGS_PER_FRAME);
+        connection.listReply = source;
+        connection.listCursor = null;
+        connection.listRequestId = requestId;
+    }
+
+    /**
+     * Encodes the next frame of the booking list being replied to, one page per frame.
+     *
+     * @param connection the connection
+     * @param out        the buffer to encode into
+     */
+    private static void continueList(Connection connection, ByteBuffer out) {
+        BookingPage page = connection.listPage;
+        if (page == null) {
+            try {
+                page = connection.listReply.page(connection.listCursor, MAX_BOOKINGS_PER_FRAME);
+            } catch (RuntimeException e) {
+                connection.listReply = null;
+                failureReply(out, connection.listRequestId, e);
+                return;
+            }
+        }
+
+        int frame = begin(out, connection.listRequestId, page.hasNext() ? PARTIAL : OK);
+        out.putInt(page.getBookings().size());
+        for (Booking booking : page.getBookings()) {
+            putBooking(out, booking);
+        }
+        end(out, frame);
+
+        connection.listPage = null;
+        connection.listCursor = page.getNext();
+        if (!page.hasNext()) {
+            connection.listReply = null;
+        }
+    }
+
+    private static void failureReply(ByteBuffer out, int requestId, RuntimeException failure) {
+        byte errorCode = errorCodeFor(failure);
+        errorReply(out, requestId, errorCode, errorCode == INTERNAL_ERROR ? "Internal error" : failure.getMessage());
+    }
+
+    private static void intReply(ByteBuffer out, int requestId, int value) {
+        int frame = begin(out, requestId, OK);
+        out.putInt(value);
+        end(out, frame);
+    }
+
+    private static void errorReply(ByteBuffer out, int requestId, byte errorCode, String message) {
+        int frame = begin(out, requestId, ERROR);
+        out.put(errorCode);
+        putString(out, message == null ? "" : message.substring(0, Math.min(message.length(), MAX_ERROR_MESSAGE_CHARS)));
+        end(out, frame);
+    }
+
+    /**
+     * Starts a reply frame, leaving its length to be filled in by end.
+     *
+     * @return the position of the frame
+     */
+    private static int begin(ByteBuffer out, int requestId, byte status) {
+        int frame = out.position();
+        out.putInt(0).putInt(requestId).put(status);
+        return frame;
+    }
+
+    private static void end(ByteBuffer out, int frame) {
+        out.putInt(frame, out.position() - frame - 4);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // already closing
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package uk.gov.dvla.protocol;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.exception.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Wire format of the binary booking protocol.
+ * <p>
+ * Every message is a frame: a four byte length counting the bytes after it, a four byte request id
+ * chosen by the client, then a one byte opcode (requests) or status (responses) and the payload.
+ * Integers are big-endian, dates are their epoch day as an int, strings are a two byte unsigned
+ * length followed by UTF-8 bytes, and a booking is its id, customer id and date as three ints.
+ * <p>
+ * A client may send any number of requests without waiting; each connection answers them in order.
+ * A booking list is sent as zero or more PARTIAL frames followed by one OK frame, each holding an
+ * int count and that many bookings, so a large range query is streamed instead of built in memory.
+ * An ERROR frame holds an error code and a message, and ends the reply to its request.
+ */
+final class Protocol {
+
+    static final byte ADD_CUSTOMER = 1;
+    static final byte GET_CUSTOMER = 2;
+    static final byte GET_CUSTOMER_ID_BY_NAME = 3;
+    static final byte UPDATE_CUSTOMER_WINDOWS = 4;
+    static final byte ADD_BOOKING = 5;
+    static final byte RESCHEDULE_BOOKING = 6;
+    static final byte GET_BOOKING = 7;
+    static final byte GET_BOOKINGS_FOR_DATE = 8;
+    static final byte GET_BOOKINGS_FOR_CUSTOMER_ID = 9;
+    static final byte GET_BOOKINGS_WITH_CUSTOMER_NAME = 10;
+    static final byte GET_BOOKINGS_FOR_DATE_RANGE = 11;
+    static final byte GET_TOTAL_WINDOWS_FOR_DATE = 12;
+    static final byte GET_TOTAL_WINDOWS_FOR_DATE_RANGE = 13;
+    static final byte GET_TOTAL_COST_FOR_BOOKING = 14;
+    static final byte GET_TOTAL_COST_FOR_DATE = 15;
+    static final byte GET_TOTAL_COST_FOR_DATE_RANGE = 16;
+
+    static final byte OK = 0;
+    static final byte PARTIAL = 1;
+    static final byte ERROR = 2;
+
+    static final byte CUSTOMER_NOT_FOUND = 1;
+    static final byte BOOKING_NOT_FOUND = 2;
+    static final byte DUPLICATE_ENTITY = 3;
+    static final byte MULTIPLE_CUSTOMERS_FOUND = 4;
+    static final byte INVALID_CUSTOMER = 5;
+    static final byte INVALID_BOOKING = 6;
+    static final byte INVALID_DATE_RANGE = 7;
+    static final byte BOOKING_DATE_IN_THE_PAST = 8;
+    static final byte INVALID_ARGUMENT = 9;
+    static final byte MALFORMED_REQUEST = 10;
+    static final byte INTERNAL_ERROR = 11;
+    static final byte CAPACITY_EXCEEDED = 12;
+
+    /**
+     * Bytes of the length, request id and opcode or status at the start of every frame.
+     */
+    static final int HEADER_BYTES = 9;
+    /**
+     * Bytes of an encoded booking.
+     */
+    static final int BOOKING_BYTES = 12;
+    /**
+     * Longest encoded string.
+     */
+    static final int MAX_STRING_BYTES = 0xFFFF;
+    /**
+     * Longest request frame, enough for the largest request: an id, a count and a string.
+     */
+    static final int MAX_REQUEST_BYTES = HEADER_BYTES + 8 + 2 + MAX_STRING_BYTES;
+    /**
+     * Most bookings sent in one frame of a booking list.
+     */
+    static final int MAX_BOOKINGS_PER_FRAME = 4096;
+
+    private Protocol() {
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("String too long");
+        }
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void putDate(ByteBuffer buffer, LocalDate date) {
+        buffer.putInt(Math.toIntExact(date.toEpochDay()));
+    }
+
+    static LocalDate getDate(ByteBuffer buffer) {
+        return LocalDate.ofEpochDay(buffer.getInt());
+    }
+
+    static void putBooking(ByteBuffer buffer, Booking booking) {
+        buffer.putInt(booking.getId()).putInt(booking.getCustomerId());
+        putDate(buffer, booking.getBookingDate());
+    }
+
+    static Booking getBooking(ByteBuffer buffer) {
+        return new Booking(buffer.getInt(), buffer.getInt(), getDate(buffer));
+    }
+
+    /**
+     * Returns the error code sent for a failure.
+     *
+     * @param failure the exception thrown by the service
+     * @return the error code
+     */
+    static byte errorCodeFor(RuntimeException failure) {
+        if (failure instanceof CustomerNotFoundException) {
+            return CUSTOMER_NOT_FOUND;
+        }
+        if (failure instanceof BookingNotFoundException) {
+            return BOOKING_NOT_FOUND;
+        }
+        if (failure instanceof DuplicateEntityException) {
+            return DUPLICATE_ENTITY;
+        }
+        if (failure instanceof MultipleCustomerFoundException) {
+            return MULTIPLE_CUSTOMERS_FOUND;
+        }
+        if (failure instanceof InvalidCustomerException) {
+            return INVALID_CUSTOMER;
+        }
+        if (failure instanceof InvalidBookingException) {
+            return INVALID_BOOKING;
+        }
+        if (failure instanceof InvalidDateRangeException) {
+            return INVALID_DATE_RANGE;
+        }
+        if (failure instanceof BookingDateInThePastException) {
+            return BOOKING_DATE_IN_THE_PAST;
+        }
+        if (failure instanceof CapacityExceededException) {
+            return CAPACITY_EXCEEDED;
+        }
+        if (failure instanceof NullArgumentException || failure instanceof IllegalArgumentException) {
+            return INVALID_ARGUMENT;
+        }
+        return INTERNAL_ERROR;
+    }
+
+    /**
+     * Recreates on the client the exception the service threw on the server.
+     *
+     * @param errorCode the error code received
+     * @param message   the message received
+     * @return the exception to complete the request with
+     */
+    static RuntimeException exceptionFor(byte errorCode, String message) {
+        return switch (errorCode) {
+            case CUSTOMER_NOT_FOUND -> new CustomerNotFoundException(message);
+            case BOOKING_NOT_FOUND -> new BookingNotFoundException(message);
+            case DUPLICATE_ENTITY -> new DuplicateEntityException(message);
+            case MULTIPLE_CUSTOMERS_FOUND -> new MultipleCustomerFoundException(message);
+            case INVALID_CUSTOMER -> new InvalidCustomerException(message);
+            case INVALID_BOOKING -> new InvalidBookingException(message);
+            case INVALID_DATE_RANGE -> new InvalidDateRangeException(message);
+            case BOOKING_DATE_IN_THE_PAST -> new BookingDateInThePastException(message);
+            case INVALID_ARGUMENT -> new IllegalArgumentException(message);
+            case CAPACITY_EXCEEDED -> new CapacityExceededException(message);
+            default -> new IllegalStateException(message);
+        };
+    }
+}
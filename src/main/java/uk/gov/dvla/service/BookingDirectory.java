@@ -0,0 +1,86 @@
+package uk.gov.dvla.service;
+
+import uk.gov.dvla.util.IntObjectHashMap;
+
+/**
+ * Shard holding each booking, by booking id, for ShardedWindowCleaningService.
+ * Ids are kept in primitive maps striped by id, each guarded by its own monitor, so recording
+ * a booking boxes nothing; shard numbers are small enough to come from the Integer cache.
+ */
+final class BookingDirectory {
+
+    /**
+     * Number of stripes, a power of two.
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * Returned by shardOf and putIfAbsent when a booking id has no shard.
+     */
+    static final int NO_SHARD = -1;
+
+    /**
+     * Shard of each booking id, striped by booking id; each stripe is guarded by its own monitor.
+     */
+    private final IntObjectHashMap<Integer>[] stripes;
+
+    /**
+     * Constructor for BookingDirectory class.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    BookingDirectory() {
+        stripes = new IntObjectHashMap[STRIPES];
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            stripes[stripe] = new IntObjectHashMap<>();
+        }
+    }
+
+    /**
+     * Returns the shard holding a booking.
+     *
+     * @param bookingId the booking id
+     * @return the shard, or NO_SHARD
+     */
+    int shardOf(int bookingId) {
+        IntObjectHashMap<Integer> stripe = stripeOf(bookingId);
+        synchronized (stripe) {
+            Integer shard = stripe.get(bookingId);
+            return shard == null ? NO_SHARD : shard;
+        }
+    }
+
+    /**
+     * Records the shard of a booking unless the booking id already has one.
+     *
+     * @param bookingId the booking id
+     * @param shard     the shard
+     * @return the shard the id already had, or NO_SHARD if it was recorded
+     */
+    int putIfAbsent(int bookingId, int shard) {
+        IntObjectHashMap<Integer> stripe = stripeOf(bookingId);
+        synchronized (stripe) {
+            Integer existing = stripe.putIfAbsent(bookingId, shard);
+            return existing == null ? NO_SHARD : existing;
+        }
+    }
+
+    /**
+     * Forgets the shard of a booking if it is still the given one.
+     *
+     * @param bookingId the booking id
+     * @param shard     the shard recorded for it
+     */
+    void remove(int bookingId, int shard) {
+        IntObjectHashMap<Integer> stripe = stripeOf(bookingId);
+        synchronized (stripe) {
+            Integer existing = stripe.get(bookingId);
+            if (existing != null && existing == shard) {
+                stripe.remove(bookingId);
+            }
+        }
+    }
+
+    private IntObjectHashMap<Integer> stripeOf(int bookingId) {
+        return stripes[bookingId & (STRIPES - 1)];
+    }
+}
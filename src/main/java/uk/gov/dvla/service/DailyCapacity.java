@@ -0,0 +1,162 @@
+package uk.gov.dvla.service;
+
+import uk.gov.dvla.util.DayIndexedCapacityTree;
+
+import java.time.LocalDate;
+
+/**
+ * Windows booked against the daily window capacity of a WindowCleaningServiceImpl.
+ * The first date on or after another with room for a number of windows is found with a
+ * segment tree in O(log days).
+ * Bookings whose customer could not be found are counted but use no capacity.
+ * Callers synchronise on the instance around each check and update, so that a check and
+ * the booking it admits happen atomically.
+ */
+class DailyCapacity {
+
+    /**
+     * Windows left on each day.
+     */
+    private final DayIndexedCapacityTree remaining;
+    /**
+     * Number of bookings the capacity covers.
+     */
+    private int bookingCount;
+    /**
+     * Number of bookings whose customer could not be found.
+     */
+    private int unresolvedBookings;
+    /**
+     * Whether the capacity must be rebuilt before it is next used.
+     */
+    private boolean stale;
+
+    /**
+     * Constructor for DailyCapacity class.
+     *
+     * @param windowsPerDay the windows that can be cleaned on each day
+     */
+    DailyCapacity(int windowsPerDay) {
+        this.remaining = new DayIndexedCapacityTree(windowsPerDay);
+    }
+
+    /**
+     * Checks if a day has room for more windows.
+     *
+     * @param date    the day
+     * @param windows the number of windows
+     * @return true if the windows fit within the day's capacity
+     */
+    boolean hasRoom(LocalDate date, long windows) {
+        return remaining.remaining(date.toEpochDay()) >= windows;
+    }
+
+    /**
+     * Finds the first day on or after a date with room for a number of windows.
+     *
+     * @param from    the first day to consider
+     * @param windows the number of windows
+     * @return the day, or null if the windows are more than a day's capacity
+     */
+    LocalDate firstDateWithRoom(LocalDate from, int windows) {
+        long epochDay = remaining.firstDayWithRoom(from.toEpochDay(), windows);
+
+        return epochDay == DayIndexedCapacityTree.NO_DAY ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Uses up capacity for a booking.
+     *
+     * @param date    the booking date
+     * @param windows the customer's number of windows
+     */
+    void addBooking(LocalDate date, int windows) {
+        remaining.use(date.toEpochDay(), windows);
+        bookingCount++;
+    }
+
+    /**
+     * Counts a booking whose customer could not be found.
+     */
+    void addUnresolvedBooking() {
+        unresolvedBookings++;
+        bookingCount++;
+    }
+
+    /**
+     * Gives back the capacity of a booking that was not saved after all.
+     *
+     * @param date    the booking date
+     * @param windows the customer's number of windows
+     */
+    void removeBooking(LocalDate date, int windows) {
+        remaining.use(date.toEpochDay(), -windows);
+        bookingCount--;
+    }
+
+    /**
+     * Moves the capacity a booking uses from one day to another.
+     *
+     * @param from    the old booking date
+     * @param to      the new booking date
+     * @param windows the customer's number of windows
+     */
+    void moveBooking(LocalDate from, LocalDate to, int windows) {
+        remaining.use(from.toEpochDay(), -windows);
+        remaining.use(to.toEpochDay(), windows);
+    }
+
+    /**
+     * Applies a change in a customer's number of windows to one of their bookings.
+     *
+     * @param date  the booking date
+     * @param delta the change in the number of windows
+     */
+    void changeWindows(LocalDate date, int delta) {
+        remaining.use(date.toEpochDay(), delta);
+    }
+
+    /**
+     * Checks if any booking has a customer that could not be found.
+     *
+     * @return true if any booking is unresolved
+     */
+    boolean hasUnresolvedBookings() {
+        return unresolvedBookings > 0;
+    }
+
+    /**
+     * Returns the number of bookings the capacity covers.
+     *
+     * @return number of bookings
+     */
+    int bookingCount() {
+        return bookingCount;
+    }
+
+    /**
+     * Marks the capacity as needing a rebuild.
+     */
+    void markStale() {
+        stale = true;
+    }
+
+    /**
+     * Checks if the capacity needs a rebuild.
+     *
+     * @return true if the capacity must be rebuilt before it is used
+     */
+    boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Gives every day all of its capacity back, ready for a rebuild.
+     */
+    void clear() {
+        remaining.clear();
+        unresolvedBookings = 0;
+        bookingCount = 0;
+        stale = false;
+    }
+}
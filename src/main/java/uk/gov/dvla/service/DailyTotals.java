@@ -0,0 +1,176 @@
+package uk.gov.dvla.service;
+
+import uk.gov.dvla.util.DayIndexedFenwickTree;
+
+import java.time.LocalDate;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Per-day window and revenue totals of the bookings known to a WindowCleaningServiceImpl.
+ * Totals for any date range are answered from Fenwick trees in O(log days).
+ * Callers synchronise on the instance around each update or query.
+ */
+class DailyTotals {
+
+    /**
+     * Windows to clean on each day.
+     */
+    private final DayIndexedFenwickTree windows = new DayIndexedFenwickTree();
+    /**
+     * Revenue in pounds on each day.
+     */
+    private final DayIndexedFenwickTree revenue = new DayIndexedFenwickTree();
+    /**
+     * Number of bookings whose customer could not be found, by epoch day.
+     * These bookings are counted but not included in the totals.
+     */
+    private final NavigableMap<Long, Integer> unresolvedBookings = new TreeMap<>();
+    /**
+     * Number of bookings the totals cover.
+     */
+    private int bookingCount;
+    /**
+     * Whether the totals must be rebuilt before they are next read.
+     */
+    private boolean stale;
+
+    /**
+     * Adds a booking to the totals.
+     *
+     * @param date    the booking date
+     * @param windows the customer's number of windows
+     */
+    void addBooking(LocalDate date, int windows) {
+        long epochDay = date.toEpochDay();
+        this.windows.add(epochDay, windows);
+        this.revenue.add(epochDay, cost(windows));
+        bookingCount++;
+    }
+
+    /**
+     * Counts a booking whose customer could not be found.
+     *
+     * @param date the booking date
+     */
+    void addUnresolvedBooking(LocalDate date) {
+        unresolvedBookings.merge(date.toEpochDay(), 1, Integer::sum);
+        bookingCount++;
+    }
+
+    /**
+     * Moves a booking from one day to another.
+     *
+     * @param from    the old booking date
+     * @param to      the new booking date
+     * @param windows the customer's number of windows
+     */
+    void moveBooking(LocalDate from, LocalDate to, int windows) {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        this.windows.add(fromDay, -windows);
+        this.revenue.add(fromDay, -cost(windows));
+        this.windows.add(toDay, windows);
+        this.revenue.add(toDay, cost(windows));
+    }
+
+    /**
+     * Applies a change in a customer's number of windows to one of their bookings.
+     *
+     * @param date  the booking date
+     * @param delta the change in the number of windows
+     */
+    void changeWindows(LocalDate date, int delta) {
+        long epochDay = date.toEpochDay();
+        this.windows.add(epochDay, delta);
+        this.revenue.add(epochDay, (long) delta * WindowCleaningServiceImpl.COST_PER_WINDOW);
+    }
+
+    /**
+     * Returns the number of windows to clean within a date range.
+     *
+     * @param startDate the start date (inclusive)
+     * @param endDate   the end date (inclusive)
+     * @return total number of windows
+     */
+    long windows(LocalDate startDate, LocalDate endDate) {
+        return windows.sum(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * Returns the revenue within a date range.
+     *
+     * @param startDate the start date (inclusive)
+     * @param endDate   the end date (inclusive)
+     * @return total revenue in pounds
+     */
+    long revenue(LocalDate startDate, LocalDate endDate) {
+        return revenue.sum(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * Checks if any booking within a date range has a customer that could not be found.
+     *
+     * @param startDate the start date (inclusive)
+     * @param endDate   the end date (inclusive)
+     * @return true if the totals for the range are incomplete
+     */
+    boolean hasUnresolvedBookings(LocalDate startDate, LocalDate endDate) {
+        return !unresolvedBookings.subMap(startDate.toEpochDay(), true, endDate.toEpochDay(), true).isEmpty();
+    }
+
+    /**
+     * Checks if any booking has a customer that could not be found.
+     *
+     * @return true if any booking is unresolved
+     */
+    boolean hasUnresolvedBookings() {
+        return !unresolvedBookings.isEmpty();
+    }
+
+    /**
+     * Returns the number of bookings the totals cover.
+     *
+     * @return number of bookings
+     */
+    int bookingCount() {
+        return bookingCount;
+    }
+
+    /**
+     * Marks the totals as needing a rebuild.
+     */
+    void markStale() {
+        stale = true;
+    }
+
+    /**
+     * Checks if the totals need a rebuild.
+     *
+     * @return true if the totals must be rebuilt before they are read
+     */
+    boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Empties the totals ready for a rebuild.
+     */
+    void clear() {
+        windows.clear();
+        revenue.clear();
+        unresolvedBookings.clear();
+        bookingCount = 0;
+        stale = false;
+    }
+
+    /**
+     * Returns the cost of a booking.
+     *
+     * @param windows the customer's number of windows
+     * @return cost in pounds
+     */
+    private static long cost(int windows) {
+        return ((long) windows * WindowCleaningServiceImpl.COST_PER_WINDOW) + WindowCleaningServiceImpl.COST_PER_PROPERTY;
+    }
+}
@@ -0,0 +1,221 @@
+package uk.gov.dvla.service;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.CrewAssignment;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.DispatchPlan;
+import uk.gov.dvla.model.exception.*;
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.CustomerDAO;
+import uk.gov.dvla.util.IntObjectHashMap;
+import uk.gov.dvla.util.ValidationUtil;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Splits the bookings of a day across a number of crews, each able to clean a fixed number of windows.
+ * Bookings are packed worst-fit decreasing: the booking with the most windows goes first, each to
+ * the crew with the most room left, which keeps the crews' loads even. A booking no crew has room
+ * for is left unassigned. Planning a day takes O(n log n + n log crews) for n bookings.
+ * A week is planned with one query for its bookings, then one task per day on a ForkJoinPool.
+ */
+public class DispatchPlanner {
+
+    /**
+     * Number of days planned by planWeek.
+     */
+    public static final int DAYS_PER_WEEK = 7;
+
+    /**
+     * Orders crews with the most room left first, then by crew number.
+     */
+    private static final Comparator<CrewLoad> MOST_ROOM_FIRST = Comparator
+            .comparingInt((CrewLoad crew) -> crew.windows)
+            .thenComparingInt(crew -> crew.crew);
+
+    private final BookingDAO bookingDAO;
+    private final CustomerDAO customerDAO;
+    private final int crewCount;
+    private final int crewCapacity;
+    /**
+     * Pool the days of a week are planned on.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor for DispatchPlanner class, planning weeks on the common pool.
+     *
+     * @param bookingDAO   the booking data access object
+     * @param customerDAO  the customer data access object
+     * @param crewCount    the number of crews
+     * @param crewCapacity the windows each crew can clean in a day
+     * @throws IllegalArgumentException if crewCount or crewCapacity is less than 1
+     */
+    public DispatchPlanner(BookingDAO bookingDAO, CustomerDAO customerDAO, int crewCount, int crewCapacity) {
+        this(bookingDAO, customerDAO, crewCount, crewCapacity, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for DispatchPlanner class.
+     * The days of a week are read from the DAOs on the calling thread, so the DAOs need not be thread-safe.
+     *
+     * @param bookingDAO   the booking data access object
+     * @param customerDAO  the customer data access object
+     * @param crewCount    the number of crews
+     * @param crewCapacity the windows each crew can clean in a day
+     * @param pool         the pool the days of a week are planned on
+     * @throws IllegalArgumentException if crewCount or crewCapacity is less than 1
+     */
+    public DispatchPlanner(BookingDAO bookingDAO, CustomerDAO customerDAO, int crewCount, int crewCapacity, ForkJoinPool pool) {
+        if (crewCount < 1 || crewCapacity < 1) {
+            throw new IllegalArgumentException("Crew count and crew capacity must be at least 1");
+        }
+        this.bookingDAO = bookingDAO;
+        this.customerDAO = customerDAO;
+        this.crewCount = crewCount;
+        this.crewCapacity = crewCapacity;
+        this.pool = pool;
+    }
+
+    /**
+     * Splits the bookings of a day across the crews.
+     *
+     * @param date the day to plan
+     * @return the plan for the day
+     * @throws NullPointerException      if date is null
+     * @throws CustomerNotFoundException if any booking's customer not found
+     */
+    public DispatchPlan planDay(LocalDate date) {
+        ValidationUtil.checkObjectIsNotNull(date, "LocalDate");
+
+        List<Booking> bookings = bookingDAO.findByDate(date);
+        return plan(date, bookings, findCustomers(bookings));
+    }
+
+    /**
+     * Splits the bookings of each day of a week across the crews, planning the days in parallel.
+     *
+     * @param firstDate the first day of the week
+     * @return the plan for each day, in date order
+     * @throws NullPointerException      if firstDate is null
+     * @throws CustomerNotFoundException if any booking's customer not found
+     */
+    public List<DispatchPlan> planWeek(LocalDate firstDate) {
+        ValidationUtil.checkObjectIsNotNull(firstDate, "LocalDate");
+
+        List<Booking> bookings = bookingDAO.findByDateRange(firstDate, firstDate.plusDays(DAYS_PER_WEEK - 1));
+        IntObjectHashMap<Customer> customers = findCustomers(bookings);
+
+        // the range is in date then id order, so each day keeps id order
+        List<List<Booking>> days = new ArrayList<>(DAYS_PER_WEEK);
+        for (int day = 0; day < DAYS_PER_WEEK; day++) {
+            days.add(new ArrayList<>());
+        }
+        for (Booking booking : bookings) {
+            days.get((int) ChronoUnit.DAYS.between(firstDate, booking.getBookingDate())).add(booking);
+        }
+
+        List<CompletableFuture<DispatchPlan>> plans = new ArrayList<>(DAYS_PER_WEEK);
+        for (int day = 0; day < DAYS_PER_WEEK; day++) {
+            LocalDate date = firstDate.plusDays(day);
+            List<Booking> dayBookings = days.get(day);
+            plans.add(CompletableFuture.supplyAsync(() -> plan(date, dayBookings, customers), pool));
+        }
+
+        List<DispatchPlan> week = new ArrayList<>(DAYS_PER_WEEK);
+        try {
+            for (CompletableFuture<DispatchPlan> plan : plans) {
+                week.add(plan.join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return week;
+    }
+
+    /**
+     * Packs the bookings of a day into the crews, worst-fit decreasing.
+     *
+     * @param date      the day
+     * @param bookings  the bookings of the day, in id order
+     * @param customers the customers of the bookings, by id
+     * @return the plan for the day
+     */
+    private DispatchPlan plan(LocalDate date, List<Booking> bookings, IntObjectHashMap<Customer> customers) {
+        // sort (windows, position) pairs packed into longs, most windows first then in id order
+        long[] jobs = new long[bookings.size()];
+        for (int i = 0; i < jobs.length; i++) {
+            Customer customer = customers.get(bookings.get(i).getCustomerId());
+            if (customer == null) {
+                throw new CustomerNotFoundException("No customer found");
+            }
+            jobs[i] = ((long) (Integer.MAX_VALUE - customer.getWindows()) << 32) | i;
+        }
+        Arrays.sort(jobs);
+
+        CrewLoad[] crews = new CrewLoad[crewCount];
+        PriorityQueue<CrewLoad> byRoom = new PriorityQueue<>(crewCount, MOST_ROOM_FIRST);
+        for (int crew = 0; crew < crewCount; crew++) {
+            crews[crew] = new CrewLoad(crew);
+            byRoom.add(crews[crew]);
+        }
+
+        List<Booking> unassigned = new ArrayList<>();
+        for (long job : jobs) {
+            Booking booking = bookings.get((int) job);
+            int windows = Integer.MAX_VALUE - (int) (job >>> 32);
+
+            // if the crew with the most room cannot take the booking, no crew can
+            CrewLoad crew = byRoom.peek();
+            if (crew.windows + windows > crewCapacity) {
+                unassigned.add(booking);
+                continue;
+            }
+            byRoom.poll();
+            crew.bookings.add(booking);
+            crew.windows += windows;
+            byRoom.add(crew);
+        }
+
+        List<CrewAssignment> assignments = new ArrayList<>(crewCount);
+        for (CrewLoad crew : crews) {
+            crew.bookings.sort(Comparator.comparingInt(Booking::getId));
+            assignments.add(new CrewAssignment(crew.crew, crew.bookings, crew.windows));
+        }
+        unassigned.sort(Comparator.comparingInt(Booking::getId));
+        return new DispatchPlan(date, assignments, unassigned);
+    }
+
+    /**
+     * Looks up the customers of some bookings in one call.
+     *
+     * @param bookings the bookings
+     * @return the customers found, by id
+     */
+    private IntObjectHashMap<Customer> findCustomers(List<Booking> bookings) {
+        return customerDAO.findAllByIds(bookings.stream().mapToInt(Booking::getCustomerId).distinct().toArray());
+    }
+
+    /**
+     * Bookings and windows assigned to one crew while a day is planned.
+     */
+    private static final class CrewLoad {
+
+        private final int crew;
+        private final List<Booking> bookings = new ArrayList<>();
+        private int windows;
+
+        private CrewLoad(int crew) {
+            this.crew = crew;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package uk.gov.dvla.service;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Clock;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Optional behaviour of WindowCleaningServiceImpl.
+ */
+@Getter
+@Builder
+public class ServiceOptions {
+
+    /**
+     * Whether to keep per-day window and revenue totals so that date and date range totals
+     * are answered in O(log days) instead of by reading every booking in the range.
+     * The totals follow changes made through the service; bookings saved directly through the
+     * DAOs are picked up by rebuilding the totals when the number of bookings no longer matches.
+     * A booking moved, or a customer's windows changed, directly through the DAOs leaves that number
+     * as it was and the totals wrong, so with this option on those changes must go through the service.
+     */
+    @Builder.Default
+    private final boolean maintainDailyTotals = false;
+
+    /**
+     * Clock that decides today's date, before which bookings cannot be made or moved.
+     * Today is worked out from it once per day rather than on every booking.
+     */
+    @Builder.Default
+    private final Clock clock = Clock.systemDefaultZone();
+
+    /**
+     * Number of windows the crews can clean on one day, or 0 for no limit.
+     * Bookings, reschedules and window changes that would take a day over it are rejected
+     * with CAPACITY_EXCEEDED. The windows booked on each day follow changes made through the
+     * service, and are rebuilt when the number of bookings no longer matches the DAO.
+     * That only catches bookings saved straight to the DAO: a booking moved, or a customer's windows
+     * changed, straight through the DAOs leaves the count as it was and is never seen, so with a
+     * capacity set every reschedule and window change must go through the service.
+     */
+    @Builder.Default
+    private final int dailyWindowCapacity = 0;
+
+    /**
+     * Pool that date range window and cost totals are summed on, one task per calendar month,
+     * or null to sum them on the calling thread.
+     * Only used when the daily totals are off, and needs DAOs that are safe to read from several threads at once.
+     */
+    @Builder.Default
+    private final ForkJoinPool aggregationPool = null;
+
+    /**
+     * Number of calendar months a date range must touch before its totals are summed on the aggregation pool.
+     * Smaller ranges are summed on the calling thread.
+     */
+    @Builder.Default
+    private final int parallelAggregationThreshold = 12;
+
+    /**
+     * Returns the default options.
+     *
+     * @return options with every optional behaviour turned off
+     */
+    public static ServiceOptions defaults() {
+        return builder().build();
+    }
+}
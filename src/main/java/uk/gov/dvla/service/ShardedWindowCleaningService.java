@@ -0,0 +1,711 @@
+package uk.gov.dvla.service;
+
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.BookingPage;
+import uk.gov.dvla.model.BulkLoadReport;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.ErrorCode;
+import uk.gov.dvla.model.Result;
+import uk.gov.dvla.model.exception.*;
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.CustomerDAO;
+import uk.gov.dvla.util.CachedToday;
+import uk.gov.dvla.util.ConsistentHashRing;
+import uk.gov.dvla.util.ValidationUtil;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * WindowCleaningService over several independent shards, each a WindowCleaningServiceImpl over its own
+ * BookingDAO and CustomerDAO.
+ * Customers are assigned to shards by a consistent hash of their id, and each booking is kept on
+ * the shard of its customer, so customer-scoped calls and booking costs are answered by one shard.
+ * Date, range and name queries and totals are sent to every shard at once and their results merged.
+ * A directory of booking ids to shards keeps booking ids unique across shards and routes
+ * booking-scoped calls; a booking id already in use is rejected before the shard checks the customer.
+ * Bookings must be written through this service for their ids to be kept unique across shards.
+ * A booking written straight to a shard's DAO after construction is still found by booking-scoped
+ * calls, which look for an unknown id on every shard, but its id may be reused on another shard.
+ * A shard keeping daily totals picks up such a booking, but not a booking moved straight through its DAO.
+ * Shards are called from several threads at once, so their DAOs must be thread-safe.
+ * A daily window capacity is not supported, as each shard would only see its own bookings.
+ */
+public class ShardedWindowCleaningService implements WindowCleaningService {
+
+    /**
+     * Number of points each shard owns on the hash ring.
+     */
+    private static final int POINTS_PER_SHARD = 128;
+
+    private final WindowCleaningService[] shards;
+    private final CustomerDAO[] customerDAOs;
+    private final ConsistentHashRing ring;
+    /**
+     * Shard holding each booking, by booking id.
+     */
+    private final BookingDirectory bookingShards = new BookingDirectory();
+    /**
+     * Executor the shards of a fanned-out call run on, besides the calling thread.
+     */
+    private final Executor fanOutExecutor;
+    private final CachedToday today;
+
+    /**
+     * Constructor for ShardedWindowCleaningService class with the default options.
+     *
+     * @param bookingDAOs  the booking data access object of each shard
+     * @param customerDAOs the customer data access object of each shard
+     */
+    public ShardedWindowCleaningService(List<? extends BookingDAO> bookingDAOs, List<? extends CustomerDAO> customerDAOs) {
+        this(bookingDAOs, customerDAOs, ServiceOptions.defaults());
+    }
+
+    /**
+     * Constructor for ShardedWindowCleaningService class.
+     * Bookings already in the DAOs are added to the booking directory.
+     *
+     * @param bookingDAOs  the booking data access object of each shard
+     * @param customerDAOs the customer data access object of each shard, in the same order
+     * @param options      the options of every shard; fanned-out calls run on the aggregation pool, or the common pool if it is null
+     * @throws IllegalArgumentException if there are no shards, the lists differ in size or the options set a daily window capacity
+     */
+    public ShardedWindowCleaningService(List<? extends BookingDAO> bookingDAOs, List<? extends CustomerDAO> customerDAOs,
+                                        ServiceOptions options) {
+        if (bookingDAOs.isEmpty() || bookingDAOs.size() != customerDAOs.size()) {
+            throw new IllegalArgumentException("Need the same number of booking and customer DAOs, at least 1");
+        }
+        if (options.getDailyWindowCapacity() != 0) {
+            throw new IllegalArgumentException("Daily window capacity is not supported across shards");
+        }
+
+        shards = new WindowCleaningService[bookingDAOs.size()];
+        customerDAOs = List.copyOf(customerDAOs);
+        this.customerDAOs = customerDAOs.toArray(new CustomerDAO[0]);
+        for (int shard = 0; shard < shards.length; shard++) {
+            shards[shard] = new WindowCleaningServiceImpl(bookingDAOs.get(shard), customerDAOs.get(shard), options);
+            int owner = shard;
+            bookingDAOs.get(shard).streamAll().forEach(booking -> bookingShards.putIfAbsent(booking.getId(), owner));
+        }
+        ring = new ConsistentHashRing(shards.length, POINTS_PER_SHARD);
+        fanOutExecutor = options.getAggregationPool() != null ? options.getAggregationPool() : ForkJoinPool.commonPool();
+        today = new CachedToday(options.getClock());
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return the shard count
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public void addCustomer(Customer customer) {
+        tryAddCustomer(customer).orElseThrow();
+    }
+
+    @Override
+    public Result<Void> tryAddCustomer(Customer customer) {
+        Result<Void> validation = ValidationUtil.validateCustomer(customer);
+        if (!validation.isOk()) {
+            return validation;
+        }
+
+        return shardOfCustomer(customer.getId()).tryAddCustomer(customer);
+    }
+
+    @Override
+    public BulkLoadReport addCustomers(Collection<Customer> customers) {
+        ValidationUtil.checkObjectIsNotNull(customers, "Collection");
+
+        int[] ids = new int[customers.size()];
+        Result<?>[] errors = new Result<?>[customers.size()];
+        List<List<Customer>> batches = newBatches();
+        List<List<Integer>> positions = newBatches();
+
+        int position = 0;
+        for (Customer customer : customers) {
+            ids[position] = customer == null ? 0 : customer.getId();
+            Result<Void> validation = ValidationUtil.validateCustomer(customer);
+            if (validation.isOk()) {
+                int shard = ring.shardFor(customer.getId());
+                batches.get(shard).add(customer);
+                positions.get(shard).add(position);
+            } else {
+                errors[position] = validation;
+            }
+            position++;
+        }
+
+        for (int shard = 0; shard < shards.length; shard++) {
+            if (!batches.get(shard).isEmpty()) {
+                copyErrors(shards[shard].addCustomers(batches.get(shard)), positions.get(shard), errors);
+            }
+        }
+
+        return report(ids, errors);
+    }
+
+    @Override
+    public Customer getCustomer(int customerId) {
+        return shardOfCustomer(customerId).getCustomer(customerId);
+    }
+
+    @Override
+    public Result<Customer> tryGetCustomer(int customerId) {
+        return shardOfCustomer(customerId).tryGetCustomer(customerId);
+    }
+
+    @Override
+    public int getCustomerIdByName(String name) {
+        return tryGetCustomerIdByName(name).orElseThrow();
+    }
+
+    @Override
+    public Result<Integer> tryGetCustomerIdByName(String name) {
+        if (name == null) {
+            return WindowCleaningServiceImpl.NULL_NAME;
+        }
+
+        return tryResolveCustomerIdByName(name);
+    }
+
+    @Override
+    public void updateCustomerWindows(int customerId, int windows) {
+        shardOfCustomer(customerId).updateCustomerWindows(customerId, windows);
+    }
+
+    @Override
+    public void addBooking(Booking booking) {
+        tryAddBooking(booking).orElseThrow();
+    }
+
+    @Override
+    public Result<Void> tryAddBooking(Booking booking) {
+        Result<Void> validation = ValidationUtil.validateBooking(booking, today.get());
+        if (!validation.isOk()) {
+            return validation;
+        }
+
+        int shard = ring.shardFor(booking.getCustomerId());
+        if (bookingShards.putIfAbsent(booking.getId(), shard) != BookingDirectory.NO_SHARD) {
+            return Result.error(ErrorCode.DUPLICATE_BOOKING);
+        }
+        Result<Void> result = Result.error(ErrorCode.DUPLICATE_BOOKING);
+        try {
+            result = shards[shard].tryAddBooking(booking);
+            return result;
+        } finally {
+            if (!result.isOk()) {
+                bookingShards.remove(booking.getId(), shard);
+            }
+        }
+    }
+
+    @Override
+    public BulkLoadReport addBookings(Collection<Booking> bookings) {
+        ValidationUtil.checkObjectIsNotNull(bookings, "Collection");
+
+        // one today for the whole batch, as WindowCleaningServiceImpl does
+        LocalDate today = this.today.get();
+        int[] ids = new int[bookings.size()];
+        Result<?>[] errors = new Result<?>[bookings.size()];
+        List<List<Booking>> batches = newBatches();
+        List<List<Integer>> positions = newBatches();
+
+        int position = 0;
+        for (Booking booking : bookings) {
+            ids[position] = booking == null ? 0 : booking.getId();
+            Result<Void> validation = ValidationUtil.validateBooking(booking, today);
+            if (!validation.isOk()) {
+                errors[position] = validation;
+            } else {
+                int shard = ring.shardFor(booking.getCustomerId());
+                if (bookingShards.putIfAbsent(booking.getId(), shard) != BookingDirectory.NO_SHARD) {
+                    errors[position] = Result.error(ErrorCode.DUPLICATE_BOOKING);
+                } else {
+                    batches.get(shard).add(booking);
+                    positions.get(shard).add(position);
+                }
+            }
+            position++;
+        }
+
+        for (int shard = 0; shard < shards.length; shard++) {
+            List<Booking> batch = batches.get(shard);
+            if (batch.isEmpty()) {
+                continue;
+            }
+            BulkLoadReport shardReport = shards[shard].addBookings(batch);
+            copyErrors(shardReport, positions.get(shard), errors);
+            for (BulkLoadReport.RecordResult failure : shardReport.getFailures()) {
+                bookingShards.remove(batch.get(failure.getIndex()).getId(), shard);
+            }
+        }
+
+        return report(ids, errors);
+    }
+
+    @Override
+    public void rescheduleBooking(int bookingNumber, LocalDate date) {
+        tryRescheduleBooking(bookingNumber, date).orElseThrow();
+    }
+
+    @Override
+    public Result<Void> tryRescheduleBooking(int bookingNumber, LocalDate date) {
+        int shard = shardOfBooking(bookingNumber);
+        if (shard != BookingDirectory.NO_SHARD) {
+            return shards[shard].tryRescheduleBooking(bookingNumber, date);
+        }
+
+        // report a bad date ahead of the missing booking, as WindowCleaningServiceImpl does
+        if (date == null) {
+            return Result.error(ErrorCode.NULL_ARGUMENT, "LocalDate cannot be null");
+        }
+        Result<Void> validation = ValidationUtil.validateDateNotInPast(date, today.get());
+        return validation.isOk() ? Result.error(ErrorCode.BOOKING_NOT_FOUND) : validation;
+    }
+
+    @Override
+    public Booking getBookingByBookingId(int bookingNumber) {
+        return tryGetBookingByBookingId(bookingNumber).orElseThrow();
+    }
+
+    @Override
+    public Result<Booking> tryGetBookingByBookingId(int bookingNumber) {
+        int shard = shardOfBooking(bookingNumber);
+
+        return shard == BookingDirectory.NO_SHARD ? Result.error(ErrorCode.BOOKING_NOT_FOUND) : shards[shard].tryGetBookingByBookingId(bookingNumber);
+    }
+
+    @Override
+    public LocalDate findNextAvailableDate(int customerId, LocalDate from) {
+        return shardOfCustomer(customerId).findNextAvailableDate(customerId, from);
+    }
+
+    @Override
+    public List<Booking> getAllBookings() {
+        List<Booking> bookings = new ArrayList<>();
+        for (List<Booking> shardBookings : fanOut(WindowCleaningService::getAllBookings)) {
+            bookings.addAll(shardBookings);
+        }
+        return bookings;
+    }
+
+    @Override
+    public List<Booking> getAllBookingsForDate(LocalDate date) {
+        ValidationUtil.checkObjectIsNotNull(date, "LocalDate");
+
+        return merge(fanOut(shard -> shard.getAllBookingsForDate(date)));
+    }
+
+    @Override
+    public List<Booking> getAllBookingsForCustomerId(int customerId) {
+        return shardOfCustomer(customerId).getAllBookingsForCustomerId(customerId);
+    }
+
+    @Override
+    public List<Booking> getBookingsWithCustomerName(String name) {
+        ValidationUtil.checkObjectIsNotNull(name, "String");
+
+        int customerId = resolveCustomerIdByName(name);
+        return shardOfCustomer(customerId).getAllBookingsForCustomerId(customerId);
+    }
+
+    @Override
+    public List<Booking> getAllBookingsForDateRange(LocalDate startDate, LocalDate endDate) {
+        checkDateRange(startDate, endDate);
+
+        return merge(fanOut(shard -> shard.getAllBookingsForDateRange(startDate, endDate)));
+    }
+
+    @Override
+    public int getTotalWindowsForDate(LocalDate date) {
+        ValidationUtil.checkObjectIsNotNull(date, "LocalDate");
+
+        return sum(fanOut(shard -> shard.getTotalWindowsForDate(date)));
+    }
+
+    @Override
+    public int getTotalWindowsForDateRange(LocalDate startDate, LocalDate endDate) {
+        checkDateRange(startDate, endDate);
+
+        return sum(fanOut(shard -> shard.getTotalWindowsForDateRange(startDate, endDate)));
+    }
+
+    @Override
+    public int getTotalCostForBooking(int bookingNumber) {
+        int shard = shardOfBooking(bookingNumber);
+        if (shard == BookingDirectory.NO_SHARD) {
+            throw new BookingNotFoundException("No booking found");
+        }
+
+        return shards[shard].getTotalCostForBooking(bookingNumber);
+    }
+
+    @Override
+    public int getTotalCostForDate(LocalDate date) {
+        ValidationUtil.checkObjectIsNotNull(date, "LocalDate");
+
+        return sum(fanOut(shard -> shard.getTotalCostForDate(date)));
+    }
+
+    @Override
+    public int getTotalCostForDateRange(LocalDate startDate, LocalDate endDate) {
+        checkDateRange(startDate, endDate);
+
+        return sum(fanOut(shard -> shard.getTotalCostForDateRange(startDate, endDate)));
+    }
+
+    @Override
+    public Stream<Booking> streamAllBookings() {
+        return Stream.of(shards).flatMap(WindowCleaningService::streamAllBookings);
+    }
+
+    @Override
+    public Stream<Booking> streamBookingsForDateRange(LocalDate startDate, LocalDate endDate) {
+        checkDateRange(startDate, endDate);
+
+        List<Stream<Booking>> shardStreams = new ArrayList<>(shards.length);
+        for (WindowCleaningService shard : shards) {
+            shardStreams.add(shard.streamBookingsForDateRange(startDate, endDate));
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new MergingIterator(shardStreams),
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> shardStreams.forEach(Stream::close));
+    }
+
+    @Override
+    public Stream<Booking> streamBookingsForCustomerId(int customerId) {
+        return shardOfCustomer(customerId).streamBookingsForCustomerId(customerId);
+    }
+
+    @Override
+    public BookingPage getBookingsPage(BookingCursor after, int limit) {
+        ValidationUtil.checkPageLimit(limit);
+
+        return mergePages(fanOut(shard -> shard.getBookingsPage(after, limit)), limit);
+    }
+
+    @Override
+    public BookingPage getBookingsPageForDateRange(LocalDate startDate, LocalDate endDate, BookingCursor after, int limit) {
+        checkDateRange(startDate, endDate);
+        ValidationUtil.checkPageLimit(limit);
+
+        return mergePages(fanOut(shard -> shard.getBookingsPageForDateRange(startDate, endDate, after, limit)), limit);
+    }
+
+    @Override
+    public BookingPage getBookingsPageForCustomerId(int customerId, BookingCursor after, int limit) {
+        return shardOfCustomer(customerId).getBookingsPageForCustomerId(customerId, after, limit);
+    }
+
+    /**
+     * Returns the shard a customer and their bookings are kept on.
+     *
+     * @param customerId the customer ID
+     * @return the shard
+     */
+    private WindowCleaningService shardOfCustomer(int customerId) {
+        return shards[ring.shardFor(customerId)];
+    }
+
+    /**
+     * Runs a call against every shard at once, the first shard on the calling thread.
+     * A call that throws on any shard throws its exception here once every shard has finished.
+     *
+     * @param <T>  the type of each shard's result
+     * @param call the call to run
+     * @return each shard's result, in shard order
+     */
+    private <T> List<T> fanOut(Function<WindowCleaningService, T> call) {
+        List<CompletableFuture<T>> others = new ArrayList<>(shards.length - 1);
+        for (int shard = 1; shard < shards.length; shard++) {
+            WindowCleaningService target = shards[shard];
+            others.add(CompletableFuture.supplyAsync(() -> call.apply(target), fanOutExecutor));
+        }
+
+        List<T> results = new ArrayList<>(shards.length);
+        RuntimeException failure = null;
+        try {
+            results.add(call.apply(shards[0]));
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        for (CompletableFuture<T> other : others) {
+            try {
+                results.add(other.join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * Returns the shard holding a booking. A booking id the directory does not know, such as that of
+     * a booking saved straight to a shard's DAO, is looked for on every shard and recorded if found.
+     *
+     * @param bookingId the booking id
+     * @return the shard, or BookingDirectory.NO_SHARD if no shard holds the booking
+     */
+    private int shardOfBooking(int bookingId) {
+        int shard = bookingShards.shardOf(bookingId);
+        if (shard != BookingDirectory.NO_SHARD) {
+            return shard;
+        }
+
+        for (int candidate = 0; candidate < shards.length; candidate++) {
+            if (shards[candidate].tryGetBookingByBookingId(bookingId).isOk()) {
+                int existing = bookingShards.putIfAbsent(bookingId, candidate);
+                return existing == BookingDirectory.NO_SHARD ? candidate : existing;
+            }
+        }
+        return BookingDirectory.NO_SHARD;
+    }
+
+    /**
+     * Finds a customer ID by name on every shard at once.
+     *
+     * @param name the customer name
+     * @return the customer ID
+     */
+    private int resolveCustomerIdByName(String name) {
+        return tryResolveCustomerIdByName(name).orElseThrow();
+    }
+
+    /**
+     * Finds a customer ID by name on every shard at once, without throwing if there is no single customer with it.
+     *
+     * @param name the customer name
+     * @return the customer ID, or CUSTOMER_NOT_FOUND or MULTIPLE_CUSTOMERS_FOUND
+     */
+    private Result<Integer> tryResolveCustomerIdByName(String name) {
+        List<CompletableFuture<Integer>> lookups = new ArrayList<>(customerDAOs.length);
+        for (CustomerDAO customerDAO : customerDAOs) {
+            lookups.add(CompletableFuture.supplyAsync(() -> customerDAO.resolveIdByName(name), fanOutExecutor));
+        }
+
+        int customerId = CustomerDAO.NO_CUSTOMER;
+        for (CompletableFuture<Integer> lookup : lookups) {
+            int shardCustomerId = lookup.join();
+            if (shardCustomerId == CustomerDAO.MULTIPLE_CUSTOMERS
+                    || (shardCustomerId != CustomerDAO.NO_CUSTOMER && customerId != CustomerDAO.NO_CUSTOMER)) {
+                return Result.error(ErrorCode.MULTIPLE_CUSTOMERS_FOUND);
+            }
+            if (shardCustomerId != CustomerDAO.NO_CUSTOMER) {
+                customerId = shardCustomerId;
+            }
+        }
+
+        if (customerId == CustomerDAO.NO_CUSTOMER) {
+            return Result.error(ErrorCode.CUSTOMER_NOT_FOUND);
+        }
+        return Result.ok(customerId);
+    }
+
+    /**
+     * Checks a date range before it is sent to the shards, so that a bad range throws once with the usual message.
+     *
+     * @param startDate the start date
+     * @param endDate   the end date
+     */
+    private static void checkDateRange(LocalDate startDate, LocalDate endDate) {
+        ValidationUtil.checkObjectIsNotNull(startDate, "LocalDate start");
+        ValidationUtil.checkObjectIsNotNull(endDate, "LocalDate end");
+        ValidationUtil.checkStartDateIsBeforeEndDate(startDate, endDate);
+    }
+
+    /**
+     * Merges lists of bookings that are each in date then id order.
+     *
+     * @param shardBookings each shard's bookings
+     * @return all of the bookings in date then id order
+     */
+    private static List<Booking> merge(List<List<Booking>> shardBookings) {
+        List<Booking> merged = new ArrayList<>();
+        for (List<Booking> bookings : shardBookings) {
+            merged.addAll(bookings);
+        }
+        // the sort merges the already ordered runs
+        merged.sort(Booking.DATE_ORDER);
+        return merged;
+    }
+
+    /**
+     * Merges pages that continue from the same cursor into one page of at most limit bookings.
+     *
+     * @param pages each shard's page
+     * @param limit the page limit
+     * @return the merged page, with a next cursor if any shard has more bookings after it
+     */
+    private static BookingPage mergePages(List<BookingPage> pages, int limit) {
+        List<List<Booking>> shardBookings = new ArrayList<>(pages.size());
+        boolean more = false;
+        for (BookingPage page : pages) {
+            shardBookings.add(page.getBookings());
+            more |= page.hasNext();
+        }
+
+        List<Booking> merged = merge(shardBookings);
+        if (merged.size() <= limit && !more) {
+            return new BookingPage(merged, null);
+        }
+
+        List<Booking> bookings = merged.subList(0, Math.min(limit, merged.size()));
+        return new BookingPage(bookings, BookingCursor.after(bookings.get(bookings.size() - 1)));
+    }
+
+    /**
+     * Sums each shard's total.
+     *
+     * @param totals each shard's total
+     * @return the sum
+     */
+    private static int sum(List<Integer> totals) {
+        int total = 0;
+        for (int shardTotal : totals) {
+            total += shardTotal;
+        }
+        return total;
+    }
+
+    /**
+     * Creates one empty list per shard.
+     *
+     * @param <T> the type of the list elements
+     * @return the lists, in shard order
+     */
+    private <T> List<List<T>> newBatches() {
+        List<List<T>> batches = new ArrayList<>(shards.length);
+        for (int shard = 0; shard < shards.length; shard++) {
+            batches.add(new ArrayList<>());
+        }
+        return batches;
+    }
+
+    /**
+     * Copies the errors of a shard's bulk report to the positions its records had in the whole batch.
+     *
+     * @param shardReport the shard's report
+     * @param positions   the position in the whole batch of each record sent to the shard
+     * @param errors      the failed results of the whole batch
+     */
+    private static void copyErrors(BulkLoadReport shardReport, List<Integer> positions, Result<?>[] errors) {
+        for (BulkLoadReport.RecordResult failure : shardReport.getFailures()) {
+            errors[positions.get(failure.getIndex())] = Result.error(failure.getErrorCode(), failure.getMessage());
+        }
+    }
+
+    /**
+     * Builds the report of a bulk add.
+     *
+     * @param ids    the id of each record, in input order
+     * @param errors the failed result of each rejected record, null where it was added
+     * @return the report
+     */
+    private static BulkLoadReport report(int[] ids, Result<?>[] errors) {
+        List<BulkLoadReport.RecordResult> results = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            Result<?> error = errors[i];
+            results.add(error == null
+                    ? new BulkLoadReport.RecordResult(i, ids[i], null, null)
+                    : new BulkLoadReport.RecordResult(i, ids[i], error.getErrorCode(), error.getMessage()));
+        }
+        return new BulkLoadReport(results);
+    }
+
+    /**
+     * Merges streams that are each in date then id order into one iterator in that order,
+     * keeping only the next booking of each stream in a priority queue.
+     * Nothing is read from the streams until the first call to hasNext or next.
+     */
+    private static final class MergingIterator implements Iterator<Booking> {
+
+        /**
+         * Iterator over each stream, in shard order.
+         */
+        private final List<Iterator<Booking>> sources;
+        /**
+         * The next booking of each stream that is not used up, with the position of its stream.
+         */
+        private final PriorityQueue<Head> heads;
+        private boolean started;
+
+        /**
+         * Constructor for MergingIterator class.
+         *
+         * @param streams the streams to merge, each in date then id order
+         */
+        private MergingIterator(List<Stream<Booking>> streams) {
+            this.sources = new ArrayList<>(streams.size());
+            for (Stream<Booking> stream : streams) {
+                sources.add(stream.iterator());
+            }
+            this.heads = new PriorityQueue<>(Math.max(1, streams.size()), (a, b) -> Booking.DATE_ORDER.compare(a.booking, b.booking));
+        }
+
+        @Override
+        public boolean hasNext() {
+            start();
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Booking next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Head head = heads.poll();
+            Iterator<Booking> source = sources.get(head.source);
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), head.source));
+            }
+            return head.booking;
+        }
+
+        private void start() {
+            if (started) {
+                return;
+            }
+            started = true;
+            for (int source = 0; source < sources.size(); source++) {
+                if (sources.get(source).hasNext()) {
+                    heads.add(new Head(sources.get(source).next(), source));
+                }
+            }
+        }
+
+        /**
+         * The next booking of a stream and the position of the stream.
+         *
+         * @param booking the booking
+         * @param source  the position of its stream
+         */
+        private record Head(Booking booking, int source) {
+        }
+    }
+}
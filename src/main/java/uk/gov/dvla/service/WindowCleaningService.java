@@ -1,11 +1,17 @@
 package uk.gov.dvla.service;
 
 import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.BookingPage;
+import uk.gov.dvla.model.BulkLoadReport;
 import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.Result;
 import uk.gov.dvla.model.exception.*;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Service interface for window cleaning operations.
@@ -23,6 +29,16 @@ public interface WindowCleaningService {
      */
     void addCustomer(Customer customer);
 
+    /**
+     * Adds a batch of customers, checking each one as addCustomer does.
+     * A customer that fails a check is reported in the result rather than stopping the batch.
+     *
+     * @param customers the customers to add
+     * @return the outcome of each customer, in the order given
+     * @throws NullPointerException if customers is null
+     */
+    BulkLoadReport addCustomers(Collection<Customer> customers);
+
     /**
      * Retrieves a customer by their ID.
      *
@@ -42,6 +58,18 @@ public interface WindowCleaningService {
      */
     int getCustomerIdByName(String name);
 
+    /**
+     * Changes the number of windows of a customer.
+     * Totals for the customer's existing bookings change with it.
+     *
+     * @param customerId the customer ID
+     * @param windows    the new number of windows
+     * @throws InvalidCustomerException  if windows is less than 1
+     * @throws CustomerNotFoundException if customer not found
+     * @throws CapacityExceededException if a booking from today on would take its day over the daily window capacity
+     */
+    void updateCustomerWindows(int customerId, int windows);
+
     /**
      * Adds a new booking to the system.
      *
@@ -50,9 +78,32 @@ public interface WindowCleaningService {
      * @throws InvalidBookingException   if booking data is invalid
      * @throws CustomerNotFoundException if customer doesn't exist
      * @throws DuplicateEntityException  if booking already exists
+     * @throws CapacityExceededException if the booking would take its day over the daily window capacity
      */
     void addBooking(Booking booking);
 
+    /**
+     * Adds a batch of bookings, checking each one as addBooking does.
+     * A booking that fails a check is reported in the result rather than stopping the batch.
+     *
+     * @param bookings the bookings to add
+     * @return the outcome of each booking, in the order given
+     * @throws NullPointerException if bookings is null
+     */
+    BulkLoadReport addBookings(Collection<Booking> bookings);
+
+    /**
+     * Moves a booking to a new date.
+     *
+     * @param bookingNumber the booking ID
+     * @param date          the new booking date
+     * @throws NullPointerException          if date is null
+     * @throws BookingDateInThePastException if date is in the past
+     * @throws BookingNotFoundException      if booking not found
+     * @throws CapacityExceededException     if the booking would take the new date over the daily window capacity
+     */
+    void rescheduleBooking(int bookingNumber, LocalDate date);
+
     /**
      * Retrieves a booking by its ID.
      *
@@ -82,7 +133,7 @@ public interface WindowCleaningService {
      * Retrieves all bookings for a specific customer.
      *
      * @param customerId the customer ID
-     * @return list of bookings for the customer
+     * @return list of bookings for the customer, in date then id order
      * @throws CustomerNotFoundException if customer not found
      */
     List<Booking> getAllBookingsForCustomerId(int customerId);
@@ -91,7 +142,7 @@ public interface WindowCleaningService {
      * Retrieves all bookings for a specific customer.
      *
      * @param name the customer name
-     * @return list of bookings for the customer
+     * @return list of bookings for the customer, in date then id order
      * @throws NullPointerException      if name is null
      * @throws CustomerNotFoundException if customer not found
      */
@@ -102,7 +153,7 @@ public interface WindowCleaningService {
      *
      * @param startDate the start date (inclusive)
      * @param endDate   the end date (inclusive)
-     * @return list of bookings in the date range
+     * @return list of bookings in the date range, in date then id order
      * @throws RuntimeException if startDate or endDate is null
      */
     List<Booking> getAllBookingsForDateRange(LocalDate startDate, LocalDate endDate);
@@ -159,4 +210,130 @@ public interface WindowCleaningService {
      * @throws CustomerNotFoundException if any customer not found
      */
     int getTotalCostForDateRange(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Streams all bookings without copying them into a list first.
+     *
+     * @return stream of all bookings
+     */
+    Stream<Booking> streamAllBookings();
+
+    /**
+     * Streams the bookings within a date range without copying them into a list first.
+     *
+     * @param startDate the start date (inclusive)
+     * @param endDate   the end date (inclusive)
+     * @return stream of bookings within the date range, in date then id order
+     * @throws NullPointerException      if startDate or endDate is null
+     * @throws InvalidDateRangeException if startDate is after endDate
+     */
+    Stream<Booking> streamBookingsForDateRange(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Streams the bookings for a customer without copying them into a list first.
+     *
+     * @param customerId the customer ID
+     * @return stream of the customer's bookings, in date then id order
+     * @throws CustomerNotFoundException if customer not found
+     */
+    Stream<Booking> streamBookingsForCustomerId(int customerId);
+
+    /**
+     * Retrieves a page of all bookings in date then id order.
+     *
+     * @param after the cursor from the previous page, or null for the first page
+     * @param limit the most bookings on the page
+     * @return the page of bookings
+     * @throws IllegalArgumentException if limit is less than 1
+     */
+    BookingPage getBookingsPage(BookingCursor after, int limit);
+
+    /**
+     * Retrieves a page of the bookings within a date range.
+     *
+     * @param startDate the start date (inclusive)
+     * @param endDate   the end date (inclusive)
+     * @param after     the cursor from the previous page, or null for the first page
+     * @param limit     the most bookings on the page
+     * @return the page of bookings, in date then id order
+     * @throws NullPointerException      if startDate or endDate is null
+     * @throws InvalidDateRangeException if startDate is after endDate
+     * @throws IllegalArgumentException  if limit is less than 1
+     */
+    BookingPage getBookingsPageForDateRange(LocalDate startDate, LocalDate endDate, BookingCursor after, int limit);
+
+    /**
+     * Retrieves a page of the bookings for a customer.
+     *
+     * @param customerId the customer ID
+     * @param after      the cursor from the previous page, or null for the first page
+     * @param limit      the most bookings on the page
+     * @return the page of the customer's bookings, in date then id order
+     * @throws CustomerNotFoundException if customer not found
+     * @throws IllegalArgumentException  if limit is less than 1
+     */
+    BookingPage getBookingsPageForCustomerId(int customerId, BookingCursor after, int limit);
+
+    /**
+     * Adds a new customer to the system, reporting the checks addCustomer makes as a result rather than by throwing.
+     *
+     * @param customer the customer to add
+     * @return a successful result, or NULL_ARGUMENT, INVALID_CUSTOMER or DUPLICATE_CUSTOMER
+     */
+    Result<Void> tryAddCustomer(Customer customer);
+
+    /**
+     * Retrieves a customer by their ID without throwing if it is missing.
+     *
+     * @param customerId the customer ID
+     * @return the customer, or CUSTOMER_NOT_FOUND
+     */
+    Result<Customer> tryGetCustomer(int customerId);
+
+    /**
+     * Adds a new booking to the system, reporting the checks addBooking makes as a result rather than by throwing.
+     *
+     * @param booking the booking to add
+     * @return a successful result, or NULL_ARGUMENT, BOOKING_DATE_IN_THE_PAST, INVALID_BOOKING,
+     * CUSTOMER_NOT_FOUND, DUPLICATE_BOOKING or CAPACITY_EXCEEDED
+     */
+    Result<Void> tryAddBooking(Booking booking);
+
+    /**
+     * Moves a booking to a new date, reporting the checks rescheduleBooking makes as a result rather than by throwing.
+     *
+     * @param bookingNumber the booking ID
+     * @param date          the new booking date
+     * @return a successful result, or NULL_ARGUMENT, BOOKING_DATE_IN_THE_PAST, BOOKING_NOT_FOUND or CAPACITY_EXCEEDED
+     */
+    Result<Void> tryRescheduleBooking(int bookingNumber, LocalDate date);
+
+    /**
+     * Retrieves a booking by its ID without throwing if it is missing.
+     *
+     * @param bookingNumber the booking ID
+     * @return the booking, or BOOKING_NOT_FOUND
+     */
+    Result<Booking> tryGetBookingByBookingId(int bookingNumber);
+
+    /**
+     * Finds a customer ID by their name without throwing if there is no single customer with it.
+     *
+     * @param name the customer name
+     * @return the customer ID, or NULL_ARGUMENT, CUSTOMER_NOT_FOUND or MULTIPLE_CUSTOMERS_FOUND
+     */
+    Result<Integer> tryGetCustomerIdByName(String name);
+
+    /**
+     * Finds the earliest date on or after a date, and not before today, with room for a customer's
+     * windows within the daily window capacity.
+     *
+     * @param customerId the customer ID
+     * @param from       the first date to consider
+     * @return the earliest date a booking for the customer would be accepted on
+     * @throws NullPointerException      if from is null
+     * @throws CustomerNotFoundException if customer not found
+     * @throws CapacityExceededException if the customer has more windows than a day's capacity
+     */
+    LocalDate findNextAvailableDate(int customerId, LocalDate from);
 }
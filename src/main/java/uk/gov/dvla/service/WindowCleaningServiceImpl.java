@@ -1,23 +1,38 @@
 package uk.gov.dvla.service;
 
-import lombok.AllArgsConstructor;
 import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.BookingPage;
+import uk.gov.dvla.model.BulkLoadReport;
 import uk.gov.dvla.model.Customer;
-import uk.gov.dvla.model.exception.BookingNotFoundException;
-import uk.gov.dvla.model.exception.CustomerNotFoundException;
-import uk.gov.dvla.model.exception.MultipleCustomerFoundException;
+import uk.gov.dvla.model.ErrorCode;
+import uk.gov.dvla.model.Result;
+import uk.gov.dvla.model.exception.*;
 import uk.gov.dvla.persistence.BookingDAO;
 import uk.gov.dvla.persistence.CustomerDAO;
+import uk.gov.dvla.persistence.RecurringBookingDAO;
+import uk.gov.dvla.util.CachedToday;
+import uk.gov.dvla.util.IntObjectHashMap;
 import uk.gov.dvla.util.ValidationUtil;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
 
 /**
  * Implementation of WindowCleaningService for managing window cleaning operations.
  * Handles both customer and booking management with cost calculations.
  */
-@AllArgsConstructor
 public class WindowCleaningServiceImpl implements WindowCleaningService {
 
     /**
@@ -28,6 +43,18 @@ public class WindowCleaningServiceImpl implements WindowCleaningService {
      * Cost per window.
      */
     public static final int COST_PER_WINDOW = 1;
+    /**
+     * Failure reported by getCustomer, whose message differs from the other customer lookups.
+     */
+    private static final Result<Customer> CUSTOMER_NOT_FOUND = Result.error(ErrorCode.CUSTOMER_NOT_FOUND, "Customer not found");
+    /**
+     * Failure reported for a missing date.
+     */
+    private static final Result<Void> NULL_DATE = Result.error(ErrorCode.NULL_ARGUMENT, "LocalDate cannot be null");
+    /**
+     * Failure reported for a missing customer name.
+     */
+    static final Result<Integer> NULL_NAME = Result.error(ErrorCode.NULL_ARGUMENT, "String cannot be null");
     /**
      * BookingDAO instance for booking data access.
      */
@@ -36,54 +63,407 @@ public class WindowCleaningServiceImpl implements WindowCleaningService {
      * CustomerDAO instance for customer data access.
      */
     private final CustomerDAO customerDAO;
+    /**
+     * Per-day totals, or null when ServiceOptions.maintainDailyTotals is off.
+     */
+    private final DailyTotals dailyTotals;
+    /**
+     * Windows booked against the daily window capacity, or null when ServiceOptions.dailyWindowCapacity is 0.
+     */
+    private final DailyCapacity dailyCapacity;
+    /**
+     * Today's date from ServiceOptions.clock, before which bookings cannot be made or moved.
+     */
+    private final CachedToday today;
+    /**
+     * Pool that large date range totals are summed on, or null to sum them on the calling thread.
+     */
+    private final ForkJoinPool aggregationPool;
+    /**
+     * Number of calendar months a date range must touch before its totals are summed on the aggregation pool.
+     */
+    private final int parallelAggregationThreshold;
+
+    /**
+     * Constructor for WindowCleaningServiceImpl class with the default options.
+     *
+     * @param bookingDAO  the booking data access object
+     * @param customerDAO the customer data access object
+     */
+    public WindowCleaningServiceImpl(BookingDAO bookingDAO, CustomerDAO customerDAO) {
+        this(bookingDAO, customerDAO, ServiceOptions.defaults());
+    }
+
+    /**
+     * Constructor for WindowCleaningServiceImpl class.
+     *
+     * @param bookingDAO  the booking data access object
+     * @param customerDAO the customer data access object
+     * @param options     the optional behaviour to turn on
+     * @throws IllegalArgumentException if the daily window capacity is negative, or daily totals or a daily
+     *                                  window capacity are asked for over a RecurringBookingDAO, whose rule
+     *                                  visits are not in the findAll they are built from
+     */
+    public WindowCleaningServiceImpl(BookingDAO bookingDAO, CustomerDAO customerDAO, ServiceOptions options) {
+        if (options.getDailyWindowCapacity() < 0) {
+            throw new IllegalArgumentException("Daily window capacity cannot be negative");
+        }
+        if (bookingDAO instanceof RecurringBookingDAO
+                && (options.isMaintainDailyTotals() || options.getDailyWindowCapacity() > 0)) {
+            throw new IllegalArgumentException("Daily totals and capacity are not supported over recurring bookings");
+        }
+        this.bookingDAO = bookingDAO;
+        this.customerDAO = customerDAO;
+        this.dailyTotals = options.isMaintainDailyTotals() ? new DailyTotals() : null;
+        this.dailyCapacity = options.getDailyWindowCapacity() > 0 ? new DailyCapacity(options.getDailyWindowCapacity()) : null;
+        this.today = new CachedToday(options.getClock());
+        this.aggregationPool = options.getAggregationPool();
+        this.parallelAggregationThreshold = options.getParallelAggregationThreshold();
+    }
 
     @Override
     public void addCustomer(Customer customer) {
-        ValidationUtil.checkValidCustomerObject(customer);
+        tryAddCustomer(customer).orElseThrow();
+    }
+
+    @Override
+    public Result<Void> tryAddCustomer(Customer customer) {
+        Result<Void> validation = ValidationUtil.validateCustomer(customer);
+        if (!validation.isOk()) {
+            return validation;
+        }
+        // the DAO still rejects a duplicate that is added concurrently after this check
+        if (customerDAO.findById(customer.getId()).isPresent()) {
+            return Result.error(ErrorCode.DUPLICATE_CUSTOMER);
+        }
         customerDAO.save(customer);
+
+        if (dailyTotals != null) {
+            synchronized (dailyTotals) {
+                // the new customer may own bookings that were saved before it
+                if (dailyTotals.hasUnresolvedBookings()) {
+                    dailyTotals.markStale();
+                }
+            }
+        }
+        markDailyCapacityStaleIfUnresolved();
+        return Result.ok();
+    }
+
+    @Override
+    public BulkLoadReport addCustomers(Collection<Customer> customers) {
+        ValidationUtil.checkObjectIsNotNull(customers, "Collection");
+
+        int[] ids = new int[customers.size()];
+        Result<?>[] errors = new Result<?>[customers.size()];
+        List<Customer> validCustomers = new ArrayList<>(customers.size());
+        int[] validPositions = new int[customers.size()];
+
+        int position = 0;
+        for (Customer customer : customers) {
+            ids[position] = customer == null ? 0 : customer.getId();
+            Result<Void> validation = ValidationUtil.validateCustomer(customer);
+            if (validation.isOk()) {
+                validPositions[validCustomers.size()] = position;
+                validCustomers.add(customer);
+            } else {
+                errors[position] = validation;
+            }
+            position++;
+        }
+
+        int[] skipped = customerDAO.saveAll(validCustomers);
+        for (int skippedPosition : skipped) {
+            errors[validPositions[skippedPosition]] = Result.error(ErrorCode.DUPLICATE_CUSTOMER);
+        }
+
+        if (dailyTotals != null && skipped.length < validCustomers.size()) {
+            synchronized (dailyTotals) {
+                // the new customers may own bookings that were saved before them
+                if (dailyTotals.hasUnresolvedBookings()) {
+                    dailyTotals.markStale();
+                }
+            }
+        }
+        if (skipped.length < validCustomers.size()) {
+            markDailyCapacityStaleIfUnresolved();
+        }
+
+        return report(ids, errors);
     }
 
     @Override
     public Customer getCustomer(int customerId) {
-        return customerDAO.findById(customerId).orElseThrow(() ->
-                new CustomerNotFoundException("Customer not found")
-        );
+        return tryGetCustomer(customerId).orElseThrow();
+    }
+
+    @Override
+    public Result<Customer> tryGetCustomer(int customerId) {
+        Optional<Customer> customer = customerDAO.findById(customerId);
+
+        return customer.isPresent() ? Result.ok(customer.get()) : CUSTOMER_NOT_FOUND;
     }
 
     @Override
     public int getCustomerIdByName(String name) {
-        ValidationUtil.checkObjectIsNotNull(name, "String");
+        return tryGetCustomerIdByName(name).orElseThrow();
+    }
 
-        List<Customer> customers = customerDAO.findByName(name);
+    @Override
+    public Result<Integer> tryGetCustomerIdByName(String name) {
+        if (name == null) {
+            return NULL_NAME;
+        }
 
-        // check if a customer was found
-        if (customers.isEmpty()) {
-            throw new CustomerNotFoundException("No customer found");
+        return tryResolveCustomerIdByName(name);
+    }
+
+    @Override
+    public void updateCustomerWindows(int customerId, int windows) {
+        if (windows < 1) {
+            throw new InvalidCustomerException("Invalid customer data");
         }
 
-        // check if multiple customers were found
-        if (customers.size() > 1) {
-            throw new MultipleCustomerFoundException("Multiple customers found");
+        Customer customer = customerDAO.findById(customerId)
+                .orElseThrow(() -> new CustomerNotFoundException("No customer found"));
+
+        if (dailyCapacity == null) {
+            saveWindows(customer, windows);
+            return;
         }
 
-        return customers.get(0).getId();
+        synchronized (dailyCapacity) {
+            checkDailyCapacityCurrent();
+            // read again under the lock, as a concurrent update may have changed the windows
+            customer = customerDAO.findById(customerId).orElse(customer);
+            int delta = windows - customer.getWindows();
+            List<Booking> bookings = bookingDAO.findByCustomerId(customerId);
+
+            if (delta > 0) {
+                // bookings from today on must still fit; several on one day all grow
+                LocalDate today = this.today.get();
+                Map<LocalDate, Integer> bookingsPerDay = new HashMap<>();
+                for (Booking booking : bookings) {
+                    if (!booking.getBookingDate().isBefore(today)) {
+                        bookingsPerDay.merge(booking.getBookingDate(), 1, Integer::sum);
+                    }
+                }
+                for (Map.Entry<LocalDate, Integer> day : bookingsPerDay.entrySet()) {
+                    if (!dailyCapacity.hasRoom(day.getKey(), (long) delta * day.getValue())) {
+                        throw new CapacityExceededException(ErrorCode.CAPACITY_EXCEEDED.getDefaultMessage());
+                    }
+                }
+            }
+
+            saveWindows(customer, windows);
+            for (Booking booking : bookings) {
+                dailyCapacity.changeWindows(booking.getBookingDate(), delta);
+            }
+        }
     }
 
     @Override
     public void addBooking(Booking booking) {
-        ValidationUtil.checkValidBookingObject(booking);
+        tryAddBooking(booking).orElseThrow();
+    }
+
+    @Override
+    public Result<Void> tryAddBooking(Booking booking) {
+        Result<Void> validation = ValidationUtil.validateBooking(booking, today.get());
+        if (!validation.isOk()) {
+            return validation;
+        }
 
         // check customer exists
-        customerDAO.findById(booking.getCustomerId())
-                .orElseThrow(() -> new CustomerNotFoundException("No customer found"));
+        Optional<Customer> customer = customerDAO.findById(booking.getCustomerId());
+        if (customer.isEmpty()) {
+            return Result.error(ErrorCode.CUSTOMER_NOT_FOUND);
+        }
+        // the DAO still rejects a duplicate that is added concurrently after this check
+        if (bookingDAO.findById(booking.getId()).isPresent()) {
+            return Result.error(ErrorCode.DUPLICATE_BOOKING);
+        }
+
+        if (dailyCapacity == null) {
+            saveBooking(booking, customer.get());
+            return Result.ok();
+        }
 
-        bookingDAO.save(booking);
+        synchronized (dailyCapacity) {
+            checkDailyCapacityCurrent();
+            // read again under the lock, as a concurrent update may have changed the windows
+            Customer current = customerDAO.findById(booking.getCustomerId()).orElse(customer.get());
+            int windows = current.getWindows();
+            if (!dailyCapacity.hasRoom(booking.getBookingDate(), windows)) {
+                return Result.error(ErrorCode.CAPACITY_EXCEEDED);
+            }
+            saveBooking(booking, current);
+            dailyCapacity.addBooking(booking.getBookingDate(), windows);
+        }
+        return Result.ok();
+    }
+
+    @Override
+    public BulkLoadReport addBookings(Collection<Booking> bookings) {
+        ValidationUtil.checkObjectIsNotNull(bookings, "Collection");
+
+        // one today for the whole batch, so a batch running over midnight is checked consistently
+        LocalDate today = this.today.get();
+        int[] ids = new int[bookings.size()];
+        Result<?>[] errors = new Result<?>[bookings.size()];
+        List<Booking> validBookings = new ArrayList<>(bookings.size());
+        int[] validPositions = new int[bookings.size()];
+
+        int position = 0;
+        for (Booking booking : bookings) {
+            ids[position] = booking == null ? 0 : booking.getId();
+            Result<Void> validation = ValidationUtil.validateBooking(booking, today);
+            if (validation.isOk()) {
+                validPositions[validBookings.size()] = position;
+                validBookings.add(booking);
+            } else {
+                errors[position] = validation;
+            }
+            position++;
+        }
+
+        // check customers exist with one lookup for the whole batch
+        int[] customerIds = new int[validBookings.size()];
+        for (int i = 0; i < customerIds.length; i++) {
+            customerIds[i] = validBookings.get(i).getCustomerId();
+        }
+        int[] batchCustomerIds = distinct(customerIds);
+        IntObjectHashMap<Customer> customers = customerDAO.findAllByIds(batchCustomerIds);
+
+        List<Booking> resolvedBookings = new ArrayList<>(validBookings.size());
+        int[] resolvedPositions = new int[validBookings.size()];
+        for (int i = 0; i < validBookings.size(); i++) {
+            if (customers.containsKey(customerIds[i])) {
+                resolvedPositions[resolvedBookings.size()] = validPositions[i];
+                resolvedBookings.add(validBookings.get(i));
+            } else {
+                errors[validPositions[i]] = Result.error(ErrorCode.CUSTOMER_NOT_FOUND);
+            }
+        }
+
+        if (dailyCapacity == null) {
+            saveBookings(resolvedBookings, resolvedPositions, customers, errors);
+            return report(ids, errors);
+        }
+
+        synchronized (dailyCapacity) {
+            checkDailyCapacityCurrent();
+            // read again under the lock, as a concurrent update may have changed the windows; customers are never removed
+            IntObjectHashMap<Customer> currentCustomers = customerDAO.findAllByIds(batchCustomerIds);
+            for (Customer customer : customers.values()) {
+                currentCustomers.putIfAbsent(customer.getId(), customer);
+            }
+            customers = currentCustomers;
+            // admit bookings in order while their day has room; duplicates are left out first so they take no room
+            List<Booking> admittedBookings = new ArrayList<>(resolvedBookings.size());
+            int[] admittedPositions = new int[resolvedBookings.size()];
+            for (int i = 0; i < resolvedBookings.size(); i++) {
+                Booking booking = resolvedBookings.get(i);
+                int windows = customers.get(booking.getCustomerId()).getWindows();
+                if (bookingDAO.findById(booking.getId()).isPresent()) {
+                    errors[resolvedPositions[i]] = Result.error(ErrorCode.DUPLICATE_BOOKING);
+                } else if (!dailyCapacity.hasRoom(booking.getBookingDate(), windows)) {
+                    errors[resolvedPositions[i]] = Result.error(ErrorCode.CAPACITY_EXCEEDED);
+                } else {
+                    dailyCapacity.addBooking(booking.getBookingDate(), windows);
+                    admittedPositions[admittedBookings.size()] = resolvedPositions[i];
+                    admittedBookings.add(booking);
+                }
+            }
+
+            // give back the room of bookings the DAO skipped, such as duplicates within the batch
+            for (int skippedPosition : saveBookings(admittedBookings, admittedPositions, customers, errors)) {
+                Booking booking = admittedBookings.get(skippedPosition);
+                dailyCapacity.removeBooking(booking.getBookingDate(), customers.get(booking.getCustomerId()).getWindows());
+            }
+        }
+        return report(ids, errors);
+    }
+
+    @Override
+    public void rescheduleBooking(int bookingNumber, LocalDate date) {
+        tryRescheduleBooking(bookingNumber, date).orElseThrow();
+    }
+
+    @Override
+    public Result<Void> tryRescheduleBooking(int bookingNumber, LocalDate date) {
+        if (date == null) {
+            return NULL_DATE;
+        }
+        Result<Void> validation = ValidationUtil.validateDateNotInPast(date, today.get());
+        if (!validation.isOk()) {
+            return validation;
+        }
+
+        Optional<Booking> found = bookingDAO.findById(bookingNumber);
+        if (found.isEmpty()) {
+            return Result.error(ErrorCode.BOOKING_NOT_FOUND);
+        }
+        if (dailyCapacity == null) {
+            moveBooking(found.get(), date);
+            return Result.ok();
+        }
+
+        synchronized (dailyCapacity) {
+            checkDailyCapacityCurrent();
+            // read again under the lock, as a concurrent reschedule may have moved it
+            Booking booking = bookingDAO.findById(bookingNumber).orElse(found.get());
+            LocalDate oldDate = booking.getBookingDate();
+            Optional<Customer> customer = customerDAO.findById(booking.getCustomerId());
+            if (customer.isEmpty() || oldDate.equals(date)) {
+                // a booking without a customer uses no capacity
+                moveBooking(booking, date);
+                return Result.ok();
+            }
+
+            int windows = customer.get().getWindows();
+            if (!dailyCapacity.hasRoom(date, windows)) {
+                return Result.error(ErrorCode.CAPACITY_EXCEEDED);
+            }
+            moveBooking(booking, date);
+            dailyCapacity.moveBooking(oldDate, date, windows);
+        }
+        return Result.ok();
     }
 
     @Override
     public Booking getBookingByBookingId(int bookingNumber) {
-        return bookingDAO.findById(bookingNumber)
-                .orElseThrow(() -> new BookingNotFoundException("No booking found"));
+        return tryGetBookingByBookingId(bookingNumber).orElseThrow();
+    }
+
+    @Override
+    public Result<Booking> tryGetBookingByBookingId(int bookingNumber) {
+        Optional<Booking> booking = bookingDAO.findById(bookingNumber);
+
+        return booking.isPresent() ? Result.ok(booking.get()) : Result.error(ErrorCode.BOOKING_NOT_FOUND);
+    }
+
+    @Override
+    public LocalDate findNextAvailableDate(int customerId, LocalDate from) {
+        ValidationUtil.checkObjectIsNotNull(from, "LocalDate");
+
+        Customer customer = customerDAO.findById(customerId)
+                .orElseThrow(() -> new CustomerNotFoundException("No customer found"));
+        LocalDate today = this.today.get();
+        LocalDate start = from.isBefore(today) ? today : from;
+
+        if (dailyCapacity == null) {
+            return start;
+        }
+
+        synchronized (dailyCapacity) {
+            checkDailyCapacityCurrent();
+            LocalDate date = dailyCapacity.firstDateWithRoom(start, customer.getWindows());
+            if (date == null) {
+                throw new CapacityExceededException("Customer's windows exceed the daily window capacity");
+            }
+            return date;
+        }
     }
 
     @Override
@@ -111,42 +491,77 @@ public class WindowCleaningServiceImpl implements WindowCleaningService {
     public List<Booking> getBookingsWithCustomerName(String name) {
         ValidationUtil.checkObjectIsNotNull(name, "String");
 
-        List<Customer> customers = customerDAO.findByName(name);
+        return bookingDAO.findByCustomerId(resolveCustomerIdByName(name));
+    }
 
-        if (customers.isEmpty()) {
-            throw new CustomerNotFoundException("No customer found");
-        }
+    @Override
+    public List<Booking> getAllBookingsForDateRange(LocalDate startDate, LocalDate endDate) {
+        ValidationUtil.checkObjectIsNotNull(startDate, "LocalDate start");
+        ValidationUtil.checkObjectIsNotNull(endDate, "LocalDate end");
+        ValidationUtil.checkStartDateIsBeforeEndDate(startDate, endDate);
 
-        if (customers.size() > 1) {
-            throw new MultipleCustomerFoundException("Multiple customers found");
-        }
+        return bookingDAO.findByDateRange(startDate, endDate);
+    }
 
-        return bookingDAO.findByCustomerId(customers.get(0).getId());
+    @Override
+    public Stream<Booking> streamAllBookings() {
+        return bookingDAO.streamAll();
     }
 
     @Override
-    public List<Booking> getAllBookingsForDateRange(LocalDate startDate, LocalDate endDate) {
+    public Stream<Booking> streamBookingsForDateRange(LocalDate startDate, LocalDate endDate) {
         ValidationUtil.checkObjectIsNotNull(startDate, "LocalDate start");
         ValidationUtil.checkObjectIsNotNull(endDate, "LocalDate end");
         ValidationUtil.checkStartDateIsBeforeEndDate(startDate, endDate);
 
-        return bookingDAO.findByDateRange(startDate, endDate);
+        return bookingDAO.streamByDateRange(startDate, endDate);
+    }
+
+    @Override
+    public Stream<Booking> streamBookingsForCustomerId(int customerId) {
+        // check that customer exists
+        customerDAO.findById(customerId)
+                .orElseThrow(() -> new CustomerNotFoundException("No customer found"));
+
+        return bookingDAO.streamByCustomerId(customerId);
+    }
+
+    @Override
+    public BookingPage getBookingsPage(BookingCursor after, int limit) {
+        ValidationUtil.checkPageLimit(limit);
+
+        return toPage(bookingDAO.findPageByDateRange(LocalDate.MIN, LocalDate.MAX, after, fetchSize(limit)), limit);
+    }
+
+    @Override
+    public BookingPage getBookingsPageForDateRange(LocalDate startDate, LocalDate endDate, BookingCursor after, int limit) {
+        ValidationUtil.checkObjectIsNotNull(startDate, "LocalDate start");
+        ValidationUtil.checkObjectIsNotNull(endDate, "LocalDate end");
+        ValidationUtil.checkStartDateIsBeforeEndDate(startDate, endDate);
+        ValidationUtil.checkPageLimit(limit);
+
+        return toPage(bookingDAO.findPageByDateRange(startDate, endDate, after, fetchSize(limit)), limit);
+    }
+
+    @Override
+    public BookingPage getBookingsPageForCustomerId(int customerId, BookingCursor after, int limit) {
+        ValidationUtil.checkPageLimit(limit);
+        // check that customer exists
+        customerDAO.findById(customerId)
+                .orElseThrow(() -> new CustomerNotFoundException("No customer found"));
+
+        return toPage(bookingDAO.findPageByCustomerId(customerId, after, fetchSize(limit)), limit);
     }
 
     @Override
     public int getTotalWindowsForDate(LocalDate date) {
         ValidationUtil.checkObjectIsNotNull(date, "LocalDate");
 
-        List<Booking> bookings = bookingDAO.findByDate(date);
-
-        return bookings.stream()
-                .mapToInt(b -> {
-                    Customer customer = customerDAO.findById(b.getCustomerId())
-                            .orElseThrow(() -> new CustomerNotFoundException("No customer found"));
+        if (dailyTotals != null) {
+            return totalWindowsFromDailyTotals(date, date);
+        }
 
-                    return customer.getWindows();
-                })
-                .sum();
+        return sumWindows(bookingDAO.findCustomerIdsByDateRange(date, date));
     }
 
     @Override
@@ -155,16 +570,14 @@ public class WindowCleaningServiceImpl implements WindowCleaningService {
         ValidationUtil.checkObjectIsNotNull(endDate, "LocalDate end");
         ValidationUtil.checkStartDateIsBeforeEndDate(startDate, endDate);
 
-        List<Booking> bookings = bookingDAO.findByDateRange(startDate, endDate);
-
-        return bookings.stream()
-                .mapToInt(booking -> {
-                    Customer customer = customerDAO.findById(booking.getCustomerId())
-                            .orElseThrow(() -> new CustomerNotFoundException("No customer found"));
+        if (dailyTotals != null) {
+            return totalWindowsFromDailyTotals(startDate, endDate);
+        }
+        if (aggregatesInParallel(startDate, endDate)) {
+            return aggregationPool.invoke(new MonthlyTotalsTask(startDate, endDate))[0];
+        }
 
-                    return customer.getWindows();
-                })
-                .sum();
+        return sumWindows(bookingDAO.findCustomerIdsByDateRange(startDate, endDate));
     }
 
     @Override
@@ -185,16 +598,11 @@ public class WindowCleaningServiceImpl implements WindowCleaningService {
     public int getTotalCostForDate(LocalDate date) {
         ValidationUtil.checkObjectIsNotNull(date, "LocalDate");
 
-        List<Booking> bookings = bookingDAO.findByDate(date);
-
-        return bookings.stream()
-                .mapToInt(b -> {
-                    Customer customer = customerDAO.findById(b.getCustomerId())
-                            .orElseThrow(() -> new CustomerNotFoundException("No customer found"));
+        if (dailyTotals != null) {
+            return totalCostFromDailyTotals(date, date);
+        }
 
-                    return (customer.getWindows() * COST_PER_WINDOW) + COST_PER_PROPERTY;
-                })
-                .sum();
+        return sumCosts(bookingDAO.findCustomerIdsByDateRange(date, date));
     }
 
     @Override
@@ -203,16 +611,442 @@ public class WindowCleaningServiceImpl implements WindowCleaningService {
         ValidationUtil.checkObjectIsNotNull(endDate, "LocalDate end");
         ValidationUtil.checkStartDateIsBeforeEndDate(startDate, endDate);
 
-        List<Booking> bookings = bookingDAO.findByDateRange(startDate, endDate);
+        if (dailyTotals != null) {
+            return totalCostFromDailyTotals(startDate, endDate);
+        }
+        if (aggregatesInParallel(startDate, endDate)) {
+            int[] totals = aggregationPool.invoke(new MonthlyTotalsTask(startDate, endDate));
+            return (totals[0] * COST_PER_WINDOW) + (totals[1] * COST_PER_PROPERTY);
+        }
+
+        return sumCosts(bookingDAO.findCustomerIdsByDateRange(startDate, endDate));
+    }
+
+    /**
+     * Sums the windows of the customers of a set of bookings.
+     *
+     * @param customerIds the customer ID of each booking
+     * @return total number of windows
+     */
+    private int sumWindows(int[] customerIds) {
+        int[] batchCustomerIds = distinct(customerIds);
+        IntObjectHashMap<Customer> customers = customerDAO.findAllByIds(batchCustomerIds);
 
-        return bookings.stream()
-                .mapToInt(booking -> {
-                    Customer customer = customerDAO.findById(booking.getCustomerId())
-                            .orElseThrow(() -> new CustomerNotFoundException("No customer found"));
+        int totalWindows = 0;
+        for (int customerId : customerIds) {
+            Customer customer = customers.get(customerId);
+            if (customer == null) {
+                throw new CustomerNotFoundException("No customer found");
+            }
 
-                    return (customer.getWindows() * COST_PER_WINDOW) + COST_PER_PROPERTY;
-                })
-                .sum();
+            totalWindows += customer.getWindows();
+        }
+        return totalWindows;
     }
 
+    /**
+     * Sums the cost of a set of bookings.
+     *
+     * @param customerIds the customer ID of each booking
+     * @return total cost in pounds
+     */
+    private int sumCosts(int[] customerIds) {
+        return (sumWindows(customerIds) * COST_PER_WINDOW) + (customerIds.length * COST_PER_PROPERTY);
+    }
+
+    /**
+     * Checks if a date range's totals are summed on the aggregation pool.
+     *
+     * @param startDate the start date (inclusive)
+     * @param endDate   the end date (inclusive)
+     * @return true if there is a pool and the range touches at least parallelAggregationThreshold months
+     */
+    private boolean aggregatesInParallel(LocalDate startDate, LocalDate endDate) {
+        return aggregationPool != null && monthsTouched(startDate, endDate) >= parallelAggregationThreshold;
+    }
+
+    /**
+     * Counts the calendar months a date range touches.
+     *
+     * @param startDate the start date (inclusive)
+     * @param endDate   the end date (inclusive)
+     * @return number of months from the start date's month to the end date's month, inclusive
+     */
+    private static long monthsTouched(LocalDate startDate, LocalDate endDate) {
+        return YearMonth.from(startDate).until(YearMonth.from(endDate), ChronoUnit.MONTHS) + 1;
+    }
+
+    /**
+     * Returns the number of windows within a date range from the daily totals.
+     *
+     * @param startDate the start date (inclusive)
+     * @param endDate   the end date (inclusive)
+     * @return total number of windows
+     */
+    private int totalWindowsFromDailyTotals(LocalDate startDate, LocalDate endDate) {
+        synchronized (dailyTotals) {
+            checkDailyTotalsComplete(startDate, endDate);
+
+            return Math.toIntExact(dailyTotals.windows(startDate, endDate));
+        }
+    }
+
+    /**
+     * Returns the cost of the bookings within a date range from the daily totals.
+     *
+     * @param startDate the start date (inclusive)
+     * @param endDate   the end date (inclusive)
+     * @return total cost in pounds
+     */
+    private int totalCostFromDailyTotals(LocalDate startDate, LocalDate endDate) {
+        synchronized (dailyTotals) {
+            checkDailyTotalsComplete(startDate, endDate);
+
+            return Math.toIntExact(dailyTotals.revenue(startDate, endDate));
+        }
+    }
+
+    /**
+     * Rebuilds the daily totals if they have fallen out of step with the DAOs, then checks
+     * that every booking within a date range has a customer.
+     * Only a change in the number of bookings is noticed, so moves and window changes made
+     * straight through the DAOs are not; see ServiceOptions.maintainDailyTotals.
+     * Callers hold the dailyTotals lock.
+     *
+     * @param startDate the start date (inclusive)
+     * @param endDate   the end date (inclusive)
+     */
+    private void checkDailyTotalsComplete(LocalDate startDate, LocalDate endDate) {
+        if (dailyTotals.isStale() || dailyTotals.bookingCount() != bookingDAO.count()) {
+            rebuildDailyTotals();
+        }
+
+        if (dailyTotals.hasUnresolvedBookings(startDate, endDate)) {
+            throw new CustomerNotFoundException("No customer found");
+        }
+    }
+
+    /**
+     * Rebuilds the daily totals from every stored booking.
+     * Callers hold the dailyTotals lock.
+     */
+    private void rebuildDailyTotals() {
+        dailyTotals.clear();
+
+        List<Booking> bookings = bookingDAO.findAll();
+        int[] customerIds = new int[bookings.size()];
+        for (int i = 0; i < customerIds.length; i++) {
+            customerIds[i] = bookings.get(i).getCustomerId();
+        }
+        int[] batchCustomerIds = distinct(customerIds);
+        IntObjectHashMap<Customer> customers = customerDAO.findAllByIds(batchCustomerIds);
+
+        for (Booking booking : bookings) {
+            Customer customer = customers.get(booking.getCustomerId());
+            if (customer != null) {
+                dailyTotals.addBooking(booking.getBookingDate(), customer.getWindows());
+            } else {
+                dailyTotals.addUnresolvedBooking(booking.getBookingDate());
+            }
+        }
+    }
+
+    /**
+     * Saves a customer's new number of windows, keeping the daily totals in step.
+     *
+     * @param customer the customer as stored
+     * @param windows  the new number of windows
+     */
+    private void saveWindows(Customer customer, int windows) {
+        if (dailyTotals == null) {
+            customerDAO.updateWindows(customer.getId(), windows);
+            return;
+        }
+
+        synchronized (dailyTotals) {
+            int delta = windows - customer.getWindows();
+            customerDAO.updateWindows(customer.getId(), windows);
+            for (Booking booking : bookingDAO.findByCustomerId(customer.getId())) {
+                dailyTotals.changeWindows(booking.getBookingDate(), delta);
+            }
+        }
+    }
+
+    /**
+     * Saves a booking, keeping the daily totals in step.
+     *
+     * @param booking  the booking
+     * @param customer the booking's customer
+     */
+    private void saveBooking(Booking booking, Customer customer) {
+        if (dailyTotals == null) {
+            bookingDAO.save(booking);
+            return;
+        }
+
+        synchronized (dailyTotals) {
+            bookingDAO.save(booking);
+            dailyTotals.addBooking(booking.getBookingDate(), customer.getWindows());
+        }
+    }
+
+    /**
+     * Saves a batch of bookings whose customers exist, keeping the daily totals in step
+     * and reporting the bookings the DAO skipped as duplicates.
+     *
+     * @param bookings  the bookings
+     * @param positions the position of each booking in the whole batch
+     * @param customers the customers of the bookings, by id
+     * @param errors    the failed results of the whole batch
+     * @return the indexes within bookings of the bookings that were skipped
+     */
+    private int[] saveBookings(List<Booking> bookings, int[] positions, IntObjectHashMap<Customer> customers,
+                               Result<?>[] errors) {
+        int[] skipped;
+        if (dailyTotals == null) {
+            skipped = bookingDAO.saveAll(bookings);
+        } else {
+            synchronized (dailyTotals) {
+                skipped = bookingDAO.saveAll(bookings);
+                for (int i = 0, next = 0; i < bookings.size(); i++) {
+                    if (next < skipped.length && skipped[next] == i) {
+                        next++;
+                        continue;
+                    }
+                    Booking booking = bookings.get(i);
+                    dailyTotals.addBooking(booking.getBookingDate(), customers.get(booking.getCustomerId()).getWindows());
+                }
+            }
+        }
+        for (int skippedPosition : skipped) {
+            errors[positions[skippedPosition]] = Result.error(ErrorCode.DUPLICATE_BOOKING);
+        }
+        return skipped;
+    }
+
+    /**
+     * Moves a booking to a new date, keeping the daily totals in step.
+     *
+     * @param booking the booking as stored
+     * @param date    the new booking date
+     */
+    private void moveBooking(Booking booking, LocalDate date) {
+        if (dailyTotals == null) {
+            bookingDAO.updateBookingDate(booking.getId(), date);
+            return;
+        }
+
+        synchronized (dailyTotals) {
+            LocalDate oldDate = booking.getBookingDate();
+            bookingDAO.updateBookingDate(booking.getId(), date);
+
+            Optional<Customer> customer = customerDAO.findById(booking.getCustomerId());
+            if (customer.isPresent()) {
+                dailyTotals.moveBooking(oldDate, date, customer.get().getWindows());
+            } else {
+                dailyTotals.markStale();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the daily capacity if it has fallen out of step with the DAOs.
+     * Only a change in the number of bookings is noticed, so moves and window changes made
+     * straight through the DAOs are not; see ServiceOptions.dailyWindowCapacity.
+     * Callers hold the dailyCapacity lock.
+     */
+    private void checkDailyCapacityCurrent() {
+        if (dailyCapacity.isStale() || dailyCapacity.bookingCount() != bookingDAO.count()) {
+            rebuildDailyCapacity();
+        }
+    }
+
+    /**
+     * Rebuilds the daily capacity from every stored booking.
+     * Days booked beyond their capacity before the limit applied stay over it.
+     * Callers hold the dailyCapacity lock.
+     */
+    private void rebuildDailyCapacity() {
+        dailyCapacity.clear();
+
+        List<Booking> bookings = bookingDAO.findAll();
+        int[] customerIds = new int[bookings.size()];
+        for (int i = 0; i < customerIds.length; i++) {
+            customerIds[i] = bookings.get(i).getCustomerId();
+        }
+        int[] batchCustomerIds = distinct(customerIds);
+        IntObjectHashMap<Customer> customers = customerDAO.findAllByIds(batchCustomerIds);
+
+        for (Booking booking : bookings) {
+            Customer customer = customers.get(booking.getCustomerId());
+            if (customer != null) {
+                dailyCapacity.addBooking(booking.getBookingDate(), customer.getWindows());
+            } else {
+                dailyCapacity.addUnresolvedBooking();
+            }
+        }
+    }
+
+    /**
+     * Marks the daily capacity for a rebuild if new customers may own bookings that use no capacity yet.
+     */
+    private void markDailyCapacityStaleIfUnresolved() {
+        if (dailyCapacity == null) {
+            return;
+        }
+
+        synchronized (dailyCapacity) {
+            if (dailyCapacity.hasUnresolvedBookings()) {
+                dailyCapacity.markStale();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bookings to fetch for a page, one more than the limit so that
+     * a following page can be detected without another query.
+     *
+     * @param limit the page limit
+     * @return the number of bookings to fetch
+     */
+    private static int fetchSize(int limit) {
+        return (int) Math.min(Integer.MAX_VALUE, limit + 1L);
+    }
+
+    /**
+     * Builds a page from the bookings fetched for it.
+     *
+     * @param fetched the bookings fetched, up to fetchSize(limit) of them
+     * @param limit   the page limit
+     * @return the page, with a next cursor if more bookings were fetched than fit
+     */
+    private static BookingPage toPage(List<Booking> fetched, int limit) {
+        if (fetched.size() <= limit) {
+            return new BookingPage(fetched, null);
+        }
+
+        List<Booking> bookings = fetched.subList(0, limit);
+        return new BookingPage(bookings, BookingCursor.after(bookings.get(limit - 1)));
+    }
+
+    /**
+     * Builds the report of a bulk add.
+     *
+     * @param ids    the id of each record, in input order
+     * @param errors the failed result of each rejected record, null where it was added
+     * @return the report
+     */
+    private static BulkLoadReport report(int[] ids, Result<?>[] errors) {
+        List<BulkLoadReport.RecordResult> results = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            Result<?> error = errors[i];
+            results.add(error == null
+                    ? new BulkLoadReport.RecordResult(i, ids[i], null, null)
+                    : new BulkLoadReport.RecordResult(i, ids[i], error.getErrorCode(), error.getMessage()));
+        }
+        return new BulkLoadReport(results);
+    }
+
+    /**
+     * Returns the distinct values of an array.
+     *
+     * @param values the values, which may repeat
+     * @return the distinct values in ascending order
+     */
+    private static int[] distinct(int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    /**
+     * Resolves a name to the id of the single customer with that name.
+     *
+     * @param name the customer name
+     * @return the customer ID
+     */
+    private int resolveCustomerIdByName(String name) {
+        return tryResolveCustomerIdByName(name).orElseThrow();
+    }
+
+    /**
+     * Resolves a name to the id of the single customer with that name, without throwing if there is none.
+     *
+     * @param name the customer name
+     * @return the customer ID, or CUSTOMER_NOT_FOUND or MULTIPLE_CUSTOMERS_FOUND
+     */
+    private Result<Integer> tryResolveCustomerIdByName(String name) {
+        int customerId = customerDAO.resolveIdByName(name);
+
+        // check if a customer was found
+        if (customerId == CustomerDAO.NO_CUSTOMER) {
+            return Result.error(ErrorCode.CUSTOMER_NOT_FOUND);
+        }
+
+        // check if multiple customers were found
+        if (customerId == CustomerDAO.MULTIPLE_CUSTOMERS) {
+            return Result.error(ErrorCode.MULTIPLE_CUSTOMERS_FOUND);
+        }
+
+        return Result.ok(customerId);
+    }
+
+    /**
+     * Sums the windows and number of bookings within a date range, splitting the range in half
+     * by calendar month until each task covers a single month.
+     * Totals are added with int arithmetic as the sequential path does, so the results are the same.
+     */
+    private final class MonthlyTotalsTask extends RecursiveTask<int[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * First day of the range, inclusive.
+         */
+        private final LocalDate startDate;
+        /**
+         * Last day of the range, inclusive.
+         */
+        private final LocalDate endDate;
+
+        /**
+         * Constructor for MonthlyTotalsTask class.
+         *
+         * @param startDate the start date (inclusive)
+         * @param endDate   the end date (inclusive)
+         */
+        private MonthlyTotalsTask(LocalDate startDate, LocalDate endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        /**
+         * Sums the range.
+         *
+         * @return total windows then number of bookings
+         */
+        @Override
+        protected int[] compute() {
+            long months = monthsTouched(startDate, endDate);
+            if (months == 1) {
+                int[] customerIds = bookingDAO.findCustomerIdsByDateRange(startDate, endDate);
+                return new int[]{sumWindows(customerIds), customerIds.length};
+            }
+
+            LocalDate split = YearMonth.from(startDate).plusMonths(months / 2).atDay(1);
+            MonthlyTotalsTask firstHalf = new MonthlyTotalsTask(startDate, split.minusDays(1));
+            firstHalf.fork();
+            int[] secondTotals = new MonthlyTotalsTask(split, endDate).compute();
+            int[] firstTotals = firstHalf.join();
+
+            return new int[]{firstTotals[0] + secondTotals[0], firstTotals[1] + secondTotals[1]};
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package uk.gov.dvla.util;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Today's date according to a Clock, worked out once per day rather than on every call.
+ * Each call reads only the clock's millis; the date is recalculated when the time leaves the
+ * day it was calculated for, in either direction, so a clock that is set back is followed too.
+ */
+public final class CachedToday {
+
+    /**
+     * Today according to the system clock and default time zone.
+     */
+    public static final CachedToday SYSTEM = new CachedToday(Clock.systemDefaultZone());
+
+    /**
+     * Clock the date is read from.
+     */
+    private final Clock clock;
+
+    /**
+     * Day the date was last worked out for; replaced once the clock leaves it.
+     */
+    private volatile Day day;
+
+    /**
+     * Constructor for CachedToday class.
+     *
+     * @param clock the clock to read, whose zone decides where each day starts
+     */
+    public CachedToday(Clock clock) {
+        this.clock = clock;
+        this.day = Day.of(clock);
+    }
+
+    /**
+     * Returns today's date.
+     *
+     * @return the date in the clock's zone
+     */
+    public LocalDate get() {
+        long now = clock.millis();
+        Day current = day;
+        if (now < current.startMillis || now >= current.endMillis) {
+            current = Day.of(clock);
+            day = current;
+        }
+        return current.date;
+    }
+
+    /**
+     * A date and the instants it starts and ends at.
+     */
+    private static final class Day {
+        /**
+         * The date.
+         */
+        private final LocalDate date;
+        /**
+         * Epoch millis the date starts at, inclusive.
+         */
+        private final long startMillis;
+        /**
+         * Epoch millis the next date starts at, exclusive.
+         */
+        private final long endMillis;
+
+        private Day(LocalDate date, long startMillis, long endMillis) {
+            this.date = date;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+        }
+
+        private static Day of(Clock clock) {
+            LocalDate date = LocalDate.now(clock);
+            return new Day(date,
+                    date.atStartOfDay(clock.getZone()).toInstant().toEpochMilli(),
+                    date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package uk.gov.dvla.util;
+
+import java.util.Arrays;
+
+/**
+ * Consistent hash ring that assigns int keys to a fixed number of shards.
+ * Each shard owns several points on the ring and a key belongs to the shard owning the first point
+ * at or after the key's hash, so going from n to n + 1 shards moves about 1 / (n + 1) of the keys.
+ * The ring is immutable and thread-safe; lookups take O(log points).
+ */
+public final class ConsistentHashRing {
+
+    /**
+     * Points on the ring in ascending order.
+     */
+    private final int[] points;
+    /**
+     * Shard owning each point.
+     */
+    private final int[] owners;
+
+    private final int shardCount;
+
+    /**
+     * Constructor for ConsistentHashRing class.
+     *
+     * @param shardCount     the number of shards, at least 1
+     * @param pointsPerShard the number of points each shard owns; more points spread the keys more evenly
+     * @throws IllegalArgumentException if shardCount or pointsPerShard is less than 1
+     */
+    public ConsistentHashRing(int shardCount, int pointsPerShard) {
+        if (shardCount < 1 || pointsPerShard < 1) {
+            throw new IllegalArgumentException("Shard count and points per shard must be at least 1");
+        }
+        this.shardCount = shardCount;
+
+        // sort the points with their owners packed alongside as (point, shard) longs;
+        // points are mixed twice, as shard 0's (shard, replica) seeds are themselves small keys
+        long[] packed = new long[shardCount * pointsPerShard];
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int replica = 0; replica < pointsPerShard; replica++) {
+                int point = (int) mix(mix(((long) shard << 32) | replica));
+                packed[shard * pointsPerShard + replica] = ((long) point << 32) | shard;
+            }
+        }
+        Arrays.sort(packed);
+
+        points = new int[packed.length];
+        owners = new int[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            points[i] = (int) (packed[i] >> 32);
+            owners[i] = (int) packed[i];
+        }
+    }
+
+    /**
+     * Returns the shard a key belongs to.
+     *
+     * @param key the key
+     * @return the shard, from 0 to getShardCount() - 1
+     */
+    public int shardFor(int key) {
+        int hash = (int) mix(key);
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return the shard count
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Spreads the bits of a value, as the finaliser of MurmurHash3 does.
+     *
+     * @param value the value
+     * @return the mixed value
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
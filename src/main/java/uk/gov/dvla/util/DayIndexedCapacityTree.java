@@ -0,0 +1,246 @@
+package uk.gov.dvla.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Segment tree of the remaining capacity of each day, indexed by epoch day, keeping the
+ * maximum remaining capacity of every node's days.
+ * Using up capacity on a day and finding the first day on or after another with a given
+ * amount of room both take O(log days).
+ * The covered days grow in either direction as capacity is used, up to MAX_DAYS; capacity used
+ * on days further out is kept in a sorted map, and those days are searched one by one.
+ * Days that were never used have all of their capacity left. This class is not thread-safe.
+ */
+public final class DayIndexedCapacityTree {
+
+    /**
+     * Returned by firstDayWithRoom when no day can ever have the room asked for.
+     */
+    public static final long NO_DAY = Long.MIN_VALUE;
+
+    /**
+     * Number of days covered when capacity is first used.
+     */
+    private static final int INITIAL_DAYS = 1024;
+
+    /**
+     * Most days the tree covers, about 180 years.
+     */
+    private static final int MAX_DAYS = 1 << 16;
+
+    /**
+     * Capacity of every day.
+     */
+    private final long capacity;
+    /**
+     * Epoch day held at leaf 0.
+     */
+    private long firstDay;
+    /**
+     * Number of covered days, a power of two, or 0 before capacity is first used.
+     */
+    private int days;
+    /**
+     * Maximum remaining capacity of each node's days, 1-based with the leaves from index days.
+     */
+    private long[] tree = new long[0];
+    /**
+     * Capacity used on days outside the covered ones that could not be covered without going over MAX_DAYS.
+     */
+    private final NavigableMap<Long, Long> uncoveredUsed = new TreeMap<>();
+
+    /**
+     * Constructor for DayIndexedCapacityTree class.
+     *
+     * @param capacity the capacity of every day
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public DayIndexedCapacityTree(long capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Uses up capacity on a day. The remaining capacity may go below zero.
+     *
+     * @param epochDay the day
+     * @param amount   the capacity to use, negative to give it back
+     */
+    public void use(long epochDay, long amount) {
+        if (!ensureCovers(epochDay)) {
+            uncoveredUsed.merge(epochDay, amount, (used, added) -> used + added == 0 ? null : used + added);
+            return;
+        }
+
+        int node = days + (int) (epochDay - firstDay);
+        tree[node] -= amount;
+        for (node >>= 1; node > 0; node >>= 1) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Returns the capacity left on a day.
+     *
+     * @param epochDay the day
+     * @return the remaining capacity
+     */
+    public long remaining(long epochDay) {
+        if (epochDay < firstDay || epochDay >= firstDay + days) {
+            return capacity - uncoveredUsed.getOrDefault(epochDay, 0L);
+        }
+        return tree[days + (int) (epochDay - firstDay)];
+    }
+
+    /**
+     * Finds the first day on or after a day with at least some capacity left.
+     *
+     * @param fromDay the first day to consider
+     * @param amount  the capacity needed
+     * @return the day, or NO_DAY if amount is more than the capacity of a day
+     */
+    public long firstDayWithRoom(long fromDay, long amount) {
+        if (amount > capacity) {
+            return NO_DAY;
+        }
+
+        long day = fromDay;
+        if (days > 0 && day < firstDay) {
+            long found = firstUncoveredDayWithRoom(day, firstDay, amount);
+            if (found != NO_DAY) {
+                return found;
+            }
+            day = firstDay;
+        }
+        if (days > 0 && day < firstDay + days) {
+            int leaf = find(1, 0, days - 1, (int) (day - firstDay), amount);
+            if (leaf >= 0) {
+                return firstDay + leaf;
+            }
+            day = firstDay + days;
+        }
+        return firstUncoveredDayWithRoom(day, Long.MAX_VALUE, amount);
+    }
+
+    /**
+     * Gives every day all of its capacity back.
+     */
+    public void clear() {
+        days = 0;
+        tree = new long[0];
+        uncoveredUsed.clear();
+    }
+
+    /**
+     * Finds the first day in a run of days outside the covered ones with at least some capacity left.
+     * Days without used capacity have all of it left, so only the used days in the run are skipped.
+     *
+     * @param fromDay the first day to consider
+     * @param toDay   the day after the last one to consider
+     * @param amount  the capacity needed, at most the capacity of a day
+     * @return the day, or NO_DAY if every day in the run has too little left
+     */
+    private long firstUncoveredDayWithRoom(long fromDay, long toDay, long amount) {
+        long day = fromDay;
+        for (Map.Entry<Long, Long> used : uncoveredUsed.subMap(fromDay, true, toDay, false).entrySet()) {
+            if (used.getKey() > day || capacity - used.getValue() >= amount) {
+                return day;
+            }
+            day = used.getKey() + 1;
+        }
+        return day < toDay ? day : NO_DAY;
+    }
+
+    /**
+     * Finds the first leaf at or after another whose remaining capacity is at least an amount,
+     * skipping every node whose maximum is too small.
+     *
+     * @param node   the node to search
+     * @param low    the first leaf under the node
+     * @param high   the last leaf under the node
+     * @param from   the first leaf to consider
+     * @param amount the capacity needed
+     * @return the leaf, or -1 if there is none under the node
+     */
+    private int find(int node, int low, int high, int from, long amount) {
+        if (high < from || tree[node] < amount) {
+            return -1;
+        }
+        if (low == high) {
+            return low;
+        }
+
+        int middle = (low + high) >>> 1;
+        int leaf = find(2 * node, low, middle, from, amount);
+        return leaf >= 0 ? leaf : find(2 * node + 1, middle + 1, high, from, amount);
+    }
+
+    /**
+     * Grows the covered days to include a day, rebuilding the tree if needed.
+     * Capacity used on uncovered days that the grown tree covers is moved into the tree.
+     *
+     * @param epochDay the day to cover
+     * @return true if the day is covered, false if covering it would need more than MAX_DAYS
+     */
+    private boolean ensureCovers(long epochDay) {
+        if (days == 0) {
+            firstDay = epochDay - INITIAL_DAYS / 2;
+            days = INITIAL_DAYS;
+            tree = new long[2 * days];
+            Arrays.fill(tree, capacity);
+            return true;
+        }
+
+        if (epochDay >= firstDay && epochDay < firstDay + days) {
+            return true;
+        }
+
+        // double until the day fits, growing towards the side it falls on
+        int length = days;
+        long newFirstDay = firstDay;
+        while (epochDay < newFirstDay || epochDay > newFirstDay + length - 1) {
+            if (length == MAX_DAYS) {
+                return false;
+            }
+            if (epochDay < newFirstDay) {
+                newFirstDay -= length;
+            }
+            length *= 2;
+        }
+
+        long[] newTree = new long[2 * length];
+        Arrays.fill(newTree, length, 2 * length, capacity);
+        System.arraycopy(tree, days, newTree, length + (int) (firstDay - newFirstDay), days);
+        absorbUncovered(newTree, newFirstDay, length);
+        for (int node = length - 1; node > 0; node--) {
+            newTree[node] = Math.max(newTree[2 * node], newTree[2 * node + 1]);
+        }
+        firstDay = newFirstDay;
+        days = length;
+        tree = newTree;
+        return true;
+    }
+
+    /**
+     * Moves the capacity used on uncovered days within a range of days into the leaves of a tree.
+     *
+     * @param newTree     the tree, whose inner nodes are rebuilt afterwards
+     * @param newFirstDay the epoch day held at its leaf 0
+     * @param length      the number of days it covers
+     */
+    private void absorbUncovered(long[] newTree, long newFirstDay, int length) {
+        if (uncoveredUsed.isEmpty()) {
+            return;
+        }
+        NavigableMap<Long, Long> covered = uncoveredUsed.subMap(newFirstDay, true, newFirstDay + length, false);
+        for (Map.Entry<Long, Long> used : covered.entrySet()) {
+            newTree[length + (int) (used.getKey() - newFirstDay)] -= used.getValue();
+        }
+        covered.clear();
+    }
+}
@@ -0,0 +1,166 @@
+package uk.gov.dvla.util;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Fenwick (binary indexed) tree of long values indexed by epoch day.
+ * Adding to a day and summing any range of days both take O(log days).
+ * The covered days grow in either direction as values are added, up to MAX_DAYS; days
+ * further out are kept in a sorted map and summed one by one. Days that were never
+ * added to count as zero. This class is not thread-safe.
+ */
+public final class DayIndexedFenwickTree {
+
+    /**
+     * Number of days covered when the first value is added.
+     */
+    private static final int INITIAL_DAYS = 1024;
+
+    /**
+     * Most days the tree covers, about 180 years.
+     */
+    private static final int MAX_DAYS = 1 << 16;
+
+    /**
+     * Epoch day held at index 0.
+     */
+    private long firstDay;
+    /**
+     * Value of each covered day, kept so the tree can be rebuilt when it grows.
+     */
+    private long[] values = new long[0];
+    /**
+     * Fenwick tree over values, 1-based.
+     */
+    private long[] tree = new long[1];
+    /**
+     * Values of days outside the covered ones that could not be covered without going over MAX_DAYS.
+     */
+    private final NavigableMap<Long, Long> uncoveredValues = new TreeMap<>();
+
+    /**
+     * Adds to the value of a day.
+     *
+     * @param epochDay the day
+     * @param delta    the amount to add, may be negative
+     */
+    public void add(long epochDay, long delta) {
+        if (!ensureCovers(epochDay)) {
+            uncoveredValues.merge(epochDay, delta, (value, added) -> value + added == 0 ? null : value + added);
+            return;
+        }
+
+        int index = (int) (epochDay - firstDay);
+        values[index] += delta;
+        for (int node = index + 1; node < tree.length; node += node & -node) {
+            tree[node] += delta;
+        }
+    }
+
+    /**
+     * Sums the values of a range of days.
+     *
+     * @param fromDay the first day, inclusive
+     * @param toDay   the last day, inclusive
+     * @return the sum of the values in the range
+     */
+    public long sum(long fromDay, long toDay) {
+        if (fromDay > toDay) {
+            return 0;
+        }
+
+        long sum = 0;
+        if (!uncoveredValues.isEmpty()) {
+            for (long value : uncoveredValues.subMap(fromDay, true, toDay, true).values()) {
+                sum += value;
+            }
+        }
+
+        long lastDay = firstDay + values.length - 1;
+        long from = Math.max(fromDay, firstDay);
+        long to = Math.min(toDay, lastDay);
+        if (from > to) {
+            return sum;
+        }
+
+        return sum + prefixSum((int) (to - firstDay) + 1) - prefixSum((int) (from - firstDay));
+    }
+
+    /**
+     * Sets every day back to zero.
+     */
+    public void clear() {
+        values = new long[0];
+        tree = new long[1];
+        uncoveredValues.clear();
+    }
+
+    /**
+     * Sums the values of the first days held.
+     *
+     * @param count the number of days from index 0 to sum
+     * @return the sum
+     */
+    private long prefixSum(int count) {
+        long sum = 0;
+        for (int node = count; node > 0; node -= node & -node) {
+            sum += tree[node];
+        }
+        return sum;
+    }
+
+    /**
+     * Grows the covered days to include a day, rebuilding the tree if needed.
+     *
+     * @param epochDay the day to cover
+     * @return true if the day is covered, false if covering it would need more than MAX_DAYS
+     */
+    private boolean ensureCovers(long epochDay) {
+        if (values.length == 0) {
+            firstDay = epochDay - INITIAL_DAYS / 2;
+            values = new long[INITIAL_DAYS];
+            tree = new long[INITIAL_DAYS + 1];
+            return true;
+        }
+
+        long lastDay = firstDay + values.length - 1;
+        if (epochDay >= firstDay && epochDay <= lastDay) {
+            return true;
+        }
+
+        // double until the day fits, growing towards the side it falls on
+        int length = values.length;
+        long newFirstDay = firstDay;
+        while (epochDay < newFirstDay || epochDay > newFirstDay + length - 1) {
+            if (length == MAX_DAYS) {
+                return false;
+            }
+            if (epochDay < newFirstDay) {
+                newFirstDay -= length;
+            }
+            length *= 2;
+        }
+
+        long[] newValues = new long[length];
+        System.arraycopy(values, 0, newValues, (int) (firstDay - newFirstDay), values.length);
+        firstDay = newFirstDay;
+        values = newValues;
+        rebuildTree();
+        return true;
+    }
+
+    /**
+     * Rebuilds the tree from the day values in O(days).
+     */
+    private void rebuildTree() {
+        tree = new long[values.length + 1];
+        for (int node = 1; node < tree.length; node++) {
+            tree[node] += values[node - 1];
+            int parent = node + (node & -node);
+            if (parent < tree.length) {
+                tree[parent] += tree[node];
+            }
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package uk.gov.dvla.util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Hash map from primitive int keys to objects.
+ * Keys and values are held in two parallel arrays with open addressing and linear probing,
+ * so lookups never box the key and there is no entry object per mapping.
+ * This class is not thread-safe.
+ *
+ * @param <V> the type of mapped values
+ */
+public final class IntObjectHashMap<V> {
+
+    /**
+     * Key marking an empty slot. A mapping for this key is held outside the arrays.
+     */
+    private static final int FREE_KEY = 0;
+    /**
+     * Fraction of slots that may be used before the arrays are doubled.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+    /**
+     * Smallest number of slots the arrays will have.
+     */
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * Slot keys, FREE_KEY for an empty slot.
+     */
+    private int[] keys;
+    /**
+     * Slot values, parallel to keys.
+     */
+    private Object[] values;
+    /**
+     * Number of slots minus one, used to wrap slot indexes.
+     */
+    private int mask;
+    /**
+     * Number of mappings held in the arrays at which the arrays are doubled.
+     */
+    private int resizeAt;
+    /**
+     * Number of mappings, including any mapping for FREE_KEY.
+     */
+    private int size;
+    /**
+     * Whether there is a mapping for FREE_KEY.
+     */
+    private boolean hasFreeKey;
+    /**
+     * The value mapped to FREE_KEY.
+     */
+    private V freeKeyValue;
+    /**
+     * Number of structural changes, used to fail fast in iterators.
+     */
+    private int modCount;
+
+    /**
+     * Constructor for IntObjectHashMap class.
+     */
+    public IntObjectHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Constructor for IntObjectHashMap class.
+     *
+     * @param expectedSize the number of mappings to size the map for
+     */
+    public IntObjectHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the value mapped to a key.
+     *
+     * @param key the key
+     * @return the mapped value, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeKeyValue : null;
+        }
+
+        int[] keys = this.keys;
+        int slot = slot(key);
+        int current;
+        while ((current = keys[slot]) != FREE_KEY) {
+            if (current == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Checks if there is a mapping for a key.
+     *
+     * @param key the key
+     * @return true if the key is mapped
+     */
+    public boolean containsKey(int key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey;
+        }
+        return keys[findSlot(key)] == key;
+    }
+
+    /**
+     * Maps a key to a value, replacing any existing mapping.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the previously mapped value, or null if there was none
+     */
+    public V put(int key, V value) {
+        return put(key, value, false);
+    }
+
+    /**
+     * Maps a key to a value unless the key is already mapped.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the existing mapped value, or null if the value was put
+     */
+    public V putIfAbsent(int key, V value) {
+        return put(key, value, true);
+    }
+
+    /**
+     * Removes the mapping for a key.
+     *
+     * @param key the key
+     * @return the removed value, or null if the key was not mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                return null;
+            }
+            V previous = freeKeyValue;
+            hasFreeKey = false;
+            freeKeyValue = null;
+            size--;
+            modCount++;
+            return previous;
+        }
+
+        int slot = findSlot(key);
+        if (keys[slot] != key) {
+            return null;
+        }
+
+        V previous = (V) values[slot];
+        closeGap(slot);
+        size--;
+        modCount++;
+        return previous;
+    }
+
+    /**
+     * Returns the number of mappings.
+     *
+     * @return the number of mappings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the map has no mappings.
+     *
+     * @return true if there are no mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all mappings.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        Arrays.fill(values, null);
+        hasFreeKey = false;
+        freeKeyValue = null;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns a view of the mapped values. The view reflects later changes to the map
+     * and its iterator fails fast if the map is changed during iteration.
+     *
+     * @return the mapped values
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Maps a key to a value.
+     *
+     * @param key          the key
+     * @param value        the value
+     * @param onlyIfAbsent whether to keep an existing mapping
+     * @return the previously mapped value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    private V put(int key, V value, boolean onlyIfAbsent) {
+        if (key == FREE_KEY) {
+            V previous = freeKeyValue;
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+                modCount++;
+            } else if (onlyIfAbsent) {
+                return previous;
+            }
+            freeKeyValue = value;
+            return previous;
+        }
+
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            V previous = (V) values[slot];
+            if (!onlyIfAbsent) {
+                values[slot] = value;
+            }
+            return previous;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        modCount++;
+        if (size - (hasFreeKey ? 1 : 0) > resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the slot holding a key, or the empty slot where it would be put.
+     *
+     * @param key the key, not FREE_KEY
+     * @return the slot index
+     */
+    private int findSlot(int key) {
+        int slot = slot(key);
+        int current;
+        while ((current = keys[slot]) != FREE_KEY && current != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the home slot of a key.
+     *
+     * @param key the key
+     * @return the slot index the probe sequence starts from
+     */
+    private int slot(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Empties a slot and shifts later entries of the probe sequence back into the gap,
+     * so that lookups never need tombstones.
+     *
+     * @param gap the slot to empty
+     */
+    private void closeGap(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int key = keys[slot];
+            if (key == FREE_KEY) {
+                break;
+            }
+
+            int home = slot(key);
+            // move the entry back unless its home slot lies cyclically between the gap and its slot
+            boolean homeAfterGap = gap <= slot ? (gap < home && home <= slot) : (gap < home || home <= slot);
+            if (!homeAfterGap) {
+                keys[gap] = key;
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = FREE_KEY;
+        values[gap] = null;
+    }
+
+    /**
+     * Moves every mapping into new arrays.
+     *
+     * @param capacity the new number of slots, a power of two
+     */
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != FREE_KEY) {
+                int slot = findSlot(key);
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Allocates empty arrays.
+     *
+     * @param capacity the number of slots, a power of two
+     */
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+    }
+
+    /**
+     * Returns the number of slots needed to hold a number of mappings.
+     *
+     * @param expectedSize the number of mappings
+     * @return a power of two number of slots
+     */
+    private static int capacityFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) Math.ceil(expectedSize / (double) LOAD_FACTOR) + 1);
+        if (needed > 1 << 30) {
+            throw new IllegalArgumentException("Too many mappings: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    /**
+     * Iterator over the mapped values.
+     */
+    private final class ValueIterator implements Iterator<V> {
+
+        /**
+         * Value of modCount when the iterator was created.
+         */
+        private final int expectedModCount = modCount;
+        /**
+         * Next slot to look at, -1 for the FREE_KEY mapping.
+         */
+        private int next = hasFreeKey ? -1 : 0;
+
+        @Override
+        public boolean hasNext() {
+            if (next == -1) {
+                return true;
+            }
+            while (next < keys.length && keys[next] == FREE_KEY) {
+                next++;
+            }
+            return next < keys.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (next == -1) {
+                next = 0;
+                return freeKeyValue;
+            }
+            return (V) values[next++];
+        }
+    }
+}
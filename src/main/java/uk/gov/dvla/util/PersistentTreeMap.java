@@ -0,0 +1,364 @@
+package uk.gov.dvla.util;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable sorted map kept as an AVL tree, where put and remove return a new map and leave this one unchanged.
+ * A new map copies only the O(log n) nodes on the path to the changed key and shares every other node with
+ * the map it came from, so keeping old versions costs memory only for what changed since. A version no longer
+ * referenced is garbage collected like any other object, apart from the nodes newer versions still share.
+ * Each node also holds the size of its subtree, so counting the keys in a range takes O(log n).
+ * Instances are immutable and so thread-safe, as long as the keys and values are not changed.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of mapped values
+ */
+public final class PersistentTreeMap<K, V> {
+
+    private final Comparator<? super K> comparator;
+    /**
+     * Root of the tree, null for an empty map.
+     */
+    private final Node<K, V> root;
+
+    private PersistentTreeMap(Comparator<? super K> comparator, Node<K, V> root) {
+        this.comparator = comparator;
+        this.root = root;
+    }
+
+    /**
+     * Returns an empty map ordering its keys by their natural order.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of mapped values
+     * @return an empty map
+     */
+    public static <K extends Comparable<? super K>, V> PersistentTreeMap<K, V> empty() {
+        return new PersistentTreeMap<>(Comparator.naturalOrder(), null);
+    }
+
+    /**
+     * Returns an empty map ordering its keys with a comparator.
+     *
+     * @param comparator the key order
+     * @param <K>        the type of keys
+     * @param <V>        the type of mapped values
+     * @return an empty map
+     */
+    public static <K, V> PersistentTreeMap<K, V> empty(Comparator<? super K> comparator) {
+        return new PersistentTreeMap<>(comparator, null);
+    }
+
+    /**
+     * Returns the number of mappings.
+     *
+     * @return the number of mappings
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Checks if there are no mappings.
+     *
+     * @return true if the map is empty
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Returns the value mapped to a key.
+     *
+     * @param key the key
+     * @return the value, or null if there is no mapping for the key
+     */
+    public V get(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int compared = comparator.compare(key, node.key);
+            if (compared == 0) {
+                return node.value;
+            }
+            node = compared < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Returns a map with a key mapped to a value, replacing any value it was mapped to.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the new map
+     */
+    public PersistentTreeMap<K, V> put(K key, V value) {
+        return new PersistentTreeMap<>(comparator, put(root, key, value));
+    }
+
+    /**
+     * Returns a map without any mapping for a key.
+     *
+     * @param key the key
+     * @return the new map, or this map if there was no mapping for the key
+     */
+    public PersistentTreeMap<K, V> remove(K key) {
+        Node<K, V> removed = remove(root, key);
+        return removed == root ? this : new PersistentTreeMap<>(comparator, removed);
+    }
+
+    /**
+     * Counts the keys within a range.
+     *
+     * @param fromKey       the low end of the range
+     * @param fromInclusive whether a key equal to fromKey is counted
+     * @param toKey         the high end of the range
+     * @param toInclusive   whether a key equal to toKey is counted
+     * @return the number of keys within the range
+     */
+    public int countBetween(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return Math.max(0, countBelow(toKey, toInclusive) - countBelow(fromKey, !fromInclusive));
+    }
+
+    /**
+     * Returns an iterator over every value in key order.
+     *
+     * @return the iterator
+     */
+    public Iterator<V> valueIterator() {
+        return new ValueIterator<>(comparator, root, null, false, null, false);
+    }
+
+    /**
+     * Returns an iterator over the values of the keys within a range, in key order.
+     * Only the nodes on the path to the first key are visited up front.
+     *
+     * @param fromKey       the low end of the range
+     * @param fromInclusive whether the value of a key equal to fromKey is included
+     * @param toKey         the high end of the range
+     * @param toInclusive   whether the value of a key equal to toKey is included
+     * @return the iterator
+     */
+    public Iterator<V> valueIterator(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return new ValueIterator<>(comparator, root, fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    /**
+     * Counts the keys below a key.
+     *
+     * @param key       the key
+     * @param inclusive whether a key equal to key is counted
+     * @return the number of keys below it
+     */
+    private int countBelow(K key, boolean inclusive) {
+        int count = 0;
+        Node<K, V> node = root;
+        while (node != null) {
+            int compared = comparator.compare(node.key, key);
+            if (compared < 0 || (compared == 0 && inclusive)) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    private Node<K, V> put(Node<K, V> node, K key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null);
+        }
+
+        int compared = comparator.compare(key, node.key);
+        if (compared < 0) {
+            return balance(node.key, node.value, put(node.left, key, value), node.right);
+        }
+        if (compared > 0) {
+            return balance(node.key, node.value, node.left, put(node.right, key, value));
+        }
+        return new Node<>(key, value, node.left, node.right);
+    }
+
+    /**
+     * Removes a key from a subtree.
+     *
+     * @param node the root of the subtree
+     * @param key  the key
+     * @return the new root of the subtree, or node itself if the key was not in it
+     */
+    private Node<K, V> remove(Node<K, V> node, K key) {
+        if (node == null) {
+            return null;
+        }
+
+        int compared = comparator.compare(key, node.key);
+        if (compared < 0) {
+            Node<K, V> left = remove(node.left, key);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        }
+        if (compared > 0) {
+            Node<K, V> right = remove(node.right, key);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        // replace the node with the smallest key of its right subtree
+        Node<K, V> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.key, successor.value, node.left, removeFirst(node.right));
+    }
+
+    private Node<K, V> removeFirst(Node<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.key, node.value, removeFirst(node.left), node.right);
+    }
+
+    /**
+     * Creates a node from two subtrees whose heights differ by at most two, rotating to keep it balanced.
+     *
+     * @param key   the node's key
+     * @param value the node's value
+     * @param left  the left subtree
+     * @param right the right subtree
+     * @return the root of the balanced subtree
+     */
+    private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+            }
+            Node<K, V> middle = left.right;
+            return new Node<>(middle.key, middle.value,
+                    new Node<>(left.key, left.value, left.left, middle.left),
+                    new Node<>(key, value, middle.right, right));
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+            }
+            Node<K, V> middle = right.left;
+            return new Node<>(middle.key, middle.value,
+                    new Node<>(key, value, left, middle.left),
+                    new Node<>(right.key, right.value, middle.right, right.right));
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Tree node. Never changed once created, so it can be shared between versions.
+     */
+    private static final class Node<K, V> {
+
+        private final K key;
+        private final V value;
+        private final Node<K, V> left;
+        private final Node<K, V> right;
+        private final int height;
+        /**
+         * Number of nodes in this subtree.
+         */
+        private final int size;
+
+        private Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    /**
+     * In-order iterator holding the path to the next node on a stack.
+     */
+    private static final class ValueIterator<K, V> implements Iterator<V> {
+
+        private final Comparator<? super K> comparator;
+        private final Deque<Node<K, V>> path = new ArrayDeque<>();
+        /**
+         * High end of the range, or null for no high end.
+         */
+        private final K toKey;
+        private final boolean toInclusive;
+        private Node<K, V> next;
+
+        private ValueIterator(Comparator<? super K> comparator, Node<K, V> root,
+                              K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            this.comparator = comparator;
+            this.toKey = toKey;
+            this.toInclusive = toInclusive;
+
+            // push the path to the first key in range; nodes below the range are passed over
+            Node<K, V> node = root;
+            while (node != null) {
+                int compared = fromKey == null ? 1 : comparator.compare(node.key, fromKey);
+                if (compared > 0 || (compared == 0 && fromInclusive)) {
+                    path.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public V next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            V value = next.value;
+            advance();
+            return value;
+        }
+
+        private void advance() {
+            Node<K, V> node = path.poll();
+            if (node == null) {
+                next = null;
+                return;
+            }
+            if (toKey != null) {
+                int compared = comparator.compare(node.key, toKey);
+                if (compared > 0 || (compared == 0 && !toInclusive)) {
+                    next = null;
+                    path.clear();
+                    return;
+                }
+            }
+
+            next = node;
+            for (Node<K, V> child = node.right; child != null; child = child.left) {
+                path.push(child);
+            }
+        }
+    }
+}
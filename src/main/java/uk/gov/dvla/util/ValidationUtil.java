@@ -2,17 +2,22 @@ package uk.gov.dvla.util;
 
 import uk.gov.dvla.model.Booking;
 import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.ErrorCode;
+import uk.gov.dvla.model.Result;
 import uk.gov.dvla.model.exception.*;
 
 import java.time.LocalDate;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * Utility class for validation operations.
  */
 public final class ValidationUtil {
 
+    private static final Result<Void> NULL_CUSTOMER = Result.error(ErrorCode.NULL_ARGUMENT, "Customer cannot be null");
+    private static final Result<Void> NULL_BOOKING = Result.error(ErrorCode.NULL_ARGUMENT, "booking cannot be null");
+    private static final Result<Void> INVALID_PAGE_LIMIT = Result.error(ErrorCode.INVALID_ARGUMENT, "Page limit must be at least 1");
+
     /**
      * Checks if an object is already present in the HashMap.
      *
@@ -29,6 +34,41 @@ public final class ValidationUtil {
         }
     }
 
+    /**
+     * Puts an object into the Map unless its key is already present.
+     * The check and the put are a single atomic step on a ConcurrentMap.
+     *
+     * @param <T>          the type of object
+     * @param map          the Map to put into
+     * @param key          the key to put the object under
+     * @param value        the object to put
+     * @param errorMessage the error message for the object type
+     */
+    public static <T> void putIfAbsentInMap(Map<Integer, T> map, int key,
+                                            T value, String errorMessage) {
+        if (map.putIfAbsent(key, value) != null) {
+            throw new DuplicateEntityException("Duplicate "
+                    + errorMessage + " not allowed");
+        }
+    }
+
+    /**
+     * Puts an object into the IntObjectHashMap unless its key is already present.
+     *
+     * @param <T>          the type of object
+     * @param map          the IntObjectHashMap to put into
+     * @param key          the key to put the object under
+     * @param value        the object to put
+     * @param errorMessage the error message for the object type
+     */
+    public static <T> void putIfAbsentInMap(IntObjectHashMap<T> map, int key,
+                                            T value, String errorMessage) {
+        if (map.putIfAbsent(key, value) != null) {
+            throw new DuplicateEntityException("Duplicate "
+                    + errorMessage + " not allowed");
+        }
+    }
+
     /**
      * Checks if an object is not null.
      *
@@ -38,7 +78,9 @@ public final class ValidationUtil {
      */
     public static <T> void checkObjectIsNotNull(final T object,
                                                 final String objectName) {
-        Objects.requireNonNull(object, objectName + " cannot be null");
+        if (object == null) {
+            throw new NullArgumentException(objectName + " cannot be null");
+        }
     }
 
     /**
@@ -47,10 +89,17 @@ public final class ValidationUtil {
      * @param date the date to check
      */
     public static void checkDateNotInPast(final LocalDate date) {
-        if (date != null && date.isBefore(LocalDate.now())) {
-            throw new BookingDateInThePastException(
-                    "Booking date cannot be in the past");
-        }
+        checkDateNotInPast(date, CachedToday.SYSTEM.get());
+    }
+
+    /**
+     * Checks if the date is not before a given today, so a batch can be checked against one date.
+     *
+     * @param date  the date to check
+     * @param today the date to treat as today
+     */
+    public static void checkDateNotInPast(final LocalDate date, final LocalDate today) {
+        validateDateNotInPast(date, today).orElseThrow();
     }
 
     /**
@@ -60,8 +109,28 @@ public final class ValidationUtil {
      * @param endDate   the end date
      */
     public static void checkStartDateIsBeforeEndDate(final LocalDate startDate, final LocalDate endDate) {
-        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
-            throw new InvalidDateRangeException("Start date cannot be after end date");
+        validateStartDateIsBeforeEndDate(startDate, endDate).orElseThrow();
+    }
+
+    /**
+     * Checks if a page limit asks for at least one record.
+     *
+     * @param limit the page limit to check
+     */
+    public static void checkPageLimit(final int limit) {
+        validatePageLimit(limit).orElseThrow();
+    }
+
+    /**
+     * Checks that a customer id can be stored. Ids below 1 are reserved for CustomerDAO.NO_CUSTOMER
+     * and CustomerDAO.MULTIPLE_CUSTOMERS, so a stored customer can never be mistaken for either.
+     *
+     * @param customerId the customer id to check
+     * @throws InvalidCustomerException if customerId is less than 1
+     */
+    public static void checkStorableCustomerId(final int customerId) {
+        if (customerId < 1) {
+            throw new InvalidCustomerException("Invalid customer data");
         }
     }
 
@@ -71,10 +140,7 @@ public final class ValidationUtil {
      * @param customer the customer object to check
      */
     public static void checkValidCustomerObject(Customer customer) {
-        checkObjectIsNotNull(customer, "Customer");
-        if (customer.getId() < 1 || customer.getWindows() < 1 || customer.getName() == null) {
-            throw new InvalidCustomerException("Invalid customer data");
-        }
+        validateCustomer(customer).orElseThrow();
     }
 
     /**
@@ -83,11 +149,91 @@ public final class ValidationUtil {
      * @param booking the booking object to check
      */
     public static void checkValidBookingObject(Booking booking) {
-        checkObjectIsNotNull(booking, "booking");
-        checkDateNotInPast(booking.getBookingDate());
+        checkValidBookingObject(booking, CachedToday.SYSTEM.get());
+    }
+
+    /**
+     * Checks if the booking object is valid against a given today.
+     *
+     * @param booking the booking object to check
+     * @param today   the date to treat as today
+     */
+    public static void checkValidBookingObject(Booking booking, LocalDate today) {
+        validateBooking(booking, today).orElseThrow();
+    }
+
+    /**
+     * Validates that the date is not before a given today, without throwing.
+     *
+     * @param date  the date to check, where null passes
+     * @param today the date to treat as today
+     * @return a successful result, or BOOKING_DATE_IN_THE_PAST
+     */
+    public static Result<Void> validateDateNotInPast(final LocalDate date, final LocalDate today) {
+        if (date != null && date.isBefore(today)) {
+            return Result.error(ErrorCode.BOOKING_DATE_IN_THE_PAST);
+        }
+        return Result.ok();
+    }
+
+    /**
+     * Validates that the start date is not after the end date, without throwing.
+     *
+     * @param startDate the start date, where null passes
+     * @param endDate   the end date, where null passes
+     * @return a successful result, or INVALID_DATE_RANGE
+     */
+    public static Result<Void> validateStartDateIsBeforeEndDate(final LocalDate startDate, final LocalDate endDate) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            return Result.error(ErrorCode.INVALID_DATE_RANGE);
+        }
+        return Result.ok();
+    }
 
+    /**
+     * Validates that a page limit asks for at least one record, without throwing.
+     *
+     * @param limit the page limit to check
+     * @return a successful result, or INVALID_ARGUMENT
+     */
+    public static Result<Void> validatePageLimit(final int limit) {
+        return limit < 1 ? INVALID_PAGE_LIMIT : Result.ok();
+    }
+
+    /**
+     * Validates the customer object, without throwing.
+     *
+     * @param customer the customer object to check
+     * @return a successful result, or NULL_ARGUMENT or INVALID_CUSTOMER
+     */
+    public static Result<Void> validateCustomer(Customer customer) {
+        if (customer == null) {
+            return NULL_CUSTOMER;
+        }
+        if (customer.getId() < 1 || customer.getWindows() < 1 || customer.getName() == null) {
+            return Result.error(ErrorCode.INVALID_CUSTOMER);
+        }
+        return Result.ok();
+    }
+
+    /**
+     * Validates the booking object against a given today, without throwing.
+     *
+     * @param booking the booking object to check
+     * @param today   the date to treat as today
+     * @return a successful result, or NULL_ARGUMENT, BOOKING_DATE_IN_THE_PAST or INVALID_BOOKING
+     */
+    public static Result<Void> validateBooking(Booking booking, LocalDate today) {
+        if (booking == null) {
+            return NULL_BOOKING;
+        }
+        Result<Void> dateCheck = validateDateNotInPast(booking.getBookingDate(), today);
+        if (!dateCheck.isOk()) {
+            return dateCheck;
+        }
         if (booking.getId() < 1 || booking.getCustomerId() < 1 || booking.getBookingDate() == null) {
-            throw new InvalidBookingException("Invalid customer data");
+            return Result.error(ErrorCode.INVALID_BOOKING);
         }
+        return Result.ok();
     }
 }
@@ -0,0 +1,174 @@
+package uk.gov.dvla.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.model.exception.CapacityExceededException;
+import uk.gov.dvla.model.exception.CustomerNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.model.exception.InvalidBookingException;
+import uk.gov.dvla.model.exception.MultipleCustomerFoundException;
+import uk.gov.dvla.model.exception.NullArgumentException;
+import uk.gov.dvla.persistence.ConcurrentBookingDAOImpl;
+import uk.gov.dvla.persistence.ConcurrentCustomerDAOImpl;
+import uk.gov.dvla.service.ServiceOptions;
+import uk.gov.dvla.service.WindowCleaningServiceImpl;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingHttpServerTest {
+
+    /**
+     * Clock fixed before the booking dates used here, so that they are not in the past.
+     */
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private BookingHttpServer server;
+
+    @BeforeAll
+    public static void setUpServerOptions() {
+        // BookingHttpServer leaves TCP_NODELAY to the launcher
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        WindowCleaningServiceImpl service = new WindowCleaningServiceImpl(new ConcurrentBookingDAOImpl(), new ConcurrentCustomerDAOImpl(),
+                ServiceOptions.builder().clock(CLOCK).build());
+        service.addCustomer(new Customer(1, "John", 10));
+        service.addCustomer(new Customer(2, "Paul", 5));
+        service.addBooking(new Booking(1, 1, LocalDate.of(2026, 1, 10)));
+        service.addBooking(new Booking(2, 2, LocalDate.of(2026, 1, 10)));
+        service.addBooking(new Booking(3, 2, LocalDate.of(2026, 1, 12)));
+
+        server = BookingHttpServer.start(service, new InetSocketAddress("localhost", 0));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    // ========== customer routes Tests ==========
+
+    @Test
+    public void postCustomer_ValidCustomer_ReturnsCreated() throws Exception {
+        HttpResponse<String> response = send("POST", "/customers", "{\"id\":3,\"name\":\"Ringo\",\"windows\":12}");
+
+        assertEquals(201, response.statusCode());
+        assertEquals("{\"id\":3,\"name\":\"Ringo\",\"windows\":12}", send("GET", "/customers/3", null).body());
+    }
+
+    @Test
+    public void postCustomer_DuplicateId_ReturnsConflict() throws Exception {
+        HttpResponse<String> response = send("POST", "/customers", "{\"id\":1,\"name\":\"Ringo\",\"windows\":12}");
+
+        assertEquals(409, response.statusCode());
+        assertEquals("{\"error\":\"Duplicate Customer not allowed\"}", response.body());
+    }
+
+    @Test
+    public void getCustomer_UnknownId_ReturnsNotFound() throws Exception {
+        HttpResponse<String> response = send("GET", "/customers/99", null);
+
+        assertEquals(404, response.statusCode());
+        assertEquals("{\"error\":\"Customer not found\"}", response.body());
+    }
+
+    @Test
+    public void getCustomerByName_ExistingName_ReturnsId() throws Exception {
+        assertEquals("{\"id\":2}", send("GET", "/customers?name=Paul", null).body());
+    }
+
+    @Test
+    public void putWindows_ExistingCustomer_ReturnsUpdatedCustomer() throws Exception {
+        HttpResponse<String> response = send("PUT", "/customers/1/windows", "{\"windows\":20}");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"id\":1,\"name\":\"John\",\"windows\":20}", response.body());
+    }
+
+    @Test
+    public void getNextAvailableDate_NoCapacity_ReturnsFromDate() throws Exception {
+        assertEquals("{\"date\":\"2026-01-10\"}", send("GET", "/customers/1/next-available-date?from=2026-01-10", null).body());
+        assertEquals(400, send("GET", "/customers/1/next-available-date", null).statusCode());
+    }
+
+    // ========== booking routes Tests ==========
+
+    @Test
+    public void postBooking_MalformedBody_ReturnsBadRequest() throws Exception {
+        assertEquals(400, send("POST", "/bookings", "{\"id\":4,").statusCode());
+        assertEquals(400, send("POST", "/bookings", "{\"id\":4,\"customerId\":1,\"date\":\"tomorrow\"}").statusCode());
+        assertEquals(400, send("POST", "/bookings", "{\"id\":4,\"customerId\":1}").statusCode());
+    }
+
+    @Test
+    public void getBookingsForDate_ExistingDate_ReturnsBookingsInIdOrder() throws Exception {
+        HttpResponse<String> response = send("GET", "/bookings?date=2026-01-10", null);
+
+        assertEquals("[{\"id\":1,\"customerId\":1,\"date\":\"2026-01-10\"},{\"id\":2,\"customerId\":2,\"date\":\"2026-01-10\"}]",
+                response.body());
+    }
+
+    @Test
+    public void getBookingsPage_LimitSmallerThanBookings_ReturnsNextCursor() throws Exception {
+        HttpResponse<String> first = send("GET", "/bookings?limit=2", null);
+        HttpResponse<String> second = send("GET", "/bookings?limit=2&afterDate=2026-01-10&afterId=2", null);
+
+        assertTrue(first.body().endsWith("\"next\":{\"date\":\"2026-01-10\",\"id\":2}}"));
+        assertEquals("{\"bookings\":[{\"id\":3,\"customerId\":2,\"date\":\"2026-01-12\"}],\"next\":null}", second.body());
+    }
+
+    @Test
+    public void putBookingDate_ExistingBooking_MovesBooking() throws Exception {
+        send("PUT", "/bookings/1/date", "{\"date\":\"2026-01-12\"}");
+
+        assertEquals("{\"windows\":15}", send("GET", "/totals/windows?date=2026-01-12", null).body());
+        assertEquals("{\"cost\":10}", send("GET", "/totals/cost?from=2026-01-10&to=2026-01-10", null).body());
+    }
+
+    @Test
+    public void unknownPath_AnyMethod_ReturnsNotFound() throws Exception {
+        assertEquals(404, send("GET", "/invoices", null).statusCode());
+        assertEquals(404, send("DELETE", "/bookings/1", null).statusCode());
+    }
+
+    // ========== statusFor() Tests ==========
+
+    @Test
+    public void statusFor_ServiceExceptions_MapsToStatus() {
+        assertEquals(404, BookingHttpServer.statusFor(new CustomerNotFoundException("No customer found")));
+        assertEquals(404, BookingHttpServer.statusFor(new BookingNotFoundException("No booking found")));
+        assertEquals(409, BookingHttpServer.statusFor(new DuplicateEntityException("Duplicate Booking not allowed")));
+        assertEquals(409, BookingHttpServer.statusFor(new MultipleCustomerFoundException("Multiple customers found")));
+        assertEquals(409, BookingHttpServer.statusFor(new CapacityExceededException("Daily window capacity exceeded")));
+        assertEquals(400, BookingHttpServer.statusFor(new InvalidBookingException("Invalid booking data")));
+        assertEquals(400, BookingHttpServer.statusFor(new NullArgumentException("Customer cannot be null")));
+        assertEquals(500, BookingHttpServer.statusFor(new NullPointerException()));
+        assertEquals(500, BookingHttpServer.statusFor(new IllegalStateException()));
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
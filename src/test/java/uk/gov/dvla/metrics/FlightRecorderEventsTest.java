@@ -0,0 +1,156 @@
+package uk.gov.dvla.metrics;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.CustomerNotFoundException;
+import uk.gov.dvla.persistence.ColumnarBookingDAOImpl;
+import uk.gov.dvla.persistence.CustomerDAOImpl;
+import uk.gov.dvla.service.ServiceOptions;
+import uk.gov.dvla.service.WindowCleaningService;
+import uk.gov.dvla.service.WindowCleaningServiceImpl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderEventsTest {
+
+    /**
+     * Clock fixed before the booking dates used here, so that they are not in the past.
+     */
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private static final LocalDate DATE = LocalDate.now(CLOCK).plusYears(1).plusDays(9);
+
+    private MetricsRegistry registry;
+    private WindowCleaningService service;
+    private Recording recording;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new MetricsRegistry("jfr-test", 1);
+        service = new InstrumentedWindowCleaningService(new WindowCleaningServiceImpl(
+                new InstrumentedBookingDAO(new ColumnarBookingDAOImpl(), registry),
+                new InstrumentedCustomerDAO(new CustomerDAOImpl(), registry),
+                ServiceOptions.builder().clock(CLOCK).build()), registry);
+
+        service.addCustomer(new Customer(1, "John", 10));
+        service.addCustomer(new Customer(2, "Paul", 5));
+        service.addBooking(new Booking(1, 1, DATE));
+        service.addBooking(new Booking(2, 2, DATE));
+        service.addBooking(new Booking(3, 2, DATE.plusDays(1)));
+
+        recording = new Recording();
+        recording.enable("uk.gov.dvla.ServiceCall").withoutThreshold();
+        recording.enable("uk.gov.dvla.BookingQuery").withoutThreshold();
+        recording.enable("uk.gov.dvla.CustomerQuery").withoutThreshold();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        recording.close();
+        registry.close();
+    }
+
+    // ========== service call events Tests ==========
+
+    @Test
+    public void getAllBookingsForDateRange_Recording_CommitsServiceCallWithDatesAndResultSize() throws IOException {
+        recording.start();
+        service.getAllBookingsForDateRange(DATE, DATE.plusDays(21));
+
+        RecordedEvent event = single(stop("uk.gov.dvla.ServiceCall"));
+        assertEquals("getAllBookingsForDateRange", event.getString("operation"));
+        assertEquals(DATE.toString(), event.getString("startDate"));
+        assertEquals(DATE.plusDays(21).toString(), event.getString("endDate"));
+        assertEquals(3, event.getInt("resultSize"));
+        assertNull(event.getString("failure"));
+    }
+
+    @Test
+    public void getCustomer_NotFound_CommitsServiceCallWithFailure() throws IOException {
+        recording.start();
+        assertThrows(CustomerNotFoundException.class, () -> service.getCustomer(99));
+
+        RecordedEvent event = single(stop("uk.gov.dvla.ServiceCall"));
+        assertEquals("getCustomer", event.getString("operation"));
+        assertEquals(-1, event.getInt("resultSize"));
+        assertEquals("CustomerNotFoundException", event.getString("failure"));
+    }
+
+    // ========== query events Tests ==========
+
+    @Test
+    public void findByCustomerId_ColumnScan_CommitsBookingQueryWithRowsExamined() throws IOException {
+        recording.start();
+        service.getAllBookingsForCustomerId(1);
+
+        RecordedEvent event = single(stop("uk.gov.dvla.BookingQuery").stream()
+                .filter(e -> e.getString("operation").equals("findByCustomerId"))
+                .collect(Collectors.toList()));
+        assertEquals(1, event.getInt("resultSize"));
+        assertEquals(3, event.getLong("rowsExamined"));
+    }
+
+    @Test
+    public void streamByDateRange_Consumed_CommitsBookingQueryWithElementCount() throws IOException {
+        recording.start();
+        List<Booking> bookings = service.streamBookingsForDateRange(DATE, DATE).collect(Collectors.toList());
+
+        RecordedEvent event = single(stop("uk.gov.dvla.BookingQuery"));
+        assertEquals("streamByDateRange", event.getString("operation"));
+        assertEquals(bookings.size(), event.getInt("resultSize"));
+        assertEquals(2, event.getLong("rowsExamined"));
+    }
+
+    @Test
+    public void findById_Recording_CommitsCustomerQuery() throws IOException {
+        recording.start();
+        service.getCustomer(1);
+
+        RecordedEvent event = single(stop("uk.gov.dvla.CustomerQuery"));
+        assertEquals("findById", event.getString("operation"));
+        assertEquals(1, event.getInt("resultSize"));
+        assertEquals(1, event.getLong("rowsExamined"));
+    }
+
+    @Test
+    public void getCustomer_NotRecording_CommitsNothing() throws IOException {
+        service.getCustomer(1);
+        recording.start();
+
+        assertTrue(stop("uk.gov.dvla.ServiceCall").isEmpty());
+    }
+
+    private List<RecordedEvent> stop(String eventName) throws IOException {
+        recording.stop();
+        Path file = tempDir.resolve("recording.jfr");
+        recording.dump(file);
+
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(eventName))
+                .collect(Collectors.toList());
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events) {
+        assertEquals(1, events.size());
+        return events.get(0);
+    }
+}
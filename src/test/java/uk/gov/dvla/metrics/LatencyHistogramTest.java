@@ -0,0 +1,78 @@
+package uk.gov.dvla.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    // ========== getPercentile() Tests ==========
+
+    @Test
+    public void getPercentile_UniformValues_WithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(50_000_000, histogram.getPercentile(0.50), 50_000_000 * 0.125);
+        assertEquals(99_000_000, histogram.getPercentile(0.99), 99_000_000 * 0.125);
+        assertEquals(99_900_000, histogram.getPercentile(0.999), 99_900_000 * 0.125);
+        assertEquals(100_000_000, histogram.getMax());
+    }
+
+    @Test
+    public void getPercentile_NoValues_ReturnsZero() {
+        assertEquals(0, new LatencyHistogram().getPercentile(0.99));
+    }
+
+    @Test
+    public void getPercentile_NeverAboveMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_001);
+
+        assertEquals(1_000_001, histogram.getPercentile(1.0));
+    }
+
+    // ========== bucketOf() Tests ==========
+
+    @Test
+    public void bucketOf_EveryMagnitude_UpperBoundCoversValue() {
+        for (int shift = 0; shift < 63; shift++) {
+            for (long value : new long[]{1L << shift, (1L << shift) + ((1L << shift) >>> 1), (1L << shift) * 2 - 1}) {
+                int bucket = LatencyHistogram.bucketOf(value);
+                assertTrue(LatencyHistogram.upperBoundOf(bucket) >= value);
+                assertTrue(bucket == 0 || LatencyHistogram.upperBoundOf(bucket - 1) < value);
+            }
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+    }
+
+    // ========== record() Tests ==========
+
+    @Test
+    public void record_ConcurrentThreads_CountsEveryValue() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Future<?>[] tasks = new Future<?>[4];
+        for (int t = 0; t < tasks.length; t++) {
+            tasks[t] = executor.submit(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        executor.shutdown();
+
+        assertEquals(400_000, histogram.getCount());
+        assertEquals(99_999, histogram.getMax());
+    }
+}
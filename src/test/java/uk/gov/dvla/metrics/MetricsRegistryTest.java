@@ -0,0 +1,171 @@
+package uk.gov.dvla.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.model.exception.CustomerNotFoundException;
+import uk.gov.dvla.persistence.ColumnarBookingDAOImpl;
+import uk.gov.dvla.persistence.CustomerDAOImpl;
+import uk.gov.dvla.service.ServiceOptions;
+import uk.gov.dvla.service.WindowCleaningService;
+import uk.gov.dvla.service.WindowCleaningServiceImpl;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    /**
+     * Clock fixed before the booking dates used here, so that they are not in the past.
+     */
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private static final LocalDate DATE = LocalDate.now(CLOCK).plusYears(1).plusDays(9);
+
+    private MetricsRegistry registry;
+    private WindowCleaningService service;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new MetricsRegistry("test", 1);
+        service = new InstrumentedWindowCleaningService(new WindowCleaningServiceImpl(
+                new InstrumentedBookingDAO(new ColumnarBookingDAOImpl(), registry),
+                new InstrumentedCustomerDAO(new CustomerDAOImpl(), registry),
+                ServiceOptions.builder().clock(CLOCK).build()), registry);
+
+        service.addCustomer(new Customer(1, "John", 10));
+        service.addCustomer(new Customer(2, "Paul", 5));
+        service.addBooking(new Booking(1, 1, DATE));
+        service.addBooking(new Booking(2, 2, DATE));
+        service.addBooking(new Booking(3, 2, DATE.plusDays(1)));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        registry.close();
+    }
+
+    // ========== instrumented calls Tests ==========
+
+    @Test
+    public void getCustomer_CallsAndFailures_CountedByExceptionType() {
+        service.getCustomer(1);
+        assertThrows(CustomerNotFoundException.class, () -> service.getCustomer(99));
+        assertThrows(BookingNotFoundException.class, () -> service.getBookingByBookingId(99));
+
+        OperationStats getCustomer = registry.getOperation("WindowCleaningService", "getCustomer");
+        assertEquals(2, getCustomer.getCalls());
+        assertEquals(1, getCustomer.getErrors());
+        assertEquals(Map.of("CustomerNotFoundException", 1L), getCustomer.getErrorsByType());
+        assertEquals(2, getCustomer.getLatency().getCount());
+        assertEquals(2, getCustomer.getMeasuredCalls());
+        assertTrue(getCustomer.getLatencyMaxMicros() > 0);
+        assertTrue(getCustomer.getLatencyP50Micros() <= getCustomer.getLatencyP999Micros());
+    }
+
+    @Test
+    public void findByCustomerId_ColumnScan_ReportsRowsScannedAndReturned() {
+        service.getAllBookingsForCustomerId(1);
+
+        OperationStats findByCustomerId = registry.getOperation("BookingDAO", "findByCustomerId");
+        assertEquals(1, findByCustomerId.getCalls());
+        assertEquals(1.0, findByCustomerId.getRowsReturnedPerCall());
+        assertEquals(3.0, findByCustomerId.getRowsScannedPerCall());
+    }
+
+    @Test
+    public void findByDateRange_ContiguousRows_ScansOnlyRowsReturned() {
+        service.getAllBookingsForDateRange(DATE, DATE);
+
+        OperationStats findByDateRange = registry.getOperation("BookingDAO", "findByDateRange");
+        assertEquals(2.0, findByDateRange.getRowsReturnedPerCall());
+        assertEquals(2.0, findByDateRange.getRowsScannedPerCall());
+    }
+
+    @Test
+    public void streamBookingsForDateRange_Consumed_RecordedWithElementCount() {
+        Stream<Booking> bookings = service.streamBookingsForDateRange(DATE, DATE.plusDays(1));
+
+        OperationStats streamByDateRange = registry.getOperation("BookingDAO", "streamByDateRange");
+        OperationStats streamBookings = registry.getOperation("WindowCleaningService", "streamBookingsForDateRange");
+        assertEquals(0, streamByDateRange.getCalls());
+        assertEquals(0, streamBookings.getCalls());
+
+        assertEquals(3, bookings.count());
+        assertEquals(1, streamByDateRange.getCalls());
+        assertEquals(3.0, streamByDateRange.getRowsReturnedPerCall());
+        assertEquals(1, streamBookings.getCalls());
+        assertEquals(1, streamBookings.getLatency().getCount());
+    }
+
+    @Test
+    public void streamBookingsForCustomerId_ClosedEarly_RecordedOnce() {
+        try (Stream<Booking> bookings = service.streamBookingsForCustomerId(2)) {
+            assertTrue(bookings.findFirst().isPresent());
+        }
+
+        OperationStats streamByCustomerId = registry.getOperation("BookingDAO", "streamByCustomerId");
+        assertEquals(1, streamByCustomerId.getCalls());
+        assertEquals(1.0, streamByCustomerId.getRowsReturnedPerCall());
+    }
+
+    @Test
+    public void getCustomer_SampledLatency_CountsEveryCall() {
+        try (MetricsRegistry sampled = new MetricsRegistry("sampled", 8)) {
+            InstrumentedCustomerDAO customerDAO = new InstrumentedCustomerDAO(new CustomerDAOImpl(), sampled);
+            for (int i = 0; i < 8000; i++) {
+                customerDAO.findById(1);
+            }
+
+            OperationStats findById = sampled.getOperation("CustomerDAO", "findById");
+            assertEquals(8000, findById.getCalls());
+            assertTrue(findById.getLatency().getCount() > 500 && findById.getLatency().getCount() < 1500);
+        }
+    }
+
+    @Test
+    public void constructor_IntervalNotPowerOfTwo_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new MetricsRegistry("invalid", 6));
+    }
+
+    // ========== JMX Tests ==========
+
+    @Test
+    public void register_Operation_PublishedAsMXBean() throws Exception {
+        service.getCustomer(1);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("uk.gov.dvla:type=WindowCleaningService,name=\"test\",operation=getCustomer");
+
+        assertEquals(1L, server.getAttribute(name, "Calls"));
+        server.invoke(name, "reset", null, null);
+        assertEquals(0L, server.getAttribute(name, "Calls"));
+    }
+
+    @Test
+    public void close_Registry_UnpublishesMXBeans() throws Exception {
+        registry.close();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertTrue(server.queryNames(new ObjectName("uk.gov.dvla:name=\"test\",*"), null).isEmpty());
+    }
+
+    @Test
+    public void register_SameNameTwice_ThrowsException() {
+        try (MetricsRegistry sameName = new MetricsRegistry("test")) {
+            assertThrows(IllegalStateException.class, () ->
+                    new InstrumentedCustomerDAO(new CustomerDAOImpl(), sameName));
+        }
+    }
+}
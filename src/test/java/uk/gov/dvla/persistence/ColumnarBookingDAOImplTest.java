@@ -0,0 +1,95 @@
+package uk.gov.dvla.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarBookingDAOImplTest {
+
+    private BookingDAO bookingDAO;
+
+    @BeforeEach
+    public void setUp() {
+        bookingDAO = new ColumnarBookingDAOImpl();
+        bookingDAO.save(new Booking(4, 3, LocalDate.of(2025, 10, 1)));
+        bookingDAO.save(new Booking(2, 2, LocalDate.of(2026, 1, 10)));
+        bookingDAO.save(new Booking(1, 4, LocalDate.of(2025, 10, 1)));
+        bookingDAO.save(new Booking(3, 1, LocalDate.of(2025, 10, 1)));
+        bookingDAO.save(new Booking(5, 1, LocalDate.of(2025, 9, 1)));
+    }
+
+    @Test
+    public void save_DuplicateId_ThrowsException() {
+        assertThrows(DuplicateEntityException.class, () ->
+                bookingDAO.save(new Booking(2, 1, LocalDate.of(2027, 1, 1))));
+    }
+
+    @Test
+    public void saveAll_MergesBatchAndSkipsDuplicates() {
+        int[] skipped = bookingDAO.saveAll(List.of(
+                new Booking(7, 2, LocalDate.of(2025, 10, 1)),
+                new Booking(2, 1, LocalDate.of(2027, 1, 1)),
+                new Booking(6, 3, LocalDate.of(2025, 8, 1)),
+                new Booking(7, 4, LocalDate.of(2027, 1, 1)),
+                new Booking(0, 4, LocalDate.of(2025, 10, 1))));
+
+        assertArrayEquals(new int[]{1, 3}, skipped);
+        assertEquals(List.of(6, 5, 0, 1, 3, 4, 7, 2), ids(bookingDAO.findAll()));
+        assertEquals(new Booking(7, 2, LocalDate.of(2025, 10, 1)), bookingDAO.findById(7).orElseThrow());
+        assertEquals(new Booking(0, 4, LocalDate.of(2025, 10, 1)), bookingDAO.findById(0).orElseThrow());
+        assertEquals(LocalDate.of(2026, 1, 10), bookingDAO.findById(2).orElseThrow().getBookingDate());
+    }
+
+    @Test
+    public void findById_ExistingBooking_ReturnsBooking() {
+        assertEquals(new Booking(2, 2, LocalDate.of(2026, 1, 10)), bookingDAO.findById(2).orElseThrow());
+        assertTrue(bookingDAO.findById(999).isEmpty());
+    }
+
+    @Test
+    public void findAll_ReturnsBookingsInDateThenIdOrder() {
+        assertEquals(List.of(5, 1, 3, 4, 2), ids(bookingDAO.findAll()));
+    }
+
+    @Test
+    public void findByDateRange_ReturnsBookingsInDateThenIdOrder() {
+        List<Booking> bookings = bookingDAO.findByDateRange(LocalDate.of(2025, 10, 1), LocalDate.of(2026, 1, 10));
+
+        assertEquals(List.of(1, 3, 4, 2), ids(bookings));
+        assertEquals(4, bookingDAO.countByDateRange(LocalDate.of(2025, 10, 1), LocalDate.of(2026, 1, 10)));
+        assertArrayEquals(new int[]{4, 1, 3, 2},
+                bookingDAO.findCustomerIdsByDateRange(LocalDate.of(2025, 10, 1), LocalDate.of(2026, 1, 10)));
+    }
+
+    @Test
+    public void findPageByDateRange_FromCursor_ReturnsNextBookings() {
+        assertEquals(List.of(5, 1), ids(bookingDAO.findPageByDateRange(LocalDate.MIN, LocalDate.MAX, null, 2)));
+        assertEquals(List.of(3, 4), ids(bookingDAO.findPageByDateRange(LocalDate.MIN, LocalDate.MAX,
+                new BookingCursor(LocalDate.of(2025, 10, 1), 1), 2)));
+        assertEquals(List.of(2), ids(bookingDAO.findPageByDateRange(LocalDate.MIN, LocalDate.MAX,
+                new BookingCursor(LocalDate.of(2025, 10, 1), Integer.MAX_VALUE), 2)));
+        assertEquals(List.of(3), ids(bookingDAO.findPageByCustomerId(1, new BookingCursor(LocalDate.of(2025, 9, 1), 5), 5)));
+    }
+
+    @Test
+    public void findByDate_NoBookings_ReturnsEmptyList() {
+        assertTrue(bookingDAO.findByDate(LocalDate.of(2030, 1, 1)).isEmpty());
+        assertEquals(0, bookingDAO.countByDateRange(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 12, 31)));
+    }
+
+    @Test
+    public void findByCustomerId_ReturnsBookingsInDateOrder() {
+        assertEquals(List.of(5, 3), ids(bookingDAO.findByCustomerId(1)));
+    }
+
+    private static List<Integer> ids(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getId).toList();
+    }
+}
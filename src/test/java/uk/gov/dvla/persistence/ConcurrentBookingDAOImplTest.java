@@ -0,0 +1,150 @@
+package uk.gov.dvla.persistence;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentBookingDAOImplTest {
+
+    private static final int THREADS = 8;
+    private static final int BOOKINGS_PER_THREAD = 2_000;
+
+    @Test
+    public void save_ConcurrentWriters_KeepsEveryBooking() throws Exception {
+        BookingDAO bookingDAO = new ConcurrentBookingDAOImpl();
+        LocalDate date = LocalDate.of(2026, 1, 1);
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                int id = thread * BOOKINGS_PER_THREAD + i + 1;
+                bookingDAO.save(new Booking(id, thread + 1, date.plusDays(i % 7)));
+                // readers run alongside the writers
+                if (i % 50 == 0) {
+                    bookingDAO.findByDateRange(date, date.plusDays(6));
+                }
+            }
+        });
+
+        assertEquals(THREADS * BOOKINGS_PER_THREAD, bookingDAO.findAll().size());
+        assertEquals(THREADS * BOOKINGS_PER_THREAD, bookingDAO.findByDateRange(date, date.plusDays(6)).size());
+        assertEquals(BOOKINGS_PER_THREAD, bookingDAO.findByCustomerId(1).size());
+    }
+
+    @Test
+    public void save_ConcurrentDuplicates_AcceptsExactlyOne() throws Exception {
+        BookingDAO bookingDAO = new ConcurrentBookingDAOImpl();
+        AtomicInteger duplicates = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            try {
+                bookingDAO.save(new Booking(1, thread + 1, LocalDate.of(2026, 1, 1)));
+            } catch (DuplicateEntityException e) {
+                duplicates.incrementAndGet();
+            }
+        });
+
+        assertEquals(THREADS - 1, duplicates.get());
+        assertEquals(1, bookingDAO.findByDate(LocalDate.of(2026, 1, 1)).size());
+    }
+
+    @Test
+    public void updateBookingDate_RacingSave_IndexesBookingOnce() throws Exception {
+        BookingDAO bookingDAO = new ConcurrentBookingDAOImpl();
+        LocalDate savedDate = LocalDate.of(2026, 1, 1);
+        LocalDate movedDate = savedDate.plusDays(1);
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                int id = (thread / 2) * BOOKINGS_PER_THREAD + i + 1;
+                if (thread % 2 == 0) {
+                    bookingDAO.save(new Booking(id, thread / 2 + 1, savedDate));
+                } else {
+                    // move the booking the other thread of the pair is saving, as soon as it appears
+                    while (true) {
+                        try {
+                            bookingDAO.updateBookingDate(id, movedDate);
+                            break;
+                        } catch (BookingNotFoundException e) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }
+            }
+        });
+
+        int bookingCount = THREADS / 2 * BOOKINGS_PER_THREAD;
+        assertTrue(bookingDAO.findByDate(savedDate).isEmpty());
+        assertEquals(bookingCount, bookingDAO.findByDate(movedDate).size());
+        assertEquals(bookingCount, bookingDAO.findByDate(movedDate).stream().map(Booking::getId).distinct().count());
+        for (int customerId = 1; customerId <= THREADS / 2; customerId++) {
+            List<Booking> customerBookings = bookingDAO.findByCustomerId(customerId);
+            assertEquals(BOOKINGS_PER_THREAD, customerBookings.size());
+            assertEquals(BOOKINGS_PER_THREAD, customerBookings.stream().map(Booking::getId).distinct().count());
+        }
+    }
+
+    @Test
+    public void findByDate_BookingsSavedOutOfOrder_ReturnsBookingsInIdOrder() {
+        BookingDAO bookingDAO = new ConcurrentBookingDAOImpl();
+        LocalDate date = LocalDate.of(2026, 1, 1);
+        bookingDAO.save(new Booking(3, 1, date));
+        bookingDAO.save(new Booking(1, 2, date));
+        bookingDAO.save(new Booking(2, 3, date));
+
+        List<Booking> bookings = bookingDAO.findByDate(date);
+
+        assertEquals(List.of(1, 2, 3), bookings.stream().map(Booking::getId).toList());
+    }
+
+    @Test
+    public void saveAll_BatchAcrossDates_KeepsIndexesOrdered() {
+        BookingDAO bookingDAO = new ConcurrentBookingDAOImpl();
+        bookingDAO.save(new Booking(3, 1, LocalDate.of(2026, 1, 10)));
+
+        int[] skipped = bookingDAO.saveAll(List.of(
+                new Booking(2, 1, LocalDate.of(2026, 1, 10)),
+                new Booking(3, 2, LocalDate.of(2026, 1, 11)),
+                new Booking(1, 1, LocalDate.of(2026, 1, 9))));
+
+        assertArrayEquals(new int[]{1}, skipped);
+        assertEquals(List.of(2, 3), bookingDAO.findByDate(LocalDate.of(2026, 1, 10)).stream().map(Booking::getId).toList());
+        assertEquals(List.of(1, 2, 3), bookingDAO.findByCustomerId(1).stream().map(Booking::getId).toList());
+        assertTrue(bookingDAO.findByCustomerId(2).isEmpty());
+    }
+
+    private static void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int threadNumber = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(threadNumber);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
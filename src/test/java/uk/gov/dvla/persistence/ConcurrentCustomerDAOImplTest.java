@@ -0,0 +1,137 @@
+package uk.gov.dvla.persistence;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.CustomerNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentCustomerDAOImplTest {
+
+    private static final int THREADS = 8;
+    private static final int CUSTOMERS_PER_THREAD = 2_000;
+
+    @Test
+    public void save_ConcurrentWriters_KeepsEveryCustomer() throws Exception {
+        CustomerDAO customerDAO = new ConcurrentCustomerDAOImpl();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < CUSTOMERS_PER_THREAD; i++) {
+                int id = thread * CUSTOMERS_PER_THREAD + i + 1;
+                customerDAO.save(new Customer(id, "Customer" + (i % 10), 1 + i % 20));
+                // readers run alongside the writers
+                if (i % 50 == 0) {
+                    customerDAO.findByName("Customer0");
+                }
+            }
+        });
+
+        assertEquals(THREADS * CUSTOMERS_PER_THREAD, customerDAO.findAll().size());
+        assertEquals(THREADS * CUSTOMERS_PER_THREAD / 10, customerDAO.findByName("Customer3").size());
+    }
+
+    @Test
+    public void save_ConcurrentDuplicates_AcceptsExactlyOne() throws Exception {
+        CustomerDAO customerDAO = new ConcurrentCustomerDAOImpl();
+        AtomicInteger duplicates = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            try {
+                customerDAO.save(new Customer(1, "Customer" + thread, 10));
+            } catch (DuplicateEntityException e) {
+                duplicates.incrementAndGet();
+            }
+        });
+
+        String savedName = customerDAO.findById(1).orElseThrow().getName();
+        assertEquals(THREADS - 1, duplicates.get());
+        assertEquals(1, customerDAO.resolveIdByName(savedName));
+        for (int thread = 0; thread < THREADS; thread++) {
+            String name = "Customer" + thread;
+            if (!name.equals(savedName)) {
+                assertEquals(CustomerDAO.NO_CUSTOMER, customerDAO.resolveIdByName(name));
+            }
+        }
+    }
+
+    @Test
+    public void updateName_RacingSave_IndexesCustomerOnce() throws Exception {
+        CustomerDAO customerDAO = new ConcurrentCustomerDAOImpl();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < CUSTOMERS_PER_THREAD; i++) {
+                int id = (thread / 2) * CUSTOMERS_PER_THREAD + i + 1;
+                if (thread % 2 == 0) {
+                    customerDAO.save(new Customer(id, "Saved", 10));
+                } else {
+                    // rename the customer the other thread of the pair is saving, as soon as it appears
+                    while (true) {
+                        try {
+                            customerDAO.updateName(id, "Renamed");
+                            break;
+                        } catch (CustomerNotFoundException e) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }
+            }
+        });
+
+        int customers = THREADS / 2 * CUSTOMERS_PER_THREAD;
+        assertEquals(customers, customerDAO.findAll().size());
+        assertEquals(customers, customerDAO.findByName("Renamed").size());
+        assertTrue(customerDAO.findByName("Saved").isEmpty());
+    }
+
+    @Test
+    public void updateName_ConcurrentRenames_LeavesCustomerUnderFinalNameOnly() throws Exception {
+        CustomerDAO customerDAO = new ConcurrentCustomerDAOImpl();
+        customerDAO.save(new Customer(1, "John", 10));
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 500; i++) {
+                customerDAO.updateName(1, "Name" + (thread + i) % 5);
+            }
+        });
+
+        String finalName = customerDAO.findById(1).orElseThrow().getName();
+        for (int name = 0; name < 5; name++) {
+            int expected = ("Name" + name).equals(finalName) ? 1 : 0;
+            assertEquals(expected, customerDAO.findByName("Name" + name).size());
+        }
+        assertTrue(customerDAO.findByName("John").isEmpty());
+    }
+
+    private static void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int threadNumber = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(threadNumber);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,121 @@
+package uk.gov.dvla.persistence;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.CustomerNotFoundException;
+import uk.gov.dvla.model.exception.InvalidCustomerException;
+import uk.gov.dvla.util.IntObjectHashMap;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerDAOImplTest {
+
+    // ========== save() Tests ==========
+
+    @Test
+    public void save_IdBelowOne_ThrowsException() {
+        CustomerDAO customerDAO = new CustomerDAOImpl();
+
+        assertThrows(InvalidCustomerException.class, () -> customerDAO.save(new Customer(CustomerDAO.NO_CUSTOMER, "John", 10)));
+        assertThrows(InvalidCustomerException.class, () -> customerDAO.save(new Customer(CustomerDAO.MULTIPLE_CUSTOMERS, "John", 10)));
+        assertEquals(CustomerDAO.NO_CUSTOMER, customerDAO.resolveIdByName("John"));
+    }
+
+    @Test
+    public void saveAll_IdBelowOne_SavesNothing() {
+        CustomerDAO customerDAO = new CustomerDAOImpl();
+
+        assertThrows(InvalidCustomerException.class,
+                () -> customerDAO.saveAll(List.of(new Customer(1, "John", 10), new Customer(0, "Paul", 5))));
+        assertTrue(customerDAO.findAll().isEmpty());
+    }
+
+    // ========== resolveIdByName() Tests ==========
+
+    @Test
+    public void resolveIdByName_SingleCustomer_ReturnsCustomerId() {
+        CustomerDAO customerDAO = new CustomerDAOImpl();
+        customerDAO.save(new Customer(1, "John", 10));
+        customerDAO.save(new Customer(2, "Paul", 5));
+
+        assertEquals(2, customerDAO.resolveIdByName("Paul"));
+    }
+
+    @Test
+    public void resolveIdByName_NoCustomer_ReturnsNoCustomer() {
+        CustomerDAO customerDAO = new CustomerDAOImpl();
+        customerDAO.save(new Customer(1, "John", 10));
+
+        assertEquals(CustomerDAO.NO_CUSTOMER, customerDAO.resolveIdByName("Nathan"));
+    }
+
+    @Test
+    public void resolveIdByName_MultipleCustomers_ReturnsMultipleCustomers() {
+        CustomerDAO customerDAO = new CustomerDAOImpl();
+        customerDAO.save(new Customer(1, "John", 10));
+        customerDAO.save(new Customer(2, "John", 5));
+
+        assertEquals(CustomerDAO.MULTIPLE_CUSTOMERS, customerDAO.resolveIdByName("John"));
+    }
+
+    // ========== findAllByIds() Tests ==========
+
+    @Test
+    public void findAllByIds_SomeMissing_ReturnsFoundCustomersOnly() {
+        CustomerDAO customerDAO = new CustomerDAOImpl();
+        customerDAO.save(new Customer(1, "John", 10));
+        customerDAO.save(new Customer(2, "Paul", 5));
+
+        IntObjectHashMap<Customer> customers = customerDAO.findAllByIds(new int[]{1, 2, 999});
+
+        assertEquals(2, customers.size());
+        assertEquals("Paul", customers.get(2).getName());
+        assertNull(customers.get(999));
+    }
+
+    // ========== NameMatching Tests ==========
+
+    @Test
+    public void findByName_ExactMatching_IsCaseAndWhitespaceSensitive() {
+        CustomerDAO customerDAO = new CustomerDAOImpl();
+        customerDAO.save(new Customer(1, "John Lennon", 10));
+
+        assertTrue(customerDAO.findByName(" john  lennon").isEmpty());
+    }
+
+    @Test
+    public void findByName_NormalisedMatching_IgnoresCaseAndWhitespace() {
+        CustomerDAO customerDAO = new CustomerDAOImpl(NameMatching.NORMALISED);
+        customerDAO.save(new Customer(1, "John Lennon", 10));
+
+        List<Customer> customers = customerDAO.findByName(" john  lennon");
+
+        assertEquals(1, customers.size());
+        assertEquals(1, customers.get(0).getId());
+    }
+
+    // ========== updateName() Tests ==========
+
+    @Test
+    public void updateName_ExistingCustomer_MovesCustomerToNewName() {
+        CustomerDAO customerDAO = new CustomerDAOImpl();
+        customerDAO.save(new Customer(1, "John", 10));
+        customerDAO.save(new Customer(2, "John", 5));
+
+        customerDAO.updateName(2, "Paul");
+
+        assertEquals(1, customerDAO.resolveIdByName("John"));
+        assertEquals(2, customerDAO.resolveIdByName("Paul"));
+        assertEquals("Paul", customerDAO.findById(2).orElseThrow().getName());
+    }
+
+    @Test
+    public void updateName_NonExistentCustomer_ThrowsException() {
+        CustomerDAO customerDAO = new CustomerDAOImpl();
+
+        assertThrows(CustomerNotFoundException.class, () ->
+                customerDAO.updateName(999, "Paul"));
+    }
+}
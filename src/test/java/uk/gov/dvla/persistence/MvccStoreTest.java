@@ -0,0 +1,175 @@
+package uk.gov.dvla.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.model.exception.CustomerNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.model.exception.NullArgumentException;
+import uk.gov.dvla.service.WindowCleaningServiceImpl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MvccStoreTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 10, 1);
+
+    private MvccStore store;
+    private BookingDAO bookingDAO;
+    private CustomerDAO customerDAO;
+
+    @BeforeEach
+    public void setUp() {
+        store = new MvccStore(NameMatching.NORMALISED);
+        bookingDAO = store.getBookingDAO();
+        customerDAO = store.getCustomerDAO();
+        customerDAO.save(new Customer(1, "John", 10));
+        customerDAO.save(new Customer(2, "Paul", 5));
+        bookingDAO.save(new Booking(3, 1, DATE.plusDays(1)));
+        bookingDAO.save(new Booking(1, 2, DATE));
+        bookingDAO.save(new Booking(2, 1, DATE));
+    }
+
+    // ========== BookingDAO Tests ==========
+
+    @Test
+    public void save_DuplicateIds_ThrowsException() {
+        assertThrows(DuplicateEntityException.class, () -> bookingDAO.save(new Booking(1, 1, DATE)));
+        assertThrows(DuplicateEntityException.class, () -> customerDAO.save(new Customer(1, "Ringo", 3)));
+        assertArrayEquals(new int[]{0, 2}, bookingDAO.saveAll(List.of(
+                new Booking(2, 1, DATE), new Booking(4, 2, DATE), new Booking(4, 2, DATE))));
+        assertEquals(4, bookingDAO.count());
+    }
+
+    @Test
+    public void save_Null_ThrowsException() {
+        assertThrows(NullArgumentException.class, () -> bookingDAO.save(null));
+        assertThrows(NullArgumentException.class, () -> bookingDAO.saveAll(Arrays.asList(new Booking(4, 1, DATE), null)));
+        assertThrows(NullArgumentException.class, () -> customerDAO.save(null));
+        assertEquals(3, bookingDAO.count());
+    }
+
+    @Test
+    public void findByDateRange_SavedBookings_ReturnsBookingsInDateThenIdOrder() {
+        assertEquals(List.of(1, 2, 3), ids(bookingDAO.findByDateRange(DATE, DATE.plusDays(1))));
+        assertEquals(List.of(1, 2), ids(bookingDAO.findByDate(DATE)));
+        assertEquals(List.of(2, 3), ids(bookingDAO.findByCustomerId(1)));
+        assertEquals(2, bookingDAO.countByDateRange(DATE.minusDays(5), DATE));
+        assertArrayEquals(new int[]{2, 1, 1}, bookingDAO.findCustomerIdsByDateRange(DATE, DATE.plusDays(1)));
+        assertEquals(List.of(2, 3), ids(bookingDAO.findPageByDateRange(DATE, DATE.plusDays(1), new BookingCursor(DATE, 1), 5)));
+        assertEquals(List.of(3), ids(bookingDAO.findPageByCustomerId(1, new BookingCursor(DATE, 2), 5)));
+        assertTrue(bookingDAO.findByDate(DATE.plusDays(2)).isEmpty());
+    }
+
+    @Test
+    public void updateBookingDate_MissingBooking_ThrowsException() {
+        assertThrows(BookingNotFoundException.class, () -> bookingDAO.updateBookingDate(99, DATE));
+        assertThrows(CustomerNotFoundException.class, () -> customerDAO.updateWindows(99, 1));
+    }
+
+    // ========== snapshot() Tests ==========
+
+    @Test
+    public void snapshot_LaterWrites_StillSeesPinnedVersion() {
+        StoreSnapshot snapshot = store.snapshot();
+
+        bookingDAO.save(new Booking(4, 2, DATE));
+        bookingDAO.updateBookingDate(2, DATE.plusDays(7));
+        customerDAO.updateWindows(1, 20);
+        customerDAO.updateName(2, "George");
+
+        assertEquals(5, snapshot.getVersion());
+        assertEquals(9, store.getVersion());
+        assertEquals(List.of(1, 2), ids(snapshot.getBookingDAO().findByDate(DATE)));
+        assertEquals(DATE, snapshot.getBookingDAO().findById(2).orElseThrow().getBookingDate());
+        assertEquals(3, snapshot.getBookingDAO().count());
+        assertEquals(10, snapshot.getCustomerDAO().findById(1).orElseThrow().getWindows());
+        assertEquals(2, snapshot.getCustomerDAO().resolveIdByName("paul"));
+        assertEquals(CustomerDAO.NO_CUSTOMER, snapshot.getCustomerDAO().resolveIdByName("george"));
+
+        assertEquals(List.of(1, 4), ids(bookingDAO.findByDate(DATE)));
+        assertEquals(20, customerDAO.findById(1).orElseThrow().getWindows());
+        assertEquals(2, customerDAO.resolveIdByName("George"));
+        assertTrue(customerDAO.findByName("Paul").isEmpty());
+    }
+
+    @Test
+    public void snapshot_Write_ThrowsException() {
+        StoreSnapshot snapshot = store.snapshot();
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getBookingDAO().save(new Booking(9, 1, DATE)));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getCustomerDAO().updateName(1, "Ringo"));
+        assertEquals(3, bookingDAO.count());
+    }
+
+    @Test
+    public void streamByDateRange_WritesWhileReading_SeesVersionItStartedOn() {
+        Stream<Booking> stream = bookingDAO.streamByDateRange(DATE, DATE.plusDays(1));
+
+        bookingDAO.save(new Booking(4, 2, DATE));
+
+        assertEquals(List.of(1, 2, 3), stream.map(Booking::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void save_CallerChangesBooking_StoreKeepsItsCopy() {
+        Booking booking = new Booking(5, 1, DATE);
+        bookingDAO.save(booking);
+
+        booking.setBookingDate(DATE.plusDays(30));
+
+        assertEquals(DATE, bookingDAO.findById(5).orElseThrow().getBookingDate());
+        assertEquals(List.of(1, 2, 5), ids(bookingDAO.findByDate(DATE)));
+    }
+
+    @Test
+    public void getTotalCostForDateRange_SnapshotWhileWriting_ReportsPinnedVersion() throws Exception {
+        StoreSnapshot snapshot = store.snapshot();
+        WindowCleaningServiceImpl report = new WindowCleaningServiceImpl(snapshot.getBookingDAO(), snapshot.getCustomerDAO());
+        int expected = report.getTotalCostForDateRange(DATE, DATE.plusYears(1));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < 2; writer++) {
+                int first = 100 + writer * 1000;
+                writers.add(executor.submit(() -> {
+                    for (int id = first; id < first + 500; id++) {
+                        bookingDAO.save(new Booking(id, 1 + id % 2, DATE.plusDays(id % 365)));
+                        customerDAO.updateWindows(1 + id % 2, id % 50);
+                    }
+                }));
+            }
+            while (writers.stream().anyMatch(writer -> !writer.isDone())) {
+                assertEquals(expected, report.getTotalCostForDateRange(DATE, DATE.plusYears(1)));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // 10 + 5 + 10 windows at 1 each, plus 3 properties at 5 each
+        assertEquals(40, expected);
+        assertEquals(1003, bookingDAO.count());
+        assertEquals(expected, report.getTotalCostForDateRange(DATE, DATE.plusYears(1)));
+    }
+
+    private static List<Integer> ids(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,237 @@
+package uk.gov.dvla.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedBookingDAOImplTest {
+
+    private PartitionedBookingDAOImpl bookingDAO;
+
+    @BeforeEach
+    public void setUp() {
+        bookingDAO = new PartitionedBookingDAOImpl();
+        bookingDAO.save(new Booking(4, 3, LocalDate.of(2025, 10, 1)));
+        bookingDAO.save(new Booking(2, 2, LocalDate.of(2026, 1, 10)));
+        bookingDAO.save(new Booking(1, 4, LocalDate.of(2025, 10, 1)));
+        bookingDAO.save(new Booking(3, 1, LocalDate.of(2025, 10, 31)));
+        bookingDAO.save(new Booking(5, 1, LocalDate.of(2025, 9, 30)));
+    }
+
+    @Test
+    public void save_DuplicateId_ThrowsException() {
+        assertThrows(DuplicateEntityException.class, () ->
+                bookingDAO.save(new Booking(2, 1, LocalDate.of(2027, 1, 1))));
+    }
+
+    @Test
+    public void findByDateRange_AcrossMonthBoundaries_ReturnsBookingsInDateThenIdOrder() {
+        assertEquals(List.of(5, 1, 4, 3), ids(bookingDAO.findByDateRange(LocalDate.of(2025, 9, 30), LocalDate.of(2025, 10, 31))));
+        assertEquals(List.of(1, 4), ids(bookingDAO.findByDateRange(LocalDate.of(2025, 10, 1), LocalDate.of(2025, 10, 30))));
+        assertEquals(List.of(3, 2), ids(bookingDAO.findByDateRange(LocalDate.of(2025, 10, 2), LocalDate.of(2026, 3, 1))));
+        assertEquals(4, bookingDAO.countByDateRange(LocalDate.of(2025, 9, 1), LocalDate.of(2025, 12, 31)));
+        assertArrayEquals(new int[]{1, 4, 3, 1, 2}, bookingDAO.findCustomerIdsByDateRange(LocalDate.of(2025, 9, 1), LocalDate.of(2026, 1, 31)));
+        assertEquals(List.of(1, 4), ids(bookingDAO.findByDate(LocalDate.of(2025, 10, 1))));
+    }
+
+    @Test
+    public void updateBookingDate_NewMonth_MovesBookingBetweenPartitions() {
+        bookingDAO.updateBookingDate(4, LocalDate.of(2026, 1, 10));
+
+        assertEquals(List.of(1), ids(bookingDAO.findByDate(LocalDate.of(2025, 10, 1))));
+        assertEquals(List.of(2, 4), ids(bookingDAO.findByDate(LocalDate.of(2026, 1, 10))));
+        assertEquals(List.of(4), ids(bookingDAO.findByCustomerId(3)));
+    }
+
+    @Test
+    public void updateBookingDate_LastBookingOfMonth_RemovesEmptyPartition() {
+        bookingDAO.updateBookingDate(5, LocalDate.of(2026, 1, 10));
+
+        assertEquals(List.of(YearMonth.of(2025, 10), YearMonth.of(2026, 1)), List.copyOf(bookingDAO.getPartitions()));
+        bookingDAO.updateBookingDate(5, LocalDate.of(2025, 9, 1));
+        assertEquals(List.of(5), ids(bookingDAO.snapshotPartition(YearMonth.of(2025, 9))));
+    }
+
+    @Test
+    public void findPageByDateRange_CursorAcrossPartitions_ContinuesAfterCursor() {
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        LocalDate end = LocalDate.of(2026, 12, 31);
+
+        assertEquals(List.of(5, 1), ids(bookingDAO.findPageByDateRange(start, end, null, 2)));
+        assertEquals(List.of(4, 3), ids(bookingDAO.findPageByDateRange(start, end, new BookingCursor(LocalDate.of(2025, 10, 1), 1), 2)));
+        assertEquals(List.of(2), ids(bookingDAO.findPageByDateRange(start, end, new BookingCursor(LocalDate.of(2025, 10, 31), 3), 2)));
+        assertEquals(List.of(3, 2), bookingDAO.streamByDateRange(LocalDate.of(2025, 10, 2), end).map(Booking::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void dropPartition_Month_RemovesOnlyThatMonthsBookings() {
+        assertEquals(List.of(YearMonth.of(2025, 9), YearMonth.of(2025, 10), YearMonth.of(2026, 1)), List.copyOf(bookingDAO.getPartitions()));
+        assertEquals(List.of(1, 4, 3), ids(bookingDAO.snapshotPartition(YearMonth.of(2025, 10))));
+
+        assertEquals(3, bookingDAO.dropPartition(YearMonth.of(2025, 10)));
+
+        assertEquals(2, bookingDAO.count());
+        assertTrue(bookingDAO.findById(4).isEmpty());
+        assertEquals(List.of(5), ids(bookingDAO.findByCustomerId(1)));
+        assertTrue(bookingDAO.findByCustomerId(3).isEmpty());
+        assertEquals(List.of(5, 2), ids(bookingDAO.findByDateRange(LocalDate.of(2025, 1, 1), LocalDate.of(2026, 12, 31))));
+        assertEquals(0, bookingDAO.dropPartition(YearMonth.of(2025, 10)));
+
+        bookingDAO.save(new Booking(4, 3, LocalDate.of(2025, 10, 5)));
+        assertEquals(List.of(4), ids(bookingDAO.snapshotPartition(YearMonth.of(2025, 10))));
+    }
+
+    @Test
+    public void queries_RandomBookings_MatchBookingDAOImpl() {
+        BookingDAO expected = new BookingDAOImpl();
+        PartitionedBookingDAOImpl actual = new PartitionedBookingDAOImpl();
+        Random random = new Random(7);
+        LocalDate first = LocalDate.of(2026, 1, 1);
+        for (int id = 1; id <= 2_000; id++) {
+            Booking booking = new Booking(id, 1 + random.nextInt(50), first.plusDays(random.nextInt(3 * 365)));
+            expected.save(new Booking(booking.getId(), booking.getCustomerId(), booking.getBookingDate()));
+            actual.save(booking);
+        }
+        for (int i = 0; i < 200; i++) {
+            int id = 1 + random.nextInt(2_000);
+            LocalDate date = first.plusDays(random.nextInt(3 * 365));
+            expected.updateBookingDate(id, date);
+            actual.updateBookingDate(id, date);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            LocalDate start = first.plusDays(random.nextInt(3 * 365));
+            LocalDate end = start.plusDays(random.nextInt(200));
+            assertEquals(expected.findByDateRange(start, end), actual.findByDateRange(start, end));
+            assertEquals(expected.countByDateRange(start, end), actual.countByDateRange(start, end));
+            assertEquals(expected.findByDate(start), actual.findByDate(start));
+            assertEquals(expected.findByCustomerId(i + 1), actual.findByCustomerId(i + 1));
+        }
+    }
+
+    @Test
+    public void save_ConcurrentWritersInSameMonths_KeepsEveryBooking() throws Exception {
+        int threads = 4;
+        int perThread = 1_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        PartitionedBookingDAOImpl concurrentDAO = new PartitionedBookingDAOImpl();
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures[t] = executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        concurrentDAO.save(new Booking(thread * perThread + i + 1, thread + 1, LocalDate.of(2026, 1, 1).plusDays(i % 60)));
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads * perThread, concurrentDAO.countByDateRange(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 3, 1)));
+        assertEquals(perThread, concurrentDAO.findByCustomerId(1).size());
+    }
+
+    @Test
+    public void dropPartition_RacingMovesOutOfMonth_KeepsIndexesConsistent() throws Exception {
+        int perRound = 500;
+        YearMonth month = YearMonth.of(2026, 1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            for (int round = 0; round < 20; round++) {
+                PartitionedBookingDAOImpl racingDAO = new PartitionedBookingDAOImpl();
+                for (int id = 1; id <= perRound; id++) {
+                    racingDAO.save(new Booking(id, id % 7 + 1, month.atDay(id % 28 + 1)));
+                }
+
+                Future<?> mover = executor.submit(() -> {
+                    for (int id = 1; id <= perRound; id++) {
+                        try {
+                            racingDAO.updateBookingDate(id, LocalDate.of(2026, 2, 1));
+                        } catch (BookingNotFoundException e) {
+                            // dropped before it could move
+                        }
+                    }
+                });
+                int dropped = racingDAO.dropPartition(month);
+                mover.get();
+
+                // every booking was either dropped or moved, and is indexed only if it was moved
+                List<Booking> moved = racingDAO.findByDate(LocalDate.of(2026, 2, 1));
+                assertEquals(perRound, dropped + moved.size());
+                assertEquals(moved.size(), racingDAO.count());
+                assertEquals(moved.size(), racingDAO.findAll().stream().filter(moved::contains).count());
+                int indexedByCustomer = 0;
+                for (int customerId = 1; customerId <= 7; customerId++) {
+                    indexedByCustomer += racingDAO.findByCustomerId(customerId).size();
+                }
+                assertEquals(moved.size(), indexedByCustomer);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void updateBookingDate_RacingSave_KeepsBookingInOnePartition() throws Exception {
+        int bookings = 2_000;
+        PartitionedBookingDAOImpl racingDAO = new PartitionedBookingDAOImpl();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> saver = executor.submit(() -> {
+                for (int id = 1; id <= bookings; id++) {
+                    racingDAO.save(new Booking(id, id % 7 + 1, LocalDate.of(2026, 1, id % 28 + 1)));
+                }
+            });
+            Future<?> mover = executor.submit(() -> {
+                for (int id = 1; id <= bookings; id++) {
+                    // move each booking as soon as it appears
+                    while (true) {
+                        try {
+                            racingDAO.updateBookingDate(id, LocalDate.of(2026, 2, 1));
+                            break;
+                        } catch (BookingNotFoundException e) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }
+            });
+            saver.get();
+            mover.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(0, racingDAO.countByDateRange(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31)));
+        assertEquals(bookings, racingDAO.findByDate(LocalDate.of(2026, 2, 1)).size());
+        assertEquals(Set.of(YearMonth.of(2026, 2)), racingDAO.getPartitions());
+        int indexedByCustomer = 0;
+        for (int customerId = 1; customerId <= 7; customerId++) {
+            indexedByCustomer += racingDAO.findByCustomerId(customerId).size();
+        }
+        assertEquals(bookings, indexedByCustomer);
+    }
+
+    private static List<Integer> ids(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getId).toList();
+    }
+}
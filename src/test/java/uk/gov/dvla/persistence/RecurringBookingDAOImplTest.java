@@ -0,0 +1,212 @@
+package uk.gov.dvla.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.RecurringBooking;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.model.exception.InvalidBookingException;
+import uk.gov.dvla.service.ServiceOptions;
+import uk.gov.dvla.service.WindowCleaningServiceImpl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurringBookingDAOImplTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 10, 6);
+
+    private RecurringBookingDAOImpl bookingDAO;
+
+    @BeforeEach
+    public void setUp() {
+        bookingDAO = new RecurringBookingDAOImpl(new BookingDAOImpl());
+        // every 4 weeks with no end, and every 8 weeks until 20 January
+        bookingDAO.saveRule(new RecurringBooking(10, 1, START, 28, null));
+        bookingDAO.saveRule(new RecurringBooking(11, 2, START, 56, LocalDate.of(2026, 1, 20)));
+        bookingDAO.save(new Booking(5, 3, START.plusDays(28)));
+        bookingDAO.save(new Booking(12, 3, START));
+    }
+
+    // ========== saveRule() Tests ==========
+
+    @Test
+    public void saveRule_DuplicateId_ThrowsException() {
+        assertThrows(DuplicateEntityException.class, () ->
+                bookingDAO.saveRule(new RecurringBooking(10, 3, START, 7, null)));
+        assertThrows(DuplicateEntityException.class, () ->
+                bookingDAO.saveRule(new RecurringBooking(5, 3, START, 7, null)));
+        assertThrows(DuplicateEntityException.class, () ->
+                bookingDAO.save(new Booking(11, 3, START)));
+        assertArrayEquals(new int[]{0, 2}, bookingDAO.saveAll(List.of(
+                new Booking(10, 3, START), new Booking(13, 3, START), new Booking(5, 3, START))));
+        assertEquals(3, bookingDAO.count());
+    }
+
+    @Test
+    public void saveRule_InvalidRule_ThrowsException() {
+        assertThrows(InvalidBookingException.class, () ->
+                bookingDAO.saveRule(new RecurringBooking(20, 1, START, 0, null)));
+        assertThrows(InvalidBookingException.class, () ->
+                bookingDAO.saveRule(new RecurringBooking(20, 1, START, 7, START.minusDays(1))));
+        assertThrows(InvalidBookingException.class, () ->
+                bookingDAO.saveRule(new RecurringBooking(20, 1, null, 7, null)));
+        assertTrue(bookingDAO.findRuleById(20).isEmpty());
+    }
+
+    @Test
+    public void findRulesByCustomerId_SavedRules_ReturnsRulesInIdOrder() {
+        bookingDAO.saveRule(new RecurringBooking(8, 1, START.plusDays(1), 14, null));
+
+        assertEquals(List.of(8, 10), bookingDAO.findRulesByCustomerId(1).stream().map(RecurringBooking::getId).collect(Collectors.toList()));
+        assertEquals(28, bookingDAO.findRuleById(10).orElseThrow().getIntervalDays());
+        assertTrue(bookingDAO.findRulesByCustomerId(3).isEmpty());
+    }
+
+    // ========== findByDate() Tests ==========
+
+    @Test
+    public void findByDate_VisitDates_ReturnsVisitsWithOneOffBookingsInIdOrder() {
+        assertEquals(List.of(10, 11, 12), ids(bookingDAO.findByDate(START)));
+        assertEquals(List.of(5, 10), ids(bookingDAO.findByDate(START.plusDays(28))));
+        assertEquals(List.of(10, 11), ids(bookingDAO.findByDate(START.plusDays(56))));
+        // the second rule ends before its visit on 2026-01-26
+        assertEquals(List.of(10), ids(bookingDAO.findByDate(START.plusDays(112))));
+        assertEquals(List.of(10), ids(bookingDAO.findByDate(START.plusDays(28 * 100))));
+        assertTrue(bookingDAO.findByDate(START.plusDays(1)).isEmpty());
+        assertTrue(bookingDAO.findByDate(START.minusDays(28)).isEmpty());
+        assertEquals(1, bookingDAO.findByDate(START.plusDays(28)).get(1).getCustomerId());
+    }
+
+    // ========== findByDateRange() Tests ==========
+
+    @Test
+    public void findByDateRange_SeveralRules_ReturnsVisitsInDateThenIdOrder() {
+        List<Booking> bookings = bookingDAO.findByDateRange(START, START.plusDays(120));
+
+        assertEquals(List.of(10, 11, 12, 5, 10, 10, 11, 10, 10), ids(bookings));
+        assertEquals(List.of(START, START, START, START.plusDays(28), START.plusDays(28), START.plusDays(56),
+                START.plusDays(56), START.plusDays(84), START.plusDays(112)), dates(bookings));
+        assertEquals(List.of(5, 10, 10, 11), ids(bookingDAO.findByDateRange(START.plusDays(1), START.plusDays(56))));
+        assertEquals(9, bookingDAO.countByDateRange(START, START.plusDays(120)));
+        assertArrayEquals(new int[]{3, 1, 1, 2}, bookingDAO.findCustomerIdsByDateRange(START.plusDays(1), START.plusDays(56)));
+        assertEquals(ids(bookings), ids(bookingDAO.streamByDateRange(START, START.plusDays(120)).collect(Collectors.toList())));
+    }
+
+    @Test
+    public void findByDateRange_RandomRules_MatchesMaterialisedBookings() {
+        Random random = new Random(42);
+        RecurringBookingDAOImpl recurring = new RecurringBookingDAOImpl(new BookingDAOImpl());
+        LocalDate end = START.plusDays(400);
+        List<RecurringBooking> rules = new ArrayList<>();
+        for (int id = 1; id <= 60; id++) {
+            LocalDate start = START.plusDays(random.nextInt(100));
+            LocalDate ruleEnd = random.nextBoolean() ? null : start.plusDays(random.nextInt(300));
+            rules.add(new RecurringBooking(id, 1 + random.nextInt(5), start, 7 * (1 + random.nextInt(8)), ruleEnd));
+            recurring.saveRule(rules.get(rules.size() - 1));
+        }
+
+        List<Booking> expected = new ArrayList<>();
+        for (RecurringBooking rule : rules) {
+            for (LocalDate visit = rule.getStartDate(); !visit.isAfter(end) && rule.isVisitDate(visit); visit = visit.plusDays(rule.getIntervalDays())) {
+                expected.add(new Booking(rule.getId(), rule.getCustomerId(), visit));
+            }
+        }
+        expected.sort(Booking.DATE_ORDER);
+
+        assertEquals(expected, recurring.findByDateRange(START, end));
+        assertEquals(expected.size(), recurring.countByDateRange(START, end));
+        assertEquals(expected.stream().filter(booking -> booking.getBookingDate().equals(START.plusDays(70))).collect(Collectors.toList()),
+                recurring.findByDate(START.plusDays(70)));
+    }
+
+    // ========== skipVisit() Tests ==========
+
+    @Test
+    public void skipVisit_ScheduledVisit_LeavesItOut() {
+        bookingDAO.skipVisit(10, START.plusDays(28));
+
+        assertEquals(List.of(5), ids(bookingDAO.findByDate(START.plusDays(28))));
+        assertEquals(List.of(10, 11, 12, 5, 10, 11), ids(bookingDAO.findByDateRange(START, START.plusDays(56))));
+        assertThrows(BookingNotFoundException.class, () -> bookingDAO.skipVisit(10, START.plusDays(1)));
+        assertThrows(BookingNotFoundException.class, () -> bookingDAO.skipVisit(99, START));
+    }
+
+    // ========== moveVisit() Tests ==========
+
+    @Test
+    public void moveVisit_ScheduledVisit_ReturnsItOnNewDate() {
+        bookingDAO.moveVisit(10, START.plusDays(28), START.plusDays(30));
+
+        assertEquals(List.of(5), ids(bookingDAO.findByDate(START.plusDays(28))));
+        assertEquals(List.of(10), ids(bookingDAO.findByDate(START.plusDays(30))));
+        assertEquals(List.of(START, START, START, START.plusDays(28), START.plusDays(30), START.plusDays(56), START.plusDays(56)),
+                dates(bookingDAO.findByDateRange(START, START.plusDays(56))));
+
+        // moving again replaces the move, and skipping cancels it
+        bookingDAO.moveVisit(10, START.plusDays(28), START.plusDays(56));
+        assertTrue(bookingDAO.findByDate(START.plusDays(30)).isEmpty());
+        assertEquals(List.of(10, 10, 11), ids(bookingDAO.findByDate(START.plusDays(56))));
+
+        bookingDAO.skipVisit(10, START.plusDays(28));
+        assertEquals(List.of(10, 11), ids(bookingDAO.findByDate(START.plusDays(56))));
+    }
+
+    // ========== findPageByDateRange() Tests ==========
+
+    @Test
+    public void findPageByDateRange_Cursor_PagesThroughVisitsAndBookings() {
+        LocalDate end = START.plusDays(56);
+        List<Booking> paged = new ArrayList<>();
+        BookingCursor cursor = null;
+        List<Booking> page;
+        do {
+            page = bookingDAO.findPageByDateRange(START, end, cursor, 2);
+            paged.addAll(page);
+            cursor = page.isEmpty() ? cursor : BookingCursor.after(page.get(page.size() - 1));
+        } while (page.size() == 2);
+
+        assertEquals(bookingDAO.findByDateRange(START, end), paged);
+    }
+
+    // ========== WindowCleaningServiceImpl Tests ==========
+
+    @Test
+    public void getTotalCostForDateRange_RecurringVisits_IncludesEachVisit() {
+        CustomerDAO customerDAO = new CustomerDAOImpl();
+        customerDAO.save(new Customer(1, "John", 10));
+        customerDAO.save(new Customer(2, "Paul", 5));
+        customerDAO.save(new Customer(3, "Ringo", 12));
+        WindowCleaningServiceImpl service = new WindowCleaningServiceImpl(bookingDAO, customerDAO);
+
+        // John four times, Paul twice, Ringo twice
+        assertEquals(4 * 10 + 2 * 5 + 2 * 12, service.getTotalWindowsForDateRange(START, START.plusDays(100)));
+        assertEquals(4 * 10 + 2 * 5 + 2 * 12 + 8 * WindowCleaningServiceImpl.COST_PER_PROPERTY,
+                service.getTotalCostForDateRange(START, START.plusDays(100)));
+        assertEquals(10 + 5, service.getTotalWindowsForDate(START.plusDays(56)));
+    }
+
+    @Test
+    public void constructor_DailyTotalsOverRecurringBookings_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new WindowCleaningServiceImpl(bookingDAO, new CustomerDAOImpl(),
+                ServiceOptions.builder().maintainDailyTotals(true).build()));
+        assertThrows(IllegalArgumentException.class, () -> new WindowCleaningServiceImpl(bookingDAO, new CustomerDAOImpl(),
+                ServiceOptions.builder().dailyWindowCapacity(100).build()));
+    }
+
+    private static List<Integer> ids(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getId).collect(Collectors.toList());
+    }
+
+    private static List<LocalDate> dates(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getBookingDate).collect(Collectors.toList());
+    }
+}
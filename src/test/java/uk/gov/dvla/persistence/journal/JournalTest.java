@@ -0,0 +1,183 @@
+package uk.gov.dvla.persistence.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.model.exception.CustomerNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.model.exception.InvalidCustomerException;
+import uk.gov.dvla.persistence.BookingDAOImpl;
+import uk.gov.dvla.persistence.ConcurrentBookingDAOImpl;
+import uk.gov.dvla.persistence.ConcurrentCustomerDAOImpl;
+import uk.gov.dvla.persistence.CustomerDAOImpl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void open_AfterChanges_ReplaysEveryChange() throws IOException {
+        Path file = directory.resolve("bookings.journal");
+        try (JournaledStore store = open(file)) {
+            store.getCustomerDAO().save(new Customer(1, "John", 10));
+            store.getCustomerDAO().save(new Customer(2, "Paul", 5));
+            store.getCustomerDAO().updateName(2, "Paul McCartney");
+            store.getCustomerDAO().updateWindows(1, 12);
+            store.getBookingDAO().save(new Booking(1, 1, LocalDate.of(2026, 1, 10)));
+            store.getBookingDAO().saveAll(List.of(
+                    new Booking(2, 2, LocalDate.of(2026, 1, 11)),
+                    new Booking(1, 2, LocalDate.of(2026, 1, 12))));
+            store.getBookingDAO().updateBookingDate(1, LocalDate.of(2026, 2, 1));
+        }
+
+        try (JournaledStore store = open(file)) {
+            assertEquals(new Customer(1, "John", 12), store.getCustomerDAO().findById(1).orElseThrow());
+            assertEquals(2, store.getCustomerDAO().resolveIdByName("Paul McCartney"));
+            assertEquals(new Booking(1, 1, LocalDate.of(2026, 2, 1)), store.getBookingDAO().findById(1).orElseThrow());
+            assertEquals(new Booking(2, 2, LocalDate.of(2026, 1, 11)), store.getBookingDAO().findById(2).orElseThrow());
+            assertEquals(2, store.getBookingDAO().count());
+        }
+    }
+
+    @Test
+    public void open_TornTailRecord_DropsTailAndKeepsAppending() throws IOException {
+        Path file = directory.resolve("bookings.journal");
+        try (JournaledStore store = open(file)) {
+            store.getCustomerDAO().save(new Customer(1, "John", 10));
+        }
+        long completeLength = Files.size(file);
+        // a crash part way through the length, checksum and payload of the next record
+        Files.write(file, new byte[]{0, 0, 0, 16, 1, 2}, StandardOpenOption.APPEND);
+
+        try (JournaledStore store = open(file)) {
+            assertEquals(completeLength, Files.size(file));
+            assertTrue(store.getCustomerDAO().findById(1).isPresent());
+            store.getCustomerDAO().save(new Customer(2, "Paul", 5));
+        }
+
+        try (JournaledStore store = open(file)) {
+            assertEquals(2, store.getCustomerDAO().findAll().size());
+        }
+    }
+
+    @Test
+    public void open_CorruptLastRecord_DropsOnlyThatRecord() throws IOException {
+        Path file = directory.resolve("bookings.journal");
+        try (JournaledStore store = open(file)) {
+            store.getCustomerDAO().save(new Customer(1, "John", 10));
+            store.getCustomerDAO().save(new Customer(2, "Paul", 5));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x7F;
+        Files.write(file, bytes);
+
+        try (JournaledStore store = open(file)) {
+            assertTrue(store.getCustomerDAO().findById(1).isPresent());
+            assertTrue(store.getCustomerDAO().findById(2).isEmpty());
+        }
+    }
+
+    @Test
+    public void open_NotAJournal_ThrowsException() throws IOException {
+        Path file = directory.resolve("bookings.csv");
+        Files.writeString(file, "id,customerId,date\n1,1,2026-01-10\n");
+
+        assertThrows(IOException.class, () -> open(file));
+    }
+
+    @Test
+    public void save_JournalWriteFails_DoesNotApplyChange() throws IOException {
+        BookingDAOImpl bookingDAO = new BookingDAOImpl();
+        CustomerDAOImpl customerDAO = new CustomerDAOImpl();
+        JournaledStore store = JournaledStore.open(directory.resolve("bookings.journal"), bookingDAO, customerDAO,
+                JournalOptions.defaults());
+        store.getCustomerDAO().save(new Customer(1, "John", 10));
+        store.close();
+
+        assertThrows(UncheckedIOException.class, () -> store.getBookingDAO().save(new Booking(1, 1, LocalDate.of(2026, 1, 10))));
+        assertThrows(UncheckedIOException.class, () -> store.getCustomerDAO().updateWindows(1, 12));
+        assertThrows(UncheckedIOException.class, () -> store.getCustomerDAO().saveAll(List.of(new Customer(2, "Paul", 5))));
+
+        assertEquals(0, bookingDAO.count());
+        assertEquals(10, customerDAO.findById(1).orElseThrow().getWindows());
+        assertTrue(customerDAO.findById(2).isEmpty());
+    }
+
+    @Test
+    public void save_RejectedChanges_AreNotJournaled() throws IOException {
+        Path file = directory.resolve("bookings.journal");
+        try (JournaledStore store = open(file)) {
+            store.getCustomerDAO().save(new Customer(1, "John", 10));
+            long length = Files.size(file);
+
+            assertThrows(DuplicateEntityException.class, () -> store.getCustomerDAO().save(new Customer(1, "Paul", 5)));
+            assertThrows(InvalidCustomerException.class, () -> store.getCustomerDAO().save(new Customer(0, "Paul", 5)));
+            assertThrows(CustomerNotFoundException.class, () -> store.getCustomerDAO().updateName(2, "Paul"));
+            assertThrows(BookingNotFoundException.class, () -> store.getBookingDAO().updateBookingDate(1, LocalDate.of(2026, 1, 10)));
+            assertArrayEquals(new int[]{1, 2}, store.getBookingDAO().saveAll(List.of(
+                    new Booking(1, 1, LocalDate.of(2026, 1, 10)),
+                    new Booking(1, 1, LocalDate.of(2026, 1, 11)),
+                    new Booking(1, 1, LocalDate.of(2026, 1, 12)))));
+            assertEquals(LocalDate.of(2026, 1, 10), store.getBookingDAO().findById(1).orElseThrow().getBookingDate());
+            assertTrue(Files.size(file) > length);
+        }
+
+        try (JournaledStore store = open(file)) {
+            assertEquals(1, store.getCustomerDAO().findAll().size());
+            assertEquals(1, store.getBookingDAO().count());
+        }
+    }
+
+    @Test
+    public void save_ConcurrentWritersWithGroupCommit_KeepsEveryBooking() throws Exception {
+        Path file = directory.resolve("bookings.journal");
+        JournalOptions options = JournalOptions.builder().maxBatchSize(64).maxBatchDelayMicros(200).build();
+        int threads = 8;
+        int bookingsPerThread = 250;
+
+        try (JournaledStore store = JournaledStore.open(file, new ConcurrentBookingDAOImpl(), new ConcurrentCustomerDAOImpl(), options)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                Future<?>[] futures = new Future<?>[threads];
+                for (int t = 0; t < threads; t++) {
+                    int thread = t;
+                    futures[t] = executor.submit(() -> {
+                        for (int i = 0; i < bookingsPerThread; i++) {
+                            int id = thread * bookingsPerThread + i + 1;
+                            store.getBookingDAO().save(new Booking(id, thread + 1, LocalDate.of(2026, 1, 1).plusDays(i)));
+                        }
+                    });
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        try (JournaledStore store = open(file)) {
+            assertEquals(threads * bookingsPerThread, store.getBookingDAO().count());
+        }
+    }
+
+    private static JournaledStore open(Path file) throws IOException {
+        return JournaledStore.open(file, new BookingDAOImpl(), new CustomerDAOImpl(), JournalOptions.defaults());
+    }
+}
@@ -0,0 +1,183 @@
+package uk.gov.dvla.persistence.snapshot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.BookingNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.BookingDAOImpl;
+import uk.gov.dvla.persistence.CustomerDAO;
+import uk.gov.dvla.persistence.CustomerDAOImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private BookingDAO bookingDAO;
+    private CustomerDAO customerDAO;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        CustomerDAO sourceCustomers = new CustomerDAOImpl();
+        sourceCustomers.save(new Customer(3, "Ringo", 12));
+        sourceCustomers.save(new Customer(1, "John", 10));
+        sourceCustomers.save(new Customer(2, "Zoë", 5));
+        sourceCustomers.save(new Customer(4, "John", 4));
+        sourceCustomers.save(new Customer(5, null, 7));
+
+        BookingDAO sourceBookings = new BookingDAOImpl();
+        sourceBookings.save(new Booking(1, 4, LocalDate.of(2025, 10, 1)));
+        sourceBookings.save(new Booking(2, 2, LocalDate.of(2026, 1, 10)));
+        sourceBookings.save(new Booking(3, 1, LocalDate.of(2025, 10, 1)));
+        sourceBookings.save(new Booking(4, 3, LocalDate.of(2025, 10, 1)));
+        sourceBookings.save(new Booking(5, 1, LocalDate.of(1969, 12, 31)));
+
+        file = directory.resolve("bookings.snapshot");
+        SnapshotWriter.write(file, sourceCustomers, sourceBookings);
+
+        Snapshot snapshot = Snapshot.open(file);
+        bookingDAO = new MappedBookingDAO(snapshot);
+        customerDAO = new MappedCustomerDAO(snapshot);
+    }
+
+    @Test
+    public void open_WrittenSnapshot_ServesEveryRecord() {
+        assertEquals(new Customer(2, "Zoë", 5), customerDAO.findById(2).orElseThrow());
+        assertEquals(List.of(1, 4), customerDAO.findByName("John").stream().map(Customer::getId).toList());
+        assertEquals(List.of(5), customerDAO.findByName(null).stream().map(Customer::getId).toList());
+        assertTrue(customerDAO.findByName("Paul").isEmpty());
+        assertEquals(5, customerDAO.findAll().size());
+
+        assertEquals(new Booking(5, 1, LocalDate.of(1969, 12, 31)), bookingDAO.findById(5).orElseThrow());
+        assertEquals(List.of(1, 3, 4, 2), ids(bookingDAO.findByDateRange(LocalDate.of(2025, 10, 1), LocalDate.of(2026, 1, 10))));
+        assertEquals(List.of(5, 3), ids(bookingDAO.findByCustomerId(1)));
+        assertArrayEquals(new int[]{4, 1, 3}, bookingDAO.findCustomerIdsByDateRange(LocalDate.of(2025, 10, 1), LocalDate.of(2025, 10, 1)));
+        assertEquals(5, bookingDAO.count());
+    }
+
+    @Test
+    public void save_AfterOpen_MergesOverlayWithSnapshot() {
+        bookingDAO.save(new Booking(6, 2, LocalDate.of(2025, 10, 1)));
+        bookingDAO.updateBookingDate(1, LocalDate.of(2026, 1, 10));
+
+        assertEquals(List.of(3, 4, 6, 1, 2), ids(bookingDAO.findByDateRange(LocalDate.of(2025, 10, 1), LocalDate.of(2026, 1, 10))));
+        assertEquals(5, bookingDAO.countByDateRange(LocalDate.of(2025, 10, 1), LocalDate.of(2026, 1, 10)));
+        assertArrayEquals(new int[]{1, 3, 2, 4, 2}, bookingDAO.findCustomerIdsByDateRange(LocalDate.of(2025, 10, 1), LocalDate.of(2026, 1, 10)));
+        assertEquals(6, bookingDAO.count());
+        assertThrows(DuplicateEntityException.class, () ->
+                bookingDAO.save(new Booking(2, 1, LocalDate.of(2027, 1, 1))));
+        assertThrows(BookingNotFoundException.class, () ->
+                bookingDAO.updateBookingDate(999, LocalDate.of(2027, 1, 1)));
+    }
+
+    @Test
+    public void updateBookingDate_MovedTwice_CountsBookingOnce() {
+        bookingDAO.updateBookingDate(1, LocalDate.of(2026, 1, 10));
+        bookingDAO.updateBookingDate(1, LocalDate.of(2026, 2, 1));
+
+        assertEquals(5, bookingDAO.count());
+        assertEquals(5, bookingDAO.streamAll().count());
+        assertEquals(3, bookingDAO.countByDateRange(LocalDate.of(2025, 10, 1), LocalDate.of(2026, 1, 10)));
+    }
+
+    @Test
+    public void saveAll_DuplicatesInSnapshotAndOverlay_SkipsThemInOrder() {
+        bookingDAO.save(new Booking(6, 2, LocalDate.of(2025, 10, 1)));
+
+        int[] skipped = bookingDAO.saveAll(List.of(
+                new Booking(6, 1, LocalDate.of(2026, 2, 1)),
+                new Booking(2, 1, LocalDate.of(2026, 2, 1)),
+                new Booking(7, 1, LocalDate.of(2026, 2, 1)),
+                new Booking(7, 1, LocalDate.of(2026, 2, 2))));
+
+        assertArrayEquals(new int[]{0, 1, 3}, skipped);
+        assertEquals(7, bookingDAO.count());
+        assertEquals(LocalDate.of(2026, 2, 1), bookingDAO.findById(7).orElseThrow().getBookingDate());
+    }
+
+    @Test
+    public void findPageByDateRange_AfterChanges_PagesThroughSnapshotAndOverlay() {
+        bookingDAO.save(new Booking(6, 2, LocalDate.of(2025, 10, 1)));
+        bookingDAO.save(new Booking(7, 1, LocalDate.of(2025, 12, 1)));
+        bookingDAO.updateBookingDate(3, LocalDate.of(2026, 1, 10));
+        LocalDate start = LocalDate.of(2025, 10, 1);
+        LocalDate end = LocalDate.of(2026, 1, 10);
+
+        List<Integer> paged = new ArrayList<>();
+        BookingCursor after = null;
+        for (List<Booking> page = bookingDAO.findPageByDateRange(start, end, null, 2); !page.isEmpty();
+             page = bookingDAO.findPageByDateRange(start, end, after, 2)) {
+            assertTrue(page.size() <= 2);
+            paged.addAll(ids(page));
+            after = BookingCursor.after(page.get(page.size() - 1));
+        }
+
+        assertEquals(List.of(1, 4, 6, 7, 2, 3), paged);
+        assertEquals(paged, bookingDAO.streamByDateRange(start, end).map(Booking::getId).toList());
+        assertEquals(ids(bookingDAO.findByDateRange(start, end)), paged);
+        assertEquals(7, bookingDAO.streamAll().count());
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7), bookingDAO.streamAll().map(Booking::getId).sorted().toList());
+    }
+
+    @Test
+    public void findPageByCustomerId_AfterChanges_PagesInDateOrder() {
+        bookingDAO.save(new Booking(6, 1, LocalDate.of(2025, 10, 1)));
+        bookingDAO.updateBookingDate(5, LocalDate.of(2026, 3, 1));
+
+        assertEquals(List.of(3, 6), ids(bookingDAO.findPageByCustomerId(1, null, 2)));
+        assertEquals(List.of(6, 5), ids(bookingDAO.findPageByCustomerId(1, new BookingCursor(LocalDate.of(2025, 10, 1), 3), 5)));
+        assertEquals(List.of(5), ids(bookingDAO.findPageByCustomerId(1, new BookingCursor(LocalDate.of(2025, 10, 1), 6), 5)));
+        assertTrue(bookingDAO.findPageByCustomerId(99, null, 5).isEmpty());
+    }
+
+    @Test
+    public void updateName_SnapshotCustomer_MovesCustomerToNewName() {
+        customerDAO.updateName(4, "George");
+        customerDAO.updateWindows(4, 9);
+
+        assertEquals(List.of(1), customerDAO.findByName("John").stream().map(Customer::getId).toList());
+        assertEquals(new Customer(4, "George", 9), customerDAO.findById(4).orElseThrow());
+        assertEquals(4, customerDAO.resolveIdByName("George"));
+        assertEquals(5, customerDAO.findAll().size());
+    }
+
+    @Test
+    public void write_ExistingSnapshot_ReplacesItAtomically() throws IOException {
+        SnapshotWriter.write(file, List.of(new Customer(9, "Yoko", 8)), List.of());
+
+        MappedCustomerDAO replaced = new MappedCustomerDAO(Snapshot.open(file));
+        assertEquals(List.of(9), replaced.findAll().stream().map(Customer::getId).toList());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    @Test
+    public void open_TruncatedSnapshot_ThrowsException() throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThrows(IOException.class, () -> Snapshot.open(file));
+    }
+
+    private static List<Integer> ids(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getId).toList();
+    }
+}
@@ -0,0 +1,222 @@
+package uk.gov.dvla.protocol;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.exception.CustomerNotFoundException;
+import uk.gov.dvla.model.exception.DuplicateEntityException;
+import uk.gov.dvla.model.exception.InvalidDateRangeException;
+import uk.gov.dvla.persistence.ConcurrentBookingDAOImpl;
+import uk.gov.dvla.persistence.ConcurrentCustomerDAOImpl;
+import uk.gov.dvla.service.ServiceOptions;
+import uk.gov.dvla.service.WindowCleaningServiceImpl;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingProtocolServerTest {
+
+    /**
+     * Clock fixed before the booking dates used here, so that they are not in the past.
+     */
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private static final LocalDate FIRST_DATE = LocalDate.now(CLOCK).plusYears(1);
+
+    private WindowCleaningServiceImpl service;
+    private BookingProtocolServer server;
+    private BookingProtocolClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        service = new WindowCleaningServiceImpl(new ConcurrentBookingDAOImpl(), new ConcurrentCustomerDAOImpl(),
+                ServiceOptions.builder().clock(CLOCK).build());
+        service.addCustomer(new Customer(1, "John", 10));
+        service.addCustomer(new Customer(2, "Paul", 5));
+        service.addBooking(new Booking(1, 1, FIRST_DATE));
+        service.addBooking(new Booking(2, 2, FIRST_DATE));
+
+        server = BookingProtocolServer.start(service, new InetSocketAddress("localhost", 0));
+        client = BookingProtocolClient.connect(new InetSocketAddress("localhost", server.getPort()));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    // ========== customer requests Tests ==========
+
+    @Test
+    public void addCustomer_ValidCustomer_CanBeReadBack() {
+        BookingProtocolClient.await(client.addCustomer(new Customer(3, "Ringo Starr", 12)));
+
+        assertEquals(new Customer(3, "Ringo Starr", 12), BookingProtocolClient.await(client.getCustomer(3)));
+        assertEquals(3, BookingProtocolClient.await(client.getCustomerIdByName("Ringo Starr")));
+    }
+
+    @Test
+    public void addCustomer_DuplicateId_ThrowsServiceException() {
+        assertThrows(DuplicateEntityException.class, () ->
+                BookingProtocolClient.await(client.addCustomer(new Customer(1, "Duplicate", 5))));
+    }
+
+    @Test
+    public void getCustomer_UnknownId_ThrowsServiceException() {
+        CustomerNotFoundException exception = assertThrows(CustomerNotFoundException.class, () ->
+                BookingProtocolClient.await(client.getCustomer(99)));
+        assertEquals("Customer not found", exception.getMessage());
+    }
+
+    // ========== booking requests Tests ==========
+
+    @Test
+    public void getBookingByBookingId_PipelinedRequests_AnsweredInOrder() {
+        List<CompletableFuture<Booking>> replies = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            replies.add(client.getBookingByBookingId(i % 2 + 1));
+        }
+        CompletableFuture<Integer> cost = client.getTotalCostForDate(FIRST_DATE);
+
+        for (int i = 0; i < replies.size(); i++) {
+            assertEquals(i % 2 + 1, BookingProtocolClient.await(replies.get(i)).getId());
+        }
+        assertEquals(25, BookingProtocolClient.await(cost));
+    }
+
+    @Test
+    public void getAllBookingsForDateRange_ManyBookings_StreamedOverSeveralFrames() {
+        List<Booking> bookings = new ArrayList<>();
+        for (int id = 3; id <= 20_000; id++) {
+            bookings.add(new Booking(id, id % 2 + 1, FIRST_DATE.plusDays(id % 30)));
+        }
+        service.addBookings(bookings);
+
+        List<Booking> range = BookingProtocolClient.await(client.getAllBookingsForDateRange(FIRST_DATE, FIRST_DATE.plusDays(29)));
+
+        assertEquals(20_000, range.size());
+        assertEquals(service.getAllBookingsForDateRange(FIRST_DATE, FIRST_DATE.plusDays(29)), range);
+    }
+
+    @Test
+    public void getAllBookingsForDateRange_BookingsAddedWhileStreaming_SendsEveryEarlierBooking() throws Exception {
+        List<Booking> bookings = new ArrayList<>();
+        for (int id = 3; id <= 20_000; id++) {
+            bookings.add(new Booking(id, id % 2 + 1, FIRST_DATE.plusDays(id % 30)));
+        }
+        service.addBookings(bookings);
+        List<Booking> before = service.getAllBookingsForDateRange(FIRST_DATE, FIRST_DATE.plusDays(29));
+
+        Thread writer = new Thread(() -> {
+            for (int id = 20_001; id <= 40_000; id++) {
+                service.addBooking(new Booking(id, id % 2 + 1, FIRST_DATE.plusDays(id % 30)));
+            }
+        });
+        writer.start();
+        List<Booking> range;
+        try {
+            range = BookingProtocolClient.await(client.getAllBookingsForDateRange(FIRST_DATE, FIRST_DATE.plusDays(29)));
+        } finally {
+            writer.join();
+        }
+
+        assertTrue(range.containsAll(before));
+    }
+
+    @Test
+    public void getBookingsWithCustomerName_ManyBookings_StreamedOverSeveralFrames() {
+        List<Booking> bookings = new ArrayList<>();
+        for (int id = 3; id <= 10_000; id++) {
+            bookings.add(new Booking(id, id % 2 + 1, FIRST_DATE.plusDays(id % 30)));
+        }
+        service.addBookings(bookings);
+
+        List<Booking> johns = BookingProtocolClient.await(client.getBookingsWithCustomerName("John"));
+
+        assertEquals(5_000, johns.size());
+        assertTrue(johns.stream().allMatch(booking -> booking.getCustomerId() == 1));
+    }
+
+    @Test
+    public void getAllBookingsForDateRange_StartAfterEnd_ThrowsServiceException() {
+        assertThrows(InvalidDateRangeException.class, () ->
+                BookingProtocolClient.await(client.getAllBookingsForDateRange(FIRST_DATE.plusDays(1), FIRST_DATE)));
+        assertEquals(2, BookingProtocolClient.await(client.getAllBookingsForDate(FIRST_DATE)).size());
+    }
+
+    @Test
+    public void rescheduleBooking_ExistingBooking_MovesBooking() {
+        BookingProtocolClient.await(client.rescheduleBooking(1, FIRST_DATE.plusDays(1)));
+
+        assertEquals(FIRST_DATE.plusDays(1), BookingProtocolClient.await(client.getBookingByBookingId(1)).getBookingDate());
+        assertEquals(5, BookingProtocolClient.await(client.getTotalWindowsForDate(FIRST_DATE)));
+    }
+
+    @Test
+    public void getTotalCostForDateRange_SlowRequest_DoesNotHoldUpOtherConnections() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        WindowCleaningServiceImpl slowService = new WindowCleaningServiceImpl(new ConcurrentBookingDAOImpl(),
+                new ConcurrentCustomerDAOImpl(), ServiceOptions.builder().clock(CLOCK).build()) {
+            @Override
+            public int getTotalCostForDateRange(LocalDate startDate, LocalDate endDate) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getTotalCostForDateRange(startDate, endDate);
+            }
+        };
+        slowService.addCustomer(new Customer(1, "John", 10));
+
+        try (BookingProtocolServer slowServer = BookingProtocolServer.start(slowService, new InetSocketAddress("localhost", 0));
+             BookingProtocolClient reportClient = BookingProtocolClient.connect(new InetSocketAddress("localhost", slowServer.getPort()));
+             BookingProtocolClient otherClient = BookingProtocolClient.connect(new InetSocketAddress("localhost", slowServer.getPort()))) {
+            try {
+                CompletableFuture<Integer> report = reportClient.getTotalCostForDateRange(FIRST_DATE, FIRST_DATE.plusYears(5));
+
+                assertEquals("John", otherClient.getCustomer(1).get(5, TimeUnit.SECONDS).getName());
+                assertFalse(report.isDone());
+                release.countDown();
+                assertEquals(0, BookingProtocolClient.await(report));
+            } finally {
+                release.countDown();
+            }
+        }
+    }
+
+    // ========== framing Tests ==========
+
+    @Test
+    public void unknownOpcode_ValidFrame_RepliesWithError() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()))) {
+            channel.write(ByteBuffer.allocate(9).putInt(5).putInt(42).put((byte) 99).flip());
+
+            ByteBuffer reply = ByteBuffer.allocate(256);
+            while (reply.position() < 4 || reply.position() < 4 + reply.getInt(0)) {
+                channel.read(reply);
+            }
+            reply.flip();
+            reply.getInt();
+            assertEquals(42, reply.getInt());
+            assertEquals(Protocol.ERROR, reply.get());
+            assertEquals(Protocol.MALFORMED_REQUEST, reply.get());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package uk.gov.dvla.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.CrewAssignment;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.DispatchPlan;
+import uk.gov.dvla.model.exception.*;
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.BookingDAOImpl;
+import uk.gov.dvla.persistence.CustomerDAO;
+import uk.gov.dvla.persistence.CustomerDAOImpl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DispatchPlannerTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 10, 6);
+
+    private BookingDAO bookingDAO;
+    private CustomerDAO customerDAO;
+
+    @BeforeEach
+    public void setUp() {
+        bookingDAO = new BookingDAOImpl();
+        customerDAO = new CustomerDAOImpl();
+        customerDAO.save(new Customer(1, "John", 10));
+        customerDAO.save(new Customer(2, "Paul", 5));
+        customerDAO.save(new Customer(3, "Ringo", 12));
+        customerDAO.save(new Customer(4, "George", 4));
+    }
+
+    // ========== planDay() Tests ==========
+
+    @Test
+    public void planDay_BookingsFit_PlacesLargestJobsOnEmptiestCrews() {
+        bookingDAO.save(new Booking(1, 1, MONDAY));
+        bookingDAO.save(new Booking(2, 2, MONDAY));
+        bookingDAO.save(new Booking(3, 3, MONDAY));
+        bookingDAO.save(new Booking(4, 4, MONDAY));
+
+        DispatchPlan plan = new DispatchPlanner(bookingDAO, customerDAO, 2, 20).planDay(MONDAY);
+
+        // 12 to crew 0, 10 to crew 1, 5 to crew 1, 4 to crew 0
+        assertTrue(plan.isComplete());
+        assertEquals(List.of(3, 4), ids(plan.getCrews().get(0)));
+        assertEquals(16, plan.getCrews().get(0).getWindows());
+        assertEquals(List.of(1, 2), ids(plan.getCrews().get(1)));
+        assertEquals(15, plan.getCrews().get(1).getWindows());
+    }
+
+    @Test
+    public void planDay_NotEnoughRoom_LeavesBookingsUnassigned() {
+        bookingDAO.save(new Booking(1, 1, MONDAY));
+        bookingDAO.save(new Booking(2, 3, MONDAY));
+        bookingDAO.save(new Booking(3, 3, MONDAY));
+
+        DispatchPlan plan = new DispatchPlanner(bookingDAO, customerDAO, 2, 12).planDay(MONDAY);
+
+        assertFalse(plan.isComplete());
+        assertEquals(List.of(1), plan.getUnassigned().stream().map(Booking::getId).toList());
+        assertEquals(12, plan.getCrews().get(0).getWindows());
+        assertEquals(12, plan.getCrews().get(1).getWindows());
+    }
+
+    @Test
+    public void planDay_ManyBookings_KeepsEveryCrewWithinCapacity() {
+        Random random = new Random(42);
+        for (int id = 1; id <= 2_000; id++) {
+            bookingDAO.save(new Booking(id, 1 + random.nextInt(4), MONDAY));
+        }
+
+        DispatchPlan plan = new DispatchPlanner(bookingDAO, customerDAO, 40, 400).planDay(MONDAY);
+
+        int assigned = plan.getUnassigned().size();
+        for (CrewAssignment crew : plan.getCrews()) {
+            assertTrue(crew.getWindows() <= 400);
+            assigned += crew.getBookings().size();
+        }
+        assertEquals(2_000, assigned);
+    }
+
+    @Test
+    public void planDay_MissingCustomer_ThrowsException() {
+        bookingDAO.save(new Booking(1, 999, MONDAY));
+
+        assertThrows(CustomerNotFoundException.class, () ->
+                new DispatchPlanner(bookingDAO, customerDAO, 2, 20).planDay(MONDAY));
+    }
+
+    @Test
+    public void constructor_NoCrews_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new DispatchPlanner(bookingDAO, customerDAO, 0, 20));
+    }
+
+    // ========== planWeek() Tests ==========
+
+    @Test
+    public void planWeek_BookingsAcrossWeek_MatchesPlanningEachDay() {
+        Random random = new Random(7);
+        for (int id = 1; id <= 500; id++) {
+            bookingDAO.save(new Booking(id, 1 + random.nextInt(4), MONDAY.plusDays(random.nextInt(9))));
+        }
+        ForkJoinPool pool = new ForkJoinPool(3);
+        DispatchPlanner planner = new DispatchPlanner(bookingDAO, customerDAO, 3, 100, pool);
+
+        List<DispatchPlan> week = planner.planWeek(MONDAY);
+        pool.shutdown();
+
+        assertEquals(DispatchPlanner.DAYS_PER_WEEK, week.size());
+        for (int day = 0; day < DispatchPlanner.DAYS_PER_WEEK; day++) {
+            DispatchPlan expected = planner.planDay(MONDAY.plusDays(day));
+            assertEquals(MONDAY.plusDays(day), week.get(day).getDate());
+            assertEquals(expected.getUnassigned(), week.get(day).getUnassigned());
+            for (int crew = 0; crew < 3; crew++) {
+                assertEquals(expected.getCrews().get(crew).getBookings(), week.get(day).getCrews().get(crew).getBookings());
+            }
+        }
+    }
+
+    @Test
+    public void planWeek_MissingCustomer_ThrowsException() {
+        bookingDAO.save(new Booking(1, 999, MONDAY.plusDays(3)));
+
+        assertThrows(CustomerNotFoundException.class, () ->
+                new DispatchPlanner(bookingDAO, customerDAO, 2, 20).planWeek(MONDAY));
+    }
+
+    private static List<Integer> ids(CrewAssignment crew) {
+        List<Integer> ids = new ArrayList<>();
+        for (Booking booking : crew.getBookings()) {
+            ids.add(booking.getId());
+        }
+        return ids;
+    }
+}
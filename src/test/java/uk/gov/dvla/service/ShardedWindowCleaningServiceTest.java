@@ -0,0 +1,270 @@
+package uk.gov.dvla.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.BookingPage;
+import uk.gov.dvla.model.BulkLoadReport;
+import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.ErrorCode;
+import uk.gov.dvla.model.exception.*;
+import uk.gov.dvla.persistence.BookingDAO;
+import uk.gov.dvla.persistence.ConcurrentBookingDAOImpl;
+import uk.gov.dvla.persistence.ConcurrentCustomerDAOImpl;
+import uk.gov.dvla.persistence.CustomerDAO;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedWindowCleaningServiceTest {
+
+    /**
+     * Clock fixed before the booking dates used here, so that they are not in the past.
+     */
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+    private static final int SHARDS = 4;
+    private static final LocalDate FIRST_DATE = LocalDate.of(2025, 3, 1);
+
+    private List<BookingDAO> bookingDAOs;
+    private List<CustomerDAO> customerDAOs;
+    private ShardedWindowCleaningService service;
+    private WindowCleaningService reference;
+
+    @BeforeEach
+    public void setUp() {
+        bookingDAOs = new ArrayList<>();
+        customerDAOs = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            bookingDAOs.add(new ConcurrentBookingDAOImpl());
+            customerDAOs.add(new ConcurrentCustomerDAOImpl());
+        }
+        ServiceOptions options = ServiceOptions.builder().clock(CLOCK).build();
+        service = new ShardedWindowCleaningService(bookingDAOs, customerDAOs, options);
+        reference = new WindowCleaningServiceImpl(new ConcurrentBookingDAOImpl(), new ConcurrentCustomerDAOImpl(), options);
+
+        for (int id = 1; id <= 40; id++) {
+            Customer customer = new Customer(id, "Customer" + id, 1 + id % 7);
+            service.addCustomer(customer);
+            reference.addCustomer(customer);
+        }
+        for (int id = 1; id <= 200; id++) {
+            Booking booking = new Booking(id, 1 + id % 40, FIRST_DATE.plusDays(id % 30));
+            service.addBooking(booking);
+            reference.addBooking(booking);
+        }
+    }
+
+    // ========== Routing Tests ==========
+
+    @Test
+    public void addBooking_SpreadsAcrossShards_KeepsCustomerBookingsOnOneShard() {
+        for (BookingDAO bookingDAO : bookingDAOs) {
+            List<Booking> bookings = bookingDAO.findAll();
+            assertFalse(bookings.isEmpty());
+            for (Booking booking : bookings) {
+                int customerId = booking.getCustomerId();
+                assertEquals(reference.getAllBookingsForCustomerId(customerId).size(), bookingDAO.findByCustomerId(customerId).size());
+            }
+        }
+    }
+
+    @Test
+    public void getAllBookingsForCustomerId_MatchesSingleService() {
+        for (int customerId = 1; customerId <= 40; customerId++) {
+            assertEquals(reference.getAllBookingsForCustomerId(customerId), service.getAllBookingsForCustomerId(customerId));
+        }
+    }
+
+    @Test
+    public void getCustomer_UnknownCustomer_ThrowsException() {
+        assertThrows(CustomerNotFoundException.class, () -> service.getCustomer(999));
+    }
+
+    @Test
+    public void getTotalCostForBooking_MatchesSingleService() {
+        for (int bookingId = 1; bookingId <= 200; bookingId++) {
+            assertEquals(reference.getTotalCostForBooking(bookingId), service.getTotalCostForBooking(bookingId));
+        }
+        assertThrows(BookingNotFoundException.class, () -> service.getTotalCostForBooking(999));
+    }
+
+    @Test
+    public void constructor_DailyWindowCapacity_ThrowsException() {
+        ServiceOptions options = ServiceOptions.builder().dailyWindowCapacity(100).build();
+
+        assertThrows(IllegalArgumentException.class, () ->
+                new ShardedWindowCleaningService(bookingDAOs, customerDAOs, options));
+    }
+
+    // ========== Booking Directory Tests ==========
+
+    @Test
+    public void addBooking_IdUsedOnAnotherShard_ThrowsException() {
+        // customer 2 may live on a different shard from booking 1's customer
+        for (int customerId = 1; customerId <= 40; customerId++) {
+            int id = customerId;
+            assertThrows(DuplicateEntityException.class, () ->
+                    service.addBooking(new Booking(1, id, FIRST_DATE)));
+        }
+        assertEquals(200, service.getAllBookings().size());
+    }
+
+    @Test
+    public void addBooking_UnknownCustomer_ReleasesBookingId() {
+        assertThrows(CustomerNotFoundException.class, () ->
+                service.addBooking(new Booking(500, 999, FIRST_DATE)));
+
+        service.addBooking(new Booking(500, 1, FIRST_DATE));
+        assertEquals(1, service.getBookingByBookingId(500).getCustomerId());
+    }
+
+    @Test
+    public void rescheduleBooking_MovesBookingOnItsShard() {
+        LocalDate newDate = LocalDate.of(2025, 6, 1);
+        service.rescheduleBooking(7, newDate);
+
+        assertEquals(newDate, service.getBookingByBookingId(7).getBookingDate());
+        assertEquals(ErrorCode.BOOKING_NOT_FOUND, service.tryRescheduleBooking(999, newDate).getErrorCode());
+        assertEquals(ErrorCode.BOOKING_DATE_IN_THE_PAST,
+                service.tryRescheduleBooking(999, LocalDate.of(2024, 1, 1)).getErrorCode());
+    }
+
+    @Test
+    public void constructor_ExistingBookings_AreFoundById() {
+        List<CustomerDAO> customerDAOs = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            customerDAOs.add(new ConcurrentCustomerDAOImpl());
+        }
+        ShardedWindowCleaningService reopened = new ShardedWindowCleaningService(bookingDAOs, customerDAOs,
+                ServiceOptions.builder().clock(CLOCK).build());
+
+        assertEquals(reference.getBookingByBookingId(42), reopened.getBookingByBookingId(42));
+    }
+
+    @Test
+    public void getBookingByBookingId_SavedStraightToShard_IsFound() {
+        int shard = 0;
+        while (customerDAOs.get(shard).findById(1).isEmpty()) {
+            shard++;
+        }
+        Booking booking = new Booking(500, 1, FIRST_DATE);
+        bookingDAOs.get(shard).save(booking);
+
+        assertEquals(booking, service.getBookingByBookingId(500));
+        assertEquals(WindowCleaningServiceImpl.COST_PER_PROPERTY + reference.getCustomer(1).getWindows() * WindowCleaningServiceImpl.COST_PER_WINDOW,
+                service.getTotalCostForBooking(500));
+        assertThrows(BookingNotFoundException.class, () -> service.getBookingByBookingId(501));
+    }
+
+    // ========== Fan-out Query Tests ==========
+
+    @Test
+    public void getAllBookingsForDateRange_MatchesSingleService() {
+        LocalDate endDate = FIRST_DATE.plusDays(10);
+
+        assertEquals(reference.getAllBookingsForDateRange(FIRST_DATE, endDate), service.getAllBookingsForDateRange(FIRST_DATE, endDate));
+        assertEquals(reference.getAllBookingsForDate(FIRST_DATE), service.getAllBookingsForDate(FIRST_DATE));
+    }
+
+    @Test
+    public void totals_MatchSingleService() {
+        LocalDate endDate = FIRST_DATE.plusDays(20);
+
+        assertEquals(reference.getTotalWindowsForDate(FIRST_DATE), service.getTotalWindowsForDate(FIRST_DATE));
+        assertEquals(reference.getTotalCostForDate(FIRST_DATE), service.getTotalCostForDate(FIRST_DATE));
+        assertEquals(reference.getTotalWindowsForDateRange(FIRST_DATE, endDate), service.getTotalWindowsForDateRange(FIRST_DATE, endDate));
+        assertEquals(reference.getTotalCostForDateRange(FIRST_DATE, endDate), service.getTotalCostForDateRange(FIRST_DATE, endDate));
+    }
+
+    @Test
+    public void streamBookingsForDateRange_MergesShardsInDateThenIdOrder() {
+        LocalDate endDate = FIRST_DATE.plusDays(10);
+
+        assertEquals(reference.getAllBookingsForDateRange(FIRST_DATE, endDate), service.streamBookingsForDateRange(FIRST_DATE, endDate).toList());
+        assertEquals(List.of(), service.streamBookingsForDateRange(FIRST_DATE.minusDays(10), FIRST_DATE.minusDays(1)).toList());
+        assertThrows(InvalidDateRangeException.class, () -> service.streamBookingsForDateRange(FIRST_DATE, FIRST_DATE.minusDays(1)));
+    }
+
+    @Test
+    public void getAllBookingsForDateRange_EndBeforeStart_ThrowsException() {
+        assertThrows(InvalidDateRangeException.class, () ->
+                service.getAllBookingsForDateRange(FIRST_DATE, FIRST_DATE.minusDays(1)));
+    }
+
+    @Test
+    public void getBookingsPage_WalksAllBookingsInOrder() {
+        List<Booking> walked = new ArrayList<>();
+        BookingCursor cursor = null;
+        do {
+            BookingPage page = service.getBookingsPage(cursor, 7);
+            assertTrue(page.getBookings().size() <= 7);
+            walked.addAll(page.getBookings());
+            cursor = page.getNext();
+        } while (cursor != null);
+
+        assertEquals(reference.getBookingsPage(null, 200).getBookings(), walked);
+    }
+
+    // ========== Name Lookup Tests ==========
+
+    @Test
+    public void getCustomerIdByName_SearchesEveryShard() {
+        for (int customerId = 1; customerId <= 40; customerId++) {
+            assertEquals(customerId, service.getCustomerIdByName("Customer" + customerId));
+        }
+        assertEquals(reference.getBookingsWithCustomerName("Customer9"), service.getBookingsWithCustomerName("Customer9"));
+    }
+
+    @Test
+    public void getCustomerIdByName_NameOnTwoShards_ThrowsException() {
+        int other = 2;
+        while (shardOf(other) == shardOf(1)) {
+            other++;
+        }
+        customerDAOs.get(shardOf(other)).updateName(other, "Customer1");
+
+        assertThrows(MultipleCustomerFoundException.class, () -> service.getCustomerIdByName("Customer1"));
+        assertThrows(MultipleCustomerFoundException.class, () -> service.getBookingsWithCustomerName("Customer1"));
+        assertThrows(CustomerNotFoundException.class, () -> service.getCustomerIdByName("Nobody"));
+    }
+
+    // ========== Bulk Load Tests ==========
+
+    @Test
+    public void addBookings_ReportsFailuresInInputOrder() {
+        BulkLoadReport report = service.addBookings(Arrays.asList(
+                new Booking(300, 1, FIRST_DATE),
+                new Booking(5, 2, FIRST_DATE),
+                null,
+                new Booking(301, 999, FIRST_DATE),
+                new Booking(302, 3, FIRST_DATE)));
+
+        assertEquals(2, report.getLoadedCount());
+        List<BulkLoadReport.RecordResult> failures = report.getFailures();
+        assertEquals(3, failures.size());
+        assertEquals(1, failures.get(0).getIndex());
+        assertEquals(ErrorCode.DUPLICATE_BOOKING, failures.get(0).getErrorCode());
+        assertEquals(2, failures.get(1).getIndex());
+        assertEquals(3, failures.get(2).getIndex());
+        assertEquals(ErrorCode.CUSTOMER_NOT_FOUND, failures.get(2).getErrorCode());
+        assertFalse(service.tryGetBookingByBookingId(301).isOk());
+        assertEquals(3, service.getBookingByBookingId(302).getCustomerId());
+    }
+
+    private int shardOf(int customerId) {
+        for (int shard = 0; shard < SHARDS; shard++) {
+            if (customerDAOs.get(shard).findById(customerId).isPresent()) {
+                return shard;
+            }
+        }
+        throw new AssertionError("Customer " + customerId + " is on no shard");
+    }
+}
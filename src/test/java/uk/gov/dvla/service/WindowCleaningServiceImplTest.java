@@ -3,20 +3,38 @@ package uk.gov.dvla.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import uk.gov.dvla.model.Booking;
+import uk.gov.dvla.model.BookingCursor;
+import uk.gov.dvla.model.BookingPage;
+import uk.gov.dvla.model.BulkLoadReport;
 import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.ErrorCode;
+import uk.gov.dvla.model.Result;
 import uk.gov.dvla.model.exception.*;
 import uk.gov.dvla.persistence.BookingDAO;
 import uk.gov.dvla.persistence.BookingDAOImpl;
 import uk.gov.dvla.persistence.CustomerDAO;
 import uk.gov.dvla.persistence.CustomerDAOImpl;
+import uk.gov.dvla.util.IntObjectHashMap;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class WindowCleaningServiceImplTest {
 
+    /**
+     * Clock fixed before the booking dates used here, so that they are not in the past.
+     */
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
     private BookingDAO bookingDAO;
     private CustomerDAO customerDAO;
     private WindowCleaningServiceImpl service;
@@ -25,7 +43,7 @@ class WindowCleaningServiceImplTest {
     public void setUp() {
         bookingDAO = new BookingDAOImpl();
         customerDAO = new CustomerDAOImpl();
-        service = new WindowCleaningServiceImpl(bookingDAO, customerDAO);
+        service = new WindowCleaningServiceImpl(bookingDAO, customerDAO, ServiceOptions.builder().clock(CLOCK).build());
         setupTestData();
     }
 
@@ -65,6 +83,33 @@ class WindowCleaningServiceImplTest {
                 service.addCustomer(duplicate));
     }
 
+    // ========== addCustomers() Tests ==========
+
+    @Test
+    public void addCustomers_MixedBatch_ReportsEachCustomer() {
+        BulkLoadReport report = service.addCustomers(Arrays.asList(
+                new Customer(5, "Yoko", 8),
+                new Customer(1, "Duplicate", 5),
+                null,
+                new Customer(6, "Zero Windows", 0),
+                new Customer(5, "Repeated", 3)));
+
+        assertEquals(1, report.getLoadedCount());
+        assertEquals(4, report.getFailedCount());
+        assertTrue(report.getResults().get(0).isLoaded());
+        assertEquals(ErrorCode.DUPLICATE_CUSTOMER, report.getResults().get(1).getErrorCode());
+        assertEquals(ErrorCode.NULL_ARGUMENT, report.getResults().get(2).getErrorCode());
+        assertEquals(ErrorCode.INVALID_CUSTOMER, report.getResults().get(3).getErrorCode());
+        assertEquals(ErrorCode.DUPLICATE_CUSTOMER, report.getResults().get(4).getErrorCode());
+        assertEquals(new Customer(5, "Yoko", 8), service.getCustomer(5));
+    }
+
+    @Test
+    public void addCustomers_NullCollection_ThrowsException() {
+        assertThrows(NullPointerException.class, () ->
+                service.addCustomers(null));
+    }
+
     // ========== getCustomer() Tests ==========
     
     @Test
@@ -162,6 +207,44 @@ class WindowCleaningServiceImplTest {
                 service.addBooking(pastBooking));
     }
 
+    // ========== addBookings() Tests ==========
+
+    @Test
+    public void addBookings_MixedBatch_ReportsEachBooking() {
+        BulkLoadReport report = service.addBookings(Arrays.asList(
+                new Booking(5, 2, LocalDate.of(2025, 10, 1)),
+                new Booking(6, 999, LocalDate.of(2025, 10, 1)),
+                new Booking(1, 2, LocalDate.of(2025, 10, 1)),
+                new Booking(7, 1, LocalDate.of(2020, 1, 1)),
+                new Booking(8, 3, LocalDate.of(2026, 1, 10)),
+                new Booking(8, 3, LocalDate.of(2026, 1, 11))));
+
+        assertEquals(List.of(5, 6, 1, 7, 8, 8), report.getResults().stream().map(BulkLoadReport.RecordResult::getId).toList());
+        assertEquals(2, report.getLoadedCount());
+        assertEquals(ErrorCode.CUSTOMER_NOT_FOUND, report.getResults().get(1).getErrorCode());
+        assertEquals(ErrorCode.DUPLICATE_BOOKING, report.getResults().get(2).getErrorCode());
+        assertEquals(ErrorCode.BOOKING_DATE_IN_THE_PAST, report.getResults().get(3).getErrorCode());
+        assertEquals(ErrorCode.DUPLICATE_BOOKING, report.getResults().get(5).getErrorCode());
+        assertEquals(List.of(1, 3, 4, 5), service.getAllBookingsForDate(LocalDate.of(2025, 10, 1)).stream().map(Booking::getId).toList());
+        assertEquals(LocalDate.of(2026, 1, 10), service.getBookingByBookingId(8).getBookingDate());
+    }
+
+    @Test
+    public void addBookings_DailyTotals_MatchScannedTotals() {
+        WindowCleaningServiceImpl totalsService = new WindowCleaningServiceImpl(bookingDAO, customerDAO,
+                ServiceOptions.builder().maintainDailyTotals(true).clock(CLOCK).build());
+
+        totalsService.addBookings(List.of(
+                new Booking(5, 2, LocalDate.of(2025, 10, 1)),
+                new Booking(6, 3, LocalDate.of(2026, 1, 10)),
+                new Booking(1, 2, LocalDate.of(2025, 10, 1))));
+
+        LocalDate start = LocalDate.of(2025, 9, 1);
+        LocalDate end = LocalDate.of(2026, 11, 1);
+        assertEquals(service.getTotalWindowsForDateRange(start, end), totalsService.getTotalWindowsForDateRange(start, end));
+        assertEquals(48, totalsService.getTotalWindowsForDateRange(start, end));
+    }
+
     // ========== getBookingByBookingId() Tests ==========
     
     @Test
@@ -224,6 +307,18 @@ class WindowCleaningServiceImplTest {
         assertEquals(5, bookings.get(1).getId());;
     }
 
+    @Test
+    public void getAllBookingsForCustomerId_BookingsOnDifferentDates_ReturnsBookingsInDateOrder() {
+        service.addBooking(new Booking(6, 1, LocalDate.of(2025, 12, 1)));
+        service.addBooking(new Booking(5, 1, LocalDate.of(2025, 9, 1)));
+        List<Booking> bookings = service.getAllBookingsForCustomerId(1);
+
+        assertEquals(3, bookings.size());
+        assertEquals(5, bookings.get(0).getId());
+        assertEquals(3, bookings.get(1).getId());
+        assertEquals(6, bookings.get(2).getId());
+    }
+
     @Test
     public void getAllBookingsForCustomerId_CustomerWithNoBookings_ReturnsEmptyList() {
         assertThrows(CustomerNotFoundException.class, () ->{
@@ -238,9 +333,9 @@ class WindowCleaningServiceImplTest {
         List<Booking> bookings = service.getAllBookingsForDateRange(LocalDate.of(2025, 10, 1), LocalDate.of(2026, 10, 1));
         assertEquals(4, bookings.size());
         assertEquals(1, bookings.get(0).getId());
-        assertEquals(2, bookings.get(1).getId());
-        assertEquals(3, bookings.get(2).getId());
-        assertEquals(4, bookings.get(3).getId());
+        assertEquals(3, bookings.get(1).getId());
+        assertEquals(4, bookings.get(2).getId());
+        assertEquals(2, bookings.get(3).getId());
     }
 
     @Test
@@ -275,6 +370,62 @@ class WindowCleaningServiceImplTest {
     }
 
 
+    // ========== streamBookings() Tests ==========
+
+    @Test
+    public void streamBookingsForDateRange_ValidRange_StreamsBookingsInDateThenIdOrder() {
+        List<Integer> ids = service.streamBookingsForDateRange(LocalDate.of(2025, 10, 1), LocalDate.of(2026, 1, 10))
+                .map(Booking::getId)
+                .toList();
+
+        assertEquals(List.of(1, 3, 4, 2), ids);
+        assertEquals(4, service.streamAllBookings().count());
+    }
+
+    @Test
+    public void streamBookingsForCustomerId_NonExistentCustomer_ThrowsException() {
+        assertThrows(CustomerNotFoundException.class, () ->
+                service.streamBookingsForCustomerId(999));
+    }
+
+    // ========== getBookingsPage() Tests ==========
+
+    @Test
+    public void getBookingsPage_WalkingCursors_ReturnsEveryBookingOnce() {
+        BookingPage first = service.getBookingsPage(null, 3);
+        BookingPage second = service.getBookingsPage(first.getNext(), 3);
+
+        assertEquals(List.of(1, 3, 4), first.getBookings().stream().map(Booking::getId).toList());
+        assertTrue(first.hasNext());
+        assertEquals(List.of(2), second.getBookings().stream().map(Booking::getId).toList());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    public void getBookingsPageForDateRange_CursorMidDate_ContinuesAfterCursor() {
+        BookingPage page = service.getBookingsPageForDateRange(LocalDate.of(2025, 10, 1), LocalDate.of(2025, 10, 1),
+                new BookingCursor(LocalDate.of(2025, 10, 1), 1), 5);
+
+        assertEquals(List.of(3, 4), page.getBookings().stream().map(Booking::getId).toList());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    public void getBookingsPageForCustomerId_ExactLimit_HasNoNextPage() {
+        service.addBooking(new Booking(5, 1, LocalDate.of(2026, 2, 1)));
+
+        BookingPage page = service.getBookingsPageForCustomerId(1, null, 2);
+
+        assertEquals(List.of(3, 5), page.getBookings().stream().map(Booking::getId).toList());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    public void getBookingsPage_ZeroLimit_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () ->
+                service.getBookingsPage(null, 0));
+    }
+
     // ========== getTotalWindowsForDate() Tests ==========
     
     @Test
@@ -388,6 +539,43 @@ class WindowCleaningServiceImplTest {
         });
     }
 
+    // ========== parallel aggregation Tests ==========
+
+    @Test
+    public void getTotalsForDateRange_ParallelAggregation_MatchesSequentialTotals() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            WindowCleaningServiceImpl parallelService = new WindowCleaningServiceImpl(bookingDAO, customerDAO,
+                    ServiceOptions.builder().clock(CLOCK).aggregationPool(pool).parallelAggregationThreshold(2).build());
+            for (int id = 10; id < 200; id++) {
+                service.addBooking(new Booking(id, 1 + id % 4, LocalDate.of(2025, 1, 1).plusDays(id * 7L)));
+            }
+
+            LocalDate start = LocalDate.of(2025, 1, 15);
+            LocalDate end = LocalDate.of(2028, 8, 20);
+            assertEquals(service.getTotalWindowsForDateRange(start, end), parallelService.getTotalWindowsForDateRange(start, end));
+            assertEquals(service.getTotalCostForDateRange(start, end), parallelService.getTotalCostForDateRange(start, end));
+            assertEquals(service.getTotalCostForDateRange(start, start), parallelService.getTotalCostForDateRange(start, start));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void getTotalWindowsForDateRange_ParallelAggregationMissingCustomer_ThrowsException() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            WindowCleaningServiceImpl parallelService = new WindowCleaningServiceImpl(bookingDAO, customerDAO,
+                    ServiceOptions.builder().clock(CLOCK).aggregationPool(pool).parallelAggregationThreshold(2).build());
+            bookingDAO.save(new Booking(98, 999, LocalDate.of(2026, 1, 1)));
+
+            assertThrows(CustomerNotFoundException.class, () ->
+                    parallelService.getTotalWindowsForDateRange(LocalDate.of(2025, 1, 1), LocalDate.of(2026, 11, 1)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     // ========== getTotalCostForBooking() Tests ==========
     
     @Test
@@ -490,6 +678,356 @@ class WindowCleaningServiceImplTest {
                 service.getTotalCostForDateRange(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 1)));
     }
 
+    // ========== rescheduleBooking() Tests ==========
+
+    @Test
+    public void rescheduleBooking_ValidDate_MovesBooking() {
+        service.rescheduleBooking(3, LocalDate.of(2026, 1, 10));
+
+        assertEquals(2, service.getAllBookingsForDate(LocalDate.of(2025, 10, 1)).size());
+        assertEquals(2, service.getAllBookingsForDate(LocalDate.of(2026, 1, 10)).size());
+        assertEquals(LocalDate.of(2026, 1, 10), service.getBookingByBookingId(3).getBookingDate());
+    }
+
+    @Test
+    public void rescheduleBooking_BookingNotFound_ThrowsException() {
+        assertThrows(BookingNotFoundException.class, () ->
+                service.rescheduleBooking(999, LocalDate.of(2026, 1, 10)));
+    }
+
+    @Test
+    public void rescheduleBooking_DateInPast_ThrowsException() {
+        assertThrows(BookingDateInThePastException.class, () ->
+                service.rescheduleBooking(3, LocalDate.of(2020, 1, 1)));
+    }
+
+    // ========== updateCustomerWindows() Tests ==========
+
+    @Test
+    public void updateCustomerWindows_ValidWindows_ChangesTotals() {
+        service.updateCustomerWindows(1, 20);
+
+        assertEquals(20, service.getCustomer(1).getWindows());
+        assertEquals(36, service.getTotalWindowsForDate(LocalDate.of(2025, 10, 1)));
+    }
+
+    @Test
+    public void updateCustomerWindows_InvalidWindows_ThrowsException() {
+        assertThrows(InvalidCustomerException.class, () ->
+                service.updateCustomerWindows(1, 0));
+    }
+
+    @Test
+    public void updateCustomerWindows_CustomerNotFound_ThrowsException() {
+        assertThrows(CustomerNotFoundException.class, () ->
+                service.updateCustomerWindows(999, 5));
+    }
+
+    // ========== Daily Totals Tests ==========
+
+    @Test
+    public void dailyTotals_AfterChanges_MatchScannedTotals() {
+        WindowCleaningServiceImpl totalsService = new WindowCleaningServiceImpl(bookingDAO, customerDAO,
+                ServiceOptions.builder().maintainDailyTotals(true).clock(CLOCK).build());
+
+        totalsService.addBooking(new Booking(5, 2, LocalDate.of(2025, 10, 1)));
+        totalsService.rescheduleBooking(1, LocalDate.of(2026, 1, 10));
+        totalsService.updateCustomerWindows(3, 20);
+
+        LocalDate start = LocalDate.of(2025, 9, 1);
+        LocalDate end = LocalDate.of(2026, 11, 1);
+        assertEquals(service.getTotalWindowsForDate(LocalDate.of(2025, 10, 1)), totalsService.getTotalWindowsForDate(LocalDate.of(2025, 10, 1)));
+        assertEquals(service.getTotalCostForDate(LocalDate.of(2026, 1, 10)), totalsService.getTotalCostForDate(LocalDate.of(2026, 1, 10)));
+        assertEquals(service.getTotalWindowsForDateRange(start, end), totalsService.getTotalWindowsForDateRange(start, end));
+        assertEquals(service.getTotalCostForDateRange(start, end), totalsService.getTotalCostForDateRange(start, end));
+        assertEquals(44, totalsService.getTotalWindowsForDateRange(start, end));
+    }
+
+    @Test
+    public void dailyTotals_BookingSavedThroughDAOWithMissingCustomer_ThrowsException() {
+        WindowCleaningServiceImpl totalsService = new WindowCleaningServiceImpl(bookingDAO, customerDAO,
+                ServiceOptions.builder().maintainDailyTotals(true).clock(CLOCK).build());
+
+        bookingDAO.save(new Booking(98, 999, LocalDate.of(2026, 1, 1)));
+
+        assertThrows(CustomerNotFoundException.class, () ->
+                totalsService.getTotalCostForDateRange(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 1)));
+        assertEquals(41, totalsService.getTotalCostForDateRange(LocalDate.of(2025, 9, 1), LocalDate.of(2025, 11, 1)));
+
+        totalsService.addCustomer(new Customer(999, "Yoko", 8));
+        assertEquals(5 + 8, totalsService.getTotalWindowsForDateRange(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 1)));
+    }
+
+    @Test
+    public void dailyTotals_FarFutureBooking_IncludedInTotals() {
+        WindowCleaningServiceImpl totalsService = new WindowCleaningServiceImpl(bookingDAO, customerDAO,
+                ServiceOptions.builder().maintainDailyTotals(true).clock(CLOCK).build());
+        LocalDate farFuture = LocalDate.of(5_000_000, 1, 1);
+
+        totalsService.addBooking(new Booking(5, 2, farFuture));
+        totalsService.addBooking(new Booking(6, 2, LocalDate.of(2025, 10, 2)));
+
+        LocalDate start = LocalDate.of(2025, 9, 1);
+        assertEquals(service.getTotalWindowsForDateRange(start, farFuture), totalsService.getTotalWindowsForDateRange(start, farFuture));
+        assertEquals(service.getTotalCostForDate(farFuture), totalsService.getTotalCostForDate(farFuture));
+    }
+
+    // ========== Daily Capacity Tests ==========
+
+    @Test
+    public void addBooking_DayAtCapacity_ThrowsException() {
+        WindowCleaningServiceImpl capacityService = capacityService(30);
+
+        // 2025-10-01 already has 26 windows booked
+        capacityService.addBooking(new Booking(5, 4, LocalDate.of(2025, 10, 1)));
+        assertThrows(CapacityExceededException.class, () ->
+                capacityService.addBooking(new Booking(6, 2, LocalDate.of(2025, 10, 1))));
+        assertEquals(ErrorCode.CAPACITY_EXCEEDED,
+                capacityService.tryAddBooking(new Booking(6, 2, LocalDate.of(2025, 10, 1))).getErrorCode());
+
+        assertEquals(5, capacityService.getAllBookings().size());
+    }
+
+    @Test
+    public void rescheduleBooking_ToFullDay_ThrowsAndKeepsDate() {
+        WindowCleaningServiceImpl capacityService = capacityService(30);
+
+        assertThrows(CapacityExceededException.class, () ->
+                capacityService.rescheduleBooking(2, LocalDate.of(2025, 10, 1)));
+        assertEquals(LocalDate.of(2026, 1, 10), capacityService.getBookingByBookingId(2).getBookingDate());
+
+        // the room freed by a move can be booked again
+        capacityService.rescheduleBooking(4, LocalDate.of(2026, 1, 10));
+        capacityService.rescheduleBooking(2, LocalDate.of(2025, 10, 1));
+        assertEquals(LocalDate.of(2025, 10, 1), capacityService.getBookingByBookingId(2).getBookingDate());
+    }
+
+    @Test
+    public void updateCustomerWindows_OverCapacity_ThrowsAndKeepsWindows() {
+        WindowCleaningServiceImpl capacityService = capacityService(30);
+
+        assertThrows(CapacityExceededException.class, () ->
+                capacityService.updateCustomerWindows(1, 15));
+        assertEquals(10, capacityService.getCustomer(1).getWindows());
+
+        capacityService.updateCustomerWindows(1, 14);
+        assertEquals(ErrorCode.CAPACITY_EXCEEDED,
+                capacityService.tryAddBooking(new Booking(5, 4, LocalDate.of(2025, 10, 1))).getErrorCode());
+    }
+
+    @Test
+    public void addBookings_OverCapacity_ReportsFailures() {
+        WindowCleaningServiceImpl capacityService = capacityService(30);
+
+        BulkLoadReport report = capacityService.addBookings(Arrays.asList(
+                new Booking(1, 2, LocalDate.of(2025, 10, 1)),
+                new Booking(5, 4, LocalDate.of(2025, 10, 1)),
+                new Booking(6, 4, LocalDate.of(2025, 10, 1)),
+                new Booking(7, 4, LocalDate.of(2025, 10, 2))));
+
+        assertEquals(2, report.getLoadedCount());
+        assertEquals(ErrorCode.DUPLICATE_BOOKING, report.getFailures().get(0).getErrorCode());
+        assertEquals(2, report.getFailures().get(1).getIndex());
+        assertEquals(ErrorCode.CAPACITY_EXCEEDED, report.getFailures().get(1).getErrorCode());
+    }
+
+    @Test
+    public void findNextAvailableDate_FullDays_ReturnsFirstDayWithRoom() {
+        WindowCleaningServiceImpl capacityService = capacityService(30);
+        capacityService.addBooking(new Booking(5, 3, LocalDate.of(2025, 10, 2)));
+        capacityService.addBooking(new Booking(6, 3, LocalDate.of(2025, 10, 2)));
+
+        assertEquals(LocalDate.of(2025, 10, 1), capacityService.findNextAvailableDate(4, LocalDate.of(2025, 10, 1)));
+        assertEquals(LocalDate.of(2025, 10, 3), capacityService.findNextAvailableDate(1, LocalDate.of(2025, 10, 1)));
+        // dates before today start the search today
+        assertEquals(LocalDate.of(2025, 1, 1), capacityService.findNextAvailableDate(3, LocalDate.of(2020, 1, 1)));
+    }
+
+    @Test
+    public void findNextAvailableDate_FarFutureDayFull_ReturnsNextDay() {
+        WindowCleaningServiceImpl capacityService = capacityService(100);
+        LocalDate farFuture = LocalDate.of(5_000_000, 1, 1);
+        for (int id = 5; id < 13; id++) {
+            capacityService.addBooking(new Booking(id, 3, farFuture));
+        }
+
+        assertThrows(CapacityExceededException.class, () -> capacityService.addBooking(new Booking(13, 2, farFuture)));
+        assertEquals(farFuture.plusDays(1), capacityService.findNextAvailableDate(2, farFuture));
+        assertEquals(farFuture, capacityService.findNextAvailableDate(4, farFuture));
+        assertEquals(LocalDate.of(2025, 10, 1), capacityService.findNextAvailableDate(3, LocalDate.of(2025, 10, 1)));
+    }
+
+    @Test
+    public void findNextAvailableDate_MoreWindowsThanCapacity_ThrowsException() {
+        WindowCleaningServiceImpl capacityService = capacityService(11);
+
+        assertThrows(CapacityExceededException.class, () ->
+                capacityService.findNextAvailableDate(3, LocalDate.of(2025, 10, 1)));
+        assertThrows(CustomerNotFoundException.class, () ->
+                capacityService.findNextAvailableDate(999, LocalDate.of(2025, 10, 1)));
+    }
+
+    @Test
+    public void findNextAvailableDate_NoCapacity_ReturnsFromDate() {
+        assertEquals(LocalDate.of(2025, 10, 1), service.findNextAvailableDate(3, LocalDate.of(2025, 10, 1)));
+        assertThrows(NullPointerException.class, () ->
+                service.findNextAvailableDate(3, null));
+    }
+
+    @Test
+    public void dailyCapacity_BookingSavedThroughDAO_IsCounted() {
+        WindowCleaningServiceImpl capacityService = capacityService(30);
+        assertTrue(capacityService.tryAddBooking(new Booking(5, 4, LocalDate.of(2025, 10, 1))).isOk());
+
+        bookingDAO.save(new Booking(6, 3, LocalDate.of(2026, 1, 10)));
+        bookingDAO.save(new Booking(7, 1, LocalDate.of(2026, 1, 10)));
+
+        assertEquals(LocalDate.of(2026, 1, 11), capacityService.findNextAvailableDate(4, LocalDate.of(2026, 1, 10)));
+    }
+
+    @Test
+    public void addBooking_WindowsChangedBeforeCapacityCheck_ChargesCurrentWindows() {
+        CopyingCustomerDAO copyingDAO = new CopyingCustomerDAO();
+        WindowCleaningServiceImpl capacityService = new WindowCleaningServiceImpl(new BookingDAOImpl(), copyingDAO,
+                ServiceOptions.builder().dailyWindowCapacity(10).clock(CLOCK).build());
+        capacityService.addCustomer(new Customer(1, "John", 1));
+        capacityService.addCustomer(new Customer(2, "Paul", 5));
+
+        // the customer is read with 1 window, then grows to 8 before the booking is charged
+        copyingDAO.beforeNextRead = () -> capacityService.updateCustomerWindows(1, 8);
+        capacityService.addBooking(new Booking(1, 1, LocalDate.of(2025, 10, 1)));
+
+        assertEquals(ErrorCode.CAPACITY_EXCEEDED,
+                capacityService.tryAddBooking(new Booking(2, 2, LocalDate.of(2025, 10, 1))).getErrorCode());
+    }
+
+    @Test
+    public void addBookings_WindowsChangedBeforeCapacityCheck_ChargesCurrentWindows() {
+        CopyingCustomerDAO copyingDAO = new CopyingCustomerDAO();
+        WindowCleaningServiceImpl capacityService = new WindowCleaningServiceImpl(new BookingDAOImpl(), copyingDAO,
+                ServiceOptions.builder().dailyWindowCapacity(10).clock(CLOCK).build());
+        capacityService.addCustomer(new Customer(1, "John", 1));
+        capacityService.addCustomer(new Customer(2, "Paul", 5));
+
+        copyingDAO.beforeNextRead = () -> capacityService.updateCustomerWindows(1, 8);
+        BulkLoadReport report = capacityService.addBookings(List.of(
+                new Booking(1, 1, LocalDate.of(2025, 10, 1)),
+                new Booking(2, 2, LocalDate.of(2025, 10, 1))));
+
+        assertEquals(1, report.getLoadedCount());
+        assertEquals(ErrorCode.CAPACITY_EXCEEDED, report.getFailures().get(0).getErrorCode());
+    }
+
+    private WindowCleaningServiceImpl capacityService(int dailyWindowCapacity) {
+        return new WindowCleaningServiceImpl(bookingDAO, customerDAO,
+                ServiceOptions.builder().dailyWindowCapacity(dailyWindowCapacity).maintainDailyTotals(true).clock(CLOCK).build());
+    }
+
+    /**
+     * Customer DAO that returns copies, as a DAO over another store does, and can run a change
+     * between taking a copy and returning it.
+     */
+    private static final class CopyingCustomerDAO extends CustomerDAOImpl {
+
+        /**
+         * Run once, after the next read has taken its copy.
+         */
+        private Runnable beforeNextRead;
+
+        @Override
+        public Optional<Customer> findById(int customerId) {
+            Optional<Customer> copy = super.findById(customerId).map(CopyingCustomerDAO::copyOf);
+            runChange();
+            return copy;
+        }
+
+        @Override
+        public IntObjectHashMap<Customer> findAllByIds(int[] customerIds) {
+            IntObjectHashMap<Customer> copies = new IntObjectHashMap<>(customerIds.length);
+            for (Customer customer : super.findAllByIds(customerIds).values()) {
+                copies.put(customer.getId(), copyOf(customer));
+            }
+            runChange();
+            return copies;
+        }
+
+        private void runChange() {
+            Runnable change = beforeNextRead;
+            beforeNextRead = null;
+            if (change != null) {
+                change.run();
+            }
+        }
+
+        private static Customer copyOf(Customer customer) {
+            return new Customer(customer.getId(), customer.getName(), customer.getWindows());
+        }
+    }
+
+    // ========== try methods Tests ==========
+
+    @Test
+    public void tryAddBooking_Rejections_ReturnErrorCodesWithoutAdding() {
+        assertEquals(ErrorCode.NULL_ARGUMENT, service.tryAddBooking(null).getErrorCode());
+        assertEquals(ErrorCode.BOOKING_DATE_IN_THE_PAST, service.tryAddBooking(new Booking(10, 1, LocalDate.of(2024, 12, 31))).getErrorCode());
+        assertEquals(ErrorCode.INVALID_BOOKING, service.tryAddBooking(new Booking(0, 1, LocalDate.of(2026, 1, 1))).getErrorCode());
+        assertEquals(ErrorCode.CUSTOMER_NOT_FOUND, service.tryAddBooking(new Booking(10, 999, LocalDate.of(2026, 1, 1))).getErrorCode());
+        assertEquals(ErrorCode.DUPLICATE_BOOKING, service.tryAddBooking(new Booking(1, 1, LocalDate.of(2026, 1, 1))).getErrorCode());
+
+        assertEquals(4, service.getAllBookings().size());
+    }
+
+    @Test
+    public void tryAddBooking_ValidBooking_AddsBooking() {
+        assertTrue(service.tryAddBooking(new Booking(10, 1, LocalDate.of(2025, 1, 1))).isOk());
+
+        assertEquals(LocalDate.of(2025, 1, 1), service.getBookingByBookingId(10).getBookingDate());
+    }
+
+    @Test
+    public void tryAddCustomer_Duplicate_ReturnsErrorCode() {
+        Result<Void> result = service.tryAddCustomer(new Customer(1, "John", 10));
+
+        assertEquals(ErrorCode.DUPLICATE_CUSTOMER, result.getErrorCode());
+        assertEquals("Duplicate Customer not allowed", result.getMessage());
+    }
+
+    @Test
+    public void tryGetCustomer_MissingAndPresent_ReturnsResult() {
+        Result<Customer> missing = service.tryGetCustomer(999);
+        assertEquals(ErrorCode.CUSTOMER_NOT_FOUND, missing.getErrorCode());
+        assertEquals("Customer not found", missing.getMessage());
+
+        assertEquals("John", service.tryGetCustomer(1).getValue().getName());
+    }
+
+    @Test
+    public void tryGetCustomerIdByName_Rejections_ReturnErrorCodes() {
+        assertEquals(1, service.tryGetCustomerIdByName("John").getValue());
+        assertEquals(ErrorCode.NULL_ARGUMENT, service.tryGetCustomerIdByName(null).getErrorCode());
+        assertEquals(ErrorCode.CUSTOMER_NOT_FOUND, service.tryGetCustomerIdByName("Nobody").getErrorCode());
+
+        service.addCustomer(new Customer(5, "John", 10));
+        assertEquals(ErrorCode.MULTIPLE_CUSTOMERS_FOUND, service.tryGetCustomerIdByName("John").getErrorCode());
+    }
+
+    @Test
+    public void tryRescheduleBooking_Rejections_ReturnErrorCodes() {
+        assertEquals(ErrorCode.NULL_ARGUMENT, service.tryRescheduleBooking(1, null).getErrorCode());
+        assertEquals(ErrorCode.BOOKING_DATE_IN_THE_PAST, service.tryRescheduleBooking(1, LocalDate.of(2024, 1, 1)).getErrorCode());
+        assertEquals(ErrorCode.BOOKING_NOT_FOUND, service.tryRescheduleBooking(999, LocalDate.of(2026, 1, 1)).getErrorCode());
+        assertEquals(ErrorCode.BOOKING_NOT_FOUND, service.tryGetBookingByBookingId(999).getErrorCode());
+    }
+
+    @Test
+    public void addBooking_ClockAfterBookingDate_ThrowsException() {
+        WindowCleaningServiceImpl laterService = new WindowCleaningServiceImpl(bookingDAO, customerDAO,
+                ServiceOptions.builder().clock(Clock.offset(CLOCK, Duration.ofDays(400))).build());
+
+        assertThrows(BookingDateInThePastException.class, () ->
+                laterService.addBooking(new Booking(10, 1, LocalDate.of(2026, 1, 1))));
+    }
+
     // ========== Edge Case Tests ==========
     @Test
     public void addCustomer_CustomerWithZeroWindows_ThrowsException() {
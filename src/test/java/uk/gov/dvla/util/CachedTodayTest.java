@@ -0,0 +1,73 @@
+package uk.gov.dvla.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedTodayTest {
+
+    /**
+     * Clock whose time is set by the test.
+     */
+    private static final class SettableClock extends Clock {
+        private Instant instant;
+
+        private SettableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.ofHours(2);
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    // ========== get() Tests ==========
+
+    @Test
+    public void get_TimeCrossesMidnightInClockZone_ReturnsNextDay() {
+        SettableClock clock = new SettableClock(Instant.parse("2025-01-01T21:59:59Z"));
+        CachedToday today = new CachedToday(clock);
+        assertEquals(LocalDate.of(2025, 1, 1), today.get());
+
+        clock.instant = clock.instant.plusSeconds(1);
+        assertEquals(LocalDate.of(2025, 1, 2), today.get());
+    }
+
+    @Test
+    public void get_ClockSetBack_ReturnsEarlierDay() {
+        SettableClock clock = new SettableClock(Instant.parse("2025-01-02T12:00:00Z"));
+        CachedToday today = new CachedToday(clock);
+        assertEquals(LocalDate.of(2025, 1, 2), today.get());
+
+        clock.instant = clock.instant.minus(Duration.ofDays(1));
+        assertEquals(LocalDate.of(2025, 1, 1), today.get());
+    }
+
+    @Test
+    public void get_SameDay_ReturnsSameInstance() {
+        SettableClock clock = new SettableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        CachedToday today = new CachedToday(clock);
+        LocalDate first = today.get();
+
+        clock.instant = clock.instant.plus(Duration.ofHours(12));
+        assertSame(first, today.get());
+    }
+}
@@ -0,0 +1,60 @@
+package uk.gov.dvla.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 100_000;
+
+    // ========== shardFor() Tests ==========
+
+    @Test
+    public void shardFor_ManyKeys_SpreadsEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(4, 128);
+
+        int[] counts = new int[4];
+        for (int key = 1; key <= KEYS; key++) {
+            counts[ring.shardFor(key)]++;
+        }
+
+        for (int count : counts) {
+            assertTrue(count > KEYS / 4 * 0.8 && count < KEYS / 4 * 1.2, "shard holds " + count + " keys");
+        }
+    }
+
+    @Test
+    public void shardFor_SmallKeys_UseEveryShard() {
+        ConsistentHashRing ring = new ConsistentHashRing(4, 128);
+
+        boolean[] used = new boolean[4];
+        for (int key = 1; key <= 40; key++) {
+            used[ring.shardFor(key)] = true;
+        }
+
+        assertArrayEquals(new boolean[]{true, true, true, true}, used);
+    }
+
+    @Test
+    public void shardFor_ShardAdded_MovesOnlyKeysToNewShard() {
+        ConsistentHashRing before = new ConsistentHashRing(4, 128);
+        ConsistentHashRing after = new ConsistentHashRing(5, 128);
+
+        int moved = 0;
+        for (int key = 1; key <= KEYS; key++) {
+            int oldShard = before.shardFor(key);
+            int newShard = after.shardFor(key);
+            if (oldShard != newShard) {
+                assertEquals(4, newShard);
+                moved++;
+            }
+        }
+        assertTrue(moved > KEYS / 5 * 0.8 && moved < KEYS / 5 * 1.2, moved + " keys moved");
+    }
+
+    @Test
+    public void constructor_NoShards_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(0, 128));
+    }
+}
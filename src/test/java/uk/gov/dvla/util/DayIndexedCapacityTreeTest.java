@@ -0,0 +1,99 @@
+package uk.gov.dvla.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+public class DayIndexedCapacityTreeTest {
+
+    @Test
+    public void firstDayWithRoom_EmptyTree_ReturnsFromDay() {
+        DayIndexedCapacityTree tree = new DayIndexedCapacityTree(100);
+
+        Assertions.assertEquals(500, tree.firstDayWithRoom(500, 100));
+        Assertions.assertEquals(DayIndexedCapacityTree.NO_DAY, tree.firstDayWithRoom(500, 101));
+    }
+
+    @Test
+    public void firstDayWithRoom_DaysUsedAcrossGrowth_MatchesBruteForce() {
+        DayIndexedCapacityTree tree = new DayIndexedCapacityTree(50);
+        long firstDay = 20_000;
+        long[] remaining = new long[10_000];
+        Arrays.fill(remaining, 50);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 40_000; i++) {
+            // days spread well beyond the initial coverage in both directions
+            int day = random.nextInt(remaining.length);
+            int amount = random.nextInt(15) - 3;
+            tree.use(firstDay + day, amount);
+            remaining[day] -= amount;
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            int from = random.nextInt(remaining.length);
+            int amount = 1 + random.nextInt(50);
+            long expected = firstDay + remaining.length;
+            for (int day = from; day < remaining.length; day++) {
+                if (remaining[day] >= amount) {
+                    expected = firstDay + day;
+                    break;
+                }
+            }
+            long found = tree.firstDayWithRoom(firstDay + from, amount);
+            // past the last day checked every day has room
+            Assertions.assertEquals(Math.min(expected, firstDay + remaining.length), Math.min(found, firstDay + remaining.length));
+            Assertions.assertEquals(remaining[from], tree.remaining(firstDay + from));
+        }
+    }
+
+    @Test
+    public void firstDayWithRoom_CoveredDaysFull_ReturnsFirstDayAfterThem() {
+        DayIndexedCapacityTree tree = new DayIndexedCapacityTree(10);
+        for (long day = -2_000; day <= 2_000; day++) {
+            tree.use(day, 10);
+        }
+
+        long found = tree.firstDayWithRoom(-2_000, 1);
+        Assertions.assertTrue(found > 2_000);
+        Assertions.assertEquals(10, tree.remaining(found));
+    }
+
+    @Test
+    public void use_CapacityGivenBack_HasRoomAgain() {
+        DayIndexedCapacityTree tree = new DayIndexedCapacityTree(10);
+        tree.use(7, 8);
+        Assertions.assertEquals(8, tree.firstDayWithRoom(7, 3));
+
+        tree.use(7, -8);
+        Assertions.assertEquals(7, tree.firstDayWithRoom(7, 10));
+    }
+
+    @Test
+    public void use_DaysCenturiesApart_KeepsFarDaysOutsideTree() {
+        DayIndexedCapacityTree tree = new DayIndexedCapacityTree(10);
+        long farFuture = LocalDate.of(5_000_000, 1, 1).toEpochDay();
+        tree.use(20_000, 10);
+        tree.use(farFuture, 10);
+        tree.use(farFuture + 1, 4);
+        tree.use(-farFuture, 10);
+
+        Assertions.assertEquals(0, tree.remaining(farFuture));
+        Assertions.assertEquals(6, tree.remaining(farFuture + 1));
+        Assertions.assertEquals(farFuture + 1, tree.firstDayWithRoom(farFuture, 6));
+        Assertions.assertEquals(farFuture + 2, tree.firstDayWithRoom(farFuture, 7));
+        Assertions.assertEquals(-farFuture + 1, tree.firstDayWithRoom(-farFuture, 1));
+        Assertions.assertEquals(20_001, tree.firstDayWithRoom(20_000, 10));
+
+        tree.use(farFuture, -10);
+        Assertions.assertEquals(farFuture, tree.firstDayWithRoom(farFuture, 10));
+    }
+
+    @Test
+    public void constructor_NegativeCapacity_ThrowsException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new DayIndexedCapacityTree(-1));
+    }
+}
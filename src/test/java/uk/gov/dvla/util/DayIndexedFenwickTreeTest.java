@@ -0,0 +1,70 @@
+package uk.gov.dvla.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+public class DayIndexedFenwickTreeTest {
+
+    @Test
+    public void sum_EmptyTree_ReturnsZero() {
+        Assertions.assertEquals(0, new DayIndexedFenwickTree().sum(0, 100));
+    }
+
+    @Test
+    public void sum_DaysAddedAcrossGrowth_MatchesBruteForce() {
+        DayIndexedFenwickTree tree = new DayIndexedFenwickTree();
+        long firstDay = 20_000;
+        long[] expected = new long[10_000];
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            // days spread well beyond the initial coverage in both directions
+            int day = random.nextInt(expected.length);
+            int delta = random.nextInt(21) - 10;
+            tree.add(firstDay + day, delta);
+            expected[day] += delta;
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            int from = random.nextInt(expected.length);
+            int to = from + random.nextInt(expected.length - from);
+            long sum = 0;
+            for (int day = from; day <= to; day++) {
+                sum += expected[day];
+            }
+            Assertions.assertEquals(sum, tree.sum(firstDay + from, firstDay + to));
+        }
+    }
+
+    @Test
+    public void sum_RangeOutsideCoveredDays_CountsUncoveredDaysAsZero() {
+        DayIndexedFenwickTree tree = new DayIndexedFenwickTree();
+        tree.add(100, 5);
+        tree.add(-3_000, 7);
+
+        Assertions.assertEquals(12, tree.sum(Long.MIN_VALUE, Long.MAX_VALUE));
+        Assertions.assertEquals(5, tree.sum(0, 1_000_000));
+        Assertions.assertEquals(0, tree.sum(200, 300));
+    }
+
+    @Test
+    public void add_DaysCenturiesApart_KeepsFarDaysOutsideTree() {
+        DayIndexedFenwickTree tree = new DayIndexedFenwickTree();
+        long farFuture = LocalDate.of(5_000_000, 1, 1).toEpochDay();
+        tree.add(20_000, 5);
+        tree.add(farFuture, 7);
+        tree.add(-farFuture, 11);
+        tree.add(farFuture, 2);
+
+        Assertions.assertEquals(25, tree.sum(Long.MIN_VALUE, Long.MAX_VALUE));
+        Assertions.assertEquals(9, tree.sum(farFuture, farFuture));
+        Assertions.assertEquals(14, tree.sum(0, farFuture));
+        Assertions.assertEquals(16, tree.sum(-farFuture, 20_000));
+
+        tree.add(farFuture, -9);
+        Assertions.assertEquals(5, tree.sum(0, Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,82 @@
+package uk.gov.dvla.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class IntObjectHashMapTest {
+
+    @Test
+    public void put_NewAndExistingKeys_ReturnsPreviousValue() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+
+        Assertions.assertNull(map.put(1, "one"));
+        Assertions.assertEquals("one", map.put(1, "uno"));
+        Assertions.assertEquals("uno", map.get(1));
+        Assertions.assertEquals(1, map.size());
+    }
+
+    @Test
+    public void putIfAbsent_ExistingKey_KeepsExistingValue() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        map.put(7, "seven");
+
+        Assertions.assertEquals("seven", map.putIfAbsent(7, "other"));
+        Assertions.assertEquals("seven", map.get(7));
+    }
+
+    @Test
+    public void get_ZeroAndNegativeKeys_AreMapped() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        map.put(0, "zero");
+        map.put(-5, "minus five");
+
+        Assertions.assertEquals("zero", map.get(0));
+        Assertions.assertEquals("minus five", map.get(-5));
+        Assertions.assertTrue(map.containsKey(0));
+        Assertions.assertEquals(2, map.size());
+        Assertions.assertEquals("zero", map.remove(0));
+        Assertions.assertFalse(map.containsKey(0));
+    }
+
+    @Test
+    public void values_AfterPuts_ContainsEveryValue() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        for (int key = 0; key < 100; key++) {
+            map.put(key, key);
+        }
+
+        List<Integer> values = new ArrayList<>(map.values());
+        Collections.sort(values);
+
+        Assertions.assertEquals(100, values.size());
+        Assertions.assertEquals(0, values.get(0));
+        Assertions.assertEquals(99, values.get(99));
+    }
+
+    @Test
+    public void randomOperations_MatchHashMap() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            // a small key space forces long probe sequences and frequent removals
+            int key = random.nextInt(2_000) - 100;
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                Assertions.assertEquals(expected.put(key, i), map.put(key, i));
+            } else if (operation == 1) {
+                Assertions.assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                Assertions.assertEquals(expected.get(key), map.get(key));
+            }
+        }
+
+        Assertions.assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            Assertions.assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+}
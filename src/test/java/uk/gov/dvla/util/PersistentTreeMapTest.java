@@ -0,0 +1,92 @@
+package uk.gov.dvla.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class PersistentTreeMapTest {
+
+    @Test
+    public void put_NewAndExistingKeys_LeavesOlderVersionsUnchanged() {
+        PersistentTreeMap<Integer, String> empty = PersistentTreeMap.empty();
+        PersistentTreeMap<Integer, String> one = empty.put(1, "one");
+        PersistentTreeMap<Integer, String> replaced = one.put(1, "uno");
+
+        Assertions.assertTrue(empty.isEmpty());
+        Assertions.assertNull(empty.get(1));
+        Assertions.assertEquals("one", one.get(1));
+        Assertions.assertEquals("uno", replaced.get(1));
+        Assertions.assertEquals(1, replaced.size());
+    }
+
+    @Test
+    public void remove_MissingKey_ReturnsSameMap() {
+        PersistentTreeMap<Integer, String> map = PersistentTreeMap.<Integer, String>empty().put(1, "one");
+
+        Assertions.assertSame(map, map.remove(2));
+        Assertions.assertTrue(map.remove(1).isEmpty());
+        Assertions.assertEquals("one", map.get(1));
+    }
+
+    @Test
+    public void putAndRemove_RandomKeys_MatchesTreeMapAtEveryVersion() {
+        Random random = new Random(42);
+        List<PersistentTreeMap<Integer, Integer>> versions = new ArrayList<>();
+        List<TreeMap<Integer, Integer>> expected = new ArrayList<>();
+        PersistentTreeMap<Integer, Integer> map = PersistentTreeMap.empty();
+        TreeMap<Integer, Integer> treeMap = new TreeMap<>();
+
+        for (int i = 0; i < 2000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                map = map.remove(key);
+                treeMap.remove(key);
+            } else {
+                map = map.put(key, i);
+                treeMap.put(key, i);
+            }
+            if (i % 100 == 0) {
+                versions.add(map);
+                expected.add(new TreeMap<>(treeMap));
+            }
+        }
+
+        for (int version = 0; version < versions.size(); version++) {
+            PersistentTreeMap<Integer, Integer> old = versions.get(version);
+            TreeMap<Integer, Integer> oldExpected = expected.get(version);
+            Assertions.assertEquals(oldExpected.size(), old.size());
+            Assertions.assertEquals(new ArrayList<>(oldExpected.values()), values(old.valueIterator()));
+            Assertions.assertEquals(new ArrayList<>(oldExpected.subMap(100, true, 200, false).values()),
+                    values(old.valueIterator(100, true, 200, false)));
+            Assertions.assertEquals(oldExpected.subMap(100, false, 200, true).size(), old.countBetween(100, false, 200, true));
+        }
+    }
+
+    @Test
+    public void valueIterator_RangeBounds_ReturnsValuesInKeyOrder() {
+        PersistentTreeMap<String, Integer> map = PersistentTreeMap.empty(Comparator.reverseOrder());
+        map = map.put("a", 1).put("c", 3).put("b", 2).put("d", 4);
+
+        Assertions.assertEquals(List.of(4, 3, 2, 1), values(map.valueIterator()));
+        Assertions.assertEquals(List.of(3, 2), values(map.valueIterator("c", true, "a", false)));
+        Assertions.assertEquals(List.of(), values(map.valueIterator("a", false, "d", true)));
+        Assertions.assertEquals(0, map.countBetween("a", true, "d", true));
+        Assertions.assertEquals(4, map.countBetween("e", true, "0", true));
+    }
+
+    @Test
+    public void valueIterator_Exhausted_ThrowsNoSuchElementException() {
+        Iterator<String> iterator = PersistentTreeMap.<Integer, String>empty().put(1, "one").valueIterator();
+
+        Assertions.assertEquals("one", iterator.next());
+        Assertions.assertFalse(iterator.hasNext());
+        Assertions.assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    private static <V> List<V> values(Iterator<V> iterator) {
+        List<V> values = new ArrayList<>();
+        iterator.forEachRemaining(values::add);
+        return values;
+    }
+}
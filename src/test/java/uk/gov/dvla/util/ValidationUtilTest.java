@@ -7,11 +7,14 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import uk.gov.dvla.model.Booking;
 import uk.gov.dvla.model.Customer;
+import uk.gov.dvla.model.ErrorCode;
+import uk.gov.dvla.model.Result;
 import uk.gov.dvla.model.exception.DuplicateEntityException;
 import uk.gov.dvla.model.exception.InvalidDateRangeException;
 
 import java.time.LocalDate;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 public class ValidationUtilTest {
@@ -72,6 +75,29 @@ public class ValidationUtilTest {
         });
     }
 
+    @Test
+    public void putIfAbsentInMap_WithDuplicate_ThrowsExceptionAndKeepsExisting() {
+        Customer existing = new Customer(1, "Nathan", 5);
+        Map<Integer, Customer> map = new ConcurrentHashMap<>(Map.of(1, existing));
+
+        DuplicateEntityException exception = Assertions.assertThrows(DuplicateEntityException.class, () -> {
+            ValidationUtil.putIfAbsentInMap(map, 1, new Customer(1, "Other", 3), "Customer");
+        });
+
+        Assertions.assertEquals("Duplicate Customer not allowed", exception.getMessage());
+        Assertions.assertSame(existing, map.get(1));
+    }
+
+    @Test
+    public void putIfAbsentInMap_WithNoDuplicate_PutsObject() {
+        Customer customer = new Customer(2, "Nathan", 5);
+        Map<Integer, Customer> map = new ConcurrentHashMap<>();
+
+        ValidationUtil.putIfAbsentInMap(map, 2, customer, "Customer");
+
+        Assertions.assertSame(customer, map.get(2));
+    }
+
     static Stream<Arguments> nullObjectTestCases() {
         return Stream.of(
                 Arguments.of(null, "Customer", "Customer cannot be null"),
@@ -117,4 +143,33 @@ public class ValidationUtilTest {
             ValidationUtil.checkStartDateIsBeforeEndDate(LocalDate.of(2024, 6, 10), LocalDate.of(2024, 6, 11));
         });
     }
+
+    @Test
+    public void validateBooking_DateInPast_ReturnsErrorCode() {
+        Result<Void> result = ValidationUtil.validateBooking(new Booking(1, 1, LocalDate.of(2024, 6, 9)), LocalDate.of(2024, 6, 10));
+
+        Assertions.assertFalse(result.isOk());
+        Assertions.assertEquals(ErrorCode.BOOKING_DATE_IN_THE_PAST, result.getErrorCode());
+        Assertions.assertEquals("Booking date cannot be in the past", result.getMessage());
+    }
+
+    @Test
+    public void validateBooking_ValidBooking_ReturnsOk() {
+        Assertions.assertTrue(ValidationUtil.validateBooking(new Booking(1, 1, LocalDate.of(2024, 6, 10)), LocalDate.of(2024, 6, 10)).isOk());
+    }
+
+    @Test
+    public void validateCustomer_NullOrInvalid_ReturnsErrorCodes() {
+        Assertions.assertEquals(ErrorCode.NULL_ARGUMENT, ValidationUtil.validateCustomer(null).getErrorCode());
+        Assertions.assertEquals(ErrorCode.INVALID_CUSTOMER, ValidationUtil.validateCustomer(new Customer(1, "Nathan", 0)).getErrorCode());
+        Assertions.assertTrue(ValidationUtil.validateCustomer(new Customer(1, "Nathan", 5)).isOk());
+    }
+
+    @Test
+    public void checkValidCustomerObject_NullCustomer_ThrowsSameExceptionAsBefore() {
+        NullPointerException exception = Assertions.assertThrows(NullPointerException.class, () ->
+                ValidationUtil.checkValidCustomerObject(null));
+
+        Assertions.assertEquals("Customer cannot be null", exception.getMessage());
+    }
 }